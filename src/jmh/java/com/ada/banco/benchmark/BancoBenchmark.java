@@ -0,0 +1,106 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.BancoApplication;
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.domain.usecase.GeradorCodigoOperacao;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabaseFake;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Base dos benchmarks: as mesmas rodadas de aquecimento e medição e o preparo que todos repetem.
+ *
+ * A aplicação sobe sem web, a menos que o benchmark peça, com o despacho de e-mails parado e o log
+ * só com avisos. As propriedades vão como argumentos de linha de comando: passadas como propriedades
+ * padrão, perderiam para as do {@code application.properties}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class BancoBenchmark {
+    private static final List<String> PROPRIEDADES = List.of("banco.codigo-operacao.no=0",
+            "banco.notificacao.intervalo=3600000", "logging.level.root=WARN");
+
+    protected ConfigurableApplicationContext contexto;
+
+    protected void iniciar(String... propriedades) {
+        iniciar(WebApplicationType.NONE, propriedades);
+    }
+
+    protected void iniciar(WebApplicationType web, String... propriedades) {
+        List<String> argumentos = new ArrayList<>();
+        PROPRIEDADES.forEach(propriedade -> argumentos.add("--" + propriedade));
+        for (String propriedade : propriedades) {
+            argumentos.add("--" + propriedade);
+        }
+        contexto = new SpringApplicationBuilder(BancoApplication.class).web(web).run(argumentos.toArray(String[]::new));
+    }
+
+    protected <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    /**
+     * O gateway em memória dos testes, vazio. As contas dele são estáticas, então são apagadas de novo no fim.
+     */
+    protected static ContaGatewayDatabaseFake gatewayEmMemoria() {
+        ContaGatewayDatabaseFake.contaRepositoryFake.clear();
+        return new ContaGatewayDatabaseFake();
+    }
+
+    protected ContaUseCase casoDeUso(ContaGateway contaGateway) {
+        return casoDeUso(contaGateway, cpf -> { });
+    }
+
+    /**
+     * Com a aplicação no ar, usa o gerador de códigos dela, para não haver dois geradores no mesmo nó.
+     */
+    protected ContaUseCase casoDeUso(ContaGateway contaGateway, EmailGateway emailGateway) {
+        GeradorCodigoOperacao gerador = contexto != null ? bean(GeradorCodigoOperacao.class) : new GeradorCodigoOperacao(0);
+        return new ContaUseCase(contaGateway, emailGateway, gerador);
+    }
+
+    /**
+     * Cria as contas de id 1 a {@code quantidade} em um lote só.
+     */
+    protected static List<Conta> criarContas(ContaGateway contaGateway, int quantidade, LongFunction<Conta> conta) {
+        List<Conta> contas = new ArrayList<>(quantidade);
+        for (long id = 1; id <= quantidade; id++) {
+            contas.add(conta.apply(id));
+        }
+        contaGateway.criarEmLote(contas);
+        return contas;
+    }
+
+    /**
+     * Um id entre 1 e {@code quantidade}.
+     */
+    protected static long aleatorio(long quantidade) {
+        return ThreadLocalRandom.current().nextLong(1, quantidade + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrarBase() {
+        if (contexto != null) {
+            contexto.close();
+        }
+        ContaGatewayDatabaseFake.contaRepositoryFake.clear();
+    }
+}
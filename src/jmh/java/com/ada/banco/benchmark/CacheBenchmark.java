@@ -0,0 +1,60 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.cache.ContaGatewayCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leituras de conta e transferências recusadas no H2, direto no {@link ContaGatewayDatabase} e
+ * através do {@link ContaGatewayCache}. A recusa é o caminho em que o caso de uso lê as duas contas
+ * para descobrir o motivo.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CacheBenchmark extends BancoBenchmark {
+    private static final Dinheiro VALOR = Dinheiro.de("1.00");
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    @Param({"1000", "100000"})
+    public int contas;
+
+    private ContaGateway contaGateway;
+    private ContaUseCase contaUseCase;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar();
+        ContaGatewayDatabase banco = bean(ContaGatewayDatabase.class);
+        criarContas(banco, contas, id -> new Conta(id, 1L, 1L, Dinheiro.ZERO, "Titular " + id, String.format("%011d", id)));
+        contaGateway = cache ? new ContaGatewayCache(banco, contas, Duration.ofMinutes(10)) : banco;
+        contaUseCase = casoDeUso(contaGateway, bean(EmailGateway.class));
+    }
+
+    @Benchmark
+    public Conta buscarPorId() {
+        return contaGateway.buscarPorId(aleatorio(contas));
+    }
+
+    @Benchmark
+    public Resultado<Long> transferirSemSaldo() {
+        long idOut = aleatorio(contas);
+        return contaUseCase.tentarTransferir(idOut, idOut % contas + 1, VALOR);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.usecase.GeradorCodigoOperacao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão do {@link GeradorCodigoOperacao} comparada ao {@code Math.random()} que ele substituiu,
+ * que é compartilhado entre as threads. Com {@code -Djmh.threads} acima de 1, as threads do
+ * gerador dividem um contador, mas sem repetir em laço como um CAS.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CodigoOperacaoBenchmark extends BancoBenchmark {
+    private final GeradorCodigoOperacao gerador = new GeradorCodigoOperacao(0);
+
+    @Benchmark
+    public long gerador() {
+        return gerador.gerar();
+    }
+
+    @Benchmark
+    public long mathRandom() {
+        return 10000000L + (long) (Math.random() * 9999999L);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.ada.banco.infra.gateway.bd.ContasQuentes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Depósitos concorrentes numa conta só, no H2, com e sem as fatias de saldo de {@link ContasQuentes}.
+ * A disputa pela linha da conta só aparece com várias threads: {@code -Djmh.threads=1,8}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContaQuenteBenchmark extends BancoBenchmark {
+    private static final Long CONTA = 1L;
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    @Param({"false", "true"})
+    public boolean fatias;
+
+    private ContaUseCase contaUseCase;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        iniciar();
+        contaUseCase = casoDeUso(bean(ContaGatewayDatabase.class), bean(EmailGateway.class));
+        contaUseCase.criar(new Conta(CONTA, 1L, 1L, Dinheiro.ZERO, "Loja", "00000000000"));
+        if (fatias) {
+            bean(ContasQuentes.class).marcar(CONTA);
+            // as fatias são criadas pela consolidação
+            bean(ContaJdbcRepository.class).consolidar(CONTA);
+        }
+    }
+
+    @Benchmark
+    public Dinheiro depositar() throws Exception {
+        return contaUseCase.depositar(CONTA, VALOR);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ResultadoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vazão das operações de {@link ContaUseCase} contra o gateway em memória usado nos testes
+ * e contra o {@link ContaGatewayDatabase} no H2. Cada CPF tem {@link #CONTAS_POR_CPF} contas.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContaUseCaseBenchmark extends BancoBenchmark {
+    private static final int CONTAS_POR_CPF = 10;
+    private static final int TAMANHO_LOTE = 500;
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.de("1000000000.00");
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    @Param({"memoria", "h2"})
+    public String gateway;
+
+    @Param({"1000", "100000"})
+    public int contas;
+
+    private ContaUseCase contaUseCase;
+    private AtomicLong proximoId;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ContaGateway contaGateway;
+        if ("h2".equals(gateway)) {
+            iniciar();
+            contaGateway = bean(ContaGatewayDatabase.class);
+            contaUseCase = casoDeUso(contaGateway, bean(EmailGateway.class));
+        } else {
+            contaGateway = gatewayEmMemoria();
+            contaUseCase = casoDeUso(contaGateway);
+        }
+        criarContas(contaGateway, contas, id -> new Conta(id, 1L, 1L, SALDO_INICIAL, "Titular " + id, cpf(id)));
+        proximoId = new AtomicLong(contas + 1L);
+    }
+
+    @Benchmark
+    public Conta criar() throws Exception {
+        long id = proximoId.getAndIncrement();
+        return contaUseCase.criar(new Conta(id, 1L, 1L, Dinheiro.ZERO, "Titular " + id, cpf(id)));
+    }
+
+    @Benchmark
+    public Dinheiro depositar() throws Exception {
+        return contaUseCase.depositar(aleatorio(contas), VALOR);
+    }
+
+    @Benchmark
+    public Dinheiro sacar() throws Exception {
+        return contaUseCase.sacar(aleatorio(contas), VALOR);
+    }
+
+    @Benchmark
+    public Long transferir() throws Exception {
+        long idOut = aleatorio(contas);
+        long idIn = idOut % contas + 1;
+        return contaUseCase.transferir(idOut, idIn, VALOR);
+    }
+
+    /**
+     * Vazão por transferência, para comparar com {@link #transferir()}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TAMANHO_LOTE)
+    public List<ResultadoTransferencia> transferirEmLote() {
+        List<Transferencia> lote = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < TAMANHO_LOTE; i++) {
+            long idOut = aleatorio(contas);
+            lote.add(new Transferencia(idOut, idOut % contas + 1, VALOR));
+        }
+        return contaUseCase.transferirEmLote(lote);
+    }
+
+    @Benchmark
+    public List<Conta> listarPorCpf() throws Exception {
+        return contaUseCase.listarPorCpf(cpf(aleatorio(contas)));
+    }
+
+    private String cpf(long id) {
+        return String.format("%011d", id % Math.max(1, contas / CONTAS_POR_CPF));
+    }
+}
@@ -0,0 +1,68 @@
+package com.ada.banco.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.BenchmarkList;
+import org.openjdk.jmh.runner.BenchmarkListEntry;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.format.OutputFormatFactory;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Roda os benchmarks uma vez para cada quantidade de threads em {@code jmh.threads},
+ * sempre com o profiler de GC para a alocação por operação aparecer junto da vazão.
+ * {@code jmh.contas} só vale para os benchmarks que declaram o parâmetro {@code contas};
+ * os outros rodam com os próprios parâmetros.
+ */
+public class ExecutarBenchmarks {
+    private static final String CONTAS = "contas";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String filtro = System.getProperty("jmh.filtro", ContaUseCaseBenchmark.class.getSimpleName());
+        String[] contas = System.getProperty("jmh.contas", "1000,100000").split(",");
+        Path resultados = Files.createDirectories(Path.of("target", "jmh"));
+
+        List<String> comContas = new ArrayList<>();
+        List<String> semContas = new ArrayList<>();
+        for (BenchmarkListEntry benchmark : BenchmarkList.defaultList().find(
+                OutputFormatFactory.createFormatInstance(System.out, VerboseMode.SILENT), List.of(filtro), List.of())) {
+            Map<String, String[]> parametros = benchmark.getParams().orElse(Map.of());
+            String nome = "^" + Pattern.quote(benchmark.getUsername()) + "$";
+            (parametros.containsKey(CONTAS) ? comContas : semContas).add(nome);
+        }
+
+        for (String threads : System.getProperty("jmh.threads", "1,4").split(",")) {
+            int quantidade = Integer.parseInt(threads.trim());
+            List<RunResult> execucoes = new ArrayList<>();
+            if (!comContas.isEmpty()) {
+                execucoes.addAll(new Runner(opcoes(comContas, quantidade).param(CONTAS, contas).build()).run());
+            }
+            if (!semContas.isEmpty()) {
+                execucoes.addAll(new Runner(opcoes(semContas, quantidade).build()).run());
+            }
+            ResultFormatFactory.getInstance(ResultFormatType.JSON,
+                    resultados.resolve("resultado-" + quantidade + "-threads.json").toString()).writeOut(execucoes);
+        }
+    }
+
+    private static ChainedOptionsBuilder opcoes(List<String> benchmarks, int threads) {
+        ChainedOptionsBuilder opcoes = new OptionsBuilder()
+                .threads(threads)
+                .addProfiler(GCProfiler.class);
+        benchmarks.forEach(opcoes::include);
+        return opcoes;
+    }
+}
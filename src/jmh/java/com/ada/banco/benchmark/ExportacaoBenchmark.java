@@ -0,0 +1,54 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.exportacao.EscritorCsv;
+import com.ada.banco.infra.exportacao.FormatoColunar;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exportação de todas as contas do H2 em CSV com gzip e no formato colunar, para uma saída descartada.
+ * O heap alocado por exportação aparece no {@code gc.alloc.rate.norm} do GCProfiler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportacaoBenchmark extends BancoBenchmark {
+    @Param({"1000", "100000"})
+    public int contas;
+
+    private ContaUseCase contaUseCase;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar();
+        criarContas(bean(ContaGatewayDatabase.class), contas, id -> new Conta(id, id % 100, id % 10,
+                Dinheiro.deCentavos(id * 37), "Titular " + id, String.format("%011d", id)));
+        contaUseCase = bean(ContaUseCase.class);
+    }
+
+    @Benchmark
+    public void csv() throws IOException {
+        EscritorCsv escritor = new EscritorCsv(OutputStream.nullOutputStream());
+        contaUseCase.exportar(escritor);
+        escritor.terminar();
+    }
+
+    @Benchmark
+    public void colunar() throws IOException {
+        FormatoColunar.Escritor escritor = new FormatoColunar.Escritor(OutputStream.nullOutputStream(), 4096);
+        contaUseCase.exportar(escritor);
+        escritor.terminar();
+    }
+}
@@ -0,0 +1,85 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ExtratoRecente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Páginas do extrato de uma conta no H2, com {@value #CONTAS} contas de {@value #MOVIMENTACOES_POR_CONTA}
+ * lançamentos cada no razão. Pelo índice (conta, data), as páginas do fim custam o mesmo que a primeira.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExtratoBenchmark extends BancoBenchmark {
+    private static final Instant INICIO = Instant.parse("2026-01-01T00:00:00Z");
+    private static final int CONTAS = 1_000;
+    private static final int MOVIMENTACOES_POR_CONTA = 200;
+    private static final long CONTA = CONTAS / 2;
+    private static final int PAGINA = 20;
+
+    private ContaGatewayDatabase contaGateway;
+    private int semCache;
+    private Long meio;
+    private Long fim;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar("banco.movimentacao.consolidacao.intervalo=3600000");
+        contaGateway = bean(ContaGatewayDatabase.class);
+        criarContas(contaGateway, CONTAS, id -> new Conta(id, 1L, 1L, Dinheiro.ZERO, "Titular " + id, "cpf-" + id));
+        List<Object[]> lancamentos = new ArrayList<>();
+        for (int i = 0; i < MOVIMENTACOES_POR_CONTA; i++) {
+            for (long id = 1; id <= CONTAS; id++) {
+                lancamentos.add(new Object[]{id, Timestamp.from(INICIO.plusSeconds(i))});
+            }
+        }
+        bean(JdbcTemplate.class).batchUpdate("insert into movimentacao (conta_id, valor, tipo, data_hora, consolidada) "
+                + "values (?, 1.00, 'DEPOSITO', ?, true)", lancamentos);
+
+        List<Movimentacao> todas = contaGateway.extrato(CONTA, null, null, null, MOVIMENTACOES_POR_CONTA);
+        meio = todas.get(MOVIMENTACOES_POR_CONTA / 2).getId();
+        fim = todas.get(MOVIMENTACOES_POR_CONTA - PAGINA - 1).getId();
+        // uma página maior que a guardada no cache vai sempre ao banco
+        semCache = bean(ExtratoRecente.class).getQuantidade() + 1;
+    }
+
+    @Benchmark
+    public List<Movimentacao> primeiraPaginaSemCache() {
+        return contaGateway.extrato(CONTA, null, null, null, semCache);
+    }
+
+    @Benchmark
+    public List<Movimentacao> paginaDoMeio() {
+        return contaGateway.extrato(CONTA, null, null, meio, PAGINA);
+    }
+
+    @Benchmark
+    public List<Movimentacao> ultimaPagina() {
+        return contaGateway.extrato(CONTA, null, null, fim, PAGINA);
+    }
+
+    @Benchmark
+    public List<Movimentacao> porPeriodo() {
+        return contaGateway.extrato(CONTA, INICIO.plusSeconds(50), INICIO.plusSeconds(150), null, PAGINA);
+    }
+
+    @Benchmark
+    public List<Movimentacao> recentesPeloCache() {
+        return contaGateway.extrato(CONTA, null, null, null, PAGINA);
+    }
+}
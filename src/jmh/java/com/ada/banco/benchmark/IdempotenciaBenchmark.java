@@ -0,0 +1,53 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.idempotencia.RegistroIdempotencia;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de responder uma repetição pelo cache do {@link RegistroIdempotencia}, comparado ao de
+ * executar a transferência no H2 sem chave.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IdempotenciaBenchmark extends BancoBenchmark {
+    private static final String CHAVE = "repetida";
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    private RegistroIdempotencia registroIdempotencia;
+    private ContaGatewayDatabase contaGateway;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar();
+        registroIdempotencia = bean(RegistroIdempotencia.class);
+        contaGateway = bean(ContaGatewayDatabase.class);
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("1000000000.00"), "Origem", "00000000001"));
+        contaGateway.salvar(new Conta(2L, 1L, 1L, Dinheiro.ZERO, "Destino", "00000000002"));
+        registroIdempotencia.executar(CHAVE, CHAVE, this::transferir);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> repetir() {
+        return registroIdempotencia.executar(CHAVE, CHAVE, this::transferir);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> executarSemChave() {
+        return registroIdempotencia.executar(null, null, this::transferir);
+    }
+
+    private ResponseEntity<String> transferir() {
+        return ResponseEntity.ok(String.valueOf(contaGateway.transferir(1L, 2L, VALOR)));
+    }
+}
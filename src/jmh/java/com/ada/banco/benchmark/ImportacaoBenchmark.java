@@ -0,0 +1,54 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.infra.controller.ContaController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão, em contas por segundo, da importação por CSV no H2: cada chamada importa
+ * {@value #CONTAS_POR_ARQUIVO} contas novas pelo {@link ContaController}, em lotes de {@code banco.importacao.lote}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ImportacaoBenchmark extends BancoBenchmark {
+    private static final int CONTAS_POR_ARQUIVO = 2_000;
+
+    private ContaController contaController;
+    private long proximoId = 1;
+    private byte[] csv;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar();
+        contaController = bean(ContaController.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void gerarArquivo() {
+        StringBuilder conteudo = new StringBuilder("id,agencia,digito,saldo,titular,cpf\n");
+        for (int i = 0; i < CONTAS_POR_ARQUIVO; i++, proximoId++) {
+            conteudo.append(proximoId).append(",1,").append(proximoId % 10).append(",10.00,Titular ")
+                    .append(proximoId).append(',').append(String.format("%011d", proximoId)).append('\n');
+        }
+        csv = conteudo.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTAS_POR_ARQUIVO)
+    public MockHttpServletResponse importarCsv() throws IOException {
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        contaController.importar("text/csv", new ByteArrayInputStream(csv), resposta);
+        return resposta;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.memoria.ContaGatewayMemoria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de depósito e saque no {@link ContaGatewayMemoria}, que só responde depois de o
+ * registro chegar ao log, com e sem fsync a cada gravação. O log fica num diretório temporário.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemoriaBenchmark extends BancoBenchmark {
+    private static final Long CONTA = 1L;
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    @Param({"false", "true"})
+    public boolean sincronizar;
+
+    private Path diretorio;
+    private ContaGatewayMemoria gateway;
+    private ContaUseCase contaUseCase;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        diretorio = Files.createTempDirectory("memoria-benchmark");
+        gateway = new ContaGatewayMemoria(diretorio, sincronizar);
+        gateway.salvar(new Conta(CONTA, 1L, 1L, Dinheiro.de("1000000000.00"), "Titular", "00000000000"));
+        contaUseCase = casoDeUso(gateway);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        gateway.fechar();
+        FileSystemUtils.deleteRecursively(diretorio);
+    }
+
+    @Benchmark
+    public Dinheiro depositar() throws Exception {
+        return contaUseCase.depositar(CONTA, VALOR);
+    }
+
+    @Benchmark
+    public Dinheiro sacar() throws Exception {
+        return contaUseCase.sacar(CONTA, VALOR);
+    }
+}
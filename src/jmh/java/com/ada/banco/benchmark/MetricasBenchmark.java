@@ -0,0 +1,52 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabaseFake;
+import com.ada.banco.infra.metricas.MetricasAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do {@link MetricasAspect} por chamada: o mesmo depósito no gateway em memória,
+ * com e sem o proxy de métricas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricasBenchmark extends BancoBenchmark {
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    private ContaUseCase semMetricas;
+    private ContaUseCase comMetricas;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ContaGatewayDatabaseFake contaGateway = gatewayEmMemoria();
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.ZERO, "Titular", "00000000000"));
+        semMetricas = casoDeUso(contaGateway);
+
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(casoDeUso(contaGateway));
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(new MetricasAspect(new SimpleMeterRegistry()));
+        comMetricas = fabrica.getProxy();
+    }
+
+    @Benchmark
+    public Dinheiro depositarSemMetricas() throws Exception {
+        return semMetricas.depositar(1L, VALOR);
+    }
+
+    @Benchmark
+    public Dinheiro depositarComMetricas() throws Exception {
+        return comMetricas.depositar(1L, VALOR);
+    }
+}
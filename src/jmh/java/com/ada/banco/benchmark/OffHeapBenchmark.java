@@ -0,0 +1,105 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.memoria.ContaGatewayMemoria;
+import com.ada.banco.infra.gateway.offheap.ContaGatewayOffHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leituras e créditos no {@link ContaGatewayOffHeap} comparados ao {@link ContaGatewayMemoria}
+ * (sem fsync) e ao {@link ContaGatewayDatabase} com JPA no H2. A pegada de cada conta nova aparece
+ * em {@link #salvar()}, no {@code gc.alloc.rate.norm} do profiler de GC que o
+ * {@link ExecutarBenchmarks} sempre liga.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OffHeapBenchmark extends BancoBenchmark {
+    private static final int CONTAS_POR_CPF = 10;
+    private static final int TAMANHO_PAGINA = 20;
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    @Param({"jpa", "memoria", "offheap"})
+    public String gateway;
+
+    @Param({"1000", "100000"})
+    public int contas;
+
+    private Path diretorio;
+    private ContaGateway contaGateway;
+    private AtomicLong proximoId;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        if ("jpa".equals(gateway)) {
+            iniciar();
+            contaGateway = bean(ContaGatewayDatabase.class);
+        } else if ("offheap".equals(gateway)) {
+            contaGateway = new ContaGatewayOffHeap(contas);
+        } else {
+            diretorio = Files.createTempDirectory("offheap-benchmark");
+            contaGateway = new ContaGatewayMemoria(diretorio, false);
+        }
+        criarContas(contaGateway, contas, id -> new Conta(id, 1L, 1L, Dinheiro.de("100.00"), "Titular " + id, cpf(id)));
+        proximoId = new AtomicLong(contas + 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        if (contaGateway instanceof ContaGatewayMemoria memoria) {
+            memoria.fechar();
+            FileSystemUtils.deleteRecursively(diretorio);
+        }
+    }
+
+    @Benchmark
+    public Conta salvar() {
+        long id = proximoId.getAndIncrement();
+        return contaGateway.salvar(new Conta(id, 1L, 1L, Dinheiro.de("100.00"), "Titular " + id, cpf(id)));
+    }
+
+    @Benchmark
+    public Conta buscarPorId() {
+        return contaGateway.buscarPorId(contaAleatoria());
+    }
+
+    @Benchmark
+    public int creditar() {
+        return contaGateway.creditar(contaAleatoria(), VALOR);
+    }
+
+    @Benchmark
+    public List<Conta> listarPorCpf() {
+        return contaGateway.listarPorCpf(cpf(contaAleatoria()));
+    }
+
+    @Benchmark
+    public List<Conta> listarPagina() {
+        return contaGateway.listarPagina(contaAleatoria(), TAMANHO_PAGINA);
+    }
+
+    private long contaAleatoria() {
+        return aleatorio(contas);
+    }
+
+    private String cpf(long id) {
+        return String.format("%011d", id % Math.max(1, contas / CONTAS_POR_CPF));
+    }
+}
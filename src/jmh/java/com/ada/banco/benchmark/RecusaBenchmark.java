@@ -0,0 +1,51 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabaseFake;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de um saque recusado por falta de saldo, devolvido como {@link Resultado} e lançado como exceção,
+ * no gateway em memória usado nos testes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecusaBenchmark extends BancoBenchmark {
+    private static final Long CONTA = 1L;
+    private static final Dinheiro VALOR = Dinheiro.de("50.00");
+
+    private ContaUseCase contaUseCase;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        ContaGatewayDatabaseFake contaGateway = gatewayEmMemoria();
+        contaGateway.salvar(new Conta(CONTA, 1L, 1L, Dinheiro.de("10.00"), "Titular", "00000000000"));
+        contaUseCase = casoDeUso(contaGateway);
+    }
+
+    @Benchmark
+    public Resultado<Dinheiro> recusarComResultado() {
+        return contaUseCase.tentarSacar(CONTA, VALOR);
+    }
+
+    @Benchmark
+    public Exception recusarComExcecao() throws Exception {
+        try {
+            contaUseCase.sacar(CONTA, VALOR);
+            throw new IllegalStateException("o saque deveria ter sido recusado");
+        } catch (ContaSaldoInsuficienteException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.ada.banco.infra.gateway.bd.ResumoAgencias;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumo de uma agência mantido em memória por {@link ResumoAgencias} contra o mesmo resumo agregado
+ * no H2. Só o segundo cresce com o número de contas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResumoAgenciaBenchmark extends BancoBenchmark {
+    private static final int AGENCIAS = 10;
+
+    @Param({"1000", "100000"})
+    public int contas;
+
+    private ContaGatewayDatabase contaGateway;
+    private ContaJdbcRepository contaJdbcRepository;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar("banco.resumo-agencias.gravacao.intervalo=3600000");
+        contaGateway = bean(ContaGatewayDatabase.class);
+        contaJdbcRepository = bean(ContaJdbcRepository.class);
+        criarContas(contaGateway, contas, id -> new Conta(id, id % AGENCIAS, 1L, Dinheiro.de("100.00"), "Titular " + id, "cpf-" + id));
+    }
+
+    @Benchmark
+    public ResumoAgencia mantidoEmMemoria() {
+        return contaGateway.resumirAgencia(agenciaAleatoria());
+    }
+
+    @Benchmark
+    public ResumoAgencia agregadoNoBanco() {
+        return contaJdbcRepository.resumirAgencia(agenciaAleatoria());
+    }
+
+    private static Long agenciaAleatoria() {
+        return aleatorio(AGENCIAS) - 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.shard.ContaGatewayShards;
+import com.ada.banco.infra.gateway.shard.RoteadorPorAgencia;
+import com.ada.banco.infra.gateway.shard.RoteadorShards;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contas divididas por agência entre o H2 principal e mais dois bancos H2: transferência dentro de um
+ * shard, transferência entre shards e busca por CPF, que consulta todos eles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShardsBenchmark extends BancoBenchmark {
+    private static final String SHARD_1 = "jdbc:h2:mem:benchmark-shard1;DB_CLOSE_DELAY=-1";
+    private static final String SHARD_2 = "jdbc:h2:mem:benchmark-shard2;DB_CLOSE_DELAY=-1";
+    private static final int SHARDS = 3;
+    private static final int AGENCIAS = 12;
+    private static final int CONTAS = 600;
+    private static final Dinheiro VALOR = Dinheiro.de("0.01");
+
+    private ContaGatewayShards contaGateway;
+    private ContaUseCase contaUseCase;
+    private long mesmoShard;
+    private long outroShard;
+    private boolean ida;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar("banco.shards.habilitado=true", "banco.shards.urls=" + SHARD_1 + "," + SHARD_2,
+                "banco.shards.roteamento=agencia", "banco.shards.criar-esquema=true");
+        contaGateway = bean(ContaGatewayShards.class);
+        contaUseCase = bean(ContaUseCase.class);
+        List<Conta> contas = criarContas(contaGateway, CONTAS,
+                id -> new Conta(id, id % AGENCIAS, 1L, Dinheiro.de("100.00"), "Titular " + id, "cpf-" + id % 100));
+
+        // a conta 1 e a 1 + AGENCIAS são da mesma agência
+        mesmoShard = 1 + AGENCIAS;
+        RoteadorShards roteador = new RoteadorPorAgencia();
+        int shardDaConta = roteador.shardDe(contas.get(0), SHARDS);
+        outroShard = contas.stream().limit(AGENCIAS).filter(conta -> roteador.shardDe(conta, SHARDS) != shardDaConta)
+                .findFirst().orElseThrow().getId();
+    }
+
+    @Benchmark
+    public boolean transferirNoMesmoShard() {
+        return transferirIdaEVolta(mesmoShard);
+    }
+
+    @Benchmark
+    public boolean transferirEntreShards() {
+        return transferirIdaEVolta(outroShard);
+    }
+
+    @Benchmark
+    public List<Conta> listarPorCpf() throws Exception {
+        return contaUseCase.listarPorCpf("cpf-" + (aleatorio(100) - 1));
+    }
+
+    /**
+     * Alterna o sentido a cada chamada para os saldos não se esgotarem.
+     */
+    private boolean transferirIdaEVolta(long outra) {
+        ida = !ida;
+        return ida ? contaGateway.transferir(1L, outra, VALOR) : contaGateway.transferir(outra, 1L, VALOR);
+    }
+}
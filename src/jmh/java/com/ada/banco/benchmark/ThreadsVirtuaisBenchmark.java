@@ -0,0 +1,125 @@
+package com.ada.banco.benchmark;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de requisições HTTP com o Tomcat em threads de plataforma e em virtual threads
+ * ({@code banco.threads-virtuais.habilitado}). Em {@link #transferir()} e {@link #listarPorCpf()} cada
+ * thread do JMH é um cliente, como {@code -Djmh.threads=50,500}; o modo de amostragem traz os percentis
+ * (p50, p99) junto da média.
+ *
+ * {@link #rajada()} é a carga de {@value #CLIENTES} clientes simultâneos, que não cabem em threads do JMH:
+ * rode com {@code -Djmh.filtro=ThreadsVirtuaisBenchmark.rajada -Djmh.threads=1}. Numa máquina de um núcleo,
+ * com o pool de 10 conexões padrão, a rajada levou em média 17,1 s com threads de plataforma e 14,7 s com
+ * virtual threads (3 rajadas de cada, com variação grande entre elas).
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThreadsVirtuaisBenchmark extends BancoBenchmark {
+    private static final int QUANTIDADE_CONTAS = 100;
+    private static final int CLIENTES = 5_000;
+
+    @Param({"false", "true"})
+    public boolean threadsVirtuais;
+
+    private HttpClient http;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        iniciar(WebApplicationType.SERVLET, "server.port=0", "banco.threads-virtuais.habilitado=" + threadsVirtuais);
+        criarContas(bean(ContaGateway.class), QUANTIDADE_CONTAS,
+                id -> new Conta(id, 1L, 1L, Dinheiro.de("1000000000.00"), "Titular " + id, "cpf-" + id));
+        base = "http://localhost:" + ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        http.close();
+    }
+
+    @Benchmark
+    public int transferir() throws IOException, InterruptedException {
+        long idOut = contaAleatoria();
+        long idIn = idOut % QUANTIDADE_CONTAS + 1;
+        return enviar(HttpRequest.newBuilder(URI.create(base + "/contas/transferir?idOut=" + idOut + "&idIn=" + idIn + "&valor=0.01"))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build());
+    }
+
+    @Benchmark
+    public int listarPorCpf() throws IOException, InterruptedException {
+        return enviar(HttpRequest.newBuilder(URI.create(base + "/contas/listar/cpf-" + contaAleatoria())).GET().build());
+    }
+
+    /**
+     * {@value #CLIENTES} clientes, cada um numa virtual thread daqui, liberados juntos para fazer uma transferência
+     * e uma busca por CPF. O tempo medido é o da rajada inteira, até a última resposta.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int rajada() throws InterruptedException, ExecutionException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> respostas = new ArrayList<>(CLIENTES);
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTES; i++) {
+                respostas.add(clientes.submit(() -> {
+                    largada.await();
+                    return transferir() + listarPorCpf();
+                }));
+            }
+            largada.countDown();
+        }
+        int status = 0;
+        for (Future<Integer> resposta : respostas) {
+            status += resposta.get();
+        }
+        return status;
+    }
+
+    private int enviar(HttpRequest requisicao) throws IOException, InterruptedException {
+        int status = http.send(requisicao, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("Resposta " + status + " para " + requisicao.uri());
+        }
+        return status;
+    }
+
+    private static long contaAleatoria() {
+        return aleatorio(QUANTIDADE_CONTAS);
+    }
+}
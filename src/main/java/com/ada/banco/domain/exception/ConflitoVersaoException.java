@@ -0,0 +1,26 @@
+package com.ada.banco.domain.exception;
+
+import com.ada.banco.domain.model.ErroOperacao;
+
+/**
+ * A conta mudou entre a leitura e a escrita: a versão esperada não é mais a do banco.
+ * Lançada pelos gateways e tentada de novo pelo {@code ContaUseCase}, então, como as recusas
+ * de negócio, não preenche a pilha.
+ */
+public class ConflitoVersaoException extends RuntimeException {
+    private final Long id;
+
+    public ConflitoVersaoException(Long id) {
+        super(null, null, false, false);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMessage() {
+        return ErroOperacao.CONFLITO_VERSAO.mensagem(id);
+    }
+}
@@ -1,7 +1,13 @@
 package com.ada.banco.domain.exception;
 
-public class ContaJaExisteException extends Exception {
+import com.ada.banco.domain.model.ErroOperacao;
+
+public class ContaJaExisteException extends OperacaoRecusadaException {
     public ContaJaExisteException(String message) {
         super(message);
     }
+
+    public ContaJaExisteException(Long id) {
+        super(ErroOperacao.CONTA_JA_EXISTE, id);
+    }
 }
@@ -1,5 +1,15 @@
 package com.ada.banco.domain.exception;
 
-public class ContaNaoExisteException extends Exception {
+import com.ada.banco.domain.model.ErroOperacao;
+
+public class ContaNaoExisteException extends OperacaoRecusadaException {
     public ContaNaoExisteException(String message) { super(message); }
+
+    public ContaNaoExisteException(Long id) { super(ErroOperacao.CONTA_NAO_EXISTE, id); }
+
+    public static ContaNaoExisteException comCpf(String cpf) {
+        return new ContaNaoExisteException(ErroOperacao.CPF_NAO_EXISTE, cpf);
+    }
+
+    private ContaNaoExisteException(ErroOperacao erro, Object referencia) { super(erro, referencia); }
 }
@@ -1,6 +1,9 @@
 package com.ada.banco.domain.exception;
 
-public class ContaSaldoInsuficienteException extends Exception {
+import com.ada.banco.domain.model.ErroOperacao;
+
+public class ContaSaldoInsuficienteException extends OperacaoRecusadaException {
     public ContaSaldoInsuficienteException(String message) { super(message); }
 
+    public ContaSaldoInsuficienteException(Long id) { super(ErroOperacao.SALDO_INSUFICIENTE, id); }
 }
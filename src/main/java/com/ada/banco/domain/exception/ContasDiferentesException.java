@@ -1,5 +1,9 @@
 package com.ada.banco.domain.exception;
 
-public class ContasDiferentesException extends Exception {
+import com.ada.banco.domain.model.ErroOperacao;
+
+public class ContasDiferentesException extends OperacaoRecusadaException {
     public ContasDiferentesException(String message) { super(message); }
+
+    public ContasDiferentesException() { super(ErroOperacao.CONTAS_DIFERENTES, null); }
 }
@@ -0,0 +1,38 @@
+package com.ada.banco.domain.exception;
+
+import com.ada.banco.domain.model.ErroOperacao;
+
+/**
+ * Base das recusas de negócio. Não preenche a pilha, que só custaria tempo num caminho
+ * que é rotina sob carga, e só monta a mensagem quando {@link #getMessage()} é chamado.
+ */
+public abstract class OperacaoRecusadaException extends Exception {
+    private final ErroOperacao erro;
+    private final Object referencia;
+    private String mensagem;
+
+    protected OperacaoRecusadaException(ErroOperacao erro, Object referencia) {
+        super(null, null, false, false);
+        this.erro = erro;
+        this.referencia = referencia;
+    }
+
+    protected OperacaoRecusadaException(String mensagem) {
+        super(mensagem, null, false, false);
+        this.erro = null;
+        this.referencia = null;
+        this.mensagem = mensagem;
+    }
+
+    public ErroOperacao getErro() {
+        return erro;
+    }
+
+    @Override
+    public String getMessage() {
+        if (mensagem == null) {
+            mensagem = erro.mensagem(referencia);
+        }
+        return mensagem;
+    }
+}
@@ -0,0 +1,7 @@
+package com.ada.banco.domain.exception;
+
+import com.ada.banco.domain.model.ErroOperacao;
+
+public class ValorInvalidoException extends OperacaoRecusadaException {
+    public ValorInvalidoException(Object valor) { super(ErroOperacao.VALOR_INVALIDO, valor); }
+}
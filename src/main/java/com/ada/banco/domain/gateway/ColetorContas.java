@@ -0,0 +1,10 @@
+package com.ada.banco.domain.gateway;
+
+/**
+ * Recebe as contas campo a campo, sem montar um {@code Conta} por linha.
+ * Agência e dígito não informados chegam como 0.
+ */
+@FunctionalInterface
+public interface ColetorContas {
+    void coletar(long id, long agencia, long digito, long saldoEmCentavos, String titular, String cpf);
+}
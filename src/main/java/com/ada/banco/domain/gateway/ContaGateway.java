@@ -1,8 +1,16 @@
 package com.ada.banco.domain.gateway;
 
 import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ContaGateway {
     Conta salvar(Conta conta);
@@ -10,4 +18,98 @@ public interface ContaGateway {
     Conta atualizar(Conta conta);
     List<Conta> listar();
     List<Conta> listarPorCpf(String cpf);
+
+    /**
+     * Página de contas ordenada por id, começando logo depois de {@code depoisDe} (ou do início, se nulo).
+     */
+    List<Conta> listarPagina(Long depoisDe, int limite);
+
+    /**
+     * Entrega todas as contas, em ordem de id, uma de cada vez, sem carregar a lista inteira.
+     */
+    void percorrer(Consumer<Conta> consumidor);
+
+    /**
+     * Debita o valor somente se a conta possuir saldo suficiente.
+     * @return quantidade de contas alteradas (0 se a conta não existe ou não tem saldo)
+     */
+    int debitar(Long id, Dinheiro valor);
+
+    /**
+     * Credita o valor na conta.
+     * @return quantidade de contas alteradas (0 se a conta não existe)
+     */
+    int creditar(Long id, Dinheiro valor);
+
+    /**
+     * Move o valor entre as contas de forma atômica: ou as duas pernas são aplicadas ou nenhuma.
+     * @return true se a transferência foi aplicada, false se alguma conta não existe ou a origem não tem saldo
+     */
+    boolean transferir(Long idOut, Long idIn, Dinheiro valor);
+
+    /**
+     * Aplica várias transferências de uma vez, cada uma de forma atômica.
+     * @return a situação de cada transferência, na mesma ordem recebida
+     */
+    List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias);
+
+    /**
+     * Lançamentos da conta com data em {@code [de, ate)} (sem limite quando nulos), do mais recente para o
+     * mais antigo, começando logo depois do lançamento {@code depoisDe} (ou do mais recente, se nulo).
+     * Gateways que não guardam o razão de movimentações devolvem uma lista vazia.
+     */
+    default List<Movimentacao> extrato(Long id, Instant de, Instant ate, Long depoisDe, int limite) {
+        return List.of();
+    }
+
+    /**
+     * Quantidade de contas e soma, mínimo e máximo dos saldos da agência (contas sem agência contam como 0).
+     * A implementação padrão varre todas as contas.
+     * @return o resumo, ou {@code null} se a agência não tem contas
+     */
+    default ResumoAgencia resumirAgencia(Long agencia) {
+        long[] totais = {0, 0, Long.MAX_VALUE, Long.MIN_VALUE};
+        exportar((id, agenciaConta, digito, centavos, titular, cpf) -> {
+            if (agenciaConta == agencia) {
+                totais[0]++;
+                totais[1] = Math.addExact(totais[1], centavos);
+                totais[2] = Math.min(totais[2], centavos);
+                totais[3] = Math.max(totais[3], centavos);
+            }
+        });
+        if (totais[0] == 0) {
+            return null;
+        }
+        return new ResumoAgencia(agencia, totais[0], Dinheiro.deCentavos(totais[1]), Dinheiro.deCentavos(totais[2]),
+                Dinheiro.deCentavos(totais[3]), Instant.now());
+    }
+
+    /**
+     * Como {@link #percorrer(Consumer)}, mas entrega os campos de cada conta em vez de um objeto,
+     * para exportações que não devem criar nada por linha.
+     */
+    default void exportar(ColetorContas coletor) {
+        percorrer(conta -> coletor.coletar(conta.getId(),
+                conta.getAgencia() == null ? 0 : conta.getAgencia(),
+                conta.getDigito() == null ? 0 : conta.getDigito(),
+                conta.getSaldo() == null ? 0 : conta.getSaldo().getCentavos(),
+                conta.getTitular(), conta.getCpf()));
+    }
+
+    /**
+     * Cria as contas cujo id ainda não existe; as que já existem ficam como estão.
+     * Os ids da lista devem ser distintos.
+     * @return para cada conta, na mesma ordem, se ela foi criada
+     */
+    default List<Boolean> criarEmLote(List<Conta> contas) {
+        List<Boolean> criadas = new ArrayList<>(contas.size());
+        for (Conta conta : contas) {
+            boolean nova = buscarPorId(conta.getId()) == null;
+            if (nova) {
+                salvar(conta);
+            }
+            criadas.add(nova);
+        }
+        return criadas;
+    }
 }
@@ -1,5 +1,11 @@
 package com.ada.banco.domain.gateway;
 
+import java.util.List;
+
 public interface EmailGateway {
     void send(String cpf);
+
+    default void sendEmLote(List<String> cpfs) {
+        cpfs.forEach(this::send);
+    }
 }
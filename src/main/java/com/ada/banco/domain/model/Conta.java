@@ -4,27 +4,34 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
-import java.math.BigDecimal;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = @Index(name = "idx_conta_cpf", columnList = "cpf"))
 public class Conta {
     @Id
     //@GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
     private Long agencia;
     private Long digito;
-    private BigDecimal saldo;
+    private Dinheiro saldo;
 
     // Usuario / Titular
     private String titular;
     private String cpf;
 
+    // Protege só os dados cadastrais: o saldo muda por lançamentos, que não passam pela versão
+    @Version
+    private Long versao;
+
     public Conta() {
     }
 
-    public Conta(Long id, Long agencia, Long digito, BigDecimal saldo, String titular, String cpf) {
+    public Conta(Long id, Long agencia, Long digito, Dinheiro saldo, String titular, String cpf) {
         this.id = id;
         this.agencia = agencia;
         this.digito = digito;
@@ -58,11 +65,11 @@ public class Conta {
         this.digito = digito;
     }
 
-    public BigDecimal getSaldo() {
+    public Dinheiro getSaldo() {
         return saldo;
     }
 
-    public void setSaldo(BigDecimal saldo) {
+    public void setSaldo(Dinheiro saldo) {
         this.saldo = saldo;
     }
 
@@ -82,6 +89,14 @@ public class Conta {
         this.cpf = cpf;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -104,6 +119,7 @@ public class Conta {
                 ", saldo=" + saldo +
                 ", titular='" + titular + '\'' +
                 ", cpf='" + cpf + '\'' +
+                ", versao=" + versao +
                 '}';
     }
 }
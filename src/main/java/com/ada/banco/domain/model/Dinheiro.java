@@ -0,0 +1,127 @@
+package com.ada.banco.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+
+/**
+ * Valor monetário imutável em centavos, guardado num {@code long}.
+ *
+ * As contas não estouram em silêncio: somar ou subtrair além do limite de um {@code long}
+ * lança {@link ArithmeticException}. Comparações não criam objetos, e as operações criam no
+ * máximo o resultado. Valores de 0 a {@value #CENTAVOS_EM_CACHE} centavos vêm de um cache.
+ * No JSON continua sendo um número decimal com duas casas, como o {@code BigDecimal} de antes.
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+    private static final int CENTAVOS_EM_CACHE = 10_000;
+    private static final Dinheiro[] CACHE = new Dinheiro[CENTAVOS_EM_CACHE + 1];
+
+    static {
+        for (int i = 0; i <= CENTAVOS_EM_CACHE; i++) {
+            CACHE[i] = new Dinheiro(i);
+        }
+    }
+
+    public static final Dinheiro ZERO = CACHE[0];
+
+    private static final BigDecimal MINIMO = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal MAXIMO = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    public static Dinheiro deCentavos(long centavos) {
+        if (centavos >= 0 && centavos <= CENTAVOS_EM_CACHE) {
+            return CACHE[(int) centavos];
+        }
+        return new Dinheiro(centavos);
+    }
+
+    /**
+     * @throws IllegalArgumentException se o valor tiver mais de duas casas decimais ou não couber em centavos
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Dinheiro de(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        Dinheiro dinheiro = deOuNulo(valor);
+        if (dinheiro == null) {
+            throw new IllegalArgumentException("Valor monetário inválido: " + valor);
+        }
+        return dinheiro;
+    }
+
+    /**
+     * Como {@link #de(BigDecimal)}, mas devolve {@code null} em vez de lançar exceção
+     * quando o valor não cabe em centavos.
+     */
+    public static Dinheiro deOuNulo(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        BigDecimal centavos = valor.movePointRight(2);
+        if (centavos.signum() != 0 && centavos.stripTrailingZeros().scale() > 0) {
+            return null;
+        }
+        if (centavos.compareTo(MINIMO) < 0 || centavos.compareTo(MAXIMO) > 0) {
+            return null;
+        }
+        return deCentavos(centavos.longValue());
+    }
+
+    public static Dinheiro de(String valor) {
+        return de(new BigDecimal(valor));
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+
+    public boolean isMenorQue(Dinheiro outro) {
+        return centavos < outro.centavos;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return centavos == ((Dinheiro) o).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ada.banco.domain.model;
+
+/**
+ * Motivos pelos quais uma operação de conta é recusada. Cada um sabe montar a mensagem
+ * mostrada ao cliente a partir da referência (id, CPF ou valor) da operação.
+ */
+public enum ErroOperacao {
+    CONTA_JA_EXISTE("A conta ID: %s ja existe"),
+    CONTA_NAO_EXISTE("A conta com ID: %s não existe"),
+    CPF_NAO_EXISTE("A conta com CPF: %s não existe"),
+    SALDO_INSUFICIENTE("A conta com ID: %s não possui o saldo para saque"),
+    CONTAS_DIFERENTES("As contas são diferentes"),
+    CONFLITO_VERSAO("A conta com ID: %s foi alterada por outra operação"),
+    AGENCIA_SEM_CONTAS("A agência %s não possui contas"),
+    VALOR_INVALIDO("Valor monetário inválido: %s");
+
+    private final String modelo;
+
+    ErroOperacao(String modelo) {
+        this.modelo = modelo;
+    }
+
+    public String mensagem(Object referencia) {
+        return String.format(modelo, referencia);
+    }
+}
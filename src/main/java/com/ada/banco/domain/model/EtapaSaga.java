@@ -0,0 +1,13 @@
+package com.ada.banco.domain.model;
+
+/**
+ * Passos de uma transferência entre shards. Cada um é marcado em {@link PassoSaga} no shard em que
+ * foi aplicado, na mesma transação do lançamento.
+ */
+public enum EtapaSaga {
+    DEBITO,
+    CREDITO,
+    ESTORNO,
+    /** Gravado pela recuperação numa saga sem débito; depois dele o débito não é mais aplicado. */
+    CANCELAMENTO
+}
@@ -0,0 +1,104 @@
+package com.ada.banco.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.Objects;
+
+/**
+ * Parte do saldo de uma conta quente. Os créditos dessas contas são espalhados entre várias
+ * fatias para não disputarem uma única linha; o saldo da conta é a soma de todas elas.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_fatia_saldo_conta", columnNames = {"conta_id", "fatia"}))
+public class FatiaSaldo {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "conta_id", nullable = false)
+    private Long contaId;
+    private Integer fatia;
+    private Dinheiro saldo;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Conta conta;
+
+    public FatiaSaldo() {
+    }
+
+    public FatiaSaldo(Long id, Long contaId, Integer fatia, Dinheiro saldo) {
+        this.id = id;
+        this.contaId = contaId;
+        this.fatia = fatia;
+        this.saldo = saldo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getContaId() {
+        return contaId;
+    }
+
+    public void setContaId(Long contaId) {
+        this.contaId = contaId;
+    }
+
+    public Integer getFatia() {
+        return fatia;
+    }
+
+    public void setFatia(Integer fatia) {
+        this.fatia = fatia;
+    }
+
+    public Dinheiro getSaldo() {
+        return saldo;
+    }
+
+    public void setSaldo(Dinheiro saldo) {
+        this.saldo = saldo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FatiaSaldo that = (FatiaSaldo) o;
+        return Objects.equals(id, that.id) && Objects.equals(contaId, that.contaId) && Objects.equals(fatia, that.fatia) && Objects.equals(saldo, that.saldo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, contaId, fatia, saldo);
+    }
+
+    @Override
+    public String toString() {
+        return "FatiaSaldo{" +
+                "id=" + id +
+                ", contaId=" + contaId +
+                ", fatia=" + fatia +
+                ", saldo=" + saldo +
+                '}';
+    }
+}
@@ -0,0 +1,134 @@
+package com.ada.banco.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Lançamento do razão de movimentações. Uma linha nunca tem o valor alterado depois de gravada;
+ * {@code consolidada} só indica se o valor já foi somado ao saldo da conta pelo consolidador.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_movimentacao_pendente", columnList = "conta_id, consolidada"),
+        @Index(name = "idx_movimentacao_extrato", columnList = "conta_id, dataHora, id")
+})
+public class Movimentacao {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "conta_id", nullable = false)
+    private Long contaId;
+    private Dinheiro valor;
+    @Enumerated(EnumType.STRING)
+    private TipoMovimentacao tipo;
+    private Instant dataHora;
+    private boolean consolidada;
+
+    // Só existe para gerar a chave estrangeira, os lançamentos são removidos junto com a conta
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Conta conta;
+
+    public Movimentacao() {
+    }
+
+    public Movimentacao(Long id, Long contaId, Dinheiro valor, TipoMovimentacao tipo, Instant dataHora, boolean consolidada) {
+        this.id = id;
+        this.contaId = contaId;
+        this.valor = valor;
+        this.tipo = tipo;
+        this.dataHora = dataHora;
+        this.consolidada = consolidada;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getContaId() {
+        return contaId;
+    }
+
+    public void setContaId(Long contaId) {
+        this.contaId = contaId;
+    }
+
+    public Dinheiro getValor() {
+        return valor;
+    }
+
+    public void setValor(Dinheiro valor) {
+        this.valor = valor;
+    }
+
+    public TipoMovimentacao getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoMovimentacao tipo) {
+        this.tipo = tipo;
+    }
+
+    public Instant getDataHora() {
+        return dataHora;
+    }
+
+    public void setDataHora(Instant dataHora) {
+        this.dataHora = dataHora;
+    }
+
+    public boolean isConsolidada() {
+        return consolidada;
+    }
+
+    public void setConsolidada(boolean consolidada) {
+        this.consolidada = consolidada;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Movimentacao that = (Movimentacao) o;
+        return consolidada == that.consolidada && Objects.equals(id, that.id) && Objects.equals(contaId, that.contaId) && Objects.equals(valor, that.valor) && tipo == that.tipo && Objects.equals(dataHora, that.dataHora);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, contaId, valor, tipo, dataHora, consolidada);
+    }
+
+    @Override
+    public String toString() {
+        return "Movimentacao{" +
+                "id=" + id +
+                ", contaId=" + contaId +
+                ", valor=" + valor +
+                ", tipo=" + tipo +
+                ", dataHora=" + dataHora +
+                ", consolidada=" + consolidada +
+                '}';
+    }
+}
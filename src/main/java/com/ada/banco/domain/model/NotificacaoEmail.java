@@ -0,0 +1,113 @@
+package com.ada.banco.domain.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * E-mail aguardando envio (outbox). É gravado na mesma transação da conta e removido
+ * quando o provedor confirma o envio. Se as tentativas acabarem, fica descartado
+ * ({@code descartadaEm} preenchido) até alguém decidir o que fazer com ele.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_notificacao_email_proxima", columnList = "proximaTentativa"))
+public class NotificacaoEmail {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String cpf;
+    private Instant criadaEm;
+    private Instant proximaTentativa;
+    private int tentativas;
+    private Instant descartadaEm;
+
+    public NotificacaoEmail() {
+    }
+
+    public NotificacaoEmail(Long id, String cpf, Instant criadaEm, Instant proximaTentativa, int tentativas) {
+        this.id = id;
+        this.cpf = cpf;
+        this.criadaEm = criadaEm;
+        this.proximaTentativa = proximaTentativa;
+        this.tentativas = tentativas;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+    }
+
+    public Instant getCriadaEm() {
+        return criadaEm;
+    }
+
+    public void setCriadaEm(Instant criadaEm) {
+        this.criadaEm = criadaEm;
+    }
+
+    public Instant getProximaTentativa() {
+        return proximaTentativa;
+    }
+
+    public void setProximaTentativa(Instant proximaTentativa) {
+        this.proximaTentativa = proximaTentativa;
+    }
+
+    public int getTentativas() {
+        return tentativas;
+    }
+
+    public void setTentativas(int tentativas) {
+        this.tentativas = tentativas;
+    }
+
+    public Instant getDescartadaEm() {
+        return descartadaEm;
+    }
+
+    public void setDescartadaEm(Instant descartadaEm) {
+        this.descartadaEm = descartadaEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NotificacaoEmail that = (NotificacaoEmail) o;
+        return tentativas == that.tentativas && Objects.equals(id, that.id) && Objects.equals(cpf, that.cpf) && Objects.equals(criadaEm, that.criadaEm) && Objects.equals(proximaTentativa, that.proximaTentativa) && Objects.equals(descartadaEm, that.descartadaEm);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, cpf, criadaEm, proximaTentativa, tentativas, descartadaEm);
+    }
+
+    @Override
+    public String toString() {
+        return "NotificacaoEmail{" +
+                "id=" + id +
+                ", cpf='" + cpf + '\'' +
+                ", criadaEm=" + criadaEm +
+                ", proximaTentativa=" + proximaTentativa +
+                ", tentativas=" + tentativas +
+                ", descartadaEm=" + descartadaEm +
+                '}';
+    }
+}
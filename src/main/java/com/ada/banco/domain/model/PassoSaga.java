@@ -0,0 +1,85 @@
+package com.ada.banco.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.util.Objects;
+
+/**
+ * Marca que um passo de uma {@link SagaTransferencia} foi confirmado neste shard. É gravado na mesma
+ * transação do lançamento, então existe se e somente se o lançamento existe, e cada passo é aplicado
+ * no máximo uma vez por saga.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_passo_saga", columnNames = {"saga_id", "etapa"}))
+public class PassoSaga {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "saga_id", nullable = false)
+    private Long sagaId;
+    @Enumerated(EnumType.STRING)
+    private EtapaSaga etapa;
+
+    public PassoSaga() {
+    }
+
+    public PassoSaga(Long id, Long sagaId, EtapaSaga etapa) {
+        this.id = id;
+        this.sagaId = sagaId;
+        this.etapa = etapa;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSagaId() {
+        return sagaId;
+    }
+
+    public void setSagaId(Long sagaId) {
+        this.sagaId = sagaId;
+    }
+
+    public EtapaSaga getEtapa() {
+        return etapa;
+    }
+
+    public void setEtapa(EtapaSaga etapa) {
+        this.etapa = etapa;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PassoSaga that = (PassoSaga) o;
+        return Objects.equals(id, that.id) && Objects.equals(sagaId, that.sagaId) && etapa == that.etapa;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, sagaId, etapa);
+    }
+
+    @Override
+    public String toString() {
+        return "PassoSaga{" +
+                "id=" + id +
+                ", sagaId=" + sagaId +
+                ", etapa=" + etapa +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+package com.ada.banco.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Resposta da primeira execução de uma requisição com {@code Idempotency-Key}. Repetições com a
+ * mesma chave recebem esta resposta sem executar a operação de novo, até {@code expiraEm}.
+ * {@code requisicao} identifica a operação e os parâmetros, para recusar a chave reaproveitada
+ * em outra requisição.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_resposta_idempotente_expira", columnList = "expiraEm"))
+public class RespostaIdempotente {
+    @Id
+    @Column(length = 255)
+    private String chave;
+    @Column(length = 512)
+    private String requisicao;
+    private int status;
+    @Column(length = 2048)
+    private String corpo;
+    private Instant expiraEm;
+
+    public RespostaIdempotente() {
+    }
+
+    public RespostaIdempotente(String chave, String requisicao, int status, String corpo, Instant expiraEm) {
+        this.chave = chave;
+        this.requisicao = requisicao;
+        this.status = status;
+        this.corpo = corpo;
+        this.expiraEm = expiraEm;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+
+    public void setChave(String chave) {
+        this.chave = chave;
+    }
+
+    public String getRequisicao() {
+        return requisicao;
+    }
+
+    public void setRequisicao(String requisicao) {
+        this.requisicao = requisicao;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getCorpo() {
+        return corpo;
+    }
+
+    public void setCorpo(String corpo) {
+        this.corpo = corpo;
+    }
+
+    public Instant getExpiraEm() {
+        return expiraEm;
+    }
+
+    public void setExpiraEm(Instant expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RespostaIdempotente that = (RespostaIdempotente) o;
+        return status == that.status && Objects.equals(chave, that.chave) && Objects.equals(requisicao, that.requisicao) && Objects.equals(corpo, that.corpo) && Objects.equals(expiraEm, that.expiraEm);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(chave, requisicao, status, corpo, expiraEm);
+    }
+
+    @Override
+    public String toString() {
+        return "RespostaIdempotente{" +
+                "chave='" + chave + '\'' +
+                ", requisicao='" + requisicao + '\'' +
+                ", status=" + status +
+                ", corpo='" + corpo + '\'' +
+                ", expiraEm=" + expiraEm +
+                '}';
+    }
+}
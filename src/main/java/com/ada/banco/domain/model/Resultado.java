@@ -0,0 +1,46 @@
+package com.ada.banco.domain.model;
+
+/**
+ * Resultado de uma operação de conta: o valor, quando deu certo, ou o {@link ErroOperacao}
+ * e a referência que o causou. Recusas são esperadas sob carga, então não passam por exceção
+ * e a mensagem só é montada se alguém pedir.
+ */
+public final class Resultado<T> {
+    private final T valor;
+    private final ErroOperacao erro;
+    private final Object referencia;
+
+    private Resultado(T valor, ErroOperacao erro, Object referencia) {
+        this.valor = valor;
+        this.erro = erro;
+        this.referencia = referencia;
+    }
+
+    public static <T> Resultado<T> sucesso(T valor) {
+        return new Resultado<>(valor, null, null);
+    }
+
+    public static <T> Resultado<T> falha(ErroOperacao erro, Object referencia) {
+        return new Resultado<>(null, erro, referencia);
+    }
+
+    public boolean isSucesso() {
+        return erro == null;
+    }
+
+    public T getValor() {
+        return valor;
+    }
+
+    public ErroOperacao getErro() {
+        return erro;
+    }
+
+    public Object getReferencia() {
+        return referencia;
+    }
+
+    public String getMensagem() {
+        return erro == null ? null : erro.mensagem(referencia);
+    }
+}
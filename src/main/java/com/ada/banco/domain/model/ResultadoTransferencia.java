@@ -0,0 +1,19 @@
+package com.ada.banco.domain.model;
+
+public class ResultadoTransferencia {
+    private final SituacaoTransferencia situacao;
+    private final Long codigoOperacao;
+
+    public ResultadoTransferencia(SituacaoTransferencia situacao, Long codigoOperacao) {
+        this.situacao = situacao;
+        this.codigoOperacao = codigoOperacao;
+    }
+
+    public SituacaoTransferencia getSituacao() {
+        return situacao;
+    }
+
+    public Long getCodigoOperacao() {
+        return codigoOperacao;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ada.banco.domain.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Totais das contas de uma agência: quantidade, soma dos saldos e os saldos mínimo e máximo.
+ * Contas sem agência entram na agência 0.
+ */
+@Entity
+public class ResumoAgencia {
+    @Id
+    private Long agencia;
+    private long contas;
+    private Dinheiro saldoTotal;
+    private Dinheiro saldoMinimo;
+    private Dinheiro saldoMaximo;
+    private Instant atualizadoEm;
+
+    public ResumoAgencia() {
+    }
+
+    public ResumoAgencia(Long agencia, long contas, Dinheiro saldoTotal, Dinheiro saldoMinimo, Dinheiro saldoMaximo,
+                         Instant atualizadoEm) {
+        this.agencia = agencia;
+        this.contas = contas;
+        this.saldoTotal = saldoTotal;
+        this.saldoMinimo = saldoMinimo;
+        this.saldoMaximo = saldoMaximo;
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    public Long getAgencia() {
+        return agencia;
+    }
+
+    public void setAgencia(Long agencia) {
+        this.agencia = agencia;
+    }
+
+    public long getContas() {
+        return contas;
+    }
+
+    public void setContas(long contas) {
+        this.contas = contas;
+    }
+
+    public Dinheiro getSaldoTotal() {
+        return saldoTotal;
+    }
+
+    public void setSaldoTotal(Dinheiro saldoTotal) {
+        this.saldoTotal = saldoTotal;
+    }
+
+    public Dinheiro getSaldoMinimo() {
+        return saldoMinimo;
+    }
+
+    public void setSaldoMinimo(Dinheiro saldoMinimo) {
+        this.saldoMinimo = saldoMinimo;
+    }
+
+    public Dinheiro getSaldoMaximo() {
+        return saldoMaximo;
+    }
+
+    public void setSaldoMaximo(Dinheiro saldoMaximo) {
+        this.saldoMaximo = saldoMaximo;
+    }
+
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(Instant atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ResumoAgencia that = (ResumoAgencia) o;
+        return contas == that.contas && Objects.equals(agencia, that.agencia) && Objects.equals(saldoTotal, that.saldoTotal) && Objects.equals(saldoMinimo, that.saldoMinimo) && Objects.equals(saldoMaximo, that.saldoMaximo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(agencia, contas, saldoTotal, saldoMinimo, saldoMaximo);
+    }
+
+    @Override
+    public String toString() {
+        return "ResumoAgencia{" +
+                "agencia=" + agencia +
+                ", contas=" + contas +
+                ", saldoTotal=" + saldoTotal +
+                ", saldoMinimo=" + saldoMinimo +
+                ", saldoMaximo=" + saldoMaximo +
+                ", atualizadoEm=" + atualizadoEm +
+                '}';
+    }
+}
@@ -0,0 +1,155 @@
+package com.ada.banco.domain.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Transferência entre shards, registrada no banco principal antes do débito. Enquanto estiver
+ * {@link SituacaoSaga#PENDENTE}, a recuperação sabe que há um débito que pode ter ficado sem crédito
+ * nem estorno; os passos já aplicados ficam em {@link PassoSaga}, no shard de cada um.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_saga_transferencia_pendente", columnList = "situacao, atualizadaEm"))
+public class SagaTransferencia {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long contaOrigem;
+    private Long contaDestino;
+    private Dinheiro valor;
+    private Integer shardOrigem;
+    private Integer shardDestino;
+    @Enumerated(EnumType.STRING)
+    private SituacaoSaga situacao;
+    private Instant criadaEm;
+    private Instant atualizadaEm;
+
+    public SagaTransferencia() {
+    }
+
+    public SagaTransferencia(Long id, Long contaOrigem, Long contaDestino, Dinheiro valor, Integer shardOrigem,
+                             Integer shardDestino, SituacaoSaga situacao, Instant criadaEm, Instant atualizadaEm) {
+        this.id = id;
+        this.contaOrigem = contaOrigem;
+        this.contaDestino = contaDestino;
+        this.valor = valor;
+        this.shardOrigem = shardOrigem;
+        this.shardDestino = shardDestino;
+        this.situacao = situacao;
+        this.criadaEm = criadaEm;
+        this.atualizadaEm = atualizadaEm;
+    }
+
+    public Transferencia getTransferencia() {
+        return new Transferencia(contaOrigem, contaDestino, valor);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getContaOrigem() {
+        return contaOrigem;
+    }
+
+    public void setContaOrigem(Long contaOrigem) {
+        this.contaOrigem = contaOrigem;
+    }
+
+    public Long getContaDestino() {
+        return contaDestino;
+    }
+
+    public void setContaDestino(Long contaDestino) {
+        this.contaDestino = contaDestino;
+    }
+
+    public Dinheiro getValor() {
+        return valor;
+    }
+
+    public void setValor(Dinheiro valor) {
+        this.valor = valor;
+    }
+
+    public Integer getShardOrigem() {
+        return shardOrigem;
+    }
+
+    public void setShardOrigem(Integer shardOrigem) {
+        this.shardOrigem = shardOrigem;
+    }
+
+    public Integer getShardDestino() {
+        return shardDestino;
+    }
+
+    public void setShardDestino(Integer shardDestino) {
+        this.shardDestino = shardDestino;
+    }
+
+    public SituacaoSaga getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(SituacaoSaga situacao) {
+        this.situacao = situacao;
+    }
+
+    public Instant getCriadaEm() {
+        return criadaEm;
+    }
+
+    public void setCriadaEm(Instant criadaEm) {
+        this.criadaEm = criadaEm;
+    }
+
+    public Instant getAtualizadaEm() {
+        return atualizadaEm;
+    }
+
+    public void setAtualizadaEm(Instant atualizadaEm) {
+        this.atualizadaEm = atualizadaEm;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SagaTransferencia that = (SagaTransferencia) o;
+        return Objects.equals(id, that.id) && Objects.equals(contaOrigem, that.contaOrigem) && Objects.equals(contaDestino, that.contaDestino) && Objects.equals(valor, that.valor) && Objects.equals(shardOrigem, that.shardOrigem) && Objects.equals(shardDestino, that.shardDestino) && situacao == that.situacao && Objects.equals(criadaEm, that.criadaEm) && Objects.equals(atualizadaEm, that.atualizadaEm);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, contaOrigem, contaDestino, valor, shardOrigem, shardDestino, situacao, criadaEm, atualizadaEm);
+    }
+
+    @Override
+    public String toString() {
+        return "SagaTransferencia{" +
+                "id=" + id +
+                ", contaOrigem=" + contaOrigem +
+                ", contaDestino=" + contaDestino +
+                ", valor=" + valor +
+                ", shardOrigem=" + shardOrigem +
+                ", shardDestino=" + shardDestino +
+                ", situacao=" + situacao +
+                ", criadaEm=" + criadaEm +
+                ", atualizadaEm=" + atualizadaEm +
+                '}';
+    }
+}
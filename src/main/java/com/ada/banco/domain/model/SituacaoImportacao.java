@@ -0,0 +1,8 @@
+package com.ada.banco.domain.model;
+
+public enum SituacaoImportacao {
+    CRIADA,
+    JA_EXISTE,
+    DUPLICADA,
+    INVALIDA
+}
@@ -0,0 +1,15 @@
+package com.ada.banco.domain.model;
+
+/**
+ * Em que pé está uma transferência entre shards no registro de sagas.
+ */
+public enum SituacaoSaga {
+    /** Registrada antes do débito; ainda pode ter passos a aplicar ou a desfazer. */
+    PENDENTE,
+    /** Débito e crédito aplicados. */
+    REALIZADA,
+    /** O débito não foi aplicado, por falta de saldo ou porque a saga foi abandonada antes dele. */
+    CANCELADA,
+    /** O débito foi devolvido à origem com um {@link TipoMovimentacao#ESTORNO}. */
+    ESTORNADA
+}
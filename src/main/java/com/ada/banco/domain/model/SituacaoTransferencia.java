@@ -0,0 +1,8 @@
+package com.ada.banco.domain.model;
+
+public enum SituacaoTransferencia {
+    REALIZADA,
+    CONTA_NAO_EXISTE,
+    SALDO_INSUFICIENTE,
+    INVALIDA
+}
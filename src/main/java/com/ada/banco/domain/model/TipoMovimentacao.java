@@ -0,0 +1,10 @@
+package com.ada.banco.domain.model;
+
+public enum TipoMovimentacao {
+    DEPOSITO,
+    SAQUE,
+    TRANSFERENCIA_ENVIADA,
+    TRANSFERENCIA_RECEBIDA,
+    /** Devolve à origem uma transferência debitada cujo crédito não pôde ser aplicado. */
+    ESTORNO
+}
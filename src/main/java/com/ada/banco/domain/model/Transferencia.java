@@ -0,0 +1,41 @@
+package com.ada.banco.domain.model;
+
+
+public class Transferencia {
+    private Long idOut;
+    private Long idIn;
+    private Dinheiro valor;
+
+    public Transferencia() {
+    }
+
+    public Transferencia(Long idOut, Long idIn, Dinheiro valor) {
+        this.idOut = idOut;
+        this.idIn = idIn;
+        this.valor = valor;
+    }
+
+    public Long getIdOut() {
+        return idOut;
+    }
+
+    public void setIdOut(Long idOut) {
+        this.idOut = idOut;
+    }
+
+    public Long getIdIn() {
+        return idIn;
+    }
+
+    public void setIdIn(Long idIn) {
+        this.idIn = idIn;
+    }
+
+    public Dinheiro getValor() {
+        return valor;
+    }
+
+    public void setValor(Dinheiro valor) {
+        this.valor = valor;
+    }
+}
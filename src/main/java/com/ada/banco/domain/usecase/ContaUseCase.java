@@ -1,103 +1,356 @@
 package com.ada.banco.domain.usecase;
 
+import com.ada.banco.domain.exception.ConflitoVersaoException;
 import com.ada.banco.domain.exception.ContaJaExisteException;
 import com.ada.banco.domain.exception.ContaNaoExisteException;
 import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
 import com.ada.banco.domain.exception.ContasDiferentesException;
+import com.ada.banco.domain.exception.OperacaoRecusadaException;
+import com.ada.banco.domain.exception.ValorInvalidoException;
+import com.ada.banco.domain.gateway.ColetorContas;
 import com.ada.banco.domain.gateway.ContaGateway;
 import com.ada.banco.domain.gateway.EmailGateway;
 import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ErroOperacao;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.ResultadoTransferencia;
+import com.ada.banco.domain.model.SituacaoImportacao;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class ContaUseCase {
+    private static final int LIMITE_PAGINA = 1000;
+
     @Autowired
     private ContaGateway contaGateway;
     @Autowired
     private EmailGateway emailGateway;
+    @Autowired
+    private GeradorCodigoOperacao geradorCodigoOperacao;
+    @Autowired
+    private RetentativaConflito retentativaConflito;
 
-    public ContaUseCase(ContaGateway contaGateway, EmailGateway emailGateway) {
+    public ContaUseCase(ContaGateway contaGateway, EmailGateway emailGateway, GeradorCodigoOperacao geradorCodigoOperacao) {
         this.contaGateway = contaGateway;
         this.emailGateway = emailGateway;
+        this.geradorCodigoOperacao = geradorCodigoOperacao;
+        this.retentativaConflito = new RetentativaConflito(5, Duration.ofMillis(5), Duration.ofMillis(200));
     }
 
 
+    /**
+     * A conta e o aviso por e-mail são gravados na mesma transação, então não existe
+     * e-mail de uma conta que não foi criada nem conta criada sem e-mail.
+     */
+    @Transactional(rollbackFor = Exception.class)
     public Conta criar(Conta conta) throws Exception {
+        return obter(tentarCriar(conta));
+    }
+
+    /**
+     * Como {@link #criar(Conta)}, com a conta repetida devolvida como {@link ErroOperacao#CONTA_JA_EXISTE}.
+     */
+    @Transactional
+    public Resultado<Conta> tentarCriar(Conta conta) {
         if(contaGateway.buscarPorId(conta.getId()) != null) {
-            throw new ContaJaExisteException("A conta ID: "+ conta.getId() + " ja existe");
+            return Resultado.falha(ErroOperacao.CONTA_JA_EXISTE, conta.getId());
         }
 
+        Conta contaSalva = contaGateway.salvar(conta);
         emailGateway.send(conta.getCpf());
 
-        return contaGateway.salvar(conta);
+        return Resultado.sucesso(contaSalva);
     }
 
-    public BigDecimal depositar (Long id, BigDecimal valor) throws Exception {
-        verificaContaPorId(id);
-        Conta conta = contaGateway.buscarPorId(id);
-        conta.setSaldo(conta.getSaldo().add(valor));
-        contaGateway.salvar(conta);
-        return valor;
+    /**
+     * Importa um lote de contas de uma vez: as que já existem são recusadas, e as novas são gravadas
+     * junto com os e-mails de boas-vindas na mesma transação, como em {@link #criar(Conta)}.
+     * Entradas nulas representam linhas que não puderam ser lidas.
+     * @return a situação de cada conta, na mesma ordem recebida
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<SituacaoImportacao> importar(List<Conta> contas) {
+        SituacaoImportacao[] situacoes = new SituacaoImportacao[contas.size()];
+        List<Conta> candidatas = new ArrayList<>(contas.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < contas.size(); i++) {
+            Conta conta = contas.get(i);
+            if (!contaImportavel(conta)) {
+                situacoes[i] = SituacaoImportacao.INVALIDA;
+            } else if (!ids.add(conta.getId())) {
+                situacoes[i] = SituacaoImportacao.DUPLICADA;
+            } else {
+                if (conta.getSaldo() == null) {
+                    conta.setSaldo(Dinheiro.ZERO);
+                }
+                candidatas.add(conta);
+            }
+        }
+
+        Iterator<Boolean> criadas = contaGateway.criarEmLote(candidatas).iterator();
+        List<String> cpfs = new ArrayList<>(candidatas.size());
+        for (int i = 0; i < situacoes.length; i++) {
+            if (situacoes[i] != null) {
+                continue;
+            }
+            if (criadas.next()) {
+                situacoes[i] = SituacaoImportacao.CRIADA;
+                cpfs.add(contas.get(i).getCpf());
+            } else {
+                situacoes[i] = SituacaoImportacao.JA_EXISTE;
+            }
+        }
+        emailGateway.sendEmLote(cpfs);
+        return Arrays.asList(situacoes);
     }
 
-    public BigDecimal sacar(Long id, BigDecimal saque) throws Exception {
-        verificaContaPorId(id);
-        Conta conta = contaGateway.buscarPorId(id);
-        verificaSaldoParaSaque(conta, saque);
-        conta.setSaldo(conta.getSaldo().subtract(saque));
-        contaGateway.salvar(conta);
-        return saque;
+    private boolean contaImportavel(Conta conta) {
+        return conta != null
+                && conta.getId() != null
+                && conta.getCpf() != null
+                && !conta.getCpf().isBlank()
+                && (conta.getSaldo() == null || !conta.getSaldo().isMenorQue(Dinheiro.ZERO));
     }
 
-    private void verificaContaPorId(Long id) throws Exception {
-        if(contaGateway.buscarPorId(id) == null) {
-            throw new ContaNaoExisteException("A conta com ID: " + id + " não existe");
+    public Dinheiro depositar (Long id, Dinheiro valor) throws Exception {
+        return obter(tentarDepositar(id, valor));
+    }
+
+    public Dinheiro sacar(Long id, Dinheiro saque) throws Exception {
+        return obter(tentarSacar(id, saque));
+    }
+
+    public Long transferir(Long idOut, Long idIn, Dinheiro traferencia) throws Exception {
+        return obter(tentarTransferir(idOut, idIn, traferencia));
+    }
+
+    /*
+     * As variantes tentarXxx devolvem a recusa como Resultado em vez de lançar exceção,
+     * para quem trata saldo insuficiente e conta inexistente como parte do fluxo normal.
+     */
+
+    public Resultado<Dinheiro> tentarDepositar(Long id, Dinheiro valor) {
+        if(valor == null || !valor.isPositivo()) {
+            return recusarValor(valor, id);
         }
+        if(contaGateway.creditar(id, valor) == 0) {
+            return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, id);
+        }
+        return Resultado.sucesso(valor);
     }
 
-    private void verificaSaldoParaSaque(Conta conta, BigDecimal saque) throws Exception {
-        verificaContaPorId(conta.getId());
-        if(conta.getSaldo().compareTo(saque) < 0) {
-            throw new ContaSaldoInsuficienteException("A conta com ID: " + conta.getId() + " não possui o saldo para saque");
+    public Resultado<Dinheiro> tentarSacar(Long id, Dinheiro saque) {
+        if(saque == null || !saque.isPositivo()) {
+            return recusarValor(saque, id);
+        }
+        if(contaGateway.debitar(id, saque) == 0) {
+            // O débito condicional não diz o motivo da recusa, só consulta a conta quando falha
+            if(contaGateway.buscarPorId(id) == null) {
+                return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, id);
+            }
+            return Resultado.falha(ErroOperacao.SALDO_INSUFICIENTE, id);
         }
+        return Resultado.sucesso(saque);
     }
 
-    public Long transferir(Long idOut, Long idIn, BigDecimal traferencia) throws Exception {
-        sacar(idOut, traferencia);
-        depositar(idIn, traferencia);
-        return gerarCodigoOperacao();
+    public Resultado<Long> tentarTransferir(Long idOut, Long idIn, Dinheiro traferencia) {
+        if(traferencia == null || !traferencia.isPositivo()) {
+            return recusarValor(traferencia, idOut, idIn);
+        }
+        if(!contaGateway.transferir(idOut, idIn, traferencia)) {
+            if(contaGateway.buscarPorId(idOut) == null) {
+                return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, idOut);
+            }
+            if(contaGateway.buscarPorId(idIn) == null) {
+                return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, idIn);
+            }
+            return Resultado.falha(ErroOperacao.SALDO_INSUFICIENTE, idOut);
+        }
+        return Resultado.sucesso(gerarCodigoOperacao());
     }
 
-    public Long gerarCodigoOperacao() {
-        Long leftLimit = 10000000L;
-        Long rightLimit = 19999999L;
-        return leftLimit + (long) (Math.random() * (rightLimit - leftLimit));
+    /**
+     * Valor nulo, zerado ou negativo não chega ao gateway. Conta inexistente continua sendo a
+     * recusa informada primeiro; as contas só são consultadas neste caminho, que é raro.
+     */
+    private <T> Resultado<T> recusarValor(Dinheiro valor, Long... ids) {
+        for (Long id : ids) {
+            if(contaGateway.buscarPorId(id) == null) {
+                return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, id);
+            }
+        }
+        return Resultado.falha(ErroOperacao.VALOR_INVALIDO, valor);
     }
 
-    public Conta atualizar (Long id, Conta contaNova) throws Exception {
-        verificaContaPorId(id);
+    /**
+     * Se {@code contaNova} traz a versão, ela precisa ser a atual, senão a recusa é
+     * {@link ErroOperacao#CONFLITO_VERSAO}. Sem versão, vale a que for lida agora; se outra
+     * operação alterar a conta entre a leitura e a escrita, tudo é lido e tentado de novo.
+     */
+    public Resultado<Conta> tentarAtualizar(Long id, Conta contaNova) {
+        boolean versaoInformada = contaNova.getVersao() != null;
+        try {
+            return retentativaConflito.executar(() -> {
+                Conta atual = contaGateway.buscarPorId(id);
+                if(atual == null) {
+                    return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, id);
+                }
+                if (id != contaNova.getId()) {
+                    return Resultado.falha(ErroOperacao.CONTAS_DIFERENTES, null);
+                }
+                if (!versaoInformada) {
+                    contaNova.setVersao(atual.getVersao());
+                } else if (!Objects.equals(contaNova.getVersao(), atual.getVersao())) {
+                    return Resultado.falha(ErroOperacao.CONFLITO_VERSAO, id);
+                }
+                contaGateway.atualizar(contaNova);
 
-        if (id != contaNova.getId()) {
-            throw new ContasDiferentesException("As contas são diferentes");
+                return Resultado.sucesso(contaGateway.buscarPorId(id));
+            });
+        } catch (ConflitoVersaoException e) {
+            return Resultado.falha(ErroOperacao.CONFLITO_VERSAO, id);
         }
-        contaGateway.atualizar(contaNova);
+    }
 
-        return contaGateway.buscarPorId(id);
+    @Transactional(readOnly = true)
+    public Resultado<List<Conta>> tentarListarPorCpf(String cpf) {
+        List<Conta> contas = contaGateway.listarPorCpf(cpf);
+        if(contas.isEmpty()) {
+            return Resultado.falha(ErroOperacao.CPF_NAO_EXISTE, cpf);
+        }
+        return Resultado.sucesso(contas);
+    }
+
+    private static <T> T obter(Resultado<T> resultado) throws OperacaoRecusadaException {
+        if (resultado.isSucesso()) {
+            return resultado.getValor();
+        }
+        Object referencia = resultado.getReferencia();
+        switch (resultado.getErro()) {
+            case CONTA_NAO_EXISTE:
+                throw new ContaNaoExisteException((Long) referencia);
+            case CPF_NAO_EXISTE:
+                throw ContaNaoExisteException.comCpf((String) referencia);
+            case SALDO_INSUFICIENTE:
+                throw new ContaSaldoInsuficienteException((Long) referencia);
+            case CONTAS_DIFERENTES:
+                throw new ContasDiferentesException();
+            case CONFLITO_VERSAO:
+                throw new ConflitoVersaoException((Long) referencia);
+            case CONTA_JA_EXISTE:
+                throw new ContaJaExisteException((Long) referencia);
+            case VALOR_INVALIDO:
+                throw new ValorInvalidoException(referencia);
+            default:
+                throw new IllegalArgumentException(resultado.getMensagem());
+        }
     }
 
+    public List<ResultadoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<Transferencia> validas = new ArrayList<>(transferencias.size());
+        for (Transferencia transferencia : transferencias) {
+            if (transferenciaValida(transferencia)) {
+                validas.add(transferencia);
+            }
+        }
+
+        Iterator<SituacaoTransferencia> situacoes = contaGateway.transferirEmLote(validas).iterator();
+        List<ResultadoTransferencia> resultados = new ArrayList<>(transferencias.size());
+        for (Transferencia transferencia : transferencias) {
+            if (!transferenciaValida(transferencia)) {
+                resultados.add(new ResultadoTransferencia(SituacaoTransferencia.INVALIDA, null));
+                continue;
+            }
+            SituacaoTransferencia situacao = situacoes.next();
+            Long codigoOperacao = situacao == SituacaoTransferencia.REALIZADA ? gerarCodigoOperacao() : null;
+            resultados.add(new ResultadoTransferencia(situacao, codigoOperacao));
+        }
+        return resultados;
+    }
+
+    private boolean transferenciaValida(Transferencia transferencia) {
+        return transferencia != null
+                && transferencia.getIdOut() != null
+                && transferencia.getIdIn() != null
+                && transferencia.getValor() != null
+                && transferencia.getValor().isPositivo();
+    }
+
+    public Long gerarCodigoOperacao() {
+        return geradorCodigoOperacao.gerar();
+    }
+
+    public Conta atualizar (Long id, Conta contaNova) throws Exception {
+        return obter(tentarAtualizar(id, contaNova));
+    }
+
+    @Transactional(readOnly = true)
     public List<Conta> listar() {
         return contaGateway.listar();
     }
 
+    @Transactional(readOnly = true)
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        return contaGateway.listarPagina(depoisDe, limitarPagina(limite));
+    }
+
+    /**
+     * O tamanho de página realmente usado para o {@code limite} pedido, entre 1 e {@value #LIMITE_PAGINA}.
+     * Quem decide se há próxima página compara com este valor, não com o pedido.
+     */
+    public static int limitarPagina(int limite) {
+        return Math.max(1, Math.min(limite, LIMITE_PAGINA));
+    }
+
+    public Resultado<List<Movimentacao>> tentarExtrato(Long id, Instant de, Instant ate, Long depoisDe, int limite) {
+        if (contaGateway.buscarPorId(id) == null) {
+            return Resultado.falha(ErroOperacao.CONTA_NAO_EXISTE, id);
+        }
+        return Resultado.sucesso(contaGateway.extrato(id, de, ate, depoisDe, limitarPagina(limite)));
+    }
+
+    public Resultado<ResumoAgencia> tentarResumirAgencia(Long agencia) {
+        ResumoAgencia resumo = contaGateway.resumirAgencia(agencia);
+        if (resumo == null) {
+            return Resultado.falha(ErroOperacao.AGENCIA_SEM_CONTAS, agencia);
+        }
+        return Resultado.sucesso(resumo);
+    }
+
+    @Transactional(readOnly = true)
+    public void percorrer(Consumer<Conta> consumidor) {
+        contaGateway.percorrer(consumidor);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportar(ColetorContas coletor) {
+        contaGateway.exportar(coletor);
+    }
+
+    @Transactional(readOnly = true)
     public List<Conta> listarPorCpf(String cpf) throws ContaNaoExisteException {
-        List<Conta> contas = contaGateway.listarPorCpf(cpf);
-        if(contas.isEmpty()) {
-            throw new ContaNaoExisteException("A conta com CPF: " + cpf + " não existe");
+        Resultado<List<Conta>> resultado = tentarListarPorCpf(cpf);
+        if(!resultado.isSucesso()) {
+            throw ContaNaoExisteException.comCpf(cpf);
         }
-        return contas;
+        return resultado.getValor();
     }
 }
@@ -0,0 +1,73 @@
+package com.ada.banco.domain.usecase;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Gera códigos de operação de 64 bits no formato Snowflake:
+ * 41 bits de milissegundos desde {@link #EPOCA}, 10 bits do nó e 12 bits de sequência.
+ *
+ * O gerador guarda só milissegundo e sequência em um contador, sem o nó no meio, então passar
+ * do fim da sequência é um incremento comum que já cai no milissegundo seguinte. Cada código sai
+ * de um {@link AtomicLong#incrementAndGet()}, que não repete em laço como um CAS: threads
+ * concorrentes nunca refazem o trabalho umas das outras. O CAS só aparece quando o relógio passa
+ * à frente do contador, uma vez por milissegundo.
+ *
+ * Os códigos são estritamente crescentes no nó, entre todas as threads: se a sequência do
+ * milissegundo acabar, ou se o relógio voltar, o gerador segue a partir do último código em vez de
+ * repetir. Nós diferentes ({@code banco.codigo-operacao.no}) nunca geram o mesmo código.
+ */
+@Component
+public class GeradorCodigoOperacao {
+    /** 2024-01-01T00:00:00Z; 41 bits de milissegundos dão uns 69 anos a partir daqui. */
+    public static final long EPOCA = 1704067200000L;
+    public static final int BITS_NO = 10;
+    public static final int BITS_SEQUENCIA = 12;
+    public static final long MAXIMO_NO = (1L << BITS_NO) - 1;
+
+    private static final long MAXIMO_SEQUENCIA = (1L << BITS_SEQUENCIA) - 1;
+    private static final int DESLOCAMENTO_TEMPO = BITS_NO + BITS_SEQUENCIA;
+
+    private final long bitsNo;
+    private final LongSupplier relogio;
+    /** Milissegundo e sequência do último código, sem os bits do nó. */
+    private final AtomicLong ultimo = new AtomicLong();
+
+    /**
+     * O nó não tem valor padrão: duas instâncias com o mesmo nó geram os mesmos códigos,
+     * então a aplicação não sobe sem {@code banco.codigo-operacao.no}.
+     */
+    @Autowired
+    public GeradorCodigoOperacao(@Value("${banco.codigo-operacao.no}") long no) {
+        this(no, System::currentTimeMillis);
+    }
+
+    GeradorCodigoOperacao(long no, LongSupplier relogio) {
+        if (no < 0 || no > MAXIMO_NO) {
+            throw new IllegalArgumentException("O nó deve estar entre 0 e " + MAXIMO_NO + ": " + no);
+        }
+        this.bitsNo = no << BITS_SEQUENCIA;
+        this.relogio = relogio;
+    }
+
+    public long gerar() {
+        long inicioDoMilissegundo = (relogio.getAsLong() - EPOCA) << BITS_SEQUENCIA;
+        long proximo = ultimo.incrementAndGet();
+        if (proximo < inicioDoMilissegundo) {
+            proximo = ultimo.accumulateAndGet(inicioDoMilissegundo, (atual, inicio) -> Math.max(atual + 1, inicio));
+        }
+        return (proximo >>> BITS_SEQUENCIA) << DESLOCAMENTO_TEMPO | bitsNo | (proximo & MAXIMO_SEQUENCIA);
+    }
+
+    public static long no(long codigo) {
+        return (codigo >>> BITS_SEQUENCIA) & MAXIMO_NO;
+    }
+
+    public static long instante(long codigo) {
+        return (codigo >>> DESLOCAMENTO_TEMPO) + EPOCA;
+    }
+}
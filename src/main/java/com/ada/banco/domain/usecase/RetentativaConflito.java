@@ -0,0 +1,87 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.exception.ConflitoVersaoException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Repete uma operação enquanto ela falhar com {@link ConflitoVersaoException}, até
+ * {@code banco.conflito.tentativas} vezes. Entre uma tentativa e outra espera um tempo sorteado
+ * entre zero e um teto que dobra a cada conflito, de {@code banco.conflito.espera-inicial} até
+ * {@code banco.conflito.espera-maxima}, para que quem colidiu não colida de novo no mesmo instante.
+ *
+ * Os contadores ficam aqui e são publicados como métricas pela infra: se a taxa de conflitos de
+ * uma operação cresce, a conta disputada precisa de outra estratégia.
+ */
+@Component
+public class RetentativaConflito {
+    private final int maximoTentativas;
+    private final long esperaInicial;
+    private final long esperaMaxima;
+    private final LongAdder operacoes = new LongAdder();
+    private final LongAdder conflitos = new LongAdder();
+    private final LongAdder retentativas = new LongAdder();
+    private final LongAdder esgotadas = new LongAdder();
+
+    @Autowired
+    public RetentativaConflito(@Value("${banco.conflito.tentativas:5}") int maximoTentativas,
+                               @Value("${banco.conflito.espera-inicial:5ms}") Duration esperaInicial,
+                               @Value("${banco.conflito.espera-maxima:200ms}") Duration esperaMaxima) {
+        this.maximoTentativas = Math.max(1, maximoTentativas);
+        this.esperaInicial = esperaInicial.toNanos();
+        this.esperaMaxima = esperaMaxima.toNanos();
+    }
+
+    public <T> T executar(Supplier<T> operacao) {
+        operacoes.increment();
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return operacao.get();
+            } catch (ConflitoVersaoException e) {
+                conflitos.increment();
+                if (tentativa >= maximoTentativas) {
+                    esgotadas.increment();
+                    throw e;
+                }
+                retentativas.increment();
+                esperar(tentativa, e);
+            }
+        }
+    }
+
+    private void esperar(int tentativa, ConflitoVersaoException conflito) {
+        long teto = Math.min(esperaMaxima, esperaInicial << Math.min(tentativa - 1, 20));
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflito;
+        }
+    }
+
+    /** Operações executadas, com ou sem conflito. */
+    public long getOperacoes() {
+        return operacoes.sum();
+    }
+
+    /** Tentativas que falharam por conflito de versão. */
+    public long getConflitos() {
+        return conflitos.sum();
+    }
+
+    public long getRetentativas() {
+        return retentativas.sum();
+    }
+
+    /** Operações que esgotaram as tentativas e devolveram o conflito a quem chamou. */
+    public long getEsgotadas() {
+        return esgotadas.sum();
+    }
+}
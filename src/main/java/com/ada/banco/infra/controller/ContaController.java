@@ -1,84 +1,419 @@
 package com.ada.banco.infra.controller;
 
-import com.ada.banco.domain.exception.ContaNaoExisteException;
-import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
-import com.ada.banco.domain.exception.ContasDiferentesException;
 import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ErroOperacao;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.SituacaoImportacao;
+import com.ada.banco.domain.model.ResultadoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
 import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.exportacao.EscritorCsv;
+import com.ada.banco.infra.exportacao.FormatoColunar;
+import com.ada.banco.infra.idempotencia.RegistroIdempotencia;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/contas")
 public class ContaController {
+    static final String TEXT_CSV_VALUE = "text/csv";
 
     private ContaUseCase contaUseCase;
+    private ObjectMapper objectMapper;
+    private RegistroIdempotencia registroIdempotencia;
+    private int tamanhoLote;
+    private int tamanhoLoteImportacao;
+    private int linhasPorBlocoExportacao;
 
     @Autowired
-    public ContaController(ContaUseCase contaUseCase) {
+    public ContaController(ContaUseCase contaUseCase, ObjectMapper objectMapper, RegistroIdempotencia registroIdempotencia,
+                           @Value("${banco.transferencia.lote.tamanho:500}") int tamanhoLote,
+                           @Value("${banco.importacao.lote:1000}") int tamanhoLoteImportacao,
+                           @Value("${banco.exportacao.linhas-por-bloco:4096}") int linhasPorBlocoExportacao) {
         this.contaUseCase = contaUseCase;
+        this.objectMapper = objectMapper;
+        this.registroIdempotencia = registroIdempotencia;
+        this.tamanhoLote = tamanhoLote;
+        this.tamanhoLoteImportacao = tamanhoLoteImportacao;
+        this.linhasPorBlocoExportacao = linhasPorBlocoExportacao;
     }
 
 
+    /**
+     * Lista as contas em páginas ordenadas por id. Para buscar a próxima página,
+     * envie em {@code after} o valor do cabeçalho {@code X-Proximo-After}.
+     */
     @GetMapping("/listar")
-    public ResponseEntity<List<Conta>> get() {
-        return new ResponseEntity<>(contaUseCase.listar(), HttpStatus.OK);
+    public ResponseEntity<List<Conta>> get(@RequestParam(required = false) Long after,
+                                           @RequestParam(defaultValue = "100") int limit) {
+        List<Conta> contas = contaUseCase.listarPagina(after, limit);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.OK);
+        if (!contas.isEmpty() && contas.size() >= ContaUseCase.limitarPagina(limit)) {
+            resposta.header("X-Proximo-After", contas.get(contas.size() - 1).getId().toString());
+        }
+        return resposta.body(contas);
     }
 
-    @GetMapping("/listar/{cpf}")
-    public ResponseEntity<?> getByCpf(@PathVariable String cpf) {
-        List<Conta> contas;
+    /**
+     * Todas as contas, uma por linha (NDJSON), escritas conforme são lidas do banco.
+     */
+    @GetMapping(value = "/listar/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void getStream(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream saida = response.getOutputStream();
         try {
-            contas = contaUseCase.listarPorCpf(cpf);
-            return new ResponseEntity<>(contas, HttpStatus.OK);
-        } catch (ContaNaoExisteException e){
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            contaUseCase.percorrer(conta -> {
+                try {
+                    saida.write(objectMapper.writeValueAsBytes(conta));
+                    saida.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        saida.flush();
     }
 
-    @PostMapping
-    public ResponseEntity<?> criarConta(@RequestBody Conta conta) throws Exception {
-        Conta novaConta;
+    /**
+     * Exporta todas as contas direto do cursor do banco: {@code csv} em CSV com gzip e {@code colunar}
+     * no {@link FormatoColunar}. Nenhuma {@link Conta} é criada por linha, então a memória usada não
+     * depende da quantidade de contas.
+     */
+    @GetMapping("/exportar")
+    public void exportar(@RequestParam(defaultValue = "csv") String formato, HttpServletResponse response) throws IOException {
+        if (!formato.equals("csv") && !formato.equals("colunar")) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Formato de exportação inválido: " + formato);
+            return;
+        }
+        boolean csv = formato.equals("csv");
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(csv ? "application/gzip" : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"contas." + (csv ? "csv.gz" : "colunar") + "\"");
+        OutputStream saida = response.getOutputStream();
         try {
-            novaConta = contaUseCase.criar(conta);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            if (csv) {
+                EscritorCsv escritor = new EscritorCsv(saida);
+                contaUseCase.exportar(escritor);
+                escritor.terminar();
+            } else {
+                FormatoColunar.Escritor escritor = new FormatoColunar.Escritor(saida, linhasPorBlocoExportacao);
+                contaUseCase.exportar(escritor);
+                escritor.terminar();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @GetMapping("/listar/{cpf}")
+    public ResponseEntity<?> getByCpf(@PathVariable String cpf) {
+        Resultado<List<Conta>> resultado = contaUseCase.tentarListarPorCpf(cpf);
+        if (!resultado.isSucesso()) {
+            return recusa(resultado);
+        }
+        return new ResponseEntity<>(resultado.getValor(), HttpStatus.OK);
+    }
+
+    /**
+     * Extrato da conta, do lançamento mais recente para o mais antigo, opcionalmente limitado ao período
+     * {@code [from, to)}. Para buscar a próxima página, envie em {@code after} o valor do cabeçalho
+     * {@code X-Proximo-After}.
+     */
+    @GetMapping("/{id}/extrato")
+    public ResponseEntity<?> extrato(@PathVariable Long id,
+                                     @RequestParam(required = false) Instant from,
+                                     @RequestParam(required = false) Instant to,
+                                     @RequestParam(required = false) Long after,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        Resultado<List<Movimentacao>> resultado = contaUseCase.tentarExtrato(id, from, to, after, limit);
+        if (!resultado.isSucesso()) {
+            return recusa(resultado);
+        }
+        List<Movimentacao> movimentacoes = resultado.getValor();
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.status(HttpStatus.OK);
+        if (!movimentacoes.isEmpty() && movimentacoes.size() >= ContaUseCase.limitarPagina(limit)) {
+            resposta.header("X-Proximo-After", movimentacoes.get(movimentacoes.size() - 1).getId().toString());
         }
+        return resposta.body(movimentacoes);
+    }
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(novaConta);
+    /**
+     * Quantidade de contas e soma, mínimo e máximo dos saldos da agência, sem varrer as contas.
+     */
+    @GetMapping("/agencias/{agencia}/resumo")
+    public ResponseEntity<?> resumirAgencia(@PathVariable Long agencia) {
+        Resultado<ResumoAgencia> resultado = contaUseCase.tentarResumirAgencia(agencia);
+        if (!resultado.isSucesso()) {
+            return recusa(resultado);
+        }
+        return ResponseEntity.ok(resultado.getValor());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> criarConta(@RequestBody Conta conta) {
+        Resultado<Conta> resultado = contaUseCase.tentarCriar(conta);
+        if (!resultado.isSucesso()) {
+            return recusa(resultado);
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(resultado.getValor());
     }
 
     @PutMapping("/atualizar/{id}")
-    public ResponseEntity<?> atualizar(@PathVariable Long id, @RequestBody Conta conta) throws Exception {
+    public ResponseEntity<?> atualizar(@PathVariable Long id, @RequestBody Conta conta) {
+        Resultado<Conta> resultado = contaUseCase.tentarAtualizar(id, conta);
+        if (!resultado.isSucesso()) {
+            return recusa(resultado);
+        }
+        return ResponseEntity.ok(resultado.getValor());
+    }
+
+    /**
+     * Com o cabeçalho {@code Idempotency-Key}, repetições da mesma requisição devolvem a resposta
+     * da primeira sem transferir de novo. O mesmo vale para depósito e saque.
+     */
+    @PutMapping("/transferir")
+    public ResponseEntity<String> transferir(@RequestHeader(name = RegistroIdempotencia.CABECALHO, required = false) String chave,
+                                             @RequestParam Long idOut, @RequestParam Long idIn, @RequestParam BigDecimal valor) {
+        return registroIdempotencia.executar(chave, "transferir:" + idOut + ":" + idIn + ":" + centavos(valor),
+                () -> transferir(idOut, idIn, valor));
+    }
 
+    private ResponseEntity<String> transferir(Long idOut, Long idIn, BigDecimal valor) {
+        Dinheiro quantia = Dinheiro.deOuNulo(valor);
+        if (quantia == null) {
+            return recusa(Resultado.falha(ErroOperacao.VALOR_INVALIDO, valor));
+        }
+        Resultado<Long> resultado = contaUseCase.tentarTransferir(idOut, idIn, quantia);
+        if (!resultado.isSucesso()) {
+            return recusa(resultado);
+        }
+        String mensagemSucesso = "Operação "+ resultado.getValor() +" realizada com Sucesso! "+
+                "R$:" + toString().format("%.2f", valor) +" transferidos da conda ID: " +idOut +
+                " para a conta ID: " +idIn;
+        return ResponseEntity.ok(mensagemSucesso);
+    }
+
+    @PutMapping("/depositar")
+    public ResponseEntity<String> depositar(@RequestHeader(name = RegistroIdempotencia.CABECALHO, required = false) String chave,
+                                            @RequestParam Long id, @RequestParam BigDecimal valor) {
+        return registroIdempotencia.executar(chave, "depositar:" + id + ":" + centavos(valor), () -> {
+            Dinheiro quantia = Dinheiro.deOuNulo(valor);
+            if (quantia == null || !quantia.isPositivo()) {
+                return recusa(Resultado.falha(ErroOperacao.VALOR_INVALIDO, valor));
+            }
+            Resultado<Dinheiro> resultado = contaUseCase.tentarDepositar(id, quantia);
+            if (!resultado.isSucesso()) {
+                return recusa(resultado);
+            }
+            return ResponseEntity.ok("R$:" + quantia + " depositados na conta ID: " + id);
+        });
+    }
+
+    @PutMapping("/sacar")
+    public ResponseEntity<String> sacar(@RequestHeader(name = RegistroIdempotencia.CABECALHO, required = false) String chave,
+                                        @RequestParam Long id, @RequestParam BigDecimal valor) {
+        return registroIdempotencia.executar(chave, "sacar:" + id + ":" + centavos(valor), () -> {
+            Dinheiro quantia = Dinheiro.deOuNulo(valor);
+            if (quantia == null || !quantia.isPositivo()) {
+                return recusa(Resultado.falha(ErroOperacao.VALOR_INVALIDO, valor));
+            }
+            Resultado<Dinheiro> resultado = contaUseCase.tentarSacar(id, quantia);
+            if (!resultado.isSucesso()) {
+                return recusa(resultado);
+            }
+            return ResponseEntity.ok("R$:" + quantia + " sacados da conta ID: " + id);
+        });
+    }
+
+    /**
+     * Valor na descrição da requisição idempotente: em centavos, para {@code 10}, {@code 10.0} e
+     * {@code 10.00} serem a mesma requisição. Valores que não cabem em centavos vão normalizados como estão.
+     */
+    private static String centavos(BigDecimal valor) {
+        Dinheiro quantia = Dinheiro.deOuNulo(valor);
+        return quantia == null ? valor.stripTrailingZeros().toPlainString() : Long.toString(quantia.getCentavos());
+    }
+
+    private static ResponseEntity<String> recusa(Resultado<?> resultado) {
+        HttpStatus status = switch (resultado.getErro()) {
+            case CONTA_NAO_EXISTE, CPF_NAO_EXISTE, AGENCIA_SEM_CONTAS -> HttpStatus.NOT_FOUND;
+            case CONTAS_DIFERENTES, CONFLITO_VERSAO -> HttpStatus.CONFLICT;
+            case SALDO_INSUFICIENTE, VALOR_INVALIDO, CONTA_JA_EXISTE -> HttpStatus.BAD_REQUEST;
+        };
+        return ResponseEntity.status(status).body(resultado.getMensagem());
+    }
+
+    /**
+     * Recebe uma transferência por linha (NDJSON) e devolve uma linha de resultado para cada uma,
+     * na mesma ordem. As linhas são aplicadas em lotes de {@code banco.transferencia.lote.tamanho},
+     * então nem a entrada nem a saída ficam inteiras em memória. Linhas em branco são ignoradas, mas
+     * contam na numeração, como em {@link #importar}.
+     */
+    @PostMapping(value = "/transferir/lote", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void transferirEmLote(InputStream corpo, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream saida = response.getOutputStream();
+
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        List<Transferencia> lote = new ArrayList<>(tamanhoLote);
+        List<Long> linhas = new ArrayList<>(tamanhoLote);
+        long linha = 0;
+        String conteudo;
+        while ((conteudo = leitor.readLine()) != null) {
+            linha++;
+            if (conteudo.isBlank()) {
+                continue;
+            }
+            lote.add(lerTransferencia(conteudo));
+            linhas.add(linha);
+            if (lote.size() == tamanhoLote) {
+                escreverResultados(saida, linhas, contaUseCase.transferirEmLote(lote));
+                lote.clear();
+                linhas.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            escreverResultados(saida, linhas, contaUseCase.transferirEmLote(lote));
+        }
+        saida.flush();
+    }
+
+    /**
+     * Importa contas de um CSV ({@value LinhaCsv#CABECALHO}, com ou sem cabeçalho) ou de um NDJSON
+     * com uma conta por linha. As linhas são lidas e gravadas em lotes de {@code banco.importacao.lote}.
+     *
+     * A resposta é NDJSON e vai sendo escrita durante a importação: uma linha para cada conta que não
+     * foi criada, com o motivo, e uma linha de progresso ao fim de cada lote. A última linha de
+     * progresso traz {@code "concluida": true}.
+     */
+    @PostMapping(value = "/importar", consumes = {TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) String tipo, InputStream corpo,
+                         HttpServletResponse response) throws IOException {
+        boolean csv = MediaType.parseMediaType(tipo).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream saida = response.getOutputStream();
+
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+        ProgressoImportacao progresso = new ProgressoImportacao();
+        List<Conta> lote = new ArrayList<>(tamanhoLoteImportacao);
+        List<Long> linhas = new ArrayList<>(tamanhoLoteImportacao);
+        long linha = 0;
+        String conteudo;
+        while ((conteudo = leitor.readLine()) != null) {
+            linha++;
+            if (conteudo.isBlank() || (csv && linha == 1 && LinhaCsv.isCabecalho(conteudo))) {
+                continue;
+            }
+            lote.add(csv ? LinhaCsv.lerConta(conteudo) : lerConta(conteudo));
+            linhas.add(linha);
+            if (lote.size() == tamanhoLoteImportacao) {
+                importarLote(saida, lote, linhas, progresso, false);
+            }
+        }
+        importarLote(saida, lote, linhas, progresso, true);
+    }
+
+    private void importarLote(OutputStream saida, List<Conta> lote, List<Long> linhas,
+                              ProgressoImportacao progresso, boolean concluida) throws IOException {
+        List<SituacaoImportacao> situacoes = contaUseCase.importar(lote);
+        for (int i = 0; i < situacoes.size(); i++) {
+            progresso.processadas++;
+            if (situacoes.get(i) == SituacaoImportacao.CRIADA) {
+                progresso.criadas++;
+                continue;
+            }
+            progresso.recusadas++;
+            Map<String, Object> recusa = new LinkedHashMap<>();
+            recusa.put("linha", linhas.get(i));
+            recusa.put("situacao", situacoes.get(i));
+            if (lote.get(i) != null && lote.get(i).getId() != null) {
+                recusa.put("id", lote.get(i).getId());
+            }
+            saida.write(objectMapper.writeValueAsBytes(recusa));
+            saida.write('\n');
+        }
+        Map<String, Object> linhaProgresso = new LinkedHashMap<>();
+        linhaProgresso.put("processadas", progresso.processadas);
+        linhaProgresso.put("criadas", progresso.criadas);
+        linhaProgresso.put("recusadas", progresso.recusadas);
+        if (concluida) {
+            linhaProgresso.put("concluida", true);
+        }
+        saida.write(objectMapper.writeValueAsBytes(linhaProgresso));
+        saida.write('\n');
+        saida.flush();
+        lote.clear();
+        linhas.clear();
+    }
+
+    private Conta lerConta(String conteudo) {
         try {
-            Conta contaAtualizada = contaUseCase.atualizar(id, conta);
-            return ResponseEntity.ok(contaAtualizada);
-        } catch (ContaNaoExisteException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (ContasDiferentesException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            return objectMapper.readValue(conteudo, Conta.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
         }
     }
 
-    @PutMapping("/transferir")
-    public ResponseEntity<?> transferir(@RequestParam Long idOut, @RequestParam Long idIn, @RequestParam BigDecimal valor) throws Exception {
+    private static final class ProgressoImportacao {
+        private long processadas;
+        private long criadas;
+        private long recusadas;
+    }
+
+    private Transferencia lerTransferencia(String conteudo) {
         try {
-            Long codigoOperacao = contaUseCase.transferir(idOut, idIn, valor);
-            String mensagemSucesso = "Operação "+ codigoOperacao +" realizada com Sucesso! "+
-                    "R$:" + toString().format("%.2f", valor) +" transferidos da conda ID: " +idOut +
-                    " para a conta ID: " +idIn;
-            return ResponseEntity.ok(mensagemSucesso);
-        } catch (ContaNaoExisteException e) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
-        } catch (ContaSaldoInsuficienteException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            return objectMapper.readValue(conteudo, Transferencia.class);
+        } catch (JsonProcessingException e) {
+            return null;
         }
     }
 
+    private void escreverResultados(OutputStream saida, List<Long> linhas, List<ResultadoTransferencia> resultados) throws IOException {
+        for (int i = 0; i < resultados.size(); i++) {
+            ResultadoTransferencia resultado = resultados.get(i);
+            Map<String, Object> linhaResultado = new LinkedHashMap<>();
+            linhaResultado.put("linha", linhas.get(i));
+            linhaResultado.put("situacao", resultado.getSituacao());
+            if (resultado.getCodigoOperacao() != null) {
+                linhaResultado.put("codigoOperacao", resultado.getCodigoOperacao());
+            }
+            saida.write(objectMapper.writeValueAsBytes(linhaResultado));
+            saida.write('\n');
+        }
+        saida.flush();
+    }
 }
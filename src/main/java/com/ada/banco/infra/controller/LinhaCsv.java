@@ -0,0 +1,77 @@
+package com.ada.banco.infra.controller;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.exportacao.EscritorCsv;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lê uma conta de uma linha CSV no formato {@code id,agencia,digito,saldo,titular,cpf}.
+ * Campos podem vir entre aspas duplas, com {@code ""} para uma aspa dentro do campo,
+ * mas não podem quebrar linha.
+ */
+final class LinhaCsv {
+    static final String CABECALHO = EscritorCsv.CABECALHO;
+    private static final int CAMPOS = 6;
+
+    private LinhaCsv() {
+    }
+
+    static boolean isCabecalho(String linha) {
+        return linha.strip().toLowerCase().startsWith("id,");
+    }
+
+    /**
+     * @return a conta, ou {@code null} se a linha não estiver no formato esperado
+     */
+    static Conta lerConta(String linha) {
+        List<String> campos = campos(linha);
+        if (campos == null || campos.size() != CAMPOS) {
+            return null;
+        }
+        try {
+            return new Conta(
+                    Long.valueOf(campos.get(0).strip()),
+                    campos.get(1).isBlank() ? null : Long.valueOf(campos.get(1).strip()),
+                    campos.get(2).isBlank() ? null : Long.valueOf(campos.get(2).strip()),
+                    campos.get(3).isBlank() ? null : Dinheiro.de(campos.get(3).strip()),
+                    campos.get(4),
+                    campos.get(5).strip());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<String> campos(String linha) {
+        List<String> campos = new ArrayList<>(CAMPOS);
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreAspas) {
+            return null;
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,258 @@
+package com.ada.banco.infra.exportacao;
+
+import com.ada.banco.domain.gateway.ColetorContas;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato binário colunar para exportar contas. Depois da assinatura {@code CONTAS} e da versão,
+ * vêm blocos de até {@code linhasPorBloco} contas, cada um com a quantidade de linhas, o tamanho
+ * comprimido e as colunas, uma depois da outra, comprimidas juntas com deflate:
+ * <ul>
+ *     <li>id: diferença para o id anterior do bloco;</li>
+ *     <li>agência, dígito e saldo em centavos;</li>
+ *     <li>titular e cpf: tamanho em bytes + 1 (0 para nulo) seguido dos bytes UTF-8.</li>
+ * </ul>
+ * Todo número é um varint em zigzag. Um bloco com 0 linhas encerra o arquivo.
+ * <p>
+ * Guardar cada coluna junta deixa ids sequenciais, agências e dígitos repetidos em um ou dois bytes
+ * por conta e dá ao deflate sequências parecidas para comprimir. Como cada bloco é comprimido
+ * sozinho, quem lê pode pular blocos inteiros sem descomprimi-los.
+ */
+public final class FormatoColunar {
+    private static final byte[] ASSINATURA = {'C', 'O', 'N', 'T', 'A', 'S', 1};
+
+    private FormatoColunar() {
+    }
+
+    /**
+     * Acumula um bloco em arrays reaproveitados e escreve cada bloco cheio, então a memória usada
+     * depende só de {@code linhasPorBloco}.
+     */
+    public static class Escritor implements ColetorContas {
+        private final OutputStream saida;
+        private final long[] ids;
+        private final long[] agencias;
+        private final long[] digitos;
+        private final long[] saldos;
+        private final Bytes titulares = new Bytes();
+        private final Bytes cpfs = new Bytes();
+        private final Bytes bloco = new Bytes();
+        private final Bytes cabecalho = new Bytes();
+        private final Deflater deflater = new Deflater();
+        private byte[] comprimido = new byte[1 << 12];
+        private int linhas;
+
+        public Escritor(OutputStream saida, int linhasPorBloco) throws IOException {
+            this.saida = saida;
+            this.ids = new long[linhasPorBloco];
+            this.agencias = new long[linhasPorBloco];
+            this.digitos = new long[linhasPorBloco];
+            this.saldos = new long[linhasPorBloco];
+            saida.write(ASSINATURA);
+        }
+
+        @Override
+        public void coletar(long id, long agencia, long digito, long saldoEmCentavos, String titular, String cpf) {
+            ids[linhas] = id;
+            agencias[linhas] = agencia;
+            digitos[linhas] = digito;
+            saldos[linhas] = saldoEmCentavos;
+            titulares.escreverTexto(titular);
+            cpfs.escreverTexto(cpf);
+            if (++linhas == ids.length) {
+                try {
+                    escreverBloco();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        /**
+         * Escreve o último bloco e o marcador de fim, sem fechar a saída recebida.
+         */
+        public void terminar() throws IOException {
+            if (linhas > 0) {
+                escreverBloco();
+            }
+            cabecalho.escreverVarint(0);
+            cabecalho.transferirPara(saida);
+            saida.flush();
+            deflater.end();
+        }
+
+        private void escreverBloco() throws IOException {
+            long anterior = 0;
+            for (int i = 0; i < linhas; i++) {
+                bloco.escreverVarint(ids[i] - anterior);
+                anterior = ids[i];
+            }
+            escreverColuna(agencias);
+            escreverColuna(digitos);
+            escreverColuna(saldos);
+            titulares.transferirPara(bloco);
+            cpfs.transferirPara(bloco);
+
+            deflater.reset();
+            deflater.setInput(bloco.dados, 0, bloco.tamanho);
+            deflater.finish();
+            int tamanho = 0;
+            while (!deflater.finished()) {
+                if (tamanho == comprimido.length) {
+                    comprimido = Arrays.copyOf(comprimido, comprimido.length * 2);
+                }
+                tamanho += deflater.deflate(comprimido, tamanho, comprimido.length - tamanho);
+            }
+            cabecalho.escreverVarint(linhas);
+            cabecalho.escreverVarint(tamanho);
+            cabecalho.transferirPara(saida);
+            saida.write(comprimido, 0, tamanho);
+            bloco.tamanho = 0;
+            linhas = 0;
+        }
+
+        private void escreverColuna(long[] coluna) {
+            for (int i = 0; i < linhas; i++) {
+                bloco.escreverVarint(coluna[i]);
+            }
+        }
+    }
+
+    /**
+     * Lê um arquivo escrito pelo {@link Escritor}, entregando as contas na ordem em que foram escritas.
+     */
+    public static void ler(InputStream entrada, ColetorContas coletor) throws IOException {
+        InputStream dados = new BufferedInputStream(entrada, 1 << 16);
+        byte[] assinatura = dados.readNBytes(ASSINATURA.length);
+        if (!Arrays.equals(ASSINATURA, assinatura)) {
+            throw new IOException("Arquivo colunar de contas inválido");
+        }
+        long[] ids = new long[0];
+        long[] agencias = new long[0];
+        long[] digitos = new long[0];
+        long[] saldos = new long[0];
+        String[] titulares = new String[0];
+        int linhas;
+        while ((linhas = (int) lerVarint(dados)) > 0) {
+            int tamanho = (int) lerVarint(dados);
+            InputStream bloco = new InflaterInputStream(new ByteArrayInputStream(lerBytes(dados, tamanho)));
+            if (ids.length < linhas) {
+                ids = new long[linhas];
+                agencias = new long[linhas];
+                digitos = new long[linhas];
+                saldos = new long[linhas];
+                titulares = new String[linhas];
+            }
+            long anterior = 0;
+            for (int i = 0; i < linhas; i++) {
+                anterior += lerVarint(bloco);
+                ids[i] = anterior;
+            }
+            lerColuna(bloco, agencias, linhas);
+            lerColuna(bloco, digitos, linhas);
+            lerColuna(bloco, saldos, linhas);
+            for (int i = 0; i < linhas; i++) {
+                titulares[i] = lerTexto(bloco);
+            }
+            for (int i = 0; i < linhas; i++) {
+                coletor.coletar(ids[i], agencias[i], digitos[i], saldos[i], titulares[i], lerTexto(bloco));
+            }
+        }
+    }
+
+    private static void lerColuna(InputStream dados, long[] coluna, int linhas) throws IOException {
+        for (int i = 0; i < linhas; i++) {
+            coluna[i] = lerVarint(dados);
+        }
+    }
+
+    private static String lerTexto(InputStream dados) throws IOException {
+        int tamanho = (int) lerVarint(dados);
+        if (tamanho == 0) {
+            return null;
+        }
+        return new String(lerBytes(dados, tamanho - 1), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] lerBytes(InputStream dados, int tamanho) throws IOException {
+        byte[] bytes = dados.readNBytes(tamanho);
+        if (bytes.length != tamanho) {
+            throw new EOFException();
+        }
+        return bytes;
+    }
+
+    private static long lerVarint(InputStream dados) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            int b = dados.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return (valor >>> 1) ^ -(valor & 1);
+            }
+        }
+        throw new IOException("Varint inválido");
+    }
+
+    /**
+     * Buffer de bytes que cresce conforme preciso e é reaproveitado entre os blocos.
+     */
+    private static final class Bytes {
+        private byte[] dados = new byte[1 << 12];
+        private int tamanho;
+
+        void escreverVarint(long valor) {
+            garantir(10);
+            long zigzag = (valor << 1) ^ (valor >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                dados[tamanho++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            dados[tamanho++] = (byte) zigzag;
+        }
+
+        void escreverTexto(String texto) {
+            if (texto == null) {
+                escreverVarint(0);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            escreverVarint(bytes.length + 1);
+            garantir(bytes.length);
+            System.arraycopy(bytes, 0, dados, tamanho, bytes.length);
+            tamanho += bytes.length;
+        }
+
+        void transferirPara(OutputStream saida) throws IOException {
+            saida.write(dados, 0, tamanho);
+            tamanho = 0;
+        }
+
+        void transferirPara(Bytes destino) {
+            destino.garantir(tamanho);
+            System.arraycopy(dados, 0, destino.dados, destino.tamanho, tamanho);
+            destino.tamanho += tamanho;
+            tamanho = 0;
+        }
+
+        private void garantir(int bytes) {
+            if (tamanho + bytes > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + bytes));
+            }
+        }
+    }
+}
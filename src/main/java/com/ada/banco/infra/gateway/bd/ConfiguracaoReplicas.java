@@ -0,0 +1,91 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Com {@code banco.replicas.habilitado=true}, o {@code DataSource} da aplicação passa a ser um
+ * {@link DataSourceRoteado}: o primário vem de {@code spring.datasource.*} e cada URL de
+ * {@code banco.replicas.urls} vira uma réplica com o mesmo usuário e senha.
+ *
+ * A replicação em si é do banco; aqui só se escolhe para onde cada leitura vai.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.replicas.habilitado", havingValue = "true")
+public class ConfiguracaoReplicas {
+    public static final String CABECALHO_CLIENTE = "X-Cliente";
+
+    private DataSourceRoteado dataSourceRoteado;
+
+    @Bean
+    @Primary
+    public DataSourceRoteado dataSource(DataSourceProperties propriedades, Environment ambiente,
+                                        @Value("${banco.replicas.urls}") List<String> urls,
+                                        @Value("${banco.replicas.tempo-conexao:2s}") Duration tempoConexao,
+                                        @Value("${banco.replicas.ler-proprias-escritas:0s}") Duration lerPropriasEscritas) {
+        HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(ambiente).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+
+        List<javax.sql.DataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(urls.get(i).strip()).build();
+            Binder.get(ambiente).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setConnectionTimeout(tempoConexao.toMillis());
+            // uma réplica fora do ar na subida não impede a aplicação de subir: fica fora do rodízio até voltar
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        dataSourceRoteado = new DataSourceRoteado(primario, replicas, lerPropriasEscritas);
+        return dataSourceRoteado;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.replicas.verificacao.intervalo:5000}")
+    public void verificarReplicas() {
+        if (dataSourceRoteado != null) {
+            dataSourceRoteado.verificarReplicas();
+        }
+    }
+
+    /**
+     * Identifica o cliente pelo cabeçalho {@value #CABECALHO_CLIENTE} (ou pelo endereço de origem),
+     * para a janela de leitura das próprias escritas.
+     */
+    @Bean
+    public OncePerRequestFilter filtroClienteReplica() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                String cliente = request.getHeader(CABECALHO_CLIENTE);
+                RotaLeitura.definirCliente(cliente != null ? cliente : request.getRemoteAddr());
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    RotaLeitura.limparCliente();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.ada.banco.infra.gateway.bd;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Mantém pequena a quantidade de lançamentos pendentes por conta, para que a leitura do saldo
+ * (fotografia mais pendentes) continue barata.
+ */
+@Component
+public class ConsolidadorMovimentacoes {
+    private static final int CONTAS_POR_RODADA = 500;
+
+    private final ContaJdbcRepository contaJdbcRepository;
+    private final ExtratoRecente extratoRecente;
+
+    public ConsolidadorMovimentacoes(ContaJdbcRepository contaJdbcRepository, ExtratoRecente extratoRecente) {
+        this.contaJdbcRepository = contaJdbcRepository;
+        this.extratoRecente = extratoRecente;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.movimentacao.consolidacao.intervalo:5000}")
+    public void consolidar() {
+        consolidar(contaJdbcRepository);
+    }
+
+    /**
+     * Consolida as contas de outro banco com o mesmo esquema, como os shards de contas.
+     */
+    public void consolidar(ContaJdbcRepository repositorio) {
+        List<Long> contas;
+        do {
+            contas = repositorio.listarContasComLancamentosPendentes(CONTAS_POR_RODADA);
+            for (Long contaId : contas) {
+                if (repositorio.consolidar(contaId) > 0) {
+                    extratoRecente.invalidar(contaId);
+                }
+            }
+        } while (contas.size() == CONTAS_POR_RODADA);
+    }
+}
@@ -1,41 +1,210 @@
 package com.ada.banco.infra.gateway.bd;
 
+import com.ada.banco.domain.exception.ConflitoVersaoException;
+import com.ada.banco.domain.gateway.ColetorContas;
 import com.ada.banco.domain.gateway.ContaGateway;
 import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.TipoMovimentacao;
+import com.ada.banco.domain.model.Transferencia;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Component
 public class ContaGatewayDatabase implements ContaGateway {
     ContaRepository contaRepository;
+    ContaJdbcRepository contaJdbcRepository;
+    IndiceCpf indiceCpf;
+    ExtratoRecente extratoRecente;
+    ResumoAgencias resumoAgencias;
 
-    public ContaGatewayDatabase(ContaRepository contaRepository) {
+    public ContaGatewayDatabase(ContaRepository contaRepository, ContaJdbcRepository contaJdbcRepository, IndiceCpf indiceCpf,
+                                ExtratoRecente extratoRecente, ResumoAgencias resumoAgencias) {
         this.contaRepository = contaRepository;
+        this.contaJdbcRepository = contaJdbcRepository;
+        this.indiceCpf = indiceCpf;
+        this.extratoRecente = extratoRecente;
+        this.resumoAgencias = resumoAgencias;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarIndiceCpf() {
+        RotaLeitura.noPrimario(() -> contaJdbcRepository.percorrerCpfs(indiceCpf::carregar));
+        indiceCpf.marcarCarregado();
+    }
+
+    /**
+     * Refaz os resumos por agência a partir das contas gravadas, lidas do primário: os resumos
+     * recebem cada escrita seguinte, então não podem partir de uma réplica atrasada.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarResumoAgencias() {
+        resumoAgencias.limpar();
+        RotaLeitura.noPrimario(() -> contaJdbcRepository.exportar((id, agencia, digito, centavos, titular, cpf) ->
+                resumoAgencias.carregar(id, agencia, centavos)));
+        resumoAgencias.marcarCarregado();
     }
 
     @Override
     public Conta salvar(Conta conta) {
-        return contaRepository.save(conta);
+        Conta contaSalva;
+        try {
+            contaSalva = contaRepository.save(conta);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ConflitoVersaoException(conta.getId());
+        }
+        indiceCpf.registrar(contaSalva.getId(), contaSalva.getCpf());
+        long centavos = contaSalva.getSaldo() == null ? 0 : contaSalva.getSaldo().getCentavos();
+        AposCommit.executar(() -> resumoAgencias.registrar(contaSalva.getId(), contaSalva.getAgencia(), centavos));
+        return contaSalva;
+    }
+
+    @Override
+    public List<Boolean> criarEmLote(List<Conta> contas) {
+        List<Boolean> criadas = contaJdbcRepository.criarEmLote(contas);
+        for (int i = 0; i < contas.size(); i++) {
+            if (criadas.get(i)) {
+                Conta conta = contas.get(i);
+                indiceCpf.registrar(conta.getId(), conta.getCpf());
+                long centavos = conta.getSaldo() == null ? 0 : conta.getSaldo().getCentavos();
+                AposCommit.executar(() -> resumoAgencias.registrar(conta.getId(), conta.getAgencia(), centavos));
+            }
+        }
+        return criadas;
     }
 
     @Override
     public Conta buscarPorId(Long id) {
-        return contaRepository.findByIdEquals(id);
+        return contaJdbcRepository.buscarPorId(id);
     }
 
+    /**
+     * @throws ConflitoVersaoException se {@code conta} traz uma versão e ela não é mais a do banco
+     */
     @Override
     public Conta atualizar(Conta conta) {
-        return contaRepository.save(conta);
+        if (contaJdbcRepository.atualizar(conta) == 1) {
+            indiceCpf.registrar(conta.getId(), conta.getCpf());
+            Long agencia = conta.getAgencia();
+            AposCommit.executar(() -> resumoAgencias.mudarAgencia(conta.getId(), agencia));
+            if (conta.getVersao() != null) {
+                conta.setVersao(conta.getVersao() + 1);
+            }
+        } else if (conta.getVersao() != null && contaJdbcRepository.existe(conta.getId())) {
+            throw new ConflitoVersaoException(conta.getId());
+        }
+        return conta;
     }
 
     @Override
     public List<Conta> listar() {
-        return contaRepository.findAll();
+        return contaJdbcRepository.listar();
     }
 
     @Override
     public List<Conta> listarPorCpf(String cpf) {
-        return contaRepository.findAllByCpf(cpf);
+        if (!indiceCpf.isCarregado()) {
+            return contaJdbcRepository.listarPorCpf(cpf);
+        }
+        List<Long> ids = indiceCpf.buscarIds(cpf);
+        return ids.isEmpty() ? List.of() : contaJdbcRepository.listarPorIds(ids, cpf);
+    }
+
+    @Override
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        return contaJdbcRepository.listarPagina(depoisDe, limite);
+    }
+
+    @Override
+    public void percorrer(Consumer<Conta> consumidor) {
+        contaJdbcRepository.percorrer(consumidor);
+    }
+
+    @Override
+    public void exportar(ColetorContas coletor) {
+        contaJdbcRepository.exportar(coletor);
+    }
+
+    @Override
+    public int debitar(Long id, Dinheiro valor) {
+        int debitadas = contaJdbcRepository.debitar(id, valor, TipoMovimentacao.SAQUE);
+        extratoRecente.invalidar(id);
+        if (debitadas == 1) {
+            AposCommit.executar(() -> resumoAgencias.movimentar(id, -valor.getCentavos()));
+        }
+        return debitadas;
+    }
+
+    @Override
+    public int creditar(Long id, Dinheiro valor) {
+        int creditadas = contaJdbcRepository.creditar(id, valor, TipoMovimentacao.DEPOSITO);
+        extratoRecente.invalidar(id);
+        if (creditadas == 1) {
+            AposCommit.executar(() -> resumoAgencias.movimentar(id, valor.getCentavos()));
+        }
+        return creditadas;
+    }
+
+    @Override
+    public boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        boolean transferida = contaJdbcRepository.transferir(idOut, idIn, valor);
+        extratoRecente.invalidar(idOut);
+        extratoRecente.invalidar(idIn);
+        if (transferida) {
+            AposCommit.executar(() -> {
+                resumoAgencias.movimentar(idOut, -valor.getCentavos());
+                resumoAgencias.movimentar(idIn, valor.getCentavos());
+            });
+        }
+        return transferida;
+    }
+
+    @Override
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<SituacaoTransferencia> situacoes = contaJdbcRepository.transferirEmLote(transferencias);
+        for (Transferencia transferencia : transferencias) {
+            extratoRecente.invalidar(transferencia.getIdOut());
+            extratoRecente.invalidar(transferencia.getIdIn());
+        }
+        AposCommit.executar(() -> {
+            for (int i = 0; i < transferencias.size(); i++) {
+                if (situacoes.get(i) == SituacaoTransferencia.REALIZADA) {
+                    Transferencia transferencia = transferencias.get(i);
+                    resumoAgencias.movimentar(transferencia.getIdOut(), -transferencia.getValor().getCentavos());
+                    resumoAgencias.movimentar(transferencia.getIdIn(), transferencia.getValor().getCentavos());
+                }
+            }
+        });
+        return situacoes;
+    }
+
+    @Override
+    public ResumoAgencia resumirAgencia(Long agencia) {
+        if (!resumoAgencias.isCarregado()) {
+            return contaJdbcRepository.resumirAgencia(agencia);
+        }
+        return resumoAgencias.resumir(agencia);
+    }
+
+    /**
+     * A primeira página sem período, até {@link ExtratoRecente#getQuantidade()} lançamentos, vem do cache.
+     */
+    @Override
+    public List<Movimentacao> extrato(Long id, Instant de, Instant ate, Long depoisDe, int limite) {
+        if (de != null || ate != null || depoisDe != null || limite > extratoRecente.getQuantidade()) {
+            return contaJdbcRepository.extrato(id, de, ate, depoisDe, limite);
+        }
+        List<Movimentacao> recentes = extratoRecente.buscar(id,
+                contaId -> contaJdbcRepository.extrato(contaId, null, null, null, extratoRecente.getQuantidade()));
+        return recentes.subList(0, Math.min(limite, recentes.size()));
     }
 }
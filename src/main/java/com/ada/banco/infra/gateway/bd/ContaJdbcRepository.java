@@ -0,0 +1,505 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.gateway.ColetorContas;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.EtapaSaga;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.TipoMovimentacao;
+import com.ada.banco.domain.model.Transferencia;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Acesso às contas e ao razão de movimentações em SQL direto.
+ *
+ * O saldo gravado na conta é uma fotografia: depósitos e créditos entram como lançamentos
+ * pendentes no razão, sem tocar na linha da conta, e o saldo visível é a fotografia mais os
+ * pendentes. Débitos precisam garantir que o saldo visível não fique negativo, então continuam
+ * sendo um UPDATE condicional na conta, registrado no razão como lançamento já consolidado.
+ * O {@link ConsolidadorMovimentacoes} soma os pendentes na fotografia de tempos em tempos.
+ *
+ * Antes do UPDATE condicional a conta é travada num comando separado, como faz a consolidação.
+ * No PostgreSQL em READ COMMITTED, um UPDATE que espera pela trava reavalia o WHERE com a linha
+ * nova da conta, mas as subconsultas do saldo continuam vendo os pendentes de antes da consolidação:
+ * o mesmo valor seria contado duas vezes. Com a trava já obtida, o UPDATE começa depois
+ * de a consolidação terminar e vê a fotografia e os pendentes do mesmo momento.
+ *
+ * Créditos em {@link ContasQuentes} não viram pendentes: vão para uma das fatias de saldo da
+ * conta, e o lançamento no razão fica só como registro. Assim a leitura do saldo dessas contas
+ * soma um número fixo de fatias em vez de milhares de pendentes entre duas consolidações.
+ * As fatias só são criadas pela consolidação, com a conta travada; até lá o crédito entra como pendente.
+ * A consolidação também passa o valor das fatias para a fotografia.
+ *
+ * Nenhuma escrita depende de capturar um erro do banco: no PostgreSQL, um erro dentro da transação
+ * a invalida até o rollback.
+ */
+@Repository
+public class ContaJdbcRepository {
+    private static final String SALDO = "c.saldo + coalesce((select sum(m.valor) from movimentacao m "
+            + "where m.conta_id = c.id and m.consolidada = false), 0) "
+            + "+ coalesce((select sum(f.saldo) from fatia_saldo f where f.conta_id = c.id), 0)";
+    private static final String SELECIONAR = "select c.id, c.agencia, c.digito, " + SALDO + " as saldo, c.titular, c.cpf, c.versao from conta c";
+    private static final String TRAVAR = "select id from conta where id = ? for update";
+    private static final String DEBITAR = "update conta c set saldo = saldo - ? where c.id = ? and " + SALDO + " >= ?";
+    private static final String CREDITAR_FATIA = "update fatia_saldo set saldo = saldo + ? where conta_id = ? and fatia = ?";
+    private static final String LANCAR = "insert into movimentacao (conta_id, valor, tipo, data_hora, consolidada) values (?, ?, ?, ?, ?)";
+    private static final String LANCAR_SE_EXISTIR = "insert into movimentacao (conta_id, valor, tipo, data_hora, consolidada) "
+            + "select id, ?, ?, ?, ? from conta where id = ?";
+    private static final int LIMITE_CONSOLIDACAO = 1000;
+    private static final int TAMANHO_BUSCA = 500;
+
+    private static final RowMapper<Movimentacao> MOVIMENTACAO = (rs, linha) -> new Movimentacao(
+            rs.getLong("id"),
+            rs.getLong("conta_id"),
+            Dinheiro.de(rs.getBigDecimal("valor")),
+            TipoMovimentacao.valueOf(rs.getString("tipo")),
+            rs.getTimestamp("data_hora").toInstant(),
+            rs.getBoolean("consolidada"));
+
+    private static final RowMapper<Conta> CONTA = (rs, linha) -> {
+        Conta conta = new Conta(
+                rs.getObject("id", Long.class),
+                rs.getObject("agencia", Long.class),
+                rs.getObject("digito", Long.class),
+                Dinheiro.de(rs.getBigDecimal("saldo")),
+                rs.getString("titular"),
+                rs.getString("cpf"));
+        conta.setVersao(rs.getObject("versao", Long.class));
+        return conta;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ContasQuentes contasQuentes;
+
+    public ContaJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate, ContasQuentes contasQuentes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.contasQuentes = contasQuentes;
+    }
+
+    public Conta buscarPorId(Long id) {
+        List<Conta> contas = jdbc().query(SELECIONAR + " where c.id = ?", CONTA, id);
+        return contas.isEmpty() ? null : contas.get(0);
+    }
+
+    public List<Conta> listar() {
+        return jdbc().query(SELECIONAR + " order by c.id", CONTA);
+    }
+
+    public List<Conta> listarPorCpf(String cpf) {
+        return jdbc().query(SELECIONAR + " where c.cpf = ? order by c.id", CONTA, cpf);
+    }
+
+    public List<Conta> listarPorIds(Collection<Long> ids, String cpf) {
+        return jdbcTemplate.query(SELECIONAR + " where c.id in (:ids) and c.cpf = :cpf order by c.id",
+                Map.of("ids", ids, "cpf", cpf), CONTA);
+    }
+
+    public void percorrerCpfs(BiConsumer<Long, String> consumidor) {
+        jdbc().query(con -> {
+            PreparedStatement ps = con.prepareStatement("select id, cpf from conta",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAMANHO_BUSCA);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(rs.getLong("id"), rs.getString("cpf")));
+    }
+
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        return jdbc().query(SELECIONAR + " where c.id > ? order by c.id limit ?", CONTA,
+                depoisDe == null ? Long.MIN_VALUE : depoisDe, limite);
+    }
+
+    /**
+     * Lê as contas por um cursor, {@value #TAMANHO_BUSCA} linhas por vez, então a memória usada
+     * não depende da quantidade de contas. A transação mantém o cursor aberto até o fim da leitura.
+     */
+    @Transactional(readOnly = true)
+    public void percorrer(Consumer<Conta> consumidor) {
+        jdbc().query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECIONAR + " order by c.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAMANHO_BUSCA);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(CONTA.mapRow(rs, rs.getRow())));
+    }
+
+    /**
+     * Como {@link #percorrer(Consumer)}, mas lê os campos direto do cursor, com o saldo já em centavos,
+     * sem criar {@link Conta} nem {@link BigDecimal} por linha.
+     */
+    @Transactional(readOnly = true)
+    public void exportar(ColetorContas coletor) {
+        jdbc().query(con -> {
+            PreparedStatement ps = con.prepareStatement("select c.id, c.agencia, c.digito, cast((" + SALDO
+                            + ") * 100 as bigint) as centavos, c.titular, c.cpf from conta c order by c.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAMANHO_BUSCA);
+            return ps;
+        }, (RowCallbackHandler) rs -> coletor.coletar(rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getLong(4), rs.getString(5), rs.getString(6)));
+    }
+
+    /**
+     * Atualiza só os dados cadastrais, o saldo é alterado apenas por movimentações.
+     * Com versão, só atualiza se ela ainda for a do banco; em qualquer caso a incrementa.
+     */
+    public int atualizar(Conta conta) {
+        if (conta.getVersao() == null) {
+            return jdbc().update("update conta set agencia = ?, digito = ?, titular = ?, cpf = ?, "
+                            + "versao = coalesce(versao, 0) + 1 where id = ?",
+                    conta.getAgencia(), conta.getDigito(), conta.getTitular(), conta.getCpf(), conta.getId());
+        }
+        return jdbc().update("update conta set agencia = ?, digito = ?, titular = ?, cpf = ?, "
+                        + "versao = versao + 1 where id = ? and versao = ?",
+                conta.getAgencia(), conta.getDigito(), conta.getTitular(), conta.getCpf(), conta.getId(), conta.getVersao());
+    }
+
+    public boolean existe(Long id) {
+        return !jdbc().queryForList("select 1 from conta where id = ?", Integer.class, id).isEmpty();
+    }
+
+    /**
+     * Os ids, entre os informados, que já têm conta.
+     */
+    public Set<Long> existentes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList("select id from conta where id in (:ids)", Map.of("ids", ids), Long.class));
+    }
+
+    /**
+     * Descobre as contas existentes com uma consulta só e insere as novas em um batch.
+     * A versão começa em 0, como a do JPA.
+     */
+    @Transactional
+    public List<Boolean> criarEmLote(List<Conta> contas) {
+        List<Boolean> criadas = new ArrayList<>(contas.size());
+        if (contas.isEmpty()) {
+            return criadas;
+        }
+        Set<Long> existentes = existentes(contas.stream().map(Conta::getId).toList());
+
+        List<Object[]> novas = new ArrayList<>(contas.size());
+        for (Conta conta : contas) {
+            boolean nova = !existentes.contains(conta.getId());
+            if (nova) {
+                conta.setVersao(0L);
+                novas.add(new Object[]{conta.getId(), conta.getAgencia(), conta.getDigito(),
+                        conta.getSaldo() == null ? BigDecimal.ZERO : conta.getSaldo().toBigDecimal(),
+                        conta.getTitular(), conta.getCpf(), conta.getVersao()});
+            }
+            criadas.add(nova);
+        }
+        jdbc().batchUpdate("insert into conta (id, agencia, digito, saldo, titular, cpf, versao) values (?, ?, ?, ?, ?, ?, ?)", novas);
+        return criadas;
+    }
+
+    @Transactional
+    public int debitar(Long id, Dinheiro valor, TipoMovimentacao tipo) {
+        if (jdbc().queryForList(TRAVAR, Long.class, id).isEmpty()) {
+            return 0;
+        }
+        BigDecimal quantia = valor.toBigDecimal();
+        int debitadas = jdbc().update(DEBITAR, quantia, id, quantia);
+        if (debitadas == 1) {
+            lancar(id, quantia.negate(), tipo, true);
+        }
+        return debitadas;
+    }
+
+    /**
+     * Um crédito é só um lançamento novo no razão, inserido a partir da linha da conta:
+     * se ela não existe, nada é inserido.
+     */
+    @Transactional
+    public int creditar(Long id, Dinheiro valor, TipoMovimentacao tipo) {
+        BigDecimal quantia = valor.toBigDecimal();
+        boolean naFatia = contasQuentes.isQuente(id) && creditarFatia(id, quantia);
+        return jdbc().update(LANCAR_SE_EXISTIR, quantia, tipo.name(), Timestamp.from(Instant.now()), naFatia, id);
+    }
+
+    /**
+     * @return {@code false} se a fatia sorteada ainda não foi criada pela consolidação
+     */
+    private boolean creditarFatia(Long id, BigDecimal valor) {
+        return jdbc().update(CREDITAR_FATIA, valor, id, contasQuentes.sortearFatia()) == 1;
+    }
+
+    /**
+     * As duas contas são travadas antes do débito, na ordem dos ids, como no lote. O crédito é um
+     * INSERT no razão, mas a chave estrangeira faz o PostgreSQL pedir {@code FOR KEY SHARE} na conta de
+     * destino, o que espera pelo {@code FOR UPDATE} de outra transferência: sem uma ordem fixa, A→B e
+     * B→A ao mesmo tempo poderiam travar uma à outra.
+     */
+    @Transactional
+    public boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        jdbc().queryForList(TRAVAR, Long.class, Math.min(idOut, idIn));
+        jdbc().queryForList(TRAVAR, Long.class, Math.max(idOut, idIn));
+        if (debitar(idOut, valor, TipoMovimentacao.TRANSFERENCIA_ENVIADA) == 0) {
+            return false;
+        }
+        if (creditar(idIn, valor, TipoMovimentacao.TRANSFERENCIA_RECEBIDA) == 0) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Aplica o lote em uma única transação e quatro idas ao banco: trava as contas envolvidas,
+     * envia todos os débitos em um batch e depois grava os lançamentos das duas pernas em outro.
+     * Como os créditos só entram depois dos débitos, um valor recebido dentro do lote
+     * só pode ser sacado no lote seguinte.
+     */
+    @Transactional
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<SituacaoTransferencia> situacoes = new ArrayList<>(transferencias.size());
+        if (transferencias.isEmpty()) {
+            return situacoes;
+        }
+
+        Set<Long> existentes = travarContas(transferencias);
+
+        List<Transferencia> debitos = new ArrayList<>(transferencias.size());
+        for (Transferencia transferencia : transferencias) {
+            if (existentes.contains(transferencia.getIdOut()) && existentes.contains(transferencia.getIdIn())) {
+                debitos.add(transferencia);
+                situacoes.add(SituacaoTransferencia.REALIZADA);
+            } else {
+                situacoes.add(SituacaoTransferencia.CONTA_NAO_EXISTE);
+            }
+        }
+
+        int[] debitados = jdbc().batchUpdate(DEBITAR, debitos.stream()
+                .map(t -> new Object[]{t.getValor().toBigDecimal(), t.getIdOut(), t.getValor().toBigDecimal()})
+                .toList());
+
+        Timestamp agora = Timestamp.from(Instant.now());
+        List<Object[]> lancamentos = new ArrayList<>(debitos.size() * 2);
+        int debito = 0;
+        for (int i = 0; i < situacoes.size(); i++) {
+            if (situacoes.get(i) != SituacaoTransferencia.REALIZADA) {
+                continue;
+            }
+            Transferencia transferencia = transferencias.get(i);
+            if (debitados[debito++] == 1) {
+                BigDecimal quantia = transferencia.getValor().toBigDecimal();
+                boolean naFatia = contasQuentes.isQuente(transferencia.getIdIn())
+                        && creditarFatia(transferencia.getIdIn(), quantia);
+                lancamentos.add(new Object[]{transferencia.getIdOut(), quantia.negate(),
+                        TipoMovimentacao.TRANSFERENCIA_ENVIADA.name(), agora, true});
+                lancamentos.add(new Object[]{transferencia.getIdIn(), quantia,
+                        TipoMovimentacao.TRANSFERENCIA_RECEBIDA.name(), agora, naFatia});
+            } else {
+                situacoes.set(i, SituacaoTransferencia.SALDO_INSUFICIENTE);
+            }
+        }
+        jdbc().batchUpdate(LANCAR, lancamentos);
+
+        return situacoes;
+    }
+
+    /**
+     * Lançamentos da conta em {@code [de, ate)}, do mais recente para o mais antigo, começando logo depois
+     * do lançamento {@code depoisDe}. A busca desce pelo índice {@code (conta_id, data_hora, id)} a partir
+     * do ponto da página, então o custo não depende de quantas páginas já foram lidas.
+     */
+    public List<Movimentacao> extrato(Long contaId, Instant de, Instant ate, Long depoisDe, int limite) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("conta", contaId).addValue("limite", limite);
+        StringBuilder sql = new StringBuilder(
+                "select m.id, m.conta_id, m.valor, m.tipo, m.data_hora, m.consolidada from movimentacao m where m.conta_id = :conta");
+        if (de != null) {
+            sql.append(" and m.data_hora >= :de");
+            parametros.addValue("de", Timestamp.from(de));
+        }
+        if (ate != null) {
+            sql.append(" and m.data_hora < :ate");
+            parametros.addValue("ate", Timestamp.from(ate));
+        }
+        if (depoisDe != null) {
+            List<Timestamp> ultima = jdbc().queryForList("select data_hora from movimentacao where id = ? and conta_id = ?",
+                    Timestamp.class, depoisDe, contaId);
+            if (ultima.isEmpty()) {
+                return List.of();
+            }
+            sql.append(" and m.data_hora <= :ultima and (m.data_hora < :ultima or m.id < :depoisDe)");
+            parametros.addValue("ultima", ultima.get(0)).addValue("depoisDe", depoisDe);
+        }
+        sql.append(" order by m.data_hora desc, m.id desc limit :limite");
+        return jdbcTemplate.query(sql.toString(), parametros, MOVIMENTACAO);
+    }
+
+    /**
+     * Resumo da agência calculado varrendo as contas dela, para quando o {@link ResumoAgencias} ainda não foi carregado.
+     * @return o resumo, ou {@code null} se a agência não tem contas
+     */
+    public ResumoAgencia resumirAgencia(Long agencia) {
+        return jdbc().queryForObject("select count(*), sum(saldo), min(saldo), max(saldo) from (select " + SALDO
+                        + " as saldo from conta c where coalesce(c.agencia, 0) = ?)",
+                (rs, linha) -> rs.getLong(1) == 0 ? null : new ResumoAgencia(agencia, rs.getLong(1),
+                        Dinheiro.de(rs.getBigDecimal(2)), Dinheiro.de(rs.getBigDecimal(3)), Dinheiro.de(rs.getBigDecimal(4)),
+                        Instant.now()),
+                agencia);
+    }
+
+    /**
+     * Contas com lançamentos pendentes ou com fatias de saldo a consolidar.
+     */
+    public List<Long> listarContasComLancamentosPendentes(int limite) {
+        return jdbc().queryForList("select conta_id from movimentacao where consolidada = false "
+                        + "union select conta_id from fatia_saldo where saldo <> 0 limit ?",
+                Long.class, limite);
+    }
+
+    /**
+     * Soma os lançamentos pendentes e as fatias da conta no saldo gravado. Só os lançamentos e fatias
+     * travados aqui são consolidados; os que forem confirmados durante a consolidação ficam
+     * para a próxima rodada. A conta é travada antes dos lançamentos, a mesma ordem dos débitos.
+     * De cada fatia sai exatamente o valor somado na fotografia, então um crédito que entrar na fatia
+     * depois da leitura continua nela e o saldo visível não muda. Numa conta quente, as fatias que
+     * faltam são criadas aqui, com a conta travada, então duas criações da mesma fatia não disputam a chave.
+     * @return quantidade de lançamentos consolidados
+     */
+    @Transactional
+    public int consolidar(Long contaId) {
+        if (jdbc().queryForList(TRAVAR, Long.class, contaId).isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>();
+        BigDecimal[] total = {BigDecimal.ZERO};
+        jdbc().query("select id, valor from movimentacao where conta_id = ? and consolidada = false order by id limit ? for update",
+                rs -> {
+                    ids.add(rs.getLong("id"));
+                    total[0] = total[0].add(rs.getBigDecimal("valor"));
+                }, contaId, LIMITE_CONSOLIDACAO);
+        List<Object[]> fatias = new ArrayList<>();
+        Set<Integer> existentes = new HashSet<>();
+        jdbc().query("select fatia, saldo from fatia_saldo where conta_id = ? for update",
+                rs -> {
+                    BigDecimal saldo = rs.getBigDecimal("saldo");
+                    existentes.add(rs.getInt("fatia"));
+                    if (saldo.signum() != 0) {
+                        fatias.add(new Object[]{saldo, contaId, rs.getInt("fatia")});
+                        total[0] = total[0].add(saldo);
+                    }
+                }, contaId);
+        if (contasQuentes.isQuente(contaId) && existentes.size() < contasQuentes.getFatias()) {
+            List<Object[]> novas = new ArrayList<>();
+            for (int fatia = 0; fatia < contasQuentes.getFatias(); fatia++) {
+                if (!existentes.contains(fatia)) {
+                    novas.add(new Object[]{contaId, fatia});
+                }
+            }
+            jdbc().batchUpdate("insert into fatia_saldo (conta_id, fatia, saldo) values (?, ?, 0)", novas);
+        }
+        if (ids.isEmpty() && fatias.isEmpty()) {
+            return 0;
+        }
+        jdbc().update("update conta set saldo = saldo + ? where id = ?", total[0], contaId);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update("update movimentacao set consolidada = true where id in (:ids)", Map.of("ids", ids));
+        }
+        if (!fatias.isEmpty()) {
+            jdbc().batchUpdate("update fatia_saldo set saldo = saldo - ? where conta_id = ? and fatia = ?", fatias);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Aplica um passo de uma transferência entre shards e marca o passo na mesma transação, então um passo
+     * repetido pela recuperação não lança o valor de novo. A conta é travada antes de olhar as marcas, então
+     * dois pedidos do mesmo passo não passam juntos; no débito, a trava é a mesma de {@link #cancelarSaga}
+     * e, dos dois, só o primeiro tem efeito.
+     * @return 1 se o passo foi aplicado agora ou já estava, 0 se a conta não existe, não tem saldo
+     * ou a saga foi cancelada antes do débito
+     */
+    @Transactional
+    public int aplicarPassoSaga(long saga, EtapaSaga etapa, Long contaId, Dinheiro valor) {
+        jdbc().queryForList(TRAVAR, Long.class, contaId);
+        if (etapa == EtapaSaga.DEBITO && passoSagaAplicado(saga, EtapaSaga.CANCELAMENTO)) {
+            return 0;
+        }
+        if (passoSagaAplicado(saga, etapa)) {
+            return 1;
+        }
+        int aplicados = switch (etapa) {
+            case DEBITO -> debitar(contaId, valor, TipoMovimentacao.TRANSFERENCIA_ENVIADA);
+            case CREDITO -> creditar(contaId, valor, TipoMovimentacao.TRANSFERENCIA_RECEBIDA);
+            case ESTORNO -> creditar(contaId, valor, TipoMovimentacao.ESTORNO);
+            case CANCELAMENTO -> throw new IllegalArgumentException("O cancelamento não é um lançamento: " + saga);
+        };
+        if (aplicados == 1) {
+            marcarPassoSaga(saga, etapa);
+        }
+        return aplicados;
+    }
+
+    /**
+     * Impede o débito de uma saga que não o aplicou, para a recuperação poder dá-la por cancelada.
+     * @return {@code false} se o débito já foi aplicado
+     */
+    @Transactional
+    public boolean cancelarSaga(long saga, Long contaOrigem) {
+        jdbc().queryForList(TRAVAR, Long.class, contaOrigem);
+        if (passoSagaAplicado(saga, EtapaSaga.DEBITO)) {
+            return false;
+        }
+        if (!passoSagaAplicado(saga, EtapaSaga.CANCELAMENTO)) {
+            marcarPassoSaga(saga, EtapaSaga.CANCELAMENTO);
+        }
+        return true;
+    }
+
+    public boolean passoSagaAplicado(long saga, EtapaSaga etapa) {
+        return !jdbc().queryForList("select 1 from passo_saga where saga_id = ? and etapa = ?", Integer.class,
+                saga, etapa.name()).isEmpty();
+    }
+
+    private void marcarPassoSaga(long saga, EtapaSaga etapa) {
+        jdbc().update("insert into passo_saga (saga_id, etapa) values (?, ?)", saga, etapa.name());
+    }
+
+    private void lancar(Long contaId, BigDecimal valor, TipoMovimentacao tipo, boolean consolidada) {
+        jdbc().update(LANCAR, contaId, valor, tipo.name(), Timestamp.from(Instant.now()), consolidada);
+    }
+
+    /**
+     * Trava todas as contas do lote na ordem crescente de id e devolve as que existem.
+     */
+    private Set<Long> travarContas(List<Transferencia> transferencias) {
+        Set<Long> ids = new HashSet<>();
+        for (Transferencia transferencia : transferencias) {
+            ids.add(transferencia.getIdOut());
+            ids.add(transferencia.getIdIn());
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select id from conta where id in (:ids) order by id for update", Map.of("ids", ids), Long.class));
+    }
+
+    private JdbcTemplate jdbc() {
+        return jdbcTemplate.getJdbcTemplate();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ada.banco.infra.gateway.bd;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Contas que recebem tantos créditos que passam a ter o saldo dividido em fatias.
+ * A lista inicial vem de {@code banco.conta-quente.ids}; contas podem ser marcadas em tempo de execução.
+ */
+@Component
+public class ContasQuentes {
+    private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+    private final int fatias;
+
+    public ContasQuentes(@Value("${banco.conta-quente.ids:}") List<Long> ids,
+                         @Value("${banco.conta-quente.fatias:8}") int fatias) {
+        this.ids.addAll(ids);
+        this.fatias = fatias;
+    }
+
+    public boolean isQuente(Long id) {
+        return ids.contains(id);
+    }
+
+    public void marcar(Long id) {
+        ids.add(id);
+    }
+
+    public void desmarcar(Long id) {
+        ids.remove(id);
+    }
+
+    public int getFatias() {
+        return fatias;
+    }
+
+    public int sortearFatia() {
+        return ThreadLocalRandom.current().nextInt(fatias);
+    }
+}
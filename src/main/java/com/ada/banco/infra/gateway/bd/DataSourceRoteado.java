@@ -0,0 +1,175 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envia as transações somente leitura ({@code @Transactional(readOnly = true)}) para as réplicas e todo
+ * o resto para o primário: escritas, leituras dentro de transações de escrita e comandos sem transação.
+ *
+ * As réplicas são usadas em rodízio, pulando as marcadas como fora do ar. Uma réplica que recusa a conexão
+ * sai do rodízio até a próxima {@link #verificarReplicas()}; sem nenhuma réplica disponível, a leitura vai
+ * ao primário.
+ *
+ * Com {@code lerPropriasEscritas} maior que zero, depois de uma escrita o cliente da requisição
+ * ({@link RotaLeitura#getCliente()}) lê do primário durante essa janela, para não ver uma réplica
+ * que ainda não recebeu a escrita.
+ *
+ * A conexão só é obtida no primeiro comando ({@link LazyConnectionDataSourceProxy}), quando a transação
+ * já marcou se é somente leitura.
+ */
+public class DataSourceRoteado extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DataSourceRoteado.class);
+
+    private final DataSource primario;
+    private final List<Replica> replicas;
+    private final Duration lerPropriasEscritas;
+    private final Cache<String, Boolean> clientesComEscrita;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final LongAdder conexoesPrimario = new LongAdder();
+
+    public DataSourceRoteado(DataSource primario, List<DataSource> replicas, Duration lerPropriasEscritas) {
+        this.primario = primario;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lerPropriasEscritas = lerPropriasEscritas;
+        this.clientesComEscrita = Caffeine.newBuilder()
+                .expireAfterWrite(lerPropriasEscritas.isZero() ? Duration.ofNanos(1) : lerPropriasEscritas)
+                .build();
+        setTargetDataSource(new Roteador());
+        setDefaultAutoCommit(true);
+        setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    }
+
+    public DataSource getPrimario() {
+        return primario;
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+
+    public long getConexoesPrimario() {
+        return conexoesPrimario.sum();
+    }
+
+    public long getConexoesReplica(int indice) {
+        return replicas.get(indice).conexoes.sum();
+    }
+
+    public boolean isReplicaDisponivel(int indice) {
+        return replicas.get(indice).disponivel;
+    }
+
+    /**
+     * Testa uma conexão de cada réplica e devolve ao rodízio as que voltaram.
+     */
+    public void verificarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.dataSource.getConnection()) {
+                replica.disponivel = conexao.isValid(1);
+            } catch (SQLException e) {
+                replica.disponivel = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        fechar(primario);
+        for (Replica replica : replicas) {
+            fechar(replica.dataSource);
+        }
+    }
+
+    private static void fechar(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable fechavel) {
+            fechavel.close();
+        }
+    }
+
+    private Connection conectar() throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !RotaLeitura.isPrimarioObrigatorio()
+                && !leuPropriasEscritas()) {
+            for (int tentativa = 0; tentativa < replicas.size(); tentativa++) {
+                Replica replica = replicas.get(Math.floorMod(proxima.getAndIncrement(), replicas.size()));
+                if (!replica.disponivel) {
+                    continue;
+                }
+                try {
+                    Connection conexao = replica.dataSource.getConnection();
+                    replica.conexoes.increment();
+                    return conexao;
+                } catch (SQLException e) {
+                    LOGGER.warn("Réplica fora do rodízio até a próxima verificação: {}", e.getMessage());
+                    replica.disponivel = false;
+                }
+            }
+        } else {
+            registrarEscrita();
+        }
+        conexoesPrimario.increment();
+        return primario.getConnection();
+    }
+
+    private boolean leuPropriasEscritas() {
+        String cliente = RotaLeitura.getCliente();
+        return cliente != null && !lerPropriasEscritas.isZero() && clientesComEscrita.getIfPresent(cliente) != null;
+    }
+
+    /**
+     * Qualquer conexão ao primário fora de uma transação somente leitura pode escrever. A janela começa
+     * no fim da transação, ou na hora se não houver transação.
+     */
+    private void registrarEscrita() {
+        String cliente = RotaLeitura.getCliente();
+        if (cliente == null || lerPropriasEscritas.isZero() || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clientesComEscrita.put(cliente, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                clientesComEscrita.put(cliente, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private final LongAdder conexoes = new LongAdder();
+        private volatile boolean disponivel = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final class Roteador extends AbstractDataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return conectar();
+        }
+
+        @Override
+        public Connection getConnection(String usuario, String senha) throws SQLException {
+            return conectar();
+        }
+    }
+}
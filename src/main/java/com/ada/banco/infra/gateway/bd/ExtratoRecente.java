@@ -0,0 +1,67 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.model.Movimentacao;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Guarda os últimos {@code banco.extrato.recentes} lançamentos de até {@code banco.extrato.cache.tamanho}
+ * contas, para a tela de movimentações recentes não ir ao banco a cada abertura.
+ *
+ * Toda escrita no razão invalida as contas envolvidas; dentro de uma transação a invalidação é repetida
+ * depois do commit, para que uma leitura feita antes dele não deixe no cache o extrato sem o lançamento.
+ * Escritas feitas por outras instâncias não invalidam este cache.
+ */
+@Component
+public class ExtratoRecente {
+    private final int quantidade;
+    private final Cache<Long, List<Movimentacao>> extratos;
+
+    public ExtratoRecente(@Value("${banco.extrato.recentes:20}") int quantidade,
+                          @Value("${banco.extrato.cache.tamanho:100000}") long tamanho) {
+        this.quantidade = quantidade;
+        this.extratos = Caffeine.newBuilder()
+                .maximumSize(tamanho)
+                .recordStats()
+                .build();
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public CacheStats getEstatisticas() {
+        return extratos.stats();
+    }
+
+    public Cache<Long, List<Movimentacao>> getCache() {
+        return extratos;
+    }
+
+    /**
+     * @return os últimos {@link #getQuantidade()} lançamentos da conta, do mais recente para o mais antigo
+     */
+    public List<Movimentacao> buscar(Long contaId, Function<Long, List<Movimentacao>> carregar) {
+        return extratos.get(contaId, id -> List.copyOf(carregar.apply(id)));
+    }
+
+    public void invalidar(Long contaId) {
+        extratos.invalidate(contaId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    extratos.invalidate(contaId);
+                }
+            });
+        }
+    }
+}
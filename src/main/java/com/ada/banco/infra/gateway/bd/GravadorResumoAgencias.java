@@ -0,0 +1,31 @@
+package com.ada.banco.infra.gateway.bd;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Grava de tempos em tempos os {@link ResumoAgencias} na tabela {@code resumo_agencia}, para painéis
+ * e relatórios que leem direto do banco. A fonte continua sendo a tabela de contas: na subida da
+ * aplicação os resumos são refeitos a partir dela.
+ */
+@Component
+public class GravadorResumoAgencias {
+    private final ResumoAgencias resumoAgencias;
+    private final ResumoAgenciaRepository resumoAgenciaRepository;
+
+    public GravadorResumoAgencias(ResumoAgencias resumoAgencias, ResumoAgenciaRepository resumoAgenciaRepository) {
+        this.resumoAgencias = resumoAgencias;
+        this.resumoAgenciaRepository = resumoAgenciaRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.resumo-agencias.gravacao.intervalo:60000}")
+    @Transactional
+    public void gravar() {
+        if (!resumoAgencias.isCarregado()) {
+            return;
+        }
+        resumoAgenciaRepository.deleteAllInBatch();
+        resumoAgenciaRepository.saveAll(resumoAgencias.resumirTodas());
+    }
+}
@@ -0,0 +1,62 @@
+package com.ada.banco.infra.gateway.bd;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice em memória de CPF para ids de conta, mantido pelo {@link ContaGatewayDatabase} a cada
+ * {@code salvar}/{@code atualizar}. Enquanto não foi carregado do banco ele não responde nada
+ * e as buscas por CPF vão direto para o índice da tabela.
+ *
+ * Só enxerga as escritas feitas por esta instância da aplicação.
+ */
+@Component
+public class IndiceCpf {
+    private final Map<Long, String> cpfPorId = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> idsPorCpf = new ConcurrentHashMap<>();
+    private volatile boolean carregado;
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    public void marcarCarregado() {
+        carregado = true;
+    }
+
+    /**
+     * Registra o CPF atual da conta, tirando o id do CPF anterior se ele mudou.
+     */
+    public void registrar(Long id, String cpf) {
+        cpfPorId.compute(id, (chave, cpfAnterior) -> {
+            if (cpfAnterior != null && !cpfAnterior.equals(cpf)) {
+                idsDoCpf(cpfAnterior).remove(id);
+            }
+            idsDoCpf(cpf).add(id);
+            return cpf;
+        });
+    }
+
+    /**
+     * Usado na carga inicial: não sobrescreve o que já foi registrado por uma escrita mais nova.
+     */
+    public void carregar(Long id, String cpf) {
+        cpfPorId.computeIfAbsent(id, chave -> {
+            idsDoCpf(cpf).add(id);
+            return cpf;
+        });
+    }
+
+    public List<Long> buscarIds(String cpf) {
+        Set<Long> ids = idsPorCpf.get(cpf);
+        return ids == null ? List.of() : List.copyOf(ids);
+    }
+
+    private Set<Long> idsDoCpf(String cpf) {
+        return idsPorCpf.computeIfAbsent(cpf, chave -> ConcurrentHashMap.newKeySet());
+    }
+}
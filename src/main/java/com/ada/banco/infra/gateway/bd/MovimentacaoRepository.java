@@ -0,0 +1,13 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.model.Movimentacao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MovimentacaoRepository extends JpaRepository<Movimentacao, Long> {
+    List<Movimentacao> findAllByContaIdOrderById(Long contaId);
+    long countByConsolidadaFalse();
+}
@@ -0,0 +1,42 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.model.NotificacaoEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface NotificacaoEmailRepository extends JpaRepository<NotificacaoEmail, Long> {
+    List<NotificacaoEmail> findByProximaTentativaLessThanEqualAndDescartadaEmIsNullOrderById(Instant agora, Pageable pagina);
+
+    long countByDescartadaEmIsNotNull();
+
+    /**
+     * Reserva a notificação até {@code reservaAte}, só se ninguém a reservou desde a leitura.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update NotificacaoEmail n set n.proximaTentativa = :reservaAte " +
+            "where n.id = :id and n.proximaTentativa = :proximaTentativa")
+    int reservar(@Param("id") Long id, @Param("proximaTentativa") Instant proximaTentativa, @Param("reservaAte") Instant reservaAte);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update NotificacaoEmail n set n.tentativas = n.tentativas + 1, n.proximaTentativa = :proximaTentativa where n.id = :id")
+    int registrarFalha(@Param("id") Long id, @Param("proximaTentativa") Instant proximaTentativa);
+
+    /**
+     * Tira a notificação da fila depois da última tentativa; ela continua na tabela, fora dos envios.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update NotificacaoEmail n set n.tentativas = n.tentativas + 1, n.descartadaEm = :descartadaEm where n.id = :id")
+    int descartar(@Param("id") Long id, @Param("descartadaEm") Instant descartadaEm);
+}
@@ -0,0 +1,33 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.model.RespostaIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface RespostaIdempotenteRepository extends JpaRepository<RespostaIdempotente, String> {
+
+    /**
+     * Insere sem consultar antes, dentro da transação de quem chamou. Se outra instância já gravou
+     * a mesma chave, a chave primária recusa e a transação inteira é desfeita.
+     */
+    @Modifying
+    @Query(value = "insert into resposta_idempotente (chave, requisicao, status, corpo, expira_em) " +
+            "values (:#{#r.chave}, :#{#r.requisicao}, :#{#r.status}, :#{#r.corpo}, :#{#r.expiraEm})", nativeQuery = true)
+    int inserir(@Param("r") RespostaIdempotente resposta);
+
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.chave = :chave and r.expiraEm <= :agora")
+    int removerExpirada(@Param("chave") String chave, @Param("agora") Instant agora);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RespostaIdempotente r where r.expiraEm <= :agora")
+    int removerExpiradas(@Param("agora") Instant agora);
+}
@@ -0,0 +1,9 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.model.ResumoAgencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ResumoAgenciaRepository extends JpaRepository<ResumoAgencia, Long> {
+}
@@ -0,0 +1,202 @@
+package com.ada.banco.infra.gateway.bd;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ResumoAgencia;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quantidade de contas, soma, mínimo e máximo dos saldos por agência, mantidos em memória pelo
+ * {@link ContaGatewayDatabase} a cada escrita, para o resumo de uma agência não precisar varrer as contas.
+ *
+ * Quantidade e soma são {@link LongAdder}, que espalham as escritas concorrentes em células separadas.
+ * Mínimo e máximo não se mantêm só com contadores (quando a conta de maior saldo saca, o novo máximo
+ * é de outra conta), então cada agência guarda também quantas contas têm cada saldo, em ordem.
+ * Escritas de uma mesma conta são aplicadas uma de cada vez, pelo saldo guardado por conta.
+ *
+ * Enquanto não foi carregado do banco ele não responde nada. As escritas que chegam durante a carga,
+ * para contas que ainda não foram lidas, ficam guardadas e são aplicadas em {@link #marcarCarregado()}.
+ * Só enxerga as escritas feitas por esta instância da aplicação, e contas sem agência entram na agência 0.
+ */
+@Component
+public class ResumoAgencias {
+    private final Map<Long, SaldoConta> contas = new ConcurrentHashMap<>();
+    private final Map<Long, Totais> agencias = new ConcurrentHashMap<>();
+    private final Map<Long, Pendente> pendentes = new HashMap<>();
+    private final Object carga = new Object();
+    private volatile boolean carregado;
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    /**
+     * Aplica as escritas guardadas durante a carga. Contas que a carga não trouxe (removidas no meio
+     * dela) são descartadas.
+     */
+    public void marcarCarregado() {
+        synchronized (carga) {
+            pendentes.forEach((id, pendente) -> contas.computeIfPresent(id, (chave, anterior) -> aplicar(anterior, pendente)));
+            pendentes.clear();
+            carregado = true;
+        }
+    }
+
+    public void limpar() {
+        synchronized (carga) {
+            carregado = false;
+            pendentes.clear();
+            contas.clear();
+            agencias.clear();
+        }
+    }
+
+    /**
+     * Registra uma conta nova com o saldo inicial.
+     */
+    public void registrar(Long id, Long agencia, long centavos) {
+        contas.compute(id, (chave, anterior) -> {
+            if (anterior != null) {
+                totais(anterior.agencia).remover(anterior.centavos);
+            }
+            totais(normalizar(agencia)).adicionar(centavos);
+            return new SaldoConta(normalizar(agencia), centavos);
+        });
+    }
+
+    /**
+     * Usado na carga inicial: não sobrescreve o que já foi registrado por uma escrita mais nova.
+     */
+    public void carregar(Long id, Long agencia, long centavos) {
+        contas.computeIfAbsent(id, chave -> {
+            totais(normalizar(agencia)).adicionar(centavos);
+            return new SaldoConta(normalizar(agencia), centavos);
+        });
+    }
+
+    public void mudarAgencia(Long id, Long agencia) {
+        alterar(id, new Pendente(0, normalizar(agencia)));
+    }
+
+    public void movimentar(Long id, long centavos) {
+        alterar(id, new Pendente(centavos, null));
+    }
+
+    /**
+     * Durante a carga, uma conta que ainda não foi lida guarda a alteração em vez de perdê-la.
+     */
+    private void alterar(Long id, Pendente alteracao) {
+        if (!carregado) {
+            synchronized (carga) {
+                if (!carregado) {
+                    contas.compute(id, (chave, anterior) -> {
+                        if (anterior == null) {
+                            pendentes.merge(id, alteracao, Pendente::somar);
+                            return null;
+                        }
+                        return aplicar(anterior, alteracao);
+                    });
+                    return;
+                }
+            }
+        }
+        contas.computeIfPresent(id, (chave, anterior) -> aplicar(anterior, alteracao));
+    }
+
+    private SaldoConta aplicar(SaldoConta anterior, Pendente alteracao) {
+        long agencia = alteracao.agencia == null ? anterior.agencia : alteracao.agencia;
+        long centavos = anterior.centavos + alteracao.centavos;
+        if (agencia == anterior.agencia) {
+            totais(agencia).mover(anterior.centavos, centavos);
+        } else {
+            totais(anterior.agencia).remover(anterior.centavos);
+            totais(agencia).adicionar(centavos);
+        }
+        return new SaldoConta(agencia, centavos);
+    }
+
+    /**
+     * @return o resumo da agência, ou {@code null} se ela não tem contas
+     */
+    public ResumoAgencia resumir(Long agencia) {
+        Totais totais = agencias.get(normalizar(agencia));
+        return totais == null ? null : totais.resumir(normalizar(agencia));
+    }
+
+    public List<ResumoAgencia> resumirTodas() {
+        List<ResumoAgencia> resumos = new ArrayList<>(agencias.size());
+        agencias.forEach((agencia, totais) -> {
+            ResumoAgencia resumo = totais.resumir(agencia);
+            if (resumo != null) {
+                resumos.add(resumo);
+            }
+        });
+        return resumos;
+    }
+
+    private Totais totais(long agencia) {
+        return agencias.computeIfAbsent(agencia, chave -> new Totais());
+    }
+
+    private static long normalizar(Long agencia) {
+        return agencia == null ? 0 : agencia;
+    }
+
+    private record SaldoConta(long agencia, long centavos) {
+    }
+
+    /**
+     * Alteração ainda não aplicada: diferença de saldo e, se mudou, a nova agência.
+     */
+    private record Pendente(long centavos, Long agencia) {
+        Pendente somar(Pendente seguinte) {
+            return new Pendente(centavos + seguinte.centavos, seguinte.agencia == null ? agencia : seguinte.agencia);
+        }
+    }
+
+    private static final class Totais {
+        private final LongAdder contas = new LongAdder();
+        private final LongAdder centavos = new LongAdder();
+        private final NavigableMap<Long, Long> contasPorSaldo = new ConcurrentSkipListMap<>();
+
+        void adicionar(long saldo) {
+            contas.increment();
+            centavos.add(saldo);
+            contasPorSaldo.merge(saldo, 1L, Long::sum);
+        }
+
+        void remover(long saldo) {
+            contas.decrement();
+            centavos.add(-saldo);
+            contasPorSaldo.computeIfPresent(saldo, (chave, quantidade) -> quantidade == 1 ? null : quantidade - 1);
+        }
+
+        void mover(long de, long para) {
+            centavos.add(para - de);
+            contasPorSaldo.merge(para, 1L, Long::sum);
+            contasPorSaldo.computeIfPresent(de, (chave, quantidade) -> quantidade == 1 ? null : quantidade - 1);
+        }
+
+        ResumoAgencia resumir(long agencia) {
+            long quantidade = contas.sum();
+            if (quantidade <= 0) {
+                return null;
+            }
+            Map.Entry<Long, Long> minimo = contasPorSaldo.firstEntry();
+            Map.Entry<Long, Long> maximo = contasPorSaldo.lastEntry();
+            return new ResumoAgencia(agencia, quantidade, Dinheiro.deCentavos(centavos.sum()),
+                    minimo == null ? null : Dinheiro.deCentavos(minimo.getKey()),
+                    maximo == null ? null : Dinheiro.deCentavos(maximo.getKey()),
+                    Instant.now());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ada.banco.infra.gateway.bd;
+
+/**
+ * Contexto da thread usado pelo {@link DataSourceRoteado}: o cliente da requisição, para a janela de
+ * leitura das próprias escritas, e se as leituras devem ir ao primário mesmo em transações somente leitura.
+ */
+public final class RotaLeitura {
+    private static final ThreadLocal<String> CLIENTE = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+    private RotaLeitura() {
+    }
+
+    public static String getCliente() {
+        return CLIENTE.get();
+    }
+
+    public static void definirCliente(String cliente) {
+        CLIENTE.set(cliente);
+    }
+
+    public static void limparCliente() {
+        CLIENTE.remove();
+    }
+
+    static boolean isPrimarioObrigatorio() {
+        return Boolean.TRUE.equals(PRIMARIO.get());
+    }
+
+    /**
+     * Executa a leitura no primário, para quem não pode ler uma réplica atrasada (cargas de estado em memória).
+     */
+    public static void noPrimario(Runnable leitura) {
+        Boolean anterior = PRIMARIO.get();
+        PRIMARIO.set(Boolean.TRUE);
+        try {
+            leitura.run();
+        } finally {
+            if (anterior == null) {
+                PRIMARIO.remove();
+            } else {
+                PRIMARIO.set(anterior);
+            }
+        }
+    }
+}
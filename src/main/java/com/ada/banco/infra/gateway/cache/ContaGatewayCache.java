@@ -0,0 +1,208 @@
+package com.ada.banco.infra.gateway.cache;
+
+import com.ada.banco.domain.gateway.ColetorContas;
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Cache de leitura na frente do {@link ContaGatewayDatabase}, ligado por {@code banco.cache.contas.habilitado}.
+ *
+ * Guarda até {@code banco.cache.contas.tamanho} contas com despejo W-TinyLFU (Caffeine).
+ * Qualquer escrita que passa por aqui invalida as contas envolvidas na hora e, dentro de uma transação,
+ * de novo quando ela termina, para descartar o que outra thread tenha lido do banco antes do commit.
+ * Dentro de uma transação de escrita as leituras não passam pelo cache. Escritas feitas por outras
+ * instâncias só aparecem depois de {@code banco.cache.contas.expiracao}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "banco.cache.contas.habilitado", havingValue = "true")
+public class ContaGatewayCache implements ContaGateway {
+    private final ContaGateway contaGateway;
+    private final Cache<Long, Conta> contas;
+
+    @Autowired
+    public ContaGatewayCache(ContaGatewayDatabase contaGateway,
+                             @Value("${banco.cache.contas.tamanho:100000}") long tamanho,
+                             @Value("${banco.cache.contas.expiracao:30s}") Duration expiracao) {
+        this((ContaGateway) contaGateway, tamanho, expiracao);
+    }
+
+    public ContaGatewayCache(ContaGateway contaGateway, long tamanho, Duration expiracao) {
+        this.contaGateway = contaGateway;
+        this.contas = Caffeine.newBuilder()
+                .maximumSize(tamanho)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+    }
+
+    public CacheStats getEstatisticas() {
+        return contas.stats();
+    }
+
+    public Cache<Long, Conta> getCache() {
+        return contas;
+    }
+
+    @Override
+    public Conta salvar(Conta conta) {
+        Conta contaSalva = contaGateway.salvar(conta);
+        invalidar(List.of(conta.getId()));
+        return contaSalva;
+    }
+
+    @Override
+    public List<Boolean> criarEmLote(List<Conta> contas) {
+        List<Boolean> criadas = contaGateway.criarEmLote(contas);
+        invalidar(contas.stream().map(Conta::getId).toList());
+        return criadas;
+    }
+
+    /**
+     * Devolve sempre uma cópia, para que quem alterar a conta recebida não altere o cache.
+     * Numa transação de escrita a conta vem do banco e não entra no cache, que só guarda o que já foi confirmado.
+     */
+    @Override
+    public Conta buscarPorId(Long id) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return contaGateway.buscarPorId(id);
+        }
+        return copiar(contas.get(id, contaGateway::buscarPorId));
+    }
+
+    @Override
+    public Conta atualizar(Conta conta) {
+        Conta contaAtualizada = contaGateway.atualizar(conta);
+        invalidar(List.of(conta.getId()));
+        return contaAtualizada;
+    }
+
+    @Override
+    public List<Conta> listar() {
+        return contaGateway.listar();
+    }
+
+    @Override
+    public List<Conta> listarPorCpf(String cpf) {
+        return contaGateway.listarPorCpf(cpf);
+    }
+
+    @Override
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        return contaGateway.listarPagina(depoisDe, limite);
+    }
+
+    @Override
+    public void percorrer(Consumer<Conta> consumidor) {
+        contaGateway.percorrer(consumidor);
+    }
+
+    @Override
+    public List<Movimentacao> extrato(Long id, Instant de, Instant ate, Long depoisDe, int limite) {
+        return contaGateway.extrato(id, de, ate, depoisDe, limite);
+    }
+
+    @Override
+    public ResumoAgencia resumirAgencia(Long agencia) {
+        return contaGateway.resumirAgencia(agencia);
+    }
+
+    @Override
+    public void exportar(ColetorContas coletor) {
+        contaGateway.exportar(coletor);
+    }
+
+    @Override
+    public int debitar(Long id, Dinheiro valor) {
+        int debitadas = contaGateway.debitar(id, valor);
+        if (debitadas > 0) {
+            invalidar(List.of(id));
+        }
+        return debitadas;
+    }
+
+    @Override
+    public int creditar(Long id, Dinheiro valor) {
+        int creditadas = contaGateway.creditar(id, valor);
+        if (creditadas > 0) {
+            invalidar(List.of(id));
+        }
+        return creditadas;
+    }
+
+    @Override
+    public boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        boolean transferida = contaGateway.transferir(idOut, idIn, valor);
+        if (transferida) {
+            invalidar(List.of(idOut, idIn));
+        }
+        return transferida;
+    }
+
+    @Override
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<SituacaoTransferencia> situacoes = contaGateway.transferirEmLote(transferencias);
+        List<Long> alteradas = new ArrayList<>();
+        for (int i = 0; i < situacoes.size(); i++) {
+            if (situacoes.get(i) == SituacaoTransferencia.REALIZADA) {
+                alteradas.add(transferencias.get(i).getIdOut());
+                alteradas.add(transferencias.get(i).getIdIn());
+            }
+        }
+        invalidar(alteradas);
+        return situacoes;
+    }
+
+    /**
+     * Invalida agora e, com uma transação em andamento, também quando ela termina: entre a escrita
+     * e o commit outra thread ainda lê o valor antigo do banco e pode colocá-lo no cache.
+     * Depois de um rollback a invalidação só descarta o que seria relido de qualquer jeito.
+     */
+    private void invalidar(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        contas.invalidateAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    contas.invalidateAll(ids);
+                }
+            });
+        }
+    }
+
+    private Conta copiar(Conta conta) {
+        if (conta == null) {
+            return null;
+        }
+        Conta copia = new Conta(conta.getId(), conta.getAgencia(), conta.getDigito(), conta.getSaldo(), conta.getTitular(), conta.getCpf());
+        copia.setVersao(conta.getVersao());
+        return copia;
+    }
+}
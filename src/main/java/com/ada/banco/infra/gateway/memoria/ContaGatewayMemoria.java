@@ -0,0 +1,587 @@
+package com.ada.banco.infra.gateway.memoria;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Gateway de contas todo em memória, ligado por {@code banco.memoria.habilitado}, para quando
+ * uma ida ao banco por operação é cara demais.
+ *
+ * As contas ficam em um {@link ConcurrentSkipListMap} (ordenado por id, para a paginação) e cada
+ * alteração de saldo trava só as contas envolvidas, sempre em ordem de id. Toda alteração é
+ * gravada no {@link LogEscrita} e só retorna depois de estar no disco. Débitos e créditos aparecem
+ * na memória antes de o quadro estar no disco, para não segurar a conta durante o fsync; se a gravação
+ * falhar, cada um é desfeito pelo valor inverso. Como o log só confirma um prefixo do que recebeu, todas
+ * as alterações que enxergaram uma não gravada também falham e são desfeitas, e a memória volta ao que
+ * está no disco. Criação e alteração cadastral só são aplicadas depois de gravadas. De tempos em tempos
+ * ({@code banco.memoria.snapshot.intervalo}) o estado inteiro vai para um snapshot e os segmentos
+ * de log anteriores são apagados. Ao subir, carrega o último snapshot e reaplica o log.
+ *
+ * Não pode ser ligado junto com o cache de contas: os dois são {@code @Primary}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "banco.memoria.habilitado", havingValue = "true")
+public class ContaGatewayMemoria implements ContaGateway {
+    private static final byte REGISTRO_CONTA = 1;
+    private static final byte REGISTRO_SALDOS = 2;
+    private static final int VERSAO_SNAPSHOT = 1;
+    private static final int TRAVAS = 64;
+
+    private final Path diretorio;
+    private final ConcurrentSkipListMap<Long, Conta> contas = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Long>> idsPorCpf = new ConcurrentHashMap<>();
+    // Alterações usam a trava de leitura; o snapshot usa a de escrita para ver um estado parado
+    private final ReadWriteLock bloqueio = new ReentrantReadWriteLock();
+    private final LogEscrita log;
+    // Criações do mesmo id, que esperam o disco antes de entrar no mapa
+    private final Object[] travas = new Object[TRAVAS];
+    private long segmentoAtual;
+
+    @Autowired
+    public ContaGatewayMemoria(@Value("${banco.memoria.diretorio:dados/memoria}") String diretorio,
+                               @Value("${banco.memoria.sincronizar:true}") boolean sincronizar) throws IOException {
+        this(Path.of(diretorio), sincronizar);
+    }
+
+    public ContaGatewayMemoria(Path diretorio, boolean sincronizar) throws IOException {
+        this.diretorio = Files.createDirectories(diretorio);
+        this.segmentoAtual = recuperar();
+        this.log = new LogEscrita(diretorio, segmentoAtual, sincronizar);
+        for (int i = 0; i < TRAVAS; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    @Override
+    public Conta salvar(Conta conta) {
+        Conta nova = copiar(conta);
+        bloqueio.readLock().lock();
+        try {
+            log.verificar();
+            synchronized (travas[Math.floorMod(Long.hashCode(nova.getId()), TRAVAS)]) {
+                aguardar(log.registrar(registroConta(nova)));
+                Conta anterior = contas.put(nova.getId(), nova);
+                if (anterior != null) {
+                    desindexar(anterior);
+                }
+                indexar(nova);
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        return conta;
+    }
+
+    @Override
+    public Conta buscarPorId(Long id) {
+        Conta conta = contas.get(id);
+        if (conta == null) {
+            return null;
+        }
+        synchronized (conta) {
+            return copiar(conta);
+        }
+    }
+
+    /**
+     * Como no banco, só altera os dados cadastrais; o saldo muda por débitos e créditos.
+     */
+    @Override
+    public Conta atualizar(Conta conta) {
+        Conta atual = contas.get(conta.getId());
+        if (atual == null) {
+            return conta;
+        }
+        bloqueio.readLock().lock();
+        try {
+            log.verificar();
+            synchronized (atual) {
+                Conta alterada = copiar(atual);
+                alterada.setAgencia(conta.getAgencia());
+                alterada.setDigito(conta.getDigito());
+                alterada.setTitular(conta.getTitular());
+                alterada.setCpf(conta.getCpf());
+                aguardar(log.registrar(registroConta(alterada)));
+                desindexar(atual);
+                atual.setAgencia(conta.getAgencia());
+                atual.setDigito(conta.getDigito());
+                atual.setTitular(conta.getTitular());
+                atual.setCpf(conta.getCpf());
+                indexar(atual);
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        return conta;
+    }
+
+    @Override
+    public List<Conta> listar() {
+        List<Conta> lista = new ArrayList<>(contas.size());
+        percorrer(lista::add);
+        return lista;
+    }
+
+    @Override
+    public List<Conta> listarPorCpf(String cpf) {
+        List<Conta> lista = new ArrayList<>();
+        for (Long id : idsPorCpf.getOrDefault(cpf, Set.of())) {
+            Conta conta = buscarPorId(id);
+            if (conta != null && cpf.equals(conta.getCpf())) {
+                lista.add(conta);
+            }
+        }
+        lista.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return lista;
+    }
+
+    @Override
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        Map<Long, Conta> pagina = depoisDe == null ? contas : contas.tailMap(depoisDe, false);
+        List<Conta> lista = new ArrayList<>(Math.min(limite, contas.size()));
+        for (Conta conta : pagina.values()) {
+            if (lista.size() == limite) {
+                break;
+            }
+            synchronized (conta) {
+                lista.add(copiar(conta));
+            }
+        }
+        return lista;
+    }
+
+    @Override
+    public void percorrer(Consumer<Conta> consumidor) {
+        for (Conta conta : contas.values()) {
+            Conta copia;
+            synchronized (conta) {
+                copia = copiar(conta);
+            }
+            consumidor.accept(copia);
+        }
+    }
+
+    @Override
+    public int debitar(Long id, Dinheiro valor) {
+        Conta conta = contas.get(id);
+        if (conta == null) {
+            return 0;
+        }
+        CompletableFuture<Void> gravado;
+        bloqueio.readLock().lock();
+        try {
+            log.verificar();
+            synchronized (conta) {
+                if (conta.getSaldo().isMenorQue(valor)) {
+                    return 0;
+                }
+                conta.setSaldo(conta.getSaldo().subtrair(valor));
+                gravado = log.registrar(registroSaldos(conta));
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        aguardar(gravado, () -> {
+            synchronized (conta) {
+                conta.setSaldo(conta.getSaldo().somar(valor));
+            }
+        });
+        return 1;
+    }
+
+    @Override
+    public int creditar(Long id, Dinheiro valor) {
+        Conta conta = contas.get(id);
+        if (conta == null) {
+            return 0;
+        }
+        CompletableFuture<Void> gravado;
+        bloqueio.readLock().lock();
+        try {
+            log.verificar();
+            synchronized (conta) {
+                conta.setSaldo(conta.getSaldo().somar(valor));
+                gravado = log.registrar(registroSaldos(conta));
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        aguardar(gravado, () -> {
+            synchronized (conta) {
+                conta.setSaldo(conta.getSaldo().subtrair(valor));
+            }
+        });
+        return 1;
+    }
+
+    @Override
+    public boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        CompletableFuture<Void> gravado;
+        bloqueio.readLock().lock();
+        try {
+            gravado = transferirSemAguardar(idOut, idIn, valor);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        if (gravado == null) {
+            return false;
+        }
+        aguardar(gravado, () -> desfazerTransferencia(idOut, idIn, valor));
+        return true;
+    }
+
+    /**
+     * Aplica as transferências uma a uma e espera só pela gravação da última:
+     * o log grava em ordem, então quando ela está no disco as anteriores também estão.
+     * Se ela falhar, as realizadas que não foram gravadas são desfeitas.
+     */
+    @Override
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<SituacaoTransferencia> situacoes = new ArrayList<>(transferencias.size());
+        List<Transferencia> realizadas = new ArrayList<>();
+        List<CompletableFuture<Void>> gravacoes = new ArrayList<>();
+        CompletableFuture<Void> ultimoGravado = null;
+        bloqueio.readLock().lock();
+        try {
+            for (Transferencia transferencia : transferencias) {
+                Long idOut = transferencia.getIdOut();
+                Long idIn = transferencia.getIdIn();
+                if (!contas.containsKey(idOut) || !contas.containsKey(idIn)) {
+                    situacoes.add(SituacaoTransferencia.CONTA_NAO_EXISTE);
+                    continue;
+                }
+                CompletableFuture<Void> gravado = transferirSemAguardar(idOut, idIn, transferencia.getValor());
+                if (gravado == null) {
+                    situacoes.add(SituacaoTransferencia.SALDO_INSUFICIENTE);
+                } else {
+                    situacoes.add(SituacaoTransferencia.REALIZADA);
+                    realizadas.add(transferencia);
+                    gravacoes.add(gravado);
+                    ultimoGravado = gravado;
+                }
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        if (ultimoGravado != null) {
+            aguardar(ultimoGravado, () -> {
+                for (int i = 0; i < realizadas.size(); i++) {
+                    if (falhou(gravacoes.get(i))) {
+                        Transferencia transferencia = realizadas.get(i);
+                        desfazerTransferencia(transferencia.getIdOut(), transferencia.getIdIn(), transferencia.getValor());
+                    }
+                }
+            });
+        }
+        return situacoes;
+    }
+
+    /**
+     * Grava um snapshot e apaga o log que ele cobre. O estado é copiado com as alterações
+     * paradas, junto com a troca de segmento do log; a escrita do arquivo é feita depois, sem travar ninguém.
+     */
+    @Scheduled(fixedDelayString = "${banco.memoria.snapshot.intervalo:300000}",
+            initialDelayString = "${banco.memoria.snapshot.intervalo:300000}")
+    public void gravarSnapshot() throws IOException {
+        long segmento;
+        List<Conta> copia = new ArrayList<>(contas.size());
+        CompletableFuture<Void> rotacionado;
+        bloqueio.writeLock().lock();
+        try {
+            segmento = ++segmentoAtual;
+            rotacionado = log.rotacionar(segmento);
+            for (Conta conta : contas.values()) {
+                copia.add(copiar(conta));
+            }
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+        aguardar(rotacionado);
+
+        Path temporario = diretorio.resolve("snapshot.tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)));
+            saida.writeInt(VERSAO_SNAPSHOT);
+            saida.writeInt(copia.size());
+            for (Conta conta : copia) {
+                escreverConta(saida, conta);
+            }
+            saida.flush();
+            canal.force(true);
+        }
+        Files.move(temporario, arquivoSnapshot(segmento), StandardCopyOption.ATOMIC_MOVE);
+        LogEscrita.sincronizarDiretorio(diretorio);
+
+        for (Path arquivo : listar("wal-")) {
+            if (LogEscrita.segmento(arquivo) < segmento) {
+                Files.delete(arquivo);
+            }
+        }
+        for (Path arquivo : listar("snapshot-")) {
+            if (LogEscrita.segmento(arquivo) < segmento) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void fechar() throws IOException {
+        log.close();
+    }
+
+    private CompletableFuture<Void> transferirSemAguardar(Long idOut, Long idIn, Dinheiro valor) {
+        Conta contaOut = contas.get(idOut);
+        Conta contaIn = contas.get(idIn);
+        if (contaOut == null || contaIn == null) {
+            return null;
+        }
+        log.verificar();
+        Conta primeira = idOut < idIn ? contaOut : contaIn;
+        Conta segunda = primeira == contaOut ? contaIn : contaOut;
+        synchronized (primeira) {
+            synchronized (segunda) {
+                if (contaOut.getSaldo().isMenorQue(valor)) {
+                    return null;
+                }
+                contaOut.setSaldo(contaOut.getSaldo().subtrair(valor));
+                contaIn.setSaldo(contaIn.getSaldo().somar(valor));
+                return log.registrar(registroSaldos(contaOut, contaIn));
+            }
+        }
+    }
+
+    /**
+     * Desfaz uma transferência cuja gravação falhou, travando as contas na mesma ordem da transferência.
+     */
+    private void desfazerTransferencia(Long idOut, Long idIn, Dinheiro valor) {
+        Conta contaOut = contas.get(idOut);
+        Conta contaIn = contas.get(idIn);
+        Conta primeira = idOut < idIn ? contaOut : contaIn;
+        Conta segunda = primeira == contaOut ? contaIn : contaOut;
+        synchronized (primeira) {
+            synchronized (segunda) {
+                contaOut.setSaldo(contaOut.getSaldo().somar(valor));
+                contaIn.setSaldo(contaIn.getSaldo().subtrair(valor));
+            }
+        }
+    }
+
+    /**
+     * Carrega o último snapshot, reaplica os segmentos de log a partir dele e
+     * devolve o número do segmento onde a gravação deve continuar.
+     */
+    private long recuperar() throws IOException {
+        long base = 0;
+        List<Path> snapshots = listar("snapshot-");
+        if (!snapshots.isEmpty()) {
+            Path snapshot = snapshots.get(snapshots.size() - 1);
+            base = LogEscrita.segmento(snapshot);
+            try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                if (entrada.readInt() != VERSAO_SNAPSHOT) {
+                    throw new IOException("Versão de snapshot desconhecida em " + snapshot);
+                }
+                for (int i = entrada.readInt(); i > 0; i--) {
+                    Conta conta = lerConta(entrada);
+                    contas.put(conta.getId(), conta);
+                }
+            }
+        }
+
+        long proximo = base;
+        for (Path segmento : listar("wal-")) {
+            long numero = LogEscrita.segmento(segmento);
+            if (numero >= base) {
+                LogEscrita.reproduzir(segmento, this::aplicar);
+                proximo = Math.max(proximo, numero + 1);
+            }
+        }
+        contas.values().forEach(this::indexar);
+        return proximo;
+    }
+
+    private void aplicar(DataInputStream registro) {
+        try {
+            byte tipo = registro.readByte();
+            if (tipo == REGISTRO_CONTA) {
+                Conta conta = lerConta(registro);
+                contas.put(conta.getId(), conta);
+            } else if (tipo == REGISTRO_SALDOS) {
+                for (int i = registro.readInt(); i > 0; i--) {
+                    Conta conta = contas.get(registro.readLong());
+                    Dinheiro saldo = Dinheiro.deCentavos(registro.readLong());
+                    if (conta != null) {
+                        conta.setSaldo(saldo);
+                    }
+                }
+            } else {
+                throw new IOException("Tipo de registro desconhecido: " + tipo);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> listar(String prefixo) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(arquivo -> arquivo.getFileName().toString().startsWith(prefixo))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path arquivoSnapshot(long segmento) {
+        return diretorio.resolve(String.format("snapshot-%016d.bin", segmento));
+    }
+
+    private void indexar(Conta conta) {
+        if (conta.getCpf() != null) {
+            idsPorCpf.computeIfAbsent(conta.getCpf(), cpf -> ConcurrentHashMap.newKeySet()).add(conta.getId());
+        }
+    }
+
+    private void desindexar(Conta conta) {
+        if (conta.getCpf() != null) {
+            idsPorCpf.computeIfPresent(conta.getCpf(), (cpf, ids) -> {
+                ids.remove(conta.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void aguardar(CompletableFuture<Void> gravado) {
+        aguardar(gravado, () -> { });
+    }
+
+    /**
+     * @param desfazer o que volta a memória ao estado de antes, se a gravação falhar
+     */
+    private void aguardar(CompletableFuture<Void> gravado, Runnable desfazer) {
+        try {
+            gravado.join();
+        } catch (CompletionException e) {
+            desfazer.run();
+            throw new IllegalStateException("Não foi possível gravar no log de escrita", e.getCause());
+        }
+    }
+
+    private static boolean falhou(CompletableFuture<Void> gravado) {
+        try {
+            gravado.join();
+            return false;
+        } catch (CompletionException e) {
+            return true;
+        }
+    }
+
+    private static byte[] registroConta(Conta conta) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            saida.writeByte(REGISTRO_CONTA);
+            escreverConta(saida, conta);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] registroSaldos(Conta... alteradas) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * alteradas.length);
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            saida.writeByte(REGISTRO_SALDOS);
+            saida.writeInt(alteradas.length);
+            for (Conta conta : alteradas) {
+                saida.writeLong(conta.getId());
+                saida.writeLong(conta.getSaldo().getCentavos());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void escreverConta(DataOutput saida, Conta conta) throws IOException {
+        saida.writeLong(conta.getId());
+        escreverLong(saida, conta.getAgencia());
+        escreverLong(saida, conta.getDigito());
+        saida.writeLong(conta.getSaldo() == null ? 0 : conta.getSaldo().getCentavos());
+        escreverTexto(saida, conta.getTitular());
+        escreverTexto(saida, conta.getCpf());
+    }
+
+    private static Conta lerConta(DataInput entrada) throws IOException {
+        long id = entrada.readLong();
+        Long agencia = lerLong(entrada);
+        Long digito = lerLong(entrada);
+        Dinheiro saldo = Dinheiro.deCentavos(entrada.readLong());
+        return new Conta(id, agencia, digito, saldo,
+                lerTexto(entrada), lerTexto(entrada));
+    }
+
+    private static void escreverLong(DataOutput saida, Long valor) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            saida.writeLong(valor);
+        }
+    }
+
+    private static Long lerLong(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readLong() : null;
+    }
+
+    private static void escreverTexto(DataOutput saida, String valor) throws IOException {
+        saida.writeBoolean(valor != null);
+        if (valor != null) {
+            saida.writeUTF(valor);
+        }
+    }
+
+    private static String lerTexto(DataInput entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static Conta copiar(Conta conta) {
+        Dinheiro saldo = conta.getSaldo() == null ? Dinheiro.ZERO : conta.getSaldo();
+        return new Conta(conta.getId(), conta.getAgencia(), conta.getDigito(), saldo, conta.getTitular(), conta.getCpf());
+    }
+}
@@ -0,0 +1,258 @@
+package com.ada.banco.infra.gateway.memoria;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Log de escrita (write-ahead log) só de acréscimo, dividido em segmentos {@code wal-<n>.log}.
+ *
+ * Cada registro vira um quadro {@code [tamanho][conteúdo][crc32]}. Uma única thread grava os
+ * quadros na ordem em que chegaram e faz um só {@code force} para todos os que estavam na fila
+ * (group commit): com muitas escritas simultâneas, o custo do fsync é dividido entre elas.
+ * O futuro devolvido por {@link #registrar(byte[])} só completa depois que o quadro está no disco.
+ * Se uma gravação falha, o lote dela e tudo o que vier depois falham também, e o log deixa de aceitar
+ * registros: os quadros confirmados são sempre um prefixo do que foi registrado.
+ */
+class LogEscrita implements Closeable {
+    private static final int TAMANHO_LOTE = 4096;
+    private static final Pendente FECHAR = new Pendente(null, -1);
+
+    private final Path diretorio;
+    private final boolean sincronizar;
+    private final BlockingQueue<Pendente> fila = new LinkedBlockingQueue<>();
+    private final Thread escritor;
+    private final ByteBuffer saida = ByteBuffer.allocateDirect(1 << 20);
+    private FileChannel canal;
+    private volatile IOException falha;
+    // Depois de marcado (com a fila travada), nada mais entra na fila e o que sobrou nela é recusado
+    private boolean encerrado;
+
+    LogEscrita(Path diretorio, long segmento, boolean sincronizar) throws IOException {
+        this.diretorio = diretorio;
+        this.sincronizar = sincronizar;
+        this.canal = abrir(segmento);
+        this.escritor = new Thread(this::escrever, "banco-log-escrita");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    static Path arquivo(Path diretorio, long segmento) {
+        return diretorio.resolve(String.format("wal-%016d.log", segmento));
+    }
+
+    static long segmento(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(nome.indexOf('-') + 1, nome.indexOf('.')));
+    }
+
+    /**
+     * Lê os quadros válidos do segmento em ordem, um de cada vez, sem carregar o arquivo inteiro.
+     * Um quadro incompleto ou com CRC errado só pode ser o último, de uma escrita interrompida;
+     * ele e o que vier depois são cortados do arquivo.
+     */
+    static void reproduzir(Path arquivo, Consumer<DataInputStream> aplicador) throws IOException {
+        try (FileChannel leitura = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanhoArquivo = leitura.size();
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(leitura), 1 << 16));
+            long valido = 0;
+            while (tamanhoArquivo - valido >= Integer.BYTES) {
+                int tamanho = entrada.readInt();
+                if (tamanho <= 0 || tamanhoArquivo - valido - Integer.BYTES < (long) tamanho + Integer.BYTES) {
+                    break;
+                }
+                byte[] registro = new byte[tamanho];
+                entrada.readFully(registro);
+                if (entrada.readInt() != crc(registro)) {
+                    break;
+                }
+                aplicador.accept(new DataInputStream(new ByteArrayInputStream(registro)));
+                valido += tamanho + Integer.BYTES * 2L;
+            }
+            if (valido < tamanhoArquivo) {
+                leitura.truncate(valido);
+            }
+        }
+    }
+
+    /**
+     * Grava no disco a entrada do diretório, para que um arquivo criado ou renomeado nele sobreviva a uma queda.
+     */
+    static void sincronizarDiretorio(Path diretorio) throws IOException {
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        }
+    }
+
+    /**
+     * @return um futuro já falho se o log falhou ou foi fechado
+     */
+    CompletableFuture<Void> registrar(byte[] registro) {
+        return enfileirar(new Pendente(registro, 0));
+    }
+
+    /**
+     * Tudo o que foi registrado antes desta chamada fica no segmento atual; o resto vai para {@code segmento}.
+     */
+    CompletableFuture<Void> rotacionar(long segmento) {
+        return enfileirar(new Pendente(null, segmento));
+    }
+
+    void verificar() {
+        if (falha != null) {
+            throw new IllegalStateException("O log de escrita falhou e não aceita novos registros", falha);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (fila) {
+            if (!encerrado) {
+                fila.add(FECHAR);
+            }
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+
+    private CompletableFuture<Void> enfileirar(Pendente pendente) {
+        synchronized (fila) {
+            if (encerrado || falha != null) {
+                pendente.concluido.completeExceptionally(falha != null ? new UncheckedIOException(falha)
+                        : new IllegalStateException("O log de escrita foi fechado"));
+            } else {
+                fila.add(pendente);
+            }
+        }
+        return pendente.concluido;
+    }
+
+    /**
+     * Para de aceitar registros e recusa os que ainda estavam na fila.
+     */
+    private void encerrar(RuntimeException causa) {
+        synchronized (fila) {
+            encerrado = true;
+        }
+        fila.forEach(pendente -> pendente.concluido.completeExceptionally(causa));
+        fila.clear();
+    }
+
+    private void escrever() {
+        List<Pendente> lote = new ArrayList<>(TAMANHO_LOTE);
+        while (true) {
+            try {
+                lote.add(fila.take());
+            } catch (InterruptedException e) {
+                encerrar(new IllegalStateException("O log de escrita foi interrompido"));
+                return;
+            }
+            fila.drainTo(lote, TAMANHO_LOTE - 1);
+
+            boolean fechar = false;
+            try {
+                for (Pendente pendente : lote) {
+                    if (pendente == FECHAR) {
+                        fechar = true;
+                    } else if (pendente.registro != null) {
+                        gravar(pendente.registro);
+                    } else {
+                        descarregar();
+                        canal.force(false);
+                        canal.close();
+                        canal = abrir(pendente.segmento);
+                    }
+                }
+                descarregar();
+                if (sincronizar) {
+                    canal.force(false);
+                }
+                lote.forEach(pendente -> pendente.concluido.complete(null));
+            } catch (IOException e) {
+                falha = e;
+                lote.forEach(pendente -> pendente.concluido.completeExceptionally(new UncheckedIOException(e)));
+                encerrar(new UncheckedIOException(e));
+                return;
+            }
+            lote.clear();
+            if (fechar) {
+                encerrar(new IllegalStateException("O log de escrita foi fechado"));
+                return;
+            }
+        }
+    }
+
+    private void gravar(byte[] registro) throws IOException {
+        int tamanhoQuadro = registro.length + Integer.BYTES * 2;
+        if (saida.remaining() < tamanhoQuadro) {
+            descarregar();
+        }
+        if (saida.remaining() < tamanhoQuadro) {
+            ByteBuffer quadro = ByteBuffer.allocate(tamanhoQuadro);
+            quadro.putInt(registro.length).put(registro).putInt(crc(registro)).flip();
+            while (quadro.hasRemaining()) {
+                canal.write(quadro);
+            }
+            return;
+        }
+        saida.putInt(registro.length).put(registro).putInt(crc(registro));
+    }
+
+    private void descarregar() throws IOException {
+        saida.flip();
+        while (saida.hasRemaining()) {
+            canal.write(saida);
+        }
+        saida.clear();
+    }
+
+    private FileChannel abrir(long segmento) throws IOException {
+        FileChannel novo = FileChannel.open(arquivo(diretorio, segmento),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (sincronizar) {
+            try {
+                sincronizarDiretorio(diretorio);
+            } catch (IOException e) {
+                novo.close();
+                throw e;
+            }
+        }
+        return novo;
+    }
+
+    private static int crc(byte[] registro) {
+        CRC32 crc = new CRC32();
+        crc.update(registro);
+        return (int) crc.getValue();
+    }
+
+    private static final class Pendente {
+        private final byte[] registro;
+        private final long segmento;
+        private final CompletableFuture<Void> concluido = new CompletableFuture<>();
+
+        private Pendente(byte[] registro, long segmento) {
+            this.registro = registro;
+            this.segmento = segmento;
+        }
+    }
+}
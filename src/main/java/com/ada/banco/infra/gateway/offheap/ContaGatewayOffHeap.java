@@ -0,0 +1,537 @@
+package com.ada.banco.infra.gateway.offheap;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Gateway de contas fora do heap, ligado por {@code banco.offheap.habilitado}, para dezenas de
+ * milhões de contas sem um grafo de {@code Long}, {@code Conta} e {@code Dinheiro} para o GC percorrer.
+ *
+ * Cada conta ocupa um registro de {@value #TAMANHO_REGISTRO} bytes em blocos de {@link ByteBuffer}
+ * diretos, com o saldo em centavos num {@code long}. O id leva à posição do registro por um
+ * {@link MapaIdPosicao}. Objetos {@link Conta} só são criados quando alguém pede uma conta.
+ *
+ * Os índices também são só arrays primitivos: os ids em ordem, para a paginação, e um
+ * {@link MapaIdPosicao} do hash do CPF para o último registro com ele, de onde sai uma lista ligada
+ * pelos registros do mesmo hash. A busca por CPF confere os bytes de cada registro da lista.
+ * Um id criado fora de ordem entra no fim do array; os que se acumularem assim são ordenados de uma vez
+ * na próxima paginação ou varredura.
+ *
+ * CPF e titular têm tamanho fixo ({@value #MAXIMO_CPF} e {@value #MAXIMO_TITULAR} bytes em UTF-8);
+ * textos maiores são recusados com {@link IllegalArgumentException}.
+ * Os dados ficam só na memória do processo: este gateway não grava nada em disco.
+ * Não pode ser ligado junto com o cache de contas nem com o gateway em memória: todos são {@code @Primary}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "banco.offheap.habilitado", havingValue = "true")
+public class ContaGatewayOffHeap implements ContaGateway {
+    static final int TAMANHO_REGISTRO = 128;
+    static final int MAXIMO_CPF = 14;
+    static final int MAXIMO_TITULAR = 79;
+
+    private static final int ID = 0;
+    private static final int AGENCIA = 8;
+    private static final int DIGITO = 16;
+    private static final int SALDO = 24;
+    private static final int CPF = 32;
+    private static final int TITULAR = CPF + 1 + MAXIMO_CPF;
+    private static final long NULO = Long.MIN_VALUE;
+    private static final byte TEXTO_NULO = -1;
+
+    private static final int BITS_BLOCO = 16;
+    private static final int REGISTROS_POR_BLOCO = 1 << BITS_BLOCO;
+    private static final int TRAVAS = 1024;
+
+    private final MapaIdPosicao posicoes;
+    private final MapaIdPosicao ultimoPorCpf;
+    // Protege o mapa de posições, os índices e a criação de registros; os campos de cada registro usam as travas
+    private final ReadWriteLock bloqueio = new ReentrantReadWriteLock();
+    private long[] idsOrdenados;
+    // Quantos ids do começo de idsOrdenados estão em ordem; os seguintes ainda não foram ordenados
+    private int ordenados;
+    // Próximo registro com o mesmo hash de CPF, por posição
+    private long[] proximoMesmoCpf;
+    private final Object[] travas = new Object[TRAVAS];
+    private volatile ByteBuffer[] blocos = new ByteBuffer[0];
+    private volatile int quantidade;
+
+    @Autowired
+    public ContaGatewayOffHeap(@Value("${banco.offheap.capacidade-inicial:1000000}") int capacidadeInicial) {
+        this.posicoes = new MapaIdPosicao(capacidadeInicial);
+        this.ultimoPorCpf = new MapaIdPosicao(capacidadeInicial);
+        this.idsOrdenados = new long[Math.max(16, capacidadeInicial)];
+        this.proximoMesmoCpf = new long[Math.max(16, capacidadeInicial)];
+        for (int i = 0; i < TRAVAS; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    @Override
+    public Conta salvar(Conta conta) {
+        byte[] cpf = texto(conta.getCpf(), MAXIMO_CPF, "CPF");
+        byte[] titular = texto(conta.getTitular(), MAXIMO_TITULAR, "titular");
+        long saldo = conta.getSaldo() == null ? 0 : conta.getSaldo().getCentavos();
+
+        bloqueio.writeLock().lock();
+        try {
+            long posicao = posicoes.buscar(conta.getId());
+            boolean nova = posicao == MapaIdPosicao.AUSENTE;
+            if (nova) {
+                posicao = quantidade;
+                garantirBloco(posicao);
+            } else {
+                desindexarCpf(posicao);
+            }
+            synchronized (trava(posicao)) {
+                ByteBuffer bloco = bloco(posicao);
+                int base = deslocamento(posicao);
+                bloco.putLong(base + ID, conta.getId());
+                bloco.putLong(base + SALDO, saldo);
+                escreverCadastro(bloco, base, conta, cpf, titular);
+            }
+            if (nova) {
+                posicoes.colocar(conta.getId(), posicao);
+                indexarId(conta.getId());
+                quantidade++;
+            }
+            indexarCpf(posicao, cpf);
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+        return conta;
+    }
+
+    @Override
+    public Conta buscarPorId(Long id) {
+        long posicao = posicao(id);
+        return posicao == MapaIdPosicao.AUSENTE ? null : materializar(posicao);
+    }
+
+    /**
+     * Como no banco, só altera os dados cadastrais; o saldo muda por débitos e créditos.
+     */
+    @Override
+    public Conta atualizar(Conta conta) {
+        byte[] cpf = texto(conta.getCpf(), MAXIMO_CPF, "CPF");
+        byte[] titular = texto(conta.getTitular(), MAXIMO_TITULAR, "titular");
+        bloqueio.writeLock().lock();
+        try {
+            long posicao = posicoes.buscar(conta.getId());
+            if (posicao != MapaIdPosicao.AUSENTE) {
+                desindexarCpf(posicao);
+                synchronized (trava(posicao)) {
+                    escreverCadastro(bloco(posicao), deslocamento(posicao), conta, cpf, titular);
+                }
+                indexarCpf(posicao, cpf);
+            }
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+        return conta;
+    }
+
+    @Override
+    public List<Conta> listar() {
+        List<Conta> contas = new ArrayList<>(quantidade);
+        percorrer(contas::add);
+        return contas;
+    }
+
+    /**
+     * Segue a lista dos registros com o mesmo hash de CPF, criando objetos só para os que batem.
+     */
+    @Override
+    public List<Conta> listarPorCpf(String cpf) {
+        byte[] procurado = cpf.getBytes(StandardCharsets.UTF_8);
+        List<Conta> contas = new ArrayList<>();
+        bloqueio.readLock().lock();
+        try {
+            for (long posicao = ultimoPorCpf.buscar(hash(procurado)); posicao != MapaIdPosicao.AUSENTE;
+                 posicao = proximoMesmoCpf[(int) posicao]) {
+                ByteBuffer bloco = bloco(posicao);
+                int base = deslocamento(posicao);
+                synchronized (trava(posicao)) {
+                    if (mesmoTexto(bloco, base + CPF, procurado)) {
+                        contas.add(materializar(bloco, base));
+                    }
+                }
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        contas.sort(Comparator.comparing(Conta::getId));
+        return contas;
+    }
+
+    @Override
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        if (limite <= 0) {
+            return List.of();
+        }
+        long[] pagina;
+        travarLeituraOrdenada();
+        try {
+            int inicio = depoisDe == null ? 0 : primeiroDepoisDe(depoisDe);
+            pagina = Arrays.copyOfRange(idsOrdenados, inicio, Math.min(quantidade, inicio + limite));
+            for (int i = 0; i < pagina.length; i++) {
+                pagina[i] = posicoes.buscar(pagina[i]);
+            }
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        List<Conta> contas = new ArrayList<>(pagina.length);
+        for (long posicao : pagina) {
+            contas.add(materializar(posicao));
+        }
+        return contas;
+    }
+
+    @Override
+    public void percorrer(Consumer<Conta> consumidor) {
+        long[] ids;
+        travarLeituraOrdenada();
+        try {
+            ids = Arrays.copyOf(idsOrdenados, quantidade);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+        for (long id : ids) {
+            consumidor.accept(buscarPorId(id));
+        }
+    }
+
+    @Override
+    public int debitar(Long id, Dinheiro valor) {
+        long posicao = posicao(id);
+        if (posicao == MapaIdPosicao.AUSENTE) {
+            return 0;
+        }
+        long centavos = valor.getCentavos();
+        ByteBuffer bloco = bloco(posicao);
+        int endereco = deslocamento(posicao) + SALDO;
+        synchronized (trava(posicao)) {
+            long saldo = bloco.getLong(endereco);
+            if (saldo < centavos) {
+                return 0;
+            }
+            bloco.putLong(endereco, saldo - centavos);
+        }
+        return 1;
+    }
+
+    @Override
+    public int creditar(Long id, Dinheiro valor) {
+        long posicao = posicao(id);
+        if (posicao == MapaIdPosicao.AUSENTE) {
+            return 0;
+        }
+        long centavos = valor.getCentavos();
+        ByteBuffer bloco = bloco(posicao);
+        int endereco = deslocamento(posicao) + SALDO;
+        synchronized (trava(posicao)) {
+            bloco.putLong(endereco, Math.addExact(bloco.getLong(endereco), centavos));
+        }
+        return 1;
+    }
+
+    @Override
+    public boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        long posicaoOut = posicao(idOut);
+        long posicaoIn = posicao(idIn);
+        if (posicaoOut == MapaIdPosicao.AUSENTE || posicaoIn == MapaIdPosicao.AUSENTE) {
+            return false;
+        }
+        long centavos = valor.getCentavos();
+        Object travaOut = trava(posicaoOut);
+        Object travaIn = trava(posicaoIn);
+        Object primeira = indiceTrava(posicaoOut) <= indiceTrava(posicaoIn) ? travaOut : travaIn;
+        Object segunda = primeira == travaOut ? travaIn : travaOut;
+        synchronized (primeira) {
+            synchronized (segunda) {
+                ByteBuffer blocoOut = bloco(posicaoOut);
+                int enderecoOut = deslocamento(posicaoOut) + SALDO;
+                long saldoOut = blocoOut.getLong(enderecoOut);
+                if (saldoOut < centavos) {
+                    return false;
+                }
+                ByteBuffer blocoIn = bloco(posicaoIn);
+                int enderecoIn = deslocamento(posicaoIn) + SALDO;
+                blocoOut.putLong(enderecoOut, saldoOut - centavos);
+                blocoIn.putLong(enderecoIn, Math.addExact(blocoIn.getLong(enderecoIn), centavos));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<SituacaoTransferencia> situacoes = new ArrayList<>(transferencias.size());
+        for (Transferencia transferencia : transferencias) {
+            if (transferir(transferencia.getIdOut(), transferencia.getIdIn(), transferencia.getValor())) {
+                situacoes.add(SituacaoTransferencia.REALIZADA);
+            } else if (posicao(transferencia.getIdOut()) == MapaIdPosicao.AUSENTE
+                    || posicao(transferencia.getIdIn()) == MapaIdPosicao.AUSENTE) {
+                situacoes.add(SituacaoTransferencia.CONTA_NAO_EXISTE);
+            } else {
+                situacoes.add(SituacaoTransferencia.SALDO_INSUFICIENTE);
+            }
+        }
+        return situacoes;
+    }
+
+    /**
+     * Bytes reservados fora do heap para os registros.
+     */
+    public long getBytesForaDoHeap() {
+        return (long) blocos.length * REGISTROS_POR_BLOCO * TAMANHO_REGISTRO;
+    }
+
+    /**
+     * Bytes dos índices no heap: só arrays primitivos, que crescem com a quantidade de contas
+     * e não com o conteúdo delas.
+     */
+    public long getBytesNoHeap() {
+        bloqueio.readLock().lock();
+        try {
+            return 8L * (idsOrdenados.length + proximoMesmoCpf.length)
+                    + 16L * (posicoes.capacidade() + ultimoPorCpf.capacidade());
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    private long posicao(Long id) {
+        bloqueio.readLock().lock();
+        try {
+            return posicoes.buscar(id);
+        } finally {
+            bloqueio.readLock().unlock();
+        }
+    }
+
+    /**
+     * Chamado com a trava de escrita. Todo id entra no fim; se ele for menor que o anterior, o array
+     * fica fora de ordem a partir dele até a próxima {@link #ordenarIds()}.
+     */
+    private void indexarId(long id) {
+        int total = quantidade;
+        if (total == idsOrdenados.length) {
+            idsOrdenados = Arrays.copyOf(idsOrdenados, total * 2);
+        }
+        idsOrdenados[total] = id;
+        if (ordenados == total && (total == 0 || idsOrdenados[total - 1] < id)) {
+            ordenados = total + 1;
+        }
+    }
+
+    /**
+     * Trava para leitura com todos os ids em ordem. Se algum entrou fora de ordem, a ordenação é feita
+     * com a trava de escrita, rebaixada depois para a de leitura sem soltar.
+     */
+    private void travarLeituraOrdenada() {
+        bloqueio.readLock().lock();
+        if (ordenados == quantidade) {
+            return;
+        }
+        bloqueio.readLock().unlock();
+        bloqueio.writeLock().lock();
+        try {
+            ordenarIds();
+            bloqueio.readLock().lock();
+        } finally {
+            bloqueio.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Chamado com a trava de escrita. Ordena só os ids que entraram fora de ordem e os intercala com o
+     * começo, que já está em ordem, de trás para a frente: O(n + k log k) para k ids novos.
+     */
+    private void ordenarIds() {
+        int total = quantidade;
+        if (ordenados == total) {
+            return;
+        }
+        long[] fora = Arrays.copyOfRange(idsOrdenados, ordenados, total);
+        Arrays.sort(fora);
+        int i = ordenados - 1;
+        int j = fora.length - 1;
+        for (int destino = total - 1; j >= 0; destino--) {
+            idsOrdenados[destino] = i >= 0 && idsOrdenados[i] > fora[j] ? idsOrdenados[i--] : fora[j--];
+        }
+        ordenados = total;
+    }
+
+    private int primeiroDepoisDe(long id) {
+        int indice = Arrays.binarySearch(idsOrdenados, 0, quantidade, id);
+        return indice >= 0 ? indice + 1 : -(indice + 1);
+    }
+
+    /**
+     * Chamado com a trava de escrita, depois de o CPF ser gravado no registro.
+     */
+    private void indexarCpf(long posicao, byte[] cpf) {
+        if (cpf == null) {
+            return;
+        }
+        if (posicao >= proximoMesmoCpf.length) {
+            proximoMesmoCpf = Arrays.copyOf(proximoMesmoCpf, proximoMesmoCpf.length * 2);
+        }
+        long chave = hash(cpf);
+        proximoMesmoCpf[(int) posicao] = ultimoPorCpf.buscar(chave);
+        ultimoPorCpf.colocar(chave, posicao);
+    }
+
+    /**
+     * Chamado com a trava de escrita, antes de o CPF do registro ser trocado.
+     */
+    private void desindexarCpf(long posicao) {
+        ByteBuffer bloco = bloco(posicao);
+        int endereco = deslocamento(posicao) + CPF;
+        byte tamanho = bloco.get(endereco);
+        if (tamanho == TEXTO_NULO) {
+            return;
+        }
+        byte[] cpf = new byte[tamanho];
+        bloco.get(endereco + 1, cpf);
+        long chave = hash(cpf);
+        long atual = ultimoPorCpf.buscar(chave);
+        if (atual == posicao) {
+            ultimoPorCpf.colocar(chave, proximoMesmoCpf[(int) posicao]);
+            return;
+        }
+        while (atual != MapaIdPosicao.AUSENTE) {
+            long proximo = proximoMesmoCpf[(int) atual];
+            if (proximo == posicao) {
+                proximoMesmoCpf[(int) atual] = proximoMesmoCpf[(int) posicao];
+                return;
+            }
+            atual = proximo;
+        }
+    }
+
+    /**
+     * FNV-1a de 64 bits; a chave reservada do {@link MapaIdPosicao} vira outra.
+     */
+    private static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return h == Long.MIN_VALUE ? 0 : h;
+    }
+
+    private Conta materializar(long posicao) {
+        synchronized (trava(posicao)) {
+            return materializar(bloco(posicao), deslocamento(posicao));
+        }
+    }
+
+    private Conta materializar(ByteBuffer bloco, int base) {
+        return new Conta(
+                bloco.getLong(base + ID),
+                lerLong(bloco, base + AGENCIA),
+                lerLong(bloco, base + DIGITO),
+                Dinheiro.deCentavos(bloco.getLong(base + SALDO)),
+                lerTexto(bloco, base + TITULAR),
+                lerTexto(bloco, base + CPF));
+    }
+
+    private void escreverCadastro(ByteBuffer bloco, int base, Conta conta, byte[] cpf, byte[] titular) {
+        bloco.putLong(base + AGENCIA, conta.getAgencia() == null ? NULO : conta.getAgencia());
+        bloco.putLong(base + DIGITO, conta.getDigito() == null ? NULO : conta.getDigito());
+        escreverTexto(bloco, base + CPF, cpf);
+        escreverTexto(bloco, base + TITULAR, titular);
+    }
+
+    private void garantirBloco(long posicao) {
+        int indice = (int) (posicao >>> BITS_BLOCO);
+        if (indice >= blocos.length) {
+            ByteBuffer[] novos = Arrays.copyOf(blocos, indice + 1);
+            novos[indice] = ByteBuffer.allocateDirect(REGISTROS_POR_BLOCO * TAMANHO_REGISTRO);
+            blocos = novos;
+        }
+    }
+
+    private ByteBuffer bloco(long posicao) {
+        return blocos[(int) (posicao >>> BITS_BLOCO)];
+    }
+
+    private static int deslocamento(long posicao) {
+        return (int) (posicao & (REGISTROS_POR_BLOCO - 1)) * TAMANHO_REGISTRO;
+    }
+
+    private Object trava(long posicao) {
+        return travas[indiceTrava(posicao)];
+    }
+
+    private static int indiceTrava(long posicao) {
+        return (int) (posicao & (TRAVAS - 1));
+    }
+
+    private static byte[] texto(String valor, int maximo, String campo) {
+        if (valor == null) {
+            return null;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maximo) {
+            throw new IllegalArgumentException("O " + campo + " passa de " + maximo + " bytes: " + valor);
+        }
+        return bytes;
+    }
+
+    private static void escreverTexto(ByteBuffer bloco, int endereco, byte[] bytes) {
+        if (bytes == null) {
+            bloco.put(endereco, TEXTO_NULO);
+            return;
+        }
+        bloco.put(endereco, (byte) bytes.length);
+        bloco.put(endereco + 1, bytes);
+    }
+
+    private static String lerTexto(ByteBuffer bloco, int endereco) {
+        byte tamanho = bloco.get(endereco);
+        if (tamanho == TEXTO_NULO) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        bloco.get(endereco + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean mesmoTexto(ByteBuffer bloco, int endereco, byte[] procurado) {
+        if (bloco.get(endereco) != procurado.length) {
+            return false;
+        }
+        for (int i = 0; i < procurado.length; i++) {
+            if (bloco.get(endereco + 1 + i) != procurado[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Long lerLong(ByteBuffer bloco, int endereco) {
+        long valor = bloco.getLong(endereco);
+        return valor == NULO ? null : valor;
+    }
+}
@@ -0,0 +1,93 @@
+package com.ada.banco.infra.gateway.offheap;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de {@code long} para {@code long} com endereçamento aberto e sondagem linear,
+ * sem nenhum objeto por entrada: só dois arrays primitivos. Não é thread-safe; quem usa sincroniza.
+ */
+class MapaIdPosicao {
+    static final long AUSENTE = -1;
+    private static final long VAZIO = Long.MIN_VALUE;
+
+    private long[] chaves;
+    private long[] valores;
+    private int tamanho;
+
+    MapaIdPosicao(int capacidadeInicial) {
+        int capacidade = Integer.highestOneBit(Math.max(16, capacidadeInicial * 2 - 1)) << 1;
+        alocar(capacidade);
+    }
+
+    long buscar(long chave) {
+        long[] chaves = this.chaves;
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(chave) & mascara; ; i = (i + 1) & mascara) {
+            long atual = chaves[i];
+            if (atual == chave) {
+                return valores[i];
+            }
+            if (atual == VAZIO) {
+                return AUSENTE;
+            }
+        }
+    }
+
+    void colocar(long chave, long valor) {
+        if (chave == VAZIO) {
+            throw new IllegalArgumentException("Chave reservada: " + chave);
+        }
+        // Carga máxima de 50%, para as sondagens continuarem curtas
+        if ((tamanho + 1) * 2L > chaves.length) {
+            redimensionar();
+        }
+        if (inserir(chave, valor)) {
+            tamanho++;
+        }
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    int capacidade() {
+        return chaves.length;
+    }
+
+    private boolean inserir(long chave, long valor) {
+        int mascara = chaves.length - 1;
+        for (int i = espalhar(chave) & mascara; ; i = (i + 1) & mascara) {
+            if (chaves[i] == VAZIO) {
+                chaves[i] = chave;
+                valores[i] = valor;
+                return true;
+            }
+            if (chaves[i] == chave) {
+                valores[i] = valor;
+                return false;
+            }
+        }
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        long[] valoresAntigos = valores;
+        alocar(chavesAntigas.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != VAZIO) {
+                inserir(chavesAntigas[i], valoresAntigos[i]);
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        valores = new long[capacidade];
+        Arrays.fill(chaves, VAZIO);
+    }
+
+    private static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,139 @@
+package com.ada.banco.infra.gateway.outbox;
+
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.NotificacaoEmail;
+import com.ada.banco.infra.gateway.bd.NotificacaoEmailRepository;
+import com.ada.banco.infra.gateway.http.EmailGatewayHttp;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Esvazia a outbox de e-mails em lotes. Cada envio roda em uma virtual thread, limitado a
+ * {@code banco.notificacao.em-voo} envios simultâneos para não sobrecarregar o provedor.
+ *
+ * Antes de enviar, a notificação é reservada por {@code banco.notificacao.reserva}, então mais
+ * de uma instância pode despachar ao mesmo tempo. A entrega é pelo menos uma vez: se a instância
+ * cair depois de enviar e antes de apagar a notificação, ela é enviada de novo quando a reserva vencer.
+ * Falhas são tentadas de novo com espera exponencial, até {@code banco.notificacao.tentativas} vezes;
+ * depois disso a notificação é descartada: fica na tabela, fora da fila, e entra na contagem de
+ * {@link #getDescartadas()}.
+ */
+@Component
+public class DespachanteNotificacoes {
+    private static final Logger log = LoggerFactory.getLogger(DespachanteNotificacoes.class);
+    private static final Duration ESPERA_INICIAL = Duration.ofSeconds(1);
+    private static final Duration ESPERA_MAXIMA = Duration.ofMinutes(10);
+
+    private final NotificacaoEmailRepository notificacaoEmailRepository;
+    private final EmailGateway emailGateway;
+    private final int tamanhoLote;
+    private final int maximoTentativas;
+    private final Duration reserva;
+    private final Semaphore emVoo;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public DespachanteNotificacoes(NotificacaoEmailRepository notificacaoEmailRepository,
+                                   EmailGatewayHttp emailGateway,
+                                   @Value("${banco.notificacao.lote:100}") int tamanhoLote,
+                                   @Value("${banco.notificacao.em-voo:50}") int maximoEmVoo,
+                                   @Value("${banco.notificacao.tentativas:10}") int maximoTentativas,
+                                   @Value("${banco.notificacao.reserva:60s}") Duration reserva) {
+        this(notificacaoEmailRepository, (EmailGateway) emailGateway, tamanhoLote, maximoEmVoo, maximoTentativas, reserva);
+    }
+
+    public DespachanteNotificacoes(NotificacaoEmailRepository notificacaoEmailRepository, EmailGateway emailGateway,
+                                   int tamanhoLote, int maximoEmVoo, int maximoTentativas, Duration reserva) {
+        this.notificacaoEmailRepository = notificacaoEmailRepository;
+        this.emailGateway = emailGateway;
+        this.tamanhoLote = tamanhoLote;
+        this.maximoTentativas = maximoTentativas;
+        this.reserva = reserva;
+        this.emVoo = new Semaphore(maximoEmVoo);
+    }
+
+    @Scheduled(fixedDelayString = "${banco.notificacao.intervalo:1000}")
+    public void despachar() throws InterruptedException {
+        List<NotificacaoEmail> pendentes;
+        do {
+            pendentes = notificacaoEmailRepository.findByProximaTentativaLessThanEqualAndDescartadaEmIsNullOrderById(
+                    Instant.now(), PageRequest.of(0, tamanhoLote));
+
+            List<Future<?>> envios = new ArrayList<>(pendentes.size());
+            for (NotificacaoEmail notificacao : pendentes) {
+                Instant reservaAte = Instant.now().plus(reserva);
+                if (notificacaoEmailRepository.reservar(notificacao.getId(), notificacao.getProximaTentativa(), reservaAte) == 0) {
+                    continue;
+                }
+                emVoo.acquire();
+                envios.add(executor.submit(() -> {
+                    try {
+                        enviar(notificacao);
+                    } finally {
+                        emVoo.release();
+                    }
+                }));
+            }
+            aguardar(envios);
+        } while (pendentes.size() == tamanhoLote);
+    }
+
+    private void enviar(NotificacaoEmail notificacao) {
+        try {
+            emailGateway.send(notificacao.getCpf());
+            notificacaoEmailRepository.deleteById(notificacao.getId());
+        } catch (RuntimeException e) {
+            int tentativa = notificacao.getTentativas() + 1;
+            if (tentativa >= maximoTentativas) {
+                log.error("E-mail {} descartado depois de {} tentativas: {}", notificacao.getId(), tentativa, e.getMessage());
+                notificacaoEmailRepository.descartar(notificacao.getId(), Instant.now());
+                return;
+            }
+            log.warn("Falha ao enviar o e-mail {} (tentativa {}): {}", notificacao.getId(), tentativa, e.getMessage());
+            notificacaoEmailRepository.registrarFalha(notificacao.getId(), Instant.now().plus(espera(tentativa)));
+        }
+    }
+
+    /**
+     * Notificações que esgotaram as tentativas, de todas as instâncias.
+     */
+    public long getDescartadas() {
+        return notificacaoEmailRepository.countByDescartadaEmIsNotNull();
+    }
+
+    private Duration espera(int tentativa) {
+        Duration espera = ESPERA_INICIAL.multipliedBy(1L << Math.min(tentativa - 1, 20));
+        return espera.compareTo(ESPERA_MAXIMA) > 0 ? ESPERA_MAXIMA : espera;
+    }
+
+    private void aguardar(List<Future<?>> envios) throws InterruptedException {
+        for (Future<?> envio : envios) {
+            try {
+                envio.get();
+            } catch (ExecutionException e) {
+                log.error("Erro inesperado ao despachar e-mail", e.getCause());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ada.banco.infra.gateway.outbox;
+
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.NotificacaoEmail;
+import com.ada.banco.infra.gateway.bd.NotificacaoEmailRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Não envia nada: grava o e-mail na outbox, dentro da transação de quem chamou.
+ * O envio de verdade é feito depois pelo {@link DespachanteNotificacoes}.
+ */
+@Component
+@Primary
+public class EmailGatewayOutbox implements EmailGateway {
+    private final NotificacaoEmailRepository notificacaoEmailRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmailGatewayOutbox(NotificacaoEmailRepository notificacaoEmailRepository, JdbcTemplate jdbcTemplate) {
+        this.notificacaoEmailRepository = notificacaoEmailRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void send(String cpf) {
+        Instant agora = Instant.now();
+        notificacaoEmailRepository.save(new NotificacaoEmail(null, cpf, agora, agora, 0));
+    }
+
+    /**
+     * Grava todos os e-mails num único batch JDBC, o id gerado pela identidade impede o Hibernate de agrupar os inserts.
+     */
+    @Override
+    public void sendEmLote(List<String> cpfs) {
+        Timestamp agora = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate("insert into notificacao_email (cpf, criada_em, proxima_tentativa, tentativas) values (?, ?, ?, 0)",
+                cpfs.stream().map(cpf -> new Object[]{cpf, agora, agora}).toList());
+    }
+}
@@ -0,0 +1,109 @@
+package com.ada.banco.infra.gateway.shard;
+
+import com.ada.banco.infra.gateway.bd.ConsolidadorMovimentacoes;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.ada.banco.infra.gateway.bd.ContasQuentes;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Com {@code banco.shards.habilitado=true}, as contas são divididas entre o banco principal (shard 0)
+ * e os bancos de {@code banco.shards.urls}, com o mesmo usuário e senha de {@code spring.datasource.*}.
+ * As demais tabelas (e-mails, idempotência, resumos) continuam só no banco principal.
+ *
+ * Cada shard extra tem o seu próprio {@link ContaJdbcRepository}, com as transações dele num
+ * {@link DataSourceTransactionManager} do shard. Com {@code banco.shards.criar-esquema=true}
+ * as tabelas de contas são criadas nos shards extras a partir de {@code esquema-shard.sql}.
+ * As transferências entre shards ficam registradas no banco principal, num {@link RegistroSagas}.
+ *
+ * A regra de distribuição vem de {@code banco.shards.roteamento} ({@code id} ou {@code agencia}),
+ * a não ser que a aplicação declare o seu próprio {@link RoteadorShards}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.shards.habilitado", havingValue = "true")
+public class ConfiguracaoShards implements DisposableBean {
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public ContaGatewayShards contaGatewayShards(DataSourceProperties propriedades, Environment ambiente,
+                                                 ContaJdbcRepository contaJdbcRepository, ContasQuentes contasQuentes,
+                                                 ConsolidadorMovimentacoes consolidador,
+                                                 PlatformTransactionManager transactionManager, JdbcTemplate jdbcTemplate,
+                                                 ObjectProvider<RoteadorShards> roteadores,
+                                                 @Value("${banco.shards.urls}") List<String> urls,
+                                                 @Value("${banco.shards.roteamento:id}") String roteamento,
+                                                 @Value("${banco.shards.criar-esquema:false}") boolean criarEsquema,
+                                                 @Value("${banco.shards.localizacoes.tamanho:1000000}") long tamanhoLocalizacoes,
+                                                 @Value("${banco.shards.saga.recuperacao.idade:1m}") Duration idadeSaga) {
+        List<ContaJdbcRepository> shards = new ArrayList<>(urls.size() + 1);
+        List<PlatformTransactionManager> transacoes = new ArrayList<>(urls.size() + 1);
+        shards.add(contaJdbcRepository);
+        transacoes.add(transactionManager);
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(urls.get(i).strip()).build();
+            Binder.get(ambiente).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + (i + 1));
+            dataSources.add(dataSource);
+            if (criarEsquema) {
+                new ResourceDatabasePopulator(new ClassPathResource("esquema-shard.sql")).execute(dataSource);
+            }
+            DataSourceTransactionManager transacao = new DataSourceTransactionManager(dataSource);
+            shards.add(repositorio(dataSource, transacao, contasQuentes));
+            transacoes.add(transacao);
+        }
+        RoteadorShards roteador = roteadores.getIfAvailable(() -> roteador(roteamento));
+        return new ContaGatewayShards(shards, transacoes, roteador, consolidador,
+                new RegistroSagas(jdbcTemplate, idadeSaga), tamanhoLocalizacoes);
+    }
+
+    @Override
+    public void destroy() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    private static RoteadorShards roteador(String roteamento) {
+        return switch (roteamento) {
+            case "id" -> new RoteadorPorId();
+            case "agencia" -> new RoteadorPorAgencia();
+            default -> throw new IllegalArgumentException("banco.shards.roteamento deve ser id ou agencia: " + roteamento);
+        };
+    }
+
+    /**
+     * O mesmo repositório do banco principal, com os {@code @Transactional} dele aplicados no shard.
+     */
+    private static ContaJdbcRepository repositorio(DataSource dataSource, TransactionManager transacao,
+                                                   ContasQuentes contasQuentes) {
+        ProxyFactory fabrica = new ProxyFactory(new ContaJdbcRepository(new NamedParameterJdbcTemplate(dataSource), contasQuentes));
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAdvice(new TransactionInterceptor(transacao, new AnnotationTransactionAttributeSource()));
+        return (ContaJdbcRepository) fabrica.getProxy();
+    }
+}
@@ -0,0 +1,616 @@
+package com.ada.banco.infra.gateway.shard;
+
+import com.ada.banco.domain.exception.ConflitoVersaoException;
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.EtapaSaga;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.SagaTransferencia;
+import com.ada.banco.domain.model.SituacaoSaga;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.TipoMovimentacao;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.infra.gateway.bd.ConsolidadorMovimentacoes;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Gateway de contas dividido em shards, ligado por {@code banco.shards.habilitado} (ver {@link ConfiguracaoShards}).
+ * Cada shard é um banco com as tabelas de contas e o razão de movimentações das contas que moram nele;
+ * o {@link RoteadorShards} decide onde cada conta fica.
+ *
+ * Operações sobre uma conta vão só ao shard dela. Listagens, busca por CPF e resumo de agência
+ * consultam todos os shards em paralelo e juntam as respostas em ordem de id. Dentro de uma transação
+ * de escrita as consultas rodam em sequência, na própria thread, para que o shard que participa da
+ * transação enxergue o que ela já escreveu.
+ *
+ * Uma transferência entre contas do mesmo shard é uma transação local. Entre shards é uma saga:
+ * débito na origem, crédito no destino e, se o crédito falhar, um {@link TipoMovimentacao#ESTORNO}
+ * na origem. Cada passo da saga é confirmado numa transação nova no gerenciador do seu shard, inclusive
+ * no shard 0, então uma transação de fora que seja desfeita depois não desfaz só um dos lados.
+ *
+ * A saga é gravada no {@link RegistroSagas} do shard 0 antes do débito, e cada passo deixa uma marca
+ * ({@link EtapaSaga}) no seu shard, na transação do lançamento. Se o processo cair no meio, ou o estorno
+ * falhar, a saga fica pendente; {@link #recuperarSagas()}, ao subir e depois a cada
+ * {@code banco.shards.saga.recuperacao.intervalo}, olha as marcas e termina o que faltou: cancela a saga
+ * que não debitou, refaz o crédito ou, se o destino não existe mais, estorna.
+ *
+ * Não pode ser ligado junto com o cache de contas nem com os gateways em memória e fora do heap:
+ * todos são {@code @Primary}.
+ */
+public class ContaGatewayShards implements ContaGateway {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContaGatewayShards.class);
+    private static final int TAMANHO_PAGINA = 500;
+    private static final int TRAVAS = 64;
+    private static final int LOTE_RECUPERACAO = 100;
+
+    private final List<ContaJdbcRepository> shards;
+    private final List<PlatformTransactionManager> transacoes;
+    // Uma transação nova por passo de saga, no gerenciador de cada shard
+    private final List<TransactionTemplate> passos;
+    private final RoteadorShards roteador;
+    private final ConsolidadorMovimentacoes consolidador;
+    private final RegistroSagas sagas;
+    // Onde estão as contas que o roteador não localiza pelo id; contas não mudam de shard
+    private final Cache<Long, Integer> localizacoes;
+    private final Object[] travas = new Object[TRAVAS];
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder transferenciasEntreShards = new LongAdder();
+    private final LongAdder estornos = new LongAdder();
+    private final LongAdder estornosFalhos = new LongAdder();
+
+    /**
+     * @param transacoes o gerenciador de transações de cada shard, na ordem de {@code shards}
+     */
+    public ContaGatewayShards(List<ContaJdbcRepository> shards, List<PlatformTransactionManager> transacoes,
+                              RoteadorShards roteador, ConsolidadorMovimentacoes consolidador, RegistroSagas sagas,
+                              long tamanhoLocalizacoes) {
+        if (transacoes.size() != shards.size()) {
+            throw new IllegalArgumentException("Um gerenciador de transações por shard: " + transacoes.size()
+                    + " para " + shards.size() + " shards");
+        }
+        this.shards = List.copyOf(shards);
+        this.transacoes = List.copyOf(transacoes);
+        this.passos = transacoes.stream().map(transacao -> {
+            TransactionTemplate passo = new TransactionTemplate(transacao);
+            passo.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            return passo;
+        }).toList();
+        this.roteador = roteador;
+        this.consolidador = consolidador;
+        this.sagas = sagas;
+        this.localizacoes = Caffeine.newBuilder().maximumSize(tamanhoLocalizacoes).build();
+        for (int i = 0; i < TRAVAS; i++) {
+            travas[i] = new Object();
+        }
+    }
+
+    public List<ContaJdbcRepository> getShards() {
+        return shards;
+    }
+
+    public List<PlatformTransactionManager> getTransacoes() {
+        return transacoes;
+    }
+
+    public long getTransferenciasEntreShards() {
+        return transferenciasEntreShards.sum();
+    }
+
+    public RegistroSagas getSagas() {
+        return sagas;
+    }
+
+    public long getEstornos() {
+        return estornos.sum();
+    }
+
+    /**
+     * Estornos que falharam nesta instância. A saga continua pendente e a recuperação tenta de novo.
+     */
+    public long getEstornosFalhos() {
+        return estornosFalhos.sum();
+    }
+
+    /**
+     * Sagas ainda não terminadas, em andamento ou à espera da recuperação.
+     */
+    public long getSagasPendentes() {
+        return sagas.contarPendentes();
+    }
+
+    /**
+     * Esquece as localizações guardadas, para quando contas são apagadas direto nos bancos.
+     */
+    public void limparLocalizacoes() {
+        localizacoes.invalidateAll();
+    }
+
+    /**
+     * O shard 0 é o banco principal, consolidado pelo próprio {@link ConsolidadorMovimentacoes}.
+     */
+    @Scheduled(fixedDelayString = "${banco.movimentacao.consolidacao.intervalo:5000}")
+    public void consolidarShards() {
+        for (int i = 1; i < shards.size(); i++) {
+            consolidador.consolidar(shards.get(i));
+        }
+    }
+
+    /**
+     * Termina as sagas abandonadas, {@value #LOTE_RECUPERACAO} por vez. Roda também logo ao subir,
+     * para as sagas que uma queda deixou no meio. Uma saga que falhar aqui volta a ser tentada depois
+     * de {@code banco.shards.saga.recuperacao.idade}.
+     * @return quantidade de sagas terminadas
+     */
+    @Scheduled(fixedDelayString = "${banco.shards.saga.recuperacao.intervalo:60000}")
+    public int recuperarSagas() {
+        int terminadas = 0;
+        List<SagaTransferencia> abandonadas;
+        do {
+            abandonadas = passo(0, () -> sagas.reservarAbandonadas(LOTE_RECUPERACAO));
+            for (SagaTransferencia saga : abandonadas) {
+                try {
+                    recuperar(saga);
+                    terminadas++;
+                } catch (RuntimeException e) {
+                    LOGGER.error("Saga {} continua pendente", saga.getId(), e);
+                }
+            }
+        } while (abandonadas.size() == LOTE_RECUPERACAO);
+        return terminadas;
+    }
+
+    /**
+     * A verificação de id repetido entre shards só vale para as escritas desta instância.
+     */
+    @Override
+    public Conta salvar(Conta conta) {
+        synchronized (travas[Math.floorMod(Long.hashCode(conta.getId()), TRAVAS)]) {
+            int shard = roteador.shardDoId(conta.getId(), shards.size());
+            if (shard == RoteadorShards.DESCONHECIDO) {
+                if (localizar(conta.getId()) != RoteadorShards.DESCONHECIDO) {
+                    throw new DuplicateKeyException("Já existe uma conta com o id " + conta.getId());
+                }
+                shard = roteador.shardDe(conta, shards.size());
+            }
+            if (!shards.get(shard).criarEmLote(List.of(conta)).get(0)) {
+                throw new DuplicateKeyException("Já existe uma conta com o id " + conta.getId());
+            }
+            lembrar(conta.getId(), shard);
+        }
+        return conta;
+    }
+
+    @Override
+    public List<Boolean> criarEmLote(List<Conta> contas) {
+        Boolean[] criadas = new Boolean[contas.size()];
+        Map<Long, Integer> existentes = localizar(contas.stream().map(Conta::getId).toList());
+        Map<Integer, List<Integer>> porShard = new HashMap<>();
+        for (int i = 0; i < contas.size(); i++) {
+            Conta conta = contas.get(i);
+            int shard = roteador.shardDoId(conta.getId(), shards.size());
+            if (shard == RoteadorShards.DESCONHECIDO) {
+                if (existentes.containsKey(conta.getId())) {
+                    criadas[i] = false;
+                    continue;
+                }
+                shard = roteador.shardDe(conta, shards.size());
+            }
+            porShard.computeIfAbsent(shard, s -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<Integer, List<Integer>> grupo : porShard.entrySet()) {
+            List<Conta> lote = grupo.getValue().stream().map(contas::get).toList();
+            List<Boolean> resultado = shards.get(grupo.getKey()).criarEmLote(lote);
+            for (int j = 0; j < lote.size(); j++) {
+                criadas[grupo.getValue().get(j)] = resultado.get(j);
+                if (resultado.get(j)) {
+                    lembrar(lote.get(j).getId(), grupo.getKey());
+                }
+            }
+        }
+        return Arrays.asList(criadas);
+    }
+
+    @Override
+    public Conta buscarPorId(Long id) {
+        int shard = localizar(id);
+        return shard == RoteadorShards.DESCONHECIDO ? null : shards.get(shard).buscarPorId(id);
+    }
+
+    /**
+     * @throws ConflitoVersaoException se {@code conta} traz uma versão e ela não é mais a do banco
+     */
+    @Override
+    public Conta atualizar(Conta conta) {
+        int shard = localizar(conta.getId());
+        if (shard == RoteadorShards.DESCONHECIDO) {
+            return conta;
+        }
+        ContaJdbcRepository repositorio = shards.get(shard);
+        if (repositorio.atualizar(conta) == 1) {
+            if (conta.getVersao() != null) {
+                conta.setVersao(conta.getVersao() + 1);
+            }
+        } else if (conta.getVersao() != null && repositorio.existe(conta.getId())) {
+            throw new ConflitoVersaoException(conta.getId());
+        }
+        return conta;
+    }
+
+    @Override
+    public List<Conta> listar() {
+        return juntarPorId(espalhar(ContaJdbcRepository::listar));
+    }
+
+    @Override
+    public List<Conta> listarPorCpf(String cpf) {
+        return juntarPorId(espalhar(shard -> shard.listarPorCpf(cpf)));
+    }
+
+    /**
+     * Cada shard devolve a sua página e fica a primeira página da junção.
+     */
+    @Override
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        List<Conta> contas = juntarPorId(espalhar(shard -> shard.listarPagina(depoisDe, limite)));
+        return contas.size() <= limite ? contas : contas.subList(0, limite);
+    }
+
+    /**
+     * Lê os shards em páginas de {@value #TAMANHO_PAGINA} contas e intercala as páginas por id, então a memória
+     * usada depende do número de shards e não do de contas. Cada página é lida numa consulta separada:
+     * o percurso não é uma fotografia de um instante só.
+     */
+    @Override
+    public void percorrer(Consumer<Conta> consumidor) {
+        PriorityQueue<CursorShard> cursores = new PriorityQueue<>(Comparator.comparing(cursor -> cursor.atual().getId()));
+        for (ContaJdbcRepository shard : shards) {
+            CursorShard cursor = new CursorShard(shard);
+            if (cursor.avancar()) {
+                cursores.add(cursor);
+            }
+        }
+        while (!cursores.isEmpty()) {
+            CursorShard cursor = cursores.poll();
+            consumidor.accept(cursor.atual());
+            if (cursor.avancar()) {
+                cursores.add(cursor);
+            }
+        }
+    }
+
+    @Override
+    public int debitar(Long id, Dinheiro valor) {
+        int shard = localizar(id);
+        return shard == RoteadorShards.DESCONHECIDO ? 0 : shards.get(shard).debitar(id, valor, TipoMovimentacao.SAQUE);
+    }
+
+    @Override
+    public int creditar(Long id, Dinheiro valor) {
+        int shard = localizar(id);
+        return shard == RoteadorShards.DESCONHECIDO ? 0 : shards.get(shard).creditar(id, valor, TipoMovimentacao.DEPOSITO);
+    }
+
+    @Override
+    public boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        int origem = localizar(idOut);
+        int destino = localizar(idIn);
+        if (origem == RoteadorShards.DESCONHECIDO || destino == RoteadorShards.DESCONHECIDO) {
+            return false;
+        }
+        if (origem == destino) {
+            return shards.get(origem).transferir(idOut, idIn, valor);
+        }
+        return transferirEntreShards(new Transferencia(idOut, idIn, valor), origem, destino) == SituacaoTransferencia.REALIZADA;
+    }
+
+    /**
+     * As transferências dentro de um shard vão num lote por shard, como no banco único;
+     * depois as que cruzam shards são feitas uma a uma, cada uma numa saga.
+     */
+    @Override
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        SituacaoTransferencia[] situacoes = new SituacaoTransferencia[transferencias.size()];
+        List<Long> ids = new ArrayList<>(transferencias.size() * 2);
+        for (Transferencia transferencia : transferencias) {
+            ids.add(transferencia.getIdOut());
+            ids.add(transferencia.getIdIn());
+        }
+        Map<Long, Integer> localizadas = localizar(ids);
+
+        Map<Integer, List<Integer>> porShard = new HashMap<>();
+        List<Integer> entreShards = new ArrayList<>();
+        for (int i = 0; i < transferencias.size(); i++) {
+            Integer origem = localizadas.get(transferencias.get(i).getIdOut());
+            Integer destino = localizadas.get(transferencias.get(i).getIdIn());
+            if (origem == null || destino == null) {
+                situacoes[i] = SituacaoTransferencia.CONTA_NAO_EXISTE;
+            } else if (origem.equals(destino)) {
+                porShard.computeIfAbsent(origem, s -> new ArrayList<>()).add(i);
+            } else {
+                entreShards.add(i);
+            }
+        }
+
+        for (Map.Entry<Integer, List<Integer>> grupo : porShard.entrySet()) {
+            List<SituacaoTransferencia> resultado = shards.get(grupo.getKey())
+                    .transferirEmLote(grupo.getValue().stream().map(transferencias::get).toList());
+            for (int j = 0; j < resultado.size(); j++) {
+                situacoes[grupo.getValue().get(j)] = resultado.get(j);
+            }
+        }
+        for (int i : entreShards) {
+            Transferencia transferencia = transferencias.get(i);
+            situacoes[i] = transferirEntreShards(transferencia, localizadas.get(transferencia.getIdOut()),
+                    localizadas.get(transferencia.getIdIn()));
+        }
+        return Arrays.asList(situacoes);
+    }
+
+    @Override
+    public List<Movimentacao> extrato(Long id, Instant de, Instant ate, Long depoisDe, int limite) {
+        int shard = localizar(id);
+        return shard == RoteadorShards.DESCONHECIDO ? List.of() : shards.get(shard).extrato(id, de, ate, depoisDe, limite);
+    }
+
+    /**
+     * Como a agência de uma conta pode mudar sem a conta mudar de shard, todos os shards são consultados.
+     */
+    @Override
+    public ResumoAgencia resumirAgencia(Long agencia) {
+        ResumoAgencia total = null;
+        for (ResumoAgencia resumo : espalhar(shard -> shard.resumirAgencia(agencia))) {
+            if (resumo == null) {
+                continue;
+            }
+            if (total == null) {
+                total = resumo;
+                continue;
+            }
+            total = new ResumoAgencia(agencia, total.getContas() + resumo.getContas(),
+                    total.getSaldoTotal().somar(resumo.getSaldoTotal()),
+                    resumo.getSaldoMinimo().isMenorQue(total.getSaldoMinimo()) ? resumo.getSaldoMinimo() : total.getSaldoMinimo(),
+                    total.getSaldoMaximo().isMenorQue(resumo.getSaldoMaximo()) ? resumo.getSaldoMaximo() : total.getSaldoMaximo(),
+                    Instant.now());
+        }
+        return total;
+    }
+
+    /**
+     * Débito na origem e crédito no destino, cada um confirmado na hora numa transação nova do seu shard,
+     * fora de qualquer transação de quem chamou. A saga é registrada antes do débito.
+     */
+    private SituacaoTransferencia transferirEntreShards(Transferencia transferencia, int origem, int destino) {
+        transferenciasEntreShards.increment();
+        long saga = passo(0, () -> sagas.iniciar(transferencia, origem, destino));
+        if (passo(origem, () -> shards.get(origem).aplicarPassoSaga(saga, EtapaSaga.DEBITO, transferencia.getIdOut(),
+                transferencia.getValor())) == 0) {
+            concluir(saga, SituacaoSaga.CANCELADA);
+            return SituacaoTransferencia.SALDO_INSUFICIENTE;
+        }
+        return creditarOuEstornar(saga, transferencia, origem, destino);
+    }
+
+    private void recuperar(SagaTransferencia saga) {
+        int origem = saga.getShardOrigem();
+        Transferencia transferencia = saga.getTransferencia();
+        if (passo(origem, () -> shards.get(origem).cancelarSaga(saga.getId(), transferencia.getIdOut()))) {
+            concluir(saga.getId(), SituacaoSaga.CANCELADA);
+        } else if (shards.get(origem).passoSagaAplicado(saga.getId(), EtapaSaga.ESTORNO)) {
+            concluir(saga.getId(), SituacaoSaga.ESTORNADA);
+        } else {
+            creditarOuEstornar(saga.getId(), transferencia, origem, saga.getShardDestino());
+        }
+    }
+
+    /**
+     * O crédito é marcado no destino, então refazê-lo numa saga que já creditou não credita de novo.
+     * Se o crédito não for aplicado, o débito é desfeito com um estorno na origem.
+     */
+    private SituacaoTransferencia creditarOuEstornar(long saga, Transferencia transferencia, int origem, int destino) {
+        int creditadas;
+        try {
+            creditadas = passo(destino, () -> shards.get(destino).aplicarPassoSaga(saga, EtapaSaga.CREDITO,
+                    transferencia.getIdIn(), transferencia.getValor()));
+        } catch (RuntimeException e) {
+            estornar(saga, transferencia, origem, destino);
+            throw e;
+        }
+        if (creditadas == 0) {
+            estornar(saga, transferencia, origem, destino);
+            localizacoes.invalidate(transferencia.getIdIn());
+            return SituacaoTransferencia.CONTA_NAO_EXISTE;
+        }
+        concluir(saga, SituacaoSaga.REALIZADA);
+        return SituacaoTransferencia.REALIZADA;
+    }
+
+    /**
+     * Se o estorno não for aplicado, a saga fica pendente para a recuperação.
+     */
+    private void estornar(long saga, Transferencia transferencia, int origem, int destino) {
+        try {
+            // um erro na confirmação do crédito não quer dizer que ele não foi aplicado
+            if (shards.get(destino).passoSagaAplicado(saga, EtapaSaga.CREDITO)) {
+                concluir(saga, SituacaoSaga.REALIZADA);
+                return;
+            }
+            if (passo(origem, () -> shards.get(origem).aplicarPassoSaga(saga, EtapaSaga.ESTORNO, transferencia.getIdOut(),
+                    transferencia.getValor())) == 1) {
+                estornos.increment();
+                concluir(saga, SituacaoSaga.ESTORNADA);
+                return;
+            }
+        } catch (RuntimeException e) {
+            estornosFalhos.increment();
+            LOGGER.error("Estorno de {} para a conta {} não foi aplicado; a saga {} fica pendente",
+                    transferencia.getValor(), transferencia.getIdOut(), saga, e);
+            return;
+        }
+        estornosFalhos.increment();
+        LOGGER.error("Estorno de {} para a conta {} não foi aplicado: a conta não existe mais; a saga {} fica pendente",
+                transferencia.getValor(), transferencia.getIdOut(), saga);
+    }
+
+    /**
+     * Uma falha aqui deixa a saga pendente; a recuperação a conclui pelas marcas dos passos.
+     */
+    private void concluir(long saga, SituacaoSaga situacao) {
+        try {
+            passo(0, () -> {
+                sagas.concluir(saga, situacao);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.warn("Saga {} não foi marcada como {}", saga, situacao, e);
+        }
+    }
+
+    private <T> T passo(int shard, Supplier<T> operacao) {
+        return passos.get(shard).execute(status -> operacao.get());
+    }
+
+    private int localizar(Long id) {
+        return localizar(List.of(id)).getOrDefault(id, RoteadorShards.DESCONHECIDO);
+    }
+
+    /**
+     * Shard de cada id: pelo roteador, pela localização guardada ou, para os que faltam, procurando
+     * em todos os shards de uma vez. Ids que não existem em nenhum shard ficam de fora do mapa, a não ser
+     * que o roteador localize pelo id: esses sempre têm shard, existindo ou não.
+     */
+    private Map<Long, Integer> localizar(Collection<Long> ids) {
+        Map<Long, Integer> localizadas = new HashMap<>();
+        List<Long> procurar = new ArrayList<>();
+        for (Long id : ids) {
+            int shard = roteador.shardDoId(id, shards.size());
+            Integer conhecido = shard != RoteadorShards.DESCONHECIDO ? Integer.valueOf(shard) : localizacoes.getIfPresent(id);
+            if (conhecido != null) {
+                localizadas.put(id, conhecido);
+            } else {
+                procurar.add(id);
+            }
+        }
+        if (procurar.isEmpty()) {
+            return localizadas;
+        }
+        List<Set<Long>> existentes = espalhar(shard -> shard.existentes(procurar));
+        for (int shard = 0; shard < existentes.size(); shard++) {
+            for (Long id : existentes.get(shard)) {
+                localizadas.put(id, shard);
+                lembrar(id, shard);
+            }
+        }
+        return localizadas;
+    }
+
+    private void lembrar(Long id, int shard) {
+        if (roteador.shardDoId(id, shards.size()) == RoteadorShards.DESCONHECIDO) {
+            localizacoes.put(id, shard);
+        }
+    }
+
+    /**
+     * Faz a consulta em todos os shards e devolve as respostas na ordem dos shards.
+     */
+    private <T> List<T> espalhar(Function<ContaJdbcRepository, T> consulta) {
+        List<T> respostas = new ArrayList<>(shards.size());
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            for (ContaJdbcRepository shard : shards) {
+                respostas.add(consulta.apply(shard));
+            }
+            return respostas;
+        }
+        List<Future<T>> pendentes = new ArrayList<>(shards.size());
+        for (ContaJdbcRepository shard : shards) {
+            pendentes.add(executor.submit(() -> consulta.apply(shard)));
+        }
+        for (Future<T> pendente : pendentes) {
+            respostas.add(aguardar(pendente));
+        }
+        return respostas;
+    }
+
+    private static <T> T aguardar(Future<T> pendente) {
+        try {
+            return pendente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta aos shards interrompida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static List<Conta> juntarPorId(List<List<Conta>> partes) {
+        List<Conta> contas = new ArrayList<>();
+        for (List<Conta> parte : partes) {
+            contas.addAll(parte);
+        }
+        contas.sort(Comparator.comparing(Conta::getId));
+        return contas;
+    }
+
+    private static final class CursorShard {
+        private final ContaJdbcRepository shard;
+        private List<Conta> pagina = List.of();
+        private int posicao = -1;
+        private boolean ultimaPagina;
+
+        private CursorShard(ContaJdbcRepository shard) {
+            this.shard = shard;
+        }
+
+        private Conta atual() {
+            return pagina.get(posicao);
+        }
+
+        private boolean avancar() {
+            if (++posicao < pagina.size()) {
+                return true;
+            }
+            if (ultimaPagina) {
+                return false;
+            }
+            Long depoisDe = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1).getId();
+            pagina = shard.listarPagina(depoisDe, TAMANHO_PAGINA);
+            posicao = 0;
+            ultimaPagina = pagina.size() < TAMANHO_PAGINA;
+            return !pagina.isEmpty();
+        }
+    }
+}
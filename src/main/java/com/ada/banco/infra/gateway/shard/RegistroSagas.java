@@ -0,0 +1,100 @@
+package com.ada.banco.infra.gateway.shard;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.SagaTransferencia;
+import com.ada.banco.domain.model.SituacaoSaga;
+import com.ada.banco.domain.model.Transferencia;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro das transferências entre shards, na tabela {@code saga_transferencia} do banco principal.
+ * Quem chama decide a transação: o {@link ContaGatewayShards} grava cada mudança numa transação
+ * nova do shard 0, para ela valer mesmo que o resto da saga não chegue ao fim.
+ *
+ * Uma saga pendente há mais de {@code idade} é considerada abandonada e pode ser reservada para
+ * recuperação. Reservar adia a saga por mais {@code idade}, então duas recuperações, nesta ou em outra
+ * instância, não pegam a mesma saga ao mesmo tempo.
+ */
+public class RegistroSagas {
+    private static final RowMapper<SagaTransferencia> SAGA = (rs, linha) -> new SagaTransferencia(
+            rs.getLong("id"),
+            rs.getLong("conta_origem"),
+            rs.getLong("conta_destino"),
+            Dinheiro.de(rs.getBigDecimal("valor")),
+            rs.getInt("shard_origem"),
+            rs.getInt("shard_destino"),
+            SituacaoSaga.valueOf(rs.getString("situacao")),
+            rs.getTimestamp("criada_em").toInstant(),
+            rs.getTimestamp("atualizada_em").toInstant());
+
+    private final JdbcTemplate jdbc;
+    private final Duration idade;
+
+    public RegistroSagas(JdbcTemplate jdbc, Duration idade) {
+        this.jdbc = jdbc;
+        this.idade = idade;
+    }
+
+    /**
+     * @return o id da saga, que identifica os passos dela em todos os shards
+     */
+    public long iniciar(Transferencia transferencia, int origem, int destino) {
+        Timestamp agora = Timestamp.from(Instant.now());
+        KeyHolder chave = new GeneratedKeyHolder();
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("insert into saga_transferencia (conta_origem, conta_destino, valor, "
+                    + "shard_origem, shard_destino, situacao, criada_em, atualizada_em) values (?, ?, ?, ?, ?, ?, ?, ?)", new String[]{"id"});
+            ps.setLong(1, transferencia.getIdOut());
+            ps.setLong(2, transferencia.getIdIn());
+            ps.setBigDecimal(3, transferencia.getValor().toBigDecimal());
+            ps.setInt(4, origem);
+            ps.setInt(5, destino);
+            ps.setString(6, SituacaoSaga.PENDENTE.name());
+            ps.setTimestamp(7, agora);
+            ps.setTimestamp(8, agora);
+            return ps;
+        }, chave);
+        return chave.getKey().longValue();
+    }
+
+    public void concluir(long saga, SituacaoSaga situacao) {
+        jdbc.update("update saga_transferencia set situacao = ?, atualizada_em = ? where id = ?",
+                situacao.name(), Timestamp.from(Instant.now()), saga);
+    }
+
+    public SagaTransferencia buscar(long saga) {
+        List<SagaTransferencia> sagas = jdbc.query("select * from saga_transferencia where id = ?", SAGA, saga);
+        return sagas.isEmpty() ? null : sagas.get(0);
+    }
+
+    /**
+     * Reserva até {@code limite} sagas pendentes há mais de {@code idade}, das mais antigas para as mais novas.
+     */
+    public List<SagaTransferencia> reservarAbandonadas(int limite) {
+        Instant agora = Instant.now();
+        List<SagaTransferencia> reservadas = new ArrayList<>();
+        for (SagaTransferencia saga : jdbc.query("select * from saga_transferencia where situacao = ? and atualizada_em < ? "
+                + "order by id limit ?", SAGA, SituacaoSaga.PENDENTE.name(), Timestamp.from(agora.minus(idade)), limite)) {
+            if (jdbc.update("update saga_transferencia set atualizada_em = ? where id = ? and situacao = ? and atualizada_em = ?",
+                    Timestamp.from(agora), saga.getId(), SituacaoSaga.PENDENTE.name(), Timestamp.from(saga.getAtualizadaEm())) == 1) {
+                reservadas.add(saga);
+            }
+        }
+        return reservadas;
+    }
+
+    public long contarPendentes() {
+        return jdbc.queryForObject("select count(*) from saga_transferencia where situacao = ?", Long.class,
+                SituacaoSaga.PENDENTE.name());
+    }
+}
@@ -0,0 +1,23 @@
+package com.ada.banco.infra.gateway.shard;
+
+import com.ada.banco.domain.model.Conta;
+
+/**
+ * Mantém as contas de uma agência no mesmo shard (contas sem agência contam como 0), então
+ * transferências dentro da agência são transações locais. O id não diz o shard: a conta é
+ * localizada na primeira operação e a localização fica guardada.
+ *
+ * Mudar a agência de uma conta não a move: ela continua no shard em que foi criada.
+ */
+public class RoteadorPorAgencia implements RoteadorShards {
+
+    @Override
+    public int shardDe(Conta conta, int shards) {
+        return RoteadorShards.jump(conta.getAgencia() == null ? 0 : conta.getAgencia(), shards);
+    }
+
+    @Override
+    public int shardDoId(long id, int shards) {
+        return DESCONHECIDO;
+    }
+}
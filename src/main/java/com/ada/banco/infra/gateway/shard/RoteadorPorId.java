@@ -0,0 +1,20 @@
+package com.ada.banco.infra.gateway.shard;
+
+import com.ada.banco.domain.model.Conta;
+
+/**
+ * Espalha as contas pelo hash do id. Toda operação sobre uma conta vai direto ao shard dela;
+ * transferências entre contas de shards diferentes viram sagas.
+ */
+public class RoteadorPorId implements RoteadorShards {
+
+    @Override
+    public int shardDe(Conta conta, int shards) {
+        return shardDoId(conta.getId(), shards);
+    }
+
+    @Override
+    public int shardDoId(long id, int shards) {
+        return RoteadorShards.jump(id, shards);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ada.banco.infra.gateway.shard;
+
+import com.ada.banco.domain.model.Conta;
+
+/**
+ * Decide em qual shard cada conta fica. Para trocar a regra, basta declarar um bean deste tipo:
+ * ele substitui o escolhido por {@code banco.shards.roteamento}.
+ *
+ * O shard de uma conta é decidido uma vez, na criação; a conta não muda de shard depois.
+ */
+public interface RoteadorShards {
+    /** O id sozinho não diz o shard: a conta é procurada em todos. */
+    int DESCONHECIDO = -1;
+
+    /**
+     * Shard em que uma conta nova é criada, entre {@code 0} e {@code shards - 1}.
+     */
+    int shardDe(Conta conta, int shards);
+
+    /**
+     * Shard da conta com esse id, ou {@link #DESCONHECIDO} se a regra não depende só do id.
+     */
+    int shardDoId(long id, int shards);
+
+    /**
+     * Hash consistente "jump" (Lamping e Veach): espalha as chaves por igual e, quando um shard é
+     * acrescentado, só cerca de {@code 1/shards} das chaves mudaria de lugar.
+     */
+    static int jump(long chave, int shards) {
+        long shard = -1;
+        long proximo = 0;
+        while (proximo < shards) {
+            shard = proximo;
+            chave = chave * 2862933555777941757L + 1;
+            proximo = (long) ((shard + 1) * ((double) (1L << 31) / (double) ((chave >>> 33) + 1)));
+        }
+        return (int) shard;
+    }
+}
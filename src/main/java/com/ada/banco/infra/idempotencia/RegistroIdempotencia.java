@@ -0,0 +1,141 @@
+package com.ada.banco.infra.idempotencia;
+
+import com.ada.banco.domain.model.RespostaIdempotente;
+import com.ada.banco.infra.gateway.bd.RespostaIdempotenteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Garante que uma requisição com {@code Idempotency-Key} só é executada uma vez.
+ *
+ * A primeira execução grava a resposta na tabela {@link RespostaIdempotente} na mesma transação
+ * da operação, e a deixa num cache em memória (até {@code banco.idempotencia.tamanho} chaves,
+ * por {@code banco.idempotencia.validade}). Uma repetição custa uma consulta ao cache; se a chave
+ * saiu do cache, uma leitura no banco. Repetições que chegam enquanto a original ainda está
+ * executando esperam por ela em vez de executar de novo.
+ *
+ * A espera só vale dentro da mesma instância. Entre instâncias, quem gravar a chave depois
+ * tem a transação desfeita pela chave primária e devolve a resposta de quem gravou primeiro.
+ * Isso só protege operações que escrevem nessa mesma transação, como as do gateway de banco.
+ * Com o gateway em memória, o fora do heap ou o de shards (que confirma cada passo na transação
+ * do seu shard), a operação repetida em outra instância já foi aplicada quando a gravação da
+ * chave falha, e nada é desfeito.
+ */
+@Component
+public class RegistroIdempotencia {
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETIDA = "Idempotency-Replayed";
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final RespostaIdempotenteRepository respostaIdempotenteRepository;
+    private final TransactionTemplate transacao;
+    private final Duration validade;
+    private final Cache<String, CompletableFuture<RespostaIdempotente>> respostas;
+
+    @Autowired
+    public RegistroIdempotencia(RespostaIdempotenteRepository respostaIdempotenteRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${banco.idempotencia.tamanho:100000}") long tamanho,
+                                @Value("${banco.idempotencia.validade:24h}") Duration validade) {
+        this.respostaIdempotenteRepository = respostaIdempotenteRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.validade = validade;
+        this.respostas = Caffeine.newBuilder()
+                .maximumSize(tamanho)
+                .expireAfterWrite(validade)
+                .build();
+    }
+
+    /**
+     * Executa {@code operacao} se {@code chave} ainda não foi vista, ou devolve a resposta guardada.
+     * Sem chave, apenas executa. {@code requisicao} descreve a operação e seus parâmetros; a mesma
+     * chave com outra requisição é recusada com 422.
+     */
+    public ResponseEntity<String> executar(String chave, String requisicao, Supplier<ResponseEntity<String>> operacao) {
+        if (chave == null) {
+            return operacao.get();
+        }
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            return ResponseEntity.badRequest().body("Idempotency-Key inválida");
+        }
+
+        while (true) {
+            CompletableFuture<RespostaIdempotente> nova = new CompletableFuture<>();
+            CompletableFuture<RespostaIdempotente> existente = respostas.asMap().putIfAbsent(chave, nova);
+            if (existente == null) {
+                return responder(executarPrimeira(chave, requisicao, operacao, nova), requisicao, false);
+            }
+            try {
+                return responder(existente.join(), requisicao, true);
+            } catch (CompletionException e) {
+                // A original falhou sem gravar nada, então esta pode tentar executar
+            }
+        }
+    }
+
+    private RespostaIdempotente executarPrimeira(String chave, String requisicao, Supplier<ResponseEntity<String>> operacao,
+                                                 CompletableFuture<RespostaIdempotente> nova) {
+        try {
+            RespostaIdempotente resposta = respostaIdempotenteRepository.findById(chave).orElse(null);
+            if (resposta == null || !resposta.getExpiraEm().isAfter(Instant.now())) {
+                resposta = gravar(chave, requisicao, operacao, resposta != null);
+            }
+            nova.complete(resposta);
+            return resposta;
+        } catch (RuntimeException e) {
+            respostas.asMap().remove(chave, nova);
+            nova.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private RespostaIdempotente gravar(String chave, String requisicao, Supplier<ResponseEntity<String>> operacao,
+                                       boolean expirada) {
+        try {
+            return transacao.execute(status -> {
+                if (expirada) {
+                    respostaIdempotenteRepository.removerExpirada(chave, Instant.now());
+                }
+                ResponseEntity<String> resultado = operacao.get();
+                RespostaIdempotente resposta = new RespostaIdempotente(chave, requisicao,
+                        resultado.getStatusCode().value(), resultado.getBody(), Instant.now().plus(validade));
+                respostaIdempotenteRepository.inserir(resposta);
+                return resposta;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return respostaIdempotenteRepository.findById(chave).orElseThrow(() -> e);
+        }
+    }
+
+    private static ResponseEntity<String> responder(RespostaIdempotente resposta, String requisicao, boolean repetida) {
+        if (!resposta.getRequisicao().equals(requisicao)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body("Idempotency-Key já usada em outra requisição");
+        }
+        ResponseEntity.BodyBuilder corpo = ResponseEntity.status(resposta.getStatus());
+        if (repetida) {
+            corpo.header(CABECALHO_REPETIDA, "true");
+        }
+        return corpo.body(resposta.getCorpo());
+    }
+
+    @Scheduled(fixedDelayString = "${banco.idempotencia.limpeza.intervalo:3600000}")
+    public void removerExpiradas() {
+        respostaIdempotenteRepository.removerExpiradas(Instant.now());
+    }
+}
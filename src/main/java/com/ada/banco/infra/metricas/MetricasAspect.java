@@ -0,0 +1,109 @@
+package com.ada.banco.infra.metricas;
+
+import com.ada.banco.domain.model.ErroOperacao;
+import com.ada.banco.domain.model.Resultado;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede com um {@link Timer} cada chamada a {@code ContaUseCase} ({@value #METRICA_USECASE}) e aos
+ * gateways de conta e e-mail ({@value #METRICA_GATEWAY}), com histograma para os percentis.
+ *
+ * A tag {@code resultado} é {@value #SUCESSO} ou o nome simples da exceção lançada, então
+ * {@code ContaNaoExisteException} e {@code ContaSaldoInsuficienteException} aparecem separadas.
+ * Nas variantes que devolvem {@link Resultado}, uma recusa é marcada com o nome do {@link ErroOperacao}.
+ * Os timers ficam guardados por método e por exceção: no caminho quente a única coisa
+ * feita além da chamada é ler o relógio duas vezes e um lookup em mapa.
+ */
+@Aspect
+@Component
+public class MetricasAspect {
+    public static final String METRICA_USECASE = "banco.usecase";
+    public static final String METRICA_GATEWAY = "banco.gateway";
+    public static final String SUCESSO = "sucesso";
+
+    private final MeterRegistry registry;
+    private final Map<Method, TimersMetodo> timers = new ConcurrentHashMap<>();
+
+    public MetricasAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.ada.banco.domain.usecase.ContaUseCase.*(..))")
+    public Object medirUseCase(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(METRICA_USECASE, joinPoint);
+    }
+
+    @Around("execution(public * com.ada.banco.domain.gateway.ContaGateway+.*(..))"
+            + " || execution(public * com.ada.banco.domain.gateway.EmailGateway+.*(..))")
+    public Object medirGateway(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(METRICA_GATEWAY, joinPoint);
+    }
+
+    private Object medir(String metrica, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method metodo = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        TimersMetodo timersMetodo = timers.get(metodo);
+        if (timersMetodo == null) {
+            timersMetodo = timers.computeIfAbsent(metodo,
+                    m -> new TimersMetodo(metrica, joinPoint.getTarget().getClass().getSimpleName(), m.getName()));
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Object retorno = joinPoint.proceed();
+            Timer timer = retorno instanceof Resultado<?> resultado && !resultado.isSucesso()
+                    ? timersMetodo.falha(resultado.getErro())
+                    : timersMetodo.sucesso;
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return retorno;
+        } catch (Throwable e) {
+            timersMetodo.falha(e.getClass()).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private final class TimersMetodo {
+        private final String metrica;
+        private final String classe;
+        private final String metodo;
+        private final Timer sucesso;
+        private final Map<Object, Timer> falhas = new ConcurrentHashMap<>();
+
+        private TimersMetodo(String metrica, String classe, String metodo) {
+            this.metrica = metrica;
+            this.classe = classe;
+            this.metodo = metodo;
+            this.sucesso = timer(SUCESSO);
+        }
+
+        private Timer falha(Class<?> excecao) {
+            return falhas.computeIfAbsent(excecao, e -> timer(excecao.getSimpleName()));
+        }
+
+        private Timer falha(ErroOperacao erro) {
+            return falhas.computeIfAbsent(erro, e -> timer(erro.name()));
+        }
+
+        private Timer timer(String resultado) {
+            return Timer.builder(metrica)
+                    .tag("classe", classe)
+                    .tag("metodo", metodo)
+                    .tag("resultado", resultado)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ada.banco.infra.metricas;
+
+import com.ada.banco.infra.gateway.bd.ExtratoRecente;
+import com.ada.banco.infra.gateway.cache.ContaGatewayCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica as estatísticas dos caches Caffeine como {@code cache.*}, com a tag {@code cache}:
+ * {@code contas} para o {@link ContaGatewayCache}, quando ligado, e {@code extrato-recente} para o
+ * {@link ExtratoRecente}. A taxa de acertos é {@code cache.gets{result=hit} / cache.gets}.
+ */
+@Component
+public class MetricasCaches implements MeterBinder {
+    private final ExtratoRecente extratoRecente;
+    private final ObjectProvider<ContaGatewayCache> contaGatewayCache;
+
+    public MetricasCaches(ExtratoRecente extratoRecente, ObjectProvider<ContaGatewayCache> contaGatewayCache) {
+        this.extratoRecente = extratoRecente;
+        this.contaGatewayCache = contaGatewayCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        contaGatewayCache.ifAvailable(cache -> CaffeineCacheMetrics.monitor(registry, cache.getCache(), "contas"));
+        CaffeineCacheMetrics.monitor(registry, extratoRecente.getCache(), "extrato-recente");
+    }
+}
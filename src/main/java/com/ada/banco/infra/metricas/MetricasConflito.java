@@ -0,0 +1,36 @@
+package com.ada.banco.infra.metricas;
+
+import com.ada.banco.domain.usecase.RetentativaConflito;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publica os contadores da {@link RetentativaConflito} como {@code banco.conflito.*}.
+ * A taxa de conflitos é {@code conflitos / operacoes}.
+ */
+@Component
+public class MetricasConflito implements MeterBinder {
+    private final RetentativaConflito retentativa;
+
+    public MetricasConflito(RetentativaConflito retentativa) {
+        this.retentativa = retentativa;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        contador(registry, "banco.conflito.operacoes", "Operações executadas com retentativa", RetentativaConflito::getOperacoes);
+        contador(registry, "banco.conflito.conflitos", "Tentativas recusadas por conflito de versão", RetentativaConflito::getConflitos);
+        contador(registry, "banco.conflito.retentativas", "Tentativas repetidas depois de um conflito", RetentativaConflito::getRetentativas);
+        contador(registry, "banco.conflito.esgotadas", "Operações que esgotaram as tentativas", RetentativaConflito::getEsgotadas);
+    }
+
+    private void contador(MeterRegistry registry, String nome, String descricao, ToDoubleFunction<RetentativaConflito> valor) {
+        FunctionCounter.builder(nome, retentativa, valor)
+                .description(descricao)
+                .register(registry);
+    }
+}
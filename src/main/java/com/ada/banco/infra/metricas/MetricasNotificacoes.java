@@ -0,0 +1,27 @@
+package com.ada.banco.infra.metricas;
+
+import com.ada.banco.infra.gateway.outbox.DespachanteNotificacoes;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica as notificações descartadas pelo {@link DespachanteNotificacoes} como
+ * {@code banco.notificacao.descartadas}. O valor é lido do banco a cada coleta.
+ */
+@Component
+public class MetricasNotificacoes implements MeterBinder {
+    private final DespachanteNotificacoes despachante;
+
+    public MetricasNotificacoes(DespachanteNotificacoes despachante) {
+        this.despachante = despachante;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("banco.notificacao.descartadas", despachante, DespachanteNotificacoes::getDescartadas)
+                .description("E-mails que esgotaram as tentativas de envio")
+                .register(registry);
+    }
+}
@@ -0,0 +1,45 @@
+package com.ada.banco.infra.threads;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Com {@code banco.threads-virtuais.habilitado=true}, cada requisição do Tomcat roda na sua
+ * própria virtual thread, então JDBC e gateways bloqueantes não seguram mais uma thread do pool.
+ *
+ * Como a concorrência deixa de ser limitada pelo pool do Tomcat, o {@link DataSource} é envolvido
+ * por um {@link DataSourceLimitado} com {@code banco.threads-virtuais.conexoes} permissões
+ * (por padrão o tamanho do pool do Hikari), que esperam por uma conexão no máximo
+ * {@code banco.threads-virtuais.espera-conexao} ms (por padrão o {@code connection-timeout} do Hikari).
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.threads-virtuais.habilitado", havingValue = "true")
+public class ConfiguracaoThreadsVirtuais {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> executorThreadsVirtuais() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public static BeanPostProcessor limitadorConexoes(
+            @Value("${banco.threads-virtuais.conexoes:${spring.datasource.hikari.maximum-pool-size:10}}") int conexoes,
+            @Value("${banco.threads-virtuais.espera-conexao:${spring.datasource.hikari.connection-timeout:30000}}") long esperaMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceLimitado)) {
+                    return new DataSourceLimitado(dataSource, conexoes, esperaMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
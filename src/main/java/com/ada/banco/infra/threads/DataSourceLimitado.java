@@ -0,0 +1,113 @@
+package com.ada.banco.infra.threads;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deixa no máximo {@code permissoes} conexões abertas ao mesmo tempo. Quem chega depois espera,
+ * em ordem de chegada, até alguma conexão ser fechada ou até {@code esperaMillis}, e então recebe
+ * uma {@link SQLTransientConnectionException}, como no Hikari.
+ *
+ * Com virtual threads não há mais o pool do Tomcat segurando a concorrência, e milhares de
+ * requisições podem pedir conexão de uma vez. Esperar num semáforo não prende a thread
+ * portadora, então o banco vê uma fila ordenada em vez de uma avalanche.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+    private final Semaphore conexoes;
+    private final int permissoes;
+    private final long esperaMillis;
+    private final AtomicInteger emUso = new AtomicInteger();
+    private final AtomicInteger maximoEmUso = new AtomicInteger();
+
+    public DataSourceLimitado(DataSource dataSource, int permissoes, long esperaMillis) {
+        super(dataSource);
+        this.permissoes = permissoes;
+        this.esperaMillis = esperaMillis;
+        this.conexoes = new Semaphore(permissoes, true);
+    }
+
+    public int getPermissoes() {
+        return permissoes;
+    }
+
+    /**
+     * Maior número de conexões abertas ao mesmo tempo desde a criação.
+     */
+    public int getMaximoEmUso() {
+        return maximoEmUso.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            liberar();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        try {
+            return liberarAoFechar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            liberar();
+            throw e;
+        }
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!conexoes.tryAcquire(esperaMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("Nenhuma conexão liberada depois de " + esperaMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido esperando por uma conexão", e);
+        }
+        maximoEmUso.accumulateAndGet(emUso.incrementAndGet(), Math::max);
+    }
+
+    private void liberar() {
+        emUso.decrementAndGet();
+        conexoes.release();
+    }
+
+    private Connection liberarAoFechar(Connection conexao) {
+        AtomicBoolean fechada = new AtomicBoolean();
+        InvocationHandler handler = (proxy, metodo, argumentos) -> {
+            if (metodo.getName().equals("close") && fechada.compareAndSet(false, true)) {
+                try {
+                    return invocar(conexao, metodo, argumentos);
+                } finally {
+                    liberar();
+                }
+            }
+            return invocar(conexao, metodo, argumentos);
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private static Object invocar(Connection conexao, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(conexao, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+-- Tabelas das contas nos shards além do banco principal, onde o esquema vem do Hibernate.
+create table if not exists conta (
+    id bigint not null primary key,
+    agencia bigint,
+    digito bigint,
+    saldo numeric(38, 2),
+    titular varchar(255),
+    cpf varchar(255),
+    versao bigint
+);
+create index if not exists idx_conta_cpf on conta (cpf);
+
+create table if not exists movimentacao (
+    id bigint generated by default as identity primary key,
+    conta_id bigint not null references conta (id) on delete cascade,
+    valor numeric(38, 2),
+    tipo varchar(255),
+    data_hora timestamp(6) with time zone,
+    consolidada boolean not null
+);
+create index if not exists idx_movimentacao_pendente on movimentacao (conta_id, consolidada);
+create index if not exists idx_movimentacao_extrato on movimentacao (conta_id, data_hora, id);
+
+create table if not exists fatia_saldo (
+    id bigint generated by default as identity primary key,
+    conta_id bigint not null references conta (id) on delete cascade,
+    fatia integer,
+    saldo numeric(38, 2),
+    constraint uk_fatia_saldo_conta unique (conta_id, fatia)
+);
+
+create table if not exists passo_saga (
+    id bigint generated by default as identity primary key,
+    saga_id bigint not null,
+    etapa varchar(255),
+    constraint uk_passo_saga unique (saga_id, etapa)
+);
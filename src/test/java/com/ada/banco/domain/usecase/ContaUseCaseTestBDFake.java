@@ -1,5 +1,6 @@
 package com.ada.banco.domain.usecase;
 
+import com.ada.banco.domain.model.Dinheiro;
 import com.ada.banco.domain.exception.ContaJaExisteException;
 import com.ada.banco.domain.exception.ContaNaoExisteException;
 import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
@@ -12,7 +13,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public class ContaUseCaseTestBDFake {
@@ -25,12 +25,12 @@ public class ContaUseCaseTestBDFake {
     public void setUp() {
         contaGatewayDatabaseFake = new ContaGatewayDatabaseFake();
         emailGatewayHttpFake = new EmailGatewayHttpFake();
-        contaUseCase = new ContaUseCase(contaGatewayDatabaseFake, emailGatewayHttpFake);
+        contaUseCase = new ContaUseCase(contaGatewayDatabaseFake, emailGatewayHttpFake, new GeradorCodigoOperacao(0));
     }
 
     @Test
     public void deveCriarContaCorretamente() throws Exception {
-        Conta conta = new Conta(2L,2L, 3L, BigDecimal.ZERO, "Luiz", "12345678941");
+        Conta conta = new Conta(2L,2L, 3L, Dinheiro.ZERO, "Luiz", "12345678941");
 
         contaUseCase.criar(conta);
 
@@ -47,7 +47,7 @@ public class ContaUseCaseTestBDFake {
 
     @Test
     public void deveLancarExceptionCasoContaJaExista() {
-        Conta conta = new Conta(1L,2L, 3L, BigDecimal.ZERO, "Luiz", "000.000.000-00");
+        Conta conta = new Conta(1L,2L, 3L, Dinheiro.ZERO, "Luiz", "000.000.000-00");
         contaGatewayDatabaseFake.salvar(conta);
         Throwable throwable = Assertions.assertThrows(ContaJaExisteException.class, () -> contaUseCase.criar(conta));
         Assertions.assertEquals("A conta ID: "+ conta.getId() + " ja existe", throwable.getMessage());
@@ -57,11 +57,11 @@ public class ContaUseCaseTestBDFake {
     @Test
     @DisplayName("Listar todas as contas")
     public void deveListarContas() throws Exception {
-        Conta conta1 = new Conta(3L,2L, 3L, BigDecimal.ZERO, "Luiz", "000.000.000-00");
+        Conta conta1 = new Conta(3L,2L, 3L, Dinheiro.ZERO, "Luiz", "000.000.000-00");
         contaUseCase.criar(conta1);
-        Conta conta2 = new Conta(4L,2L, 3L, BigDecimal.ZERO, "Luiz1", "000.000.000-00");
+        Conta conta2 = new Conta(4L,2L, 3L, Dinheiro.ZERO, "Luiz1", "000.000.000-00");
         contaUseCase.criar(conta2);
-        Conta conta3 = new Conta(5L,2L, 3L, BigDecimal.ZERO, "Luiz2", "000.000.000-00");
+        Conta conta3 = new Conta(5L,2L, 3L, Dinheiro.ZERO, "Luiz2", "000.000.000-00");
         contaUseCase.criar(conta3);
 
         List<Conta> contas = contaUseCase.listar();
@@ -76,11 +76,11 @@ public class ContaUseCaseTestBDFake {
     @Test
     @DisplayName("Buscar contas com o mesmo CPF")
     public void deveBuscarContasComMesmoCPF() throws Exception {
-        Conta conta1 = new Conta(6L,2L, 3L, BigDecimal.valueOf(1.50), "Luiz", "000.000.000-00");
+        Conta conta1 = new Conta(6L,2L, 3L, Dinheiro.de("1.50"), "Luiz", "000.000.000-00");
         contaUseCase.criar(conta1);
-        Conta conta2 = new Conta(7L,2L, 3L,BigDecimal.valueOf(2.49), "Luiz", "000.000.000-00");
+        Conta conta2 = new Conta(7L,2L, 3L,Dinheiro.de("2.49"), "Luiz", "000.000.000-00");
         contaUseCase.criar(conta2);
-        Conta conta3 = new Conta(8L,2L, 3L, BigDecimal.valueOf(10245.50), "Luiz", "000.000.000-01");
+        Conta conta3 = new Conta(8L,2L, 3L, Dinheiro.de("10245.50"), "Luiz", "000.000.000-01");
         contaUseCase.criar(conta3);
 
         List<Conta> contas = contaUseCase.listarPorCpf("000.000.000-00");
@@ -95,22 +95,22 @@ public class ContaUseCaseTestBDFake {
     @Test
     @DisplayName("Transferencia entra contas")
     public void deveTrasferirCorretamente() throws Exception {
-        Conta conta1 = new Conta(9L,2L, 3L, BigDecimal.valueOf(1.50), "Luiz", "000.000.000-00");
-        Conta conta2 = new Conta(10L,2L, 3L,BigDecimal.valueOf(2.49), "Luiz", "000.000.000-00");
+        Conta conta1 = new Conta(9L,2L, 3L, Dinheiro.de("1.50"), "Luiz", "000.000.000-00");
+        Conta conta2 = new Conta(10L,2L, 3L,Dinheiro.de("2.49"), "Luiz", "000.000.000-00");
 
         contaUseCase.criar(conta1);
         contaUseCase.criar(conta2);
 
-        BigDecimal valorAntigoConta1 = conta1.getSaldo();
-        BigDecimal valorAntigoConta2 = conta2.getSaldo();
+        Dinheiro valorAntigoConta1 = conta1.getSaldo();
+        Dinheiro valorAntigoConta2 = conta2.getSaldo();
 
-        BigDecimal valorATransferir = new BigDecimal("1.50");
+        Dinheiro valorATransferir = Dinheiro.de("1.50");
 
         Long numeroTrasacao = contaUseCase.transferir(9L,10L, valorATransferir);
 
         Assertions.assertAll("Verifica o saldo das contas",
-                () -> Assertions.assertEquals(valorAntigoConta1.subtract(valorATransferir), conta1.getSaldo()),
-                () -> Assertions.assertEquals(valorAntigoConta2.add(valorATransferir), conta2.getSaldo())
+                () -> Assertions.assertEquals(valorAntigoConta1.subtrair(valorATransferir), conta1.getSaldo()),
+                () -> Assertions.assertEquals(valorAntigoConta2.somar(valorATransferir), conta2.getSaldo())
         );
 
         System.out.println("Transacao "+numeroTrasacao+": R$"+ valorATransferir+" transferidos da conta ID" +
@@ -132,16 +132,16 @@ public class ContaUseCaseTestBDFake {
     public void deveLancarExceptionCasoContaComIdNaoExista() {
         Long id = 10000L;
         Throwable throwable =
-                Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.transferir(id, 1L, BigDecimal.ZERO));
+                Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.transferir(id, 1L, Dinheiro.ZERO));
         Assertions.assertEquals("A conta com ID: " + id + " não existe", throwable.getMessage());
     }
 
     @Test
     @DisplayName("Lança Exception saldo insuficiente")
     public void deveLancarExceptionCasoContaNaoPossuaSaldoSuficiente() throws Exception {
-        Conta conta1 = new Conta(11L, 2L, 3L, BigDecimal.valueOf(1.50), "Luiz", "000.000.000-00");
-        Conta conta2 = new Conta(12L, 2L, 3L, BigDecimal.valueOf(1.50), "Luiz", "000.000.000-00");
-        BigDecimal valorATransferir = new BigDecimal("1.51");
+        Conta conta1 = new Conta(11L, 2L, 3L, Dinheiro.de("1.50"), "Luiz", "000.000.000-00");
+        Conta conta2 = new Conta(12L, 2L, 3L, Dinheiro.de("1.50"), "Luiz", "000.000.000-00");
+        Dinheiro valorATransferir = Dinheiro.de("1.51");
 
         contaUseCase.criar(conta1);
         contaUseCase.criar(conta2);
@@ -154,10 +154,10 @@ public class ContaUseCaseTestBDFake {
     @Test
     @DisplayName("Atualiza uma conta")
     public void deveAtualizarConta() throws Exception {
-        Conta conta = new Conta(13L,2L, 3L, BigDecimal.valueOf(15075.50), "Luiz Errado", "000.000.000-00");
+        Conta conta = new Conta(13L,2L, 3L, Dinheiro.de("15075.50"), "Luiz Errado", "000.000.000-00");
         contaUseCase.criar(conta);
 
-        Conta contaAtualizada = new Conta(13L,2L, 3L, BigDecimal.valueOf(15075.50), "Luiz Certo", "000.000.000-00");
+        Conta contaAtualizada = new Conta(13L,2L, 3L, Dinheiro.de("15075.50"), "Luiz Certo", "000.000.000-00");
 
         Conta contaOk = contaUseCase.atualizar(conta.getId(), contaAtualizada);
 
@@ -168,10 +168,10 @@ public class ContaUseCaseTestBDFake {
     @Test
     @DisplayName("Atualizar conta errada")
     public void deveLancarExcepitonAtualizarContaErrada() throws Exception {
-        Conta conta = new Conta(14L,2L, 3L, BigDecimal.valueOf(15075.50), "Luiz Errado", "000.000.000-00");
+        Conta conta = new Conta(14L,2L, 3L, Dinheiro.de("15075.50"), "Luiz Errado", "000.000.000-00");
         contaUseCase.criar(conta);
 
-        Conta contaAtualizada = new Conta(15L,2L, 3L, BigDecimal.valueOf(15075.50), "Luiz Certo", "000.000.000-00");
+        Conta contaAtualizada = new Conta(15L,2L, 3L, Dinheiro.de("15075.50"), "Luiz Certo", "000.000.000-00");
 
         Throwable throwable = Assertions.assertThrows(ContasDiferentesException.class,
                 () -> contaUseCase.atualizar(conta.getId(), contaAtualizada));
@@ -0,0 +1,124 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabaseFake;
+import com.ada.banco.infra.gateway.cache.ContaGatewayCache;
+import com.ada.banco.infra.gateway.http.EmailGatewayHttpFake;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+
+public class ContaUseCaseTestCache {
+    private static final int TRANSFERENCIAS = 100;
+
+    private ContaGateway contaGatewayBanco;
+    private ContaGatewayCache contaGatewayCache;
+
+    @BeforeEach
+    public void setUp() {
+        ContaGatewayDatabaseFake.contaRepositoryFake.clear();
+        contaGatewayBanco = Mockito.spy(new ContaGatewayDatabaseFake());
+        contaGatewayCache = new ContaGatewayCache(contaGatewayBanco, 100, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ContaGatewayDatabaseFake.contaRepositoryFake.clear();
+    }
+
+    @Test
+    @DisplayName("Cache devolve cópias e é invalidado nas escritas")
+    public void deveInvalidarCacheNasEscritas() throws Exception {
+        ContaUseCase contaUseCase = new ContaUseCase(contaGatewayCache, new EmailGatewayHttpFake(), new GeradorCodigoOperacao(0));
+        contaUseCase.criar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Luiz", "000.000.000-00"));
+
+        contaGatewayCache.buscarPorId(1L).setTitular("Alterado fora do cache");
+        Conta contaEmCache = contaGatewayCache.buscarPorId(1L);
+        contaUseCase.depositar(1L, Dinheiro.de("1.00"));
+        Conta contaDepoisDoDeposito = contaGatewayCache.buscarPorId(1L);
+
+        Assertions.assertAll("Conta em cache",
+                () -> Assertions.assertEquals("Luiz", contaEmCache.getTitular()),
+                () -> Assertions.assertEquals(Dinheiro.de("11"), contaDepoisDoDeposito.getSaldo()),
+                () -> Assertions.assertEquals(1, contaGatewayCache.getEstatisticas().hitCount())
+        );
+    }
+
+    @Test
+    @DisplayName("Numa transação, a conta lida por outra thread antes do commit sai do cache quando a transação termina")
+    public void deveInvalidarCacheNoFimDaTransacao() throws Exception {
+        contaGatewayCache.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Luiz", "000.000.000-00"));
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            contaGatewayCache.creditar(1L, Dinheiro.de("1.00"));
+            Assertions.assertEquals(Dinheiro.de("11.00"), contaGatewayCache.buscarPorId(1L).getSaldo());
+            Assertions.assertNull(contaGatewayCache.getCache().getIfPresent(1L));
+
+            // outra thread lê o saldo ainda confirmado antes do commit desta transação
+            Conta antesDoCommit = new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Luiz", "000.000.000-00");
+            Thread leitura = new Thread(() -> contaGatewayCache.getCache().put(1L, antesDoCommit));
+            leitura.start();
+            leitura.join();
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertNull(contaGatewayCache.getCache().getIfPresent(1L));
+        Assertions.assertEquals(Dinheiro.de("11.00"), contaGatewayCache.buscarPorId(1L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Com cache, as transferencias vao menos vezes ao banco")
+    public void deveIrMenosAoBancoComCache() throws Exception {
+        long semCache = idasAoBancoPorTransferencia(contaGatewayBanco);
+        Mockito.clearInvocations(contaGatewayBanco);
+        long comCache = idasAoBancoPorTransferencia(contaGatewayCache);
+
+        verify(contaGatewayBanco, atLeast(1)).buscarPorId(any());
+        Assertions.assertTrue(comCache < semCache);
+    }
+
+    /**
+     * Metade das transferências sai de uma conta sem saldo, o caminho em que o caso de uso
+     * consulta as contas para descobrir o motivo da recusa.
+     */
+    private long idasAoBancoPorTransferencia(ContaGateway contaGateway) throws Exception {
+        ContaGatewayDatabaseFake.contaRepositoryFake.clear();
+        ContaUseCase contaUseCase = new ContaUseCase(contaGateway, new EmailGatewayHttpFake(), new GeradorCodigoOperacao(0));
+        contaUseCase.criar(new Conta(1L, 1L, 1L, Dinheiro.deCentavos(TRANSFERENCIAS * 100L), "Luiz", "000.000.000-00"));
+        contaUseCase.criar(new Conta(2L, 1L, 1L, Dinheiro.ZERO, "Pedro", "000.000.000-01"));
+        contaUseCase.criar(new Conta(3L, 1L, 1L, Dinheiro.ZERO, "Maria", "000.000.000-02"));
+        Mockito.clearInvocations(contaGatewayBanco);
+
+        for (int i = 0; i < TRANSFERENCIAS; i++) {
+            if (i % 2 == 0) {
+                contaUseCase.transferir(1L, 2L, Dinheiro.de("1.00"));
+            } else {
+                Assertions.assertThrows(ContaSaldoInsuficienteException.class,
+                        () -> contaUseCase.transferir(3L, 2L, Dinheiro.de("1.00")));
+            }
+        }
+        return mockingDetails(contaGatewayBanco).getInvocations().size();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ada.banco.domain.usecase;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ContaUseCaseTestCodigoOperacao {
+
+    private static final int CODIGOS_POR_THREAD = 20_000;
+
+    @Test
+    @DisplayName("Codigos gerados por varias threads sao unicos e crescentes no no, entre as threads")
+    public void deveGerarCodigosUnicosEntreThreads() throws Exception {
+        GeradorCodigoOperacao gerador = new GeradorCodigoOperacao(7);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        Set<Long> codigos = ConcurrentHashMap.newKeySet();
+        AtomicLong maiorEntregue = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < CODIGOS_POR_THREAD; i++) {
+                    // qualquer código já entregue, por qualquer thread, antes desta chamada é menor
+                    long anterior = maiorEntregue.get();
+                    long codigo = gerador.gerar();
+                    Assertions.assertTrue(codigo > anterior);
+                    Assertions.assertEquals(7, GeradorCodigoOperacao.no(codigo));
+                    codigos.add(codigo);
+                    maiorEntregue.accumulateAndGet(codigo, Math::max);
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(threads * CODIGOS_POR_THREAD, codigos.size());
+    }
+
+    @Test
+    @DisplayName("Nos diferentes nunca geram o mesmo codigo no mesmo milissegundo")
+    public void nosDiferentesDevemGerarCodigosDiferentes() {
+        long agora = System.currentTimeMillis();
+        GeradorCodigoOperacao no1 = new GeradorCodigoOperacao(1, () -> agora);
+        GeradorCodigoOperacao no2 = new GeradorCodigoOperacao(2, () -> agora);
+
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertNotEquals(no1.gerar(), no2.gerar());
+        }
+    }
+
+    @Test
+    @DisplayName("Esgotar a sequencia ou voltar o relogio nao repete codigos")
+    public void deveContinuarCrescendoQuandoRelogioVoltaOuSequenciaAcaba() {
+        AtomicLong relogio = new AtomicLong(System.currentTimeMillis());
+        GeradorCodigoOperacao gerador = new GeradorCodigoOperacao(3, relogio::get);
+
+        long anterior = gerador.gerar();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                relogio.addAndGet(-1_000);
+            }
+            long codigo = gerador.gerar();
+            Assertions.assertTrue(codigo > anterior);
+            Assertions.assertEquals(3, GeradorCodigoOperacao.no(codigo));
+            anterior = codigo;
+        }
+    }
+
+    @Test
+    @DisplayName("Sem banco.codigo-operacao.no a aplicacao nao sobe")
+    public void deveExigirNoConfigurado() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(GeradorCodigoOperacao.class)
+                .run(contexto -> Assertions.assertNotNull(contexto.getStartupFailure()));
+        new ApplicationContextRunner()
+                .withUserConfiguration(GeradorCodigoOperacao.class)
+                .withPropertyValues("banco.codigo-operacao.no=5")
+                .run(contexto -> Assertions.assertNull(contexto.getStartupFailure()));
+    }
+
+    @Test
+    public void deveRejeitarNoForaDoIntervalo() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GeradorCodigoOperacao(-1));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new GeradorCodigoOperacao(GeradorCodigoOperacao.MAXIMO_NO + 1));
+    }
+}
@@ -0,0 +1,150 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.ResultadoTransferencia;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.infra.gateway.bd.ConsolidadorMovimentacoes;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+public class ContaUseCaseTestConcorrencia {
+
+    private static final int QUANTIDADE_CONTAS = 200;
+    private static final int THREADS = 8;
+    private static final int TRANSFERENCIAS_POR_THREAD = 500;
+    private static final Dinheiro SALDO_INICIAL = Dinheiro.de("1000.00");
+
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
+    @Autowired
+    private EmailGateway emailGateway;
+    @Autowired
+    private GeradorCodigoOperacao geradorCodigoOperacao;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ConsolidadorMovimentacoes consolidadorMovimentacoes;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        contaUseCase = new ContaUseCase(contaGateway, emailGateway, geradorCodigoOperacao);
+        contaRepository.deleteAll();
+        for (long id = 1; id <= QUANTIDADE_CONTAS; id++) {
+            contaGateway.salvar(new Conta(id, 1L, 1L, SALDO_INICIAL, "Titular " + id, "000.000.000-00"));
+        }
+    }
+
+    @Test
+    @DisplayName("Transferencias concorrentes conservam o saldo total")
+    public void deveConservarSaldoTotalComTransferenciasConcorrentes() throws Exception {
+        executarTransferencias(THREADS);
+
+        Dinheiro saldoTotal = contaGateway.listar().stream()
+                .map(Conta::getSaldo)
+                .reduce(Dinheiro.ZERO, Dinheiro::somar);
+
+        Assertions.assertEquals(0, Dinheiro.deCentavos(SALDO_INICIAL.getCentavos() * QUANTIDADE_CONTAS).compareTo(saldoTotal));
+    }
+
+    @Test
+    @DisplayName("Transferencias em lote sao todas realizadas e conservam o saldo de cada conta")
+    public void deveRealizarTransferenciasEmLote() throws Exception {
+        int quantidade = 1000;
+        List<Transferencia> transferencias = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            long idOut = i % QUANTIDADE_CONTAS + 1;
+            transferencias.add(new Transferencia(idOut, idOut % QUANTIDADE_CONTAS + 1, Dinheiro.de("1.00")));
+        }
+
+        List<ResultadoTransferencia> resultados = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i += 500) {
+            resultados.addAll(contaUseCase.transferirEmLote(transferencias.subList(i, i + 500)));
+        }
+
+        Assertions.assertTrue(resultados.stream().allMatch(r -> r.getSituacao() == SituacaoTransferencia.REALIZADA));
+        // cada conta envia e recebe o mesmo numero de transferencias
+        Assertions.assertTrue(contaGateway.listar().stream().allMatch(conta -> SALDO_INICIAL.equals(conta.getSaldo())));
+    }
+
+    @Test
+    @DisplayName("Débitos concorrentes com a consolidação não contam o mesmo depósito duas vezes")
+    public void deveDebitarUmaVezCadaDepositoDuranteAConsolidacao() throws Exception {
+        int rodadas = 200;
+        Long id = 1L;
+        contaUseCase.sacar(id, SALDO_INICIAL);
+        consolidadorMovimentacoes.consolidar();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AtomicInteger saques = new AtomicInteger();
+        for (int i = 0; i < rodadas; i++) {
+            // o depósito fica pendente e cabe em um só dos dois saques, com ou sem a consolidação no meio
+            contaUseCase.depositar(id, Dinheiro.de("1.00"));
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int saque = 0; saque < 2; saque++) {
+                tarefas.add(executor.submit(() -> {
+                    try {
+                        contaUseCase.sacar(id, Dinheiro.de("1.00"));
+                        saques.incrementAndGet();
+                    } catch (ContaSaldoInsuficienteException e) {
+                        // o outro saque levou o depósito
+                    }
+                    return null;
+                }));
+            }
+            tarefas.add(executor.submit(() -> consolidadorMovimentacoes.consolidar()));
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+        executor.shutdown();
+        consolidadorMovimentacoes.consolidar();
+
+        Assertions.assertEquals(rodadas, saques.get());
+        Assertions.assertEquals(Dinheiro.ZERO, contaGateway.buscarPorId(id).getSaldo());
+        Assertions.assertEquals(Dinheiro.ZERO, contaRepository.findByIdEquals(id).getSaldo());
+    }
+
+    private void executarTransferencias(int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERENCIAS_POR_THREAD; i++) {
+                    long idOut = random.nextLong(1, QUANTIDADE_CONTAS + 1);
+                    long idIn = random.nextLong(1, QUANTIDADE_CONTAS + 1);
+                    try {
+                        contaUseCase.transferir(idOut, idIn, Dinheiro.de("1.00"));
+                    } catch (ContaSaldoInsuficienteException e) {
+                        // saldo insuficiente faz parte da carga; qualquer outra exceção falha o teste no get()
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+    }
+}
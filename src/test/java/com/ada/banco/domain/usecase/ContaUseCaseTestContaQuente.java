@@ -0,0 +1,177 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.infra.gateway.bd.ConsolidadorMovimentacoes;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.ContasQuentes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@SpringBootTest
+public class ContaUseCaseTestContaQuente {
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITOS_POR_THREAD = 250;
+
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
+    @Autowired
+    private EmailGateway emailGateway;
+    @Autowired
+    private GeradorCodigoOperacao geradorCodigoOperacao;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ContasQuentes contasQuentes;
+    @Autowired
+    private ConsolidadorMovimentacoes consolidador;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ContaJdbcRepository contaJdbcRepository;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        contaUseCase = new ContaUseCase(contaGateway, emailGateway, geradorCodigoOperacao);
+        contaRepository.deleteAll();
+        contaUseCase.criar(new Conta(1L, 1L, 1L, Dinheiro.ZERO, "Loja Normal", "111.111.111-11"));
+        contaUseCase.criar(new Conta(2L, 1L, 1L, Dinheiro.ZERO, "Loja Quente", "222.222.222-22"));
+        contasQuentes.marcar(2L);
+        // as fatias são criadas pela consolidação
+        contaJdbcRepository.consolidar(2L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        contasQuentes.desmarcar(2L);
+    }
+
+    @Test
+    @DisplayName("Saque em conta quente soma todas as fatias e não deixa o saldo negativo")
+    public void deveSacarSomandoAsFatias() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            contaUseCase.depositar(2L, Dinheiro.de("1.00"));
+        }
+
+        contaUseCase.sacar(2L, Dinheiro.de("15.00"));
+
+        Assertions.assertEquals(Dinheiro.de("5.00"), contaGateway.buscarPorId(2L).getSaldo());
+        Assertions.assertThrows(ContaSaldoInsuficienteException.class,
+                () -> contaUseCase.sacar(2L, Dinheiro.de("5.01")));
+    }
+
+    @Test
+    @DisplayName("Antes de as fatias existirem, o crédito da conta quente entra como pendente")
+    public void deveCreditarComoPendenteSemFatias() throws Exception {
+        contasQuentes.marcar(1L);
+        try {
+            contaUseCase.depositar(1L, Dinheiro.de("3.00"));
+            Assertions.assertEquals(Dinheiro.de("3.00"), contaGateway.buscarPorId(1L).getSaldo());
+            Assertions.assertEquals(1L, jdbcTemplate.queryForObject(
+                    "select count(*) from movimentacao where conta_id = 1 and consolidada = false", Long.class));
+
+            consolidador.consolidar();
+            Assertions.assertEquals(contasQuentes.getFatias(), jdbcTemplate.queryForObject(
+                    "select count(*) from fatia_saldo where conta_id = 1", Integer.class));
+            contaUseCase.depositar(1L, Dinheiro.de("2.00"));
+            Assertions.assertEquals(1, fatias(1L));
+            Assertions.assertEquals(Dinheiro.de("5.00"), contaGateway.buscarPorId(1L).getSaldo());
+            Assertions.assertEquals(0, contaGateway.creditar(99L, Dinheiro.de("1.00")));
+        } finally {
+            contasQuentes.desmarcar(1L);
+        }
+    }
+
+    @Test
+    @DisplayName("A consolidação passa as fatias para o saldo gravado da conta")
+    public void deveConsolidarAsFatias() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            contaUseCase.depositar(2L, Dinheiro.de("1.00"));
+        }
+        Assertions.assertTrue(fatias(2L) > 0);
+
+        consolidador.consolidar();
+
+        Assertions.assertEquals(0, fatias(2L));
+        Assertions.assertEquals(0, new BigDecimal("20.00").compareTo(
+                jdbcTemplate.queryForObject("select saldo from conta where id = 2", BigDecimal.class)));
+        Assertions.assertEquals(Dinheiro.de("20.00"), contaGateway.buscarPorId(2L).getSaldo());
+
+        contaUseCase.depositar(2L, Dinheiro.de("1.00"));
+        Assertions.assertEquals(Dinheiro.de("21.00"), contaGateway.buscarPorId(2L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Consolidar as fatias enquanto a conta recebe depósitos não perde nenhum crédito")
+    public void deveConsolidarDuranteDepositos() throws Exception {
+        ExecutorService consolidacao = Executors.newSingleThreadExecutor();
+        AtomicBoolean parar = new AtomicBoolean();
+        Future<?> rodadas = consolidacao.submit(() -> {
+            while (!parar.get()) {
+                consolidador.consolidar();
+            }
+            return null;
+        });
+        depositarConcorrentemente(2L);
+        parar.set(true);
+        rodadas.get();
+        consolidacao.shutdown();
+        consolidador.consolidar();
+
+        Assertions.assertEquals(Dinheiro.deCentavos(THREADS * DEPOSITOS_POR_THREAD * 100L), contaGateway.buscarPorId(2L).getSaldo());
+        Assertions.assertEquals(0, fatias(2L));
+    }
+
+    @Test
+    @DisplayName("Depositos concorrentes chegam todos ao saldo, em uma conta com e sem fatias")
+    public void deveSomarDepositosConcorrentesComESemFatias() throws Exception {
+        depositarConcorrentemente(1L);
+        depositarConcorrentemente(2L);
+
+        Dinheiro esperado = Dinheiro.deCentavos(THREADS * DEPOSITOS_POR_THREAD * 100L);
+        Assertions.assertEquals(0, esperado.compareTo(contaGateway.buscarPorId(1L).getSaldo()));
+        Assertions.assertEquals(0, esperado.compareTo(contaGateway.buscarPorId(2L).getSaldo()));
+    }
+
+    private long fatias(Long id) {
+        return jdbcTemplate.queryForObject("select count(*) from fatia_saldo where conta_id = ? and saldo <> 0", Long.class, id);
+    }
+
+    private void depositarConcorrentemente(Long id) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < DEPOSITOS_POR_THREAD; i++) {
+                    contaUseCase.depositar(id, Dinheiro.de("1.00"));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+    }
+}
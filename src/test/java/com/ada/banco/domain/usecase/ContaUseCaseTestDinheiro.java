@@ -0,0 +1,55 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+public class ContaUseCaseTestDinheiro {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Somar e subtrair estouram em vez de dar a volta no long")
+    public void deveLancarExcecaoAoEstourar() {
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+        Dinheiro minimo = Dinheiro.deCentavos(Long.MIN_VALUE);
+
+        Assertions.assertThrows(ArithmeticException.class, () -> maximo.somar(Dinheiro.de("0.01")));
+        Assertions.assertThrows(ArithmeticException.class, () -> minimo.subtrair(Dinheiro.de("0.01")));
+    }
+
+    @Test
+    @DisplayName("Valores com mais de duas casas ou grandes demais sao rejeitados")
+    public void deveRejeitarValoresInvalidos() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Dinheiro.de("1.001"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Dinheiro.de("1e30"));
+        Assertions.assertEquals(Dinheiro.deCentavos(150), Dinheiro.de("1.5"));
+    }
+
+    @Test
+    @DisplayName("Valores pequenos vem do cache e nao criam objetos novos")
+    public void deveReaproveitarValoresPequenos() {
+        Dinheiro dez = Dinheiro.de("10.00");
+
+        Assertions.assertSame(dez, Dinheiro.de("5.00").somar(Dinheiro.de("5.00")));
+        Assertions.assertSame(Dinheiro.ZERO, dez.subtrair(dez));
+    }
+
+    @Test
+    @DisplayName("O JSON continua com o formato decimal do BigDecimal")
+    public void deveManterFormatoDecimalNoJson() throws Exception {
+        Conta conta = new Conta(1L, 1L, 2L, Dinheiro.de("1234.50"), "Fulano", "12345678900");
+
+        String json = mapper.writeValueAsString(conta);
+        Assertions.assertTrue(json.contains("\"saldo\":1234.50"), json);
+
+        Conta lida = mapper.readValue(json, Conta.class);
+        Assertions.assertEquals(Dinheiro.de("1234.50"), lida.getSaldo());
+        Assertions.assertEquals(new BigDecimal("0.07"), mapper.readValue("0.07", Dinheiro.class).toBigDecimal());
+    }
+}
@@ -0,0 +1,190 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.exportacao.EscritorCsv;
+import com.ada.banco.infra.exportacao.FormatoColunar;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+@SpringBootTest(properties = {"banco.notificacao.intervalo=3600000", "banco.exportacao.linhas-por-bloco=3"})
+@AutoConfigureMockMvc
+public class ContaUseCaseTestExportacao {
+
+    private static final int MUITAS = 200_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGateway contaGateway;
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @BeforeEach
+    public void setUp() {
+        contaRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Exporta CSV com gzip, com o saldo atual e campos entre aspas quando preciso")
+    public void deveExportarCsv() throws Exception {
+        criarContasDeExemplo();
+
+        byte[] corpo = mockMvc.perform(MockMvcRequestBuilders.get("/contas/exportar").param("formato", "csv"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(corpo)).readAllBytes(), StandardCharsets.UTF_8);
+        Assertions.assertEquals(EscritorCsv.CABECALHO + "\n"
+                + "1,1,2,7.05,\"Silva, Ana\",111\n"
+                + "2,3,4,0.95,\"O \"\"Zé\"\"\",222\n"
+                + "3,0,0,1234567.89,Maria,333\n"
+                + "4,1,1,0.00,,444\n", csv);
+    }
+
+    @Test
+    @DisplayName("Exporta no formato colunar, em blocos, e lê de volta as mesmas contas")
+    public void deveExportarColunar() throws Exception {
+        criarContasDeExemplo();
+
+        byte[] corpo = mockMvc.perform(MockMvcRequestBuilders.get("/contas/exportar").param("formato", "colunar"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<String> lidas = new ArrayList<>();
+        FormatoColunar.ler(new ByteArrayInputStream(corpo), (id, agencia, digito, saldo, titular, cpf) ->
+                lidas.add(id + "|" + agencia + "|" + digito + "|" + saldo + "|" + titular + "|" + cpf));
+        Assertions.assertEquals(List.of(
+                "1|1|2|705|Silva, Ana|111",
+                "2|3|4|95|O \"Zé\"|222",
+                "3|0|0|123456789|Maria|333",
+                "4|1|1|0|null|444"), lidas);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/contas/exportar").param("formato", "parquet"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("A memória usada durante a exportação não cresce com a quantidade de contas")
+    public void deveExportarComMemoriaConstante() throws Exception {
+        criarContas(1, MUITAS);
+        Medicao muitas = medir(MUITAS);
+
+        // carregar as 200 mil contas como Conta ocuparia bem mais que isso
+        Assertions.assertTrue(muitas.heapCsv < 32L << 20);
+        Assertions.assertTrue(muitas.heapColunar < 32L << 20);
+        Assertions.assertTrue(muitas.bytesColunar < muitas.bytesCsv);
+    }
+
+    private void criarContasDeExemplo() {
+        contaGateway.salvar(new Conta(1L, 1L, 2L, Dinheiro.de("10.05"), "Silva, Ana", "111"));
+        contaGateway.salvar(new Conta(2L, 3L, 4L, Dinheiro.ZERO, "O \"Zé\"", "222"));
+        contaGateway.salvar(new Conta(3L, null, null, Dinheiro.de("1234567.89"), "Maria", "333"));
+        contaGateway.salvar(new Conta(4L, 1L, 1L, Dinheiro.ZERO, null, "444"));
+        Assertions.assertTrue(contaGateway.transferir(1L, 2L, Dinheiro.de("0.95")));
+        Assertions.assertTrue(contaGateway.transferir(1L, 4L, Dinheiro.de("2.05")));
+        Assertions.assertTrue(contaGateway.transferir(4L, 1L, Dinheiro.de("2.05")));
+        Assertions.assertTrue(contaGateway.debitar(1L, Dinheiro.de("2.05")) > 0);
+    }
+
+    private void criarContas(long primeira, long ultima) {
+        List<Conta> lote = new ArrayList<>();
+        for (long id = primeira; id <= ultima; id++) {
+            lote.add(new Conta(id, id % 100, id % 10, Dinheiro.deCentavos(id * 37), "Titular " + id,
+                    String.format("%011d", id)));
+            if (lote.size() == 10_000 || id == ultima) {
+                contaGateway.criarEmLote(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Exporta as contas para uma saída que só conta os bytes e mede o heap ocupado, depois de um GC,
+     * antes da exportação e na metade dela.
+     */
+    private Medicao medir(int contas) throws IOException {
+        Medicao medicao = new Medicao();
+
+        ContadorBytes saida = new ContadorBytes();
+        EscritorCsv csv = new EscritorCsv(saida);
+        long antes = heapUsado();
+        long[] durante = new long[1];
+        long[] linhas = new long[1];
+        contaUseCase.exportar((id, agencia, digito, saldo, titular, cpf) -> {
+            csv.coletar(id, agencia, digito, saldo, titular, cpf);
+            if (++linhas[0] == contas / 2) {
+                durante[0] = heapUsado();
+            }
+        });
+        csv.terminar();
+        medicao.heapCsv = durante[0] - antes;
+        medicao.bytesCsv = saida.bytes;
+        Assertions.assertEquals(contas, linhas[0]);
+
+        saida = new ContadorBytes();
+        FormatoColunar.Escritor colunar = new FormatoColunar.Escritor(saida, 4096);
+        antes = heapUsado();
+        linhas[0] = 0;
+        contaUseCase.exportar((id, agencia, digito, saldo, titular, cpf) -> {
+            colunar.coletar(id, agencia, digito, saldo, titular, cpf);
+            if (++linhas[0] == contas / 2) {
+                durante[0] = heapUsado();
+            }
+        });
+        colunar.terminar();
+        medicao.heapColunar = durante[0] - antes;
+        medicao.bytesColunar = saida.bytes;
+        return medicao;
+    }
+
+    private static long heapUsado() {
+        MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memoria.getHeapMemoryUsage().getUsed();
+    }
+
+    private static final class ContadorBytes extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    private static final class Medicao {
+        private long heapCsv;
+        private long heapColunar;
+        private long bytesCsv;
+        private long bytesColunar;
+    }
+}
@@ -0,0 +1,204 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.domain.model.TipoMovimentacao;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.ExtratoRecente;
+import com.ada.banco.infra.gateway.bd.MovimentacaoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = {"banco.notificacao.intervalo=3600000", "banco.movimentacao.consolidacao.intervalo=3600000"})
+@AutoConfigureMockMvc
+public class ContaUseCaseTestExtrato {
+
+    private static final Instant INICIO = Instant.parse("2026-01-01T00:00:00Z");
+    private static final int CONTAS = 100;
+    private static final int MOVIMENTACOES_POR_CONTA = 50;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+    @Autowired
+    private ExtratoRecente extratoRecente;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        contaRepository.deleteAll();
+        // apagar direto no banco não passa pelo gateway, então o cache de outro teste ainda estaria lá
+        extratoRecente.invalidar(1L);
+        extratoRecente.invalidar(2L);
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("100.00"), "Titular", "111"));
+        contaGateway.salvar(new Conta(2L, 1L, 1L, Dinheiro.ZERO, "Outro", "222"));
+    }
+
+    @Test
+    @DisplayName("O extrato é paginado por cursor, do mais recente para o mais antigo, sem repetir nem pular lançamentos")
+    public void deveListarExtratoPorCursor() throws Exception {
+        for (int hora = 0; hora < 10; hora++) {
+            lancar(1L, hora);
+        }
+        // mesmo horário do último, a ordem entre os dois fica pelo id
+        lancar(1L, 9);
+        lancar(2L, 5);
+
+        List<Long> lidos = new ArrayList<>();
+        String after = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder requisicao = MockMvcRequestBuilders.get("/contas/1/extrato").param("limit", "3");
+            if (after != null) {
+                requisicao.param("after", after);
+            }
+            MockHttpServletResponse resposta = mockMvc.perform(requisicao)
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andReturn().getResponse();
+            for (JsonNode movimentacao : objectMapper.readTree(resposta.getContentAsString())) {
+                Assertions.assertEquals(1L, movimentacao.get("contaId").asLong());
+                lidos.add(movimentacao.get("id").asLong());
+            }
+            after = resposta.getHeader("X-Proximo-After");
+            paginas++;
+        } while (after != null);
+
+        List<Long> esperados = new ArrayList<>(movimentacaoRepository.findAllByContaIdOrderById(1L).stream()
+                .map(Movimentacao::getId).toList());
+        esperados.sort((a, b) -> Long.compare(b, a));
+        Assertions.assertEquals(esperados, lidos);
+        Assertions.assertEquals(4, paginas);
+    }
+
+    @Test
+    @DisplayName("Com limite acima do máximo, a página vem reduzida e ainda indica a próxima")
+    public void deveIndicarProximaPaginaQuandoLimiteEhReduzido() throws Exception {
+        List<Object[]> lancamentos = new ArrayList<>();
+        for (int minuto = 0; minuto < 1001; minuto++) {
+            lancamentos.add(new Object[]{1L, TipoMovimentacao.DEPOSITO.name(),
+                    Timestamp.from(INICIO.plus(Duration.ofMinutes(minuto)))});
+        }
+        jdbcTemplate.batchUpdate("insert into movimentacao (conta_id, valor, tipo, data_hora, consolidada) "
+                + "values (?, 1.00, ?, ?, true)", lancamentos);
+
+        MockHttpServletResponse resposta = mockMvc.perform(MockMvcRequestBuilders.get("/contas/1/extrato").param("limit", "5000"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1000))
+                .andReturn().getResponse();
+        Assertions.assertNotNull(resposta.getHeader("X-Proximo-After"));
+    }
+
+    @Test
+    @DisplayName("O período é fechado no início e aberto no fim, e uma conta inexistente é 404")
+    public void deveFiltrarPorPeriodo() throws Exception {
+        for (int hora = 0; hora < 10; hora++) {
+            lancar(1L, hora);
+        }
+
+        String corpo = mockMvc.perform(MockMvcRequestBuilders.get("/contas/1/extrato")
+                        .param("from", INICIO.plus(Duration.ofHours(3)).toString())
+                        .param("to", INICIO.plus(Duration.ofHours(6)).toString()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Instant> datas = new ArrayList<>();
+        for (JsonNode movimentacao : objectMapper.readTree(corpo)) {
+            datas.add(Instant.parse(movimentacao.get("dataHora").asText()));
+        }
+        Assertions.assertEquals(List.of(INICIO.plus(Duration.ofHours(5)), INICIO.plus(Duration.ofHours(4)),
+                INICIO.plus(Duration.ofHours(3))), datas);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/contas/99/extrato"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Os lançamentos recentes vêm do cache até a próxima operação na conta")
+    public void deveUsarCacheDosRecentes() throws Exception {
+        contaUseCase.depositar(1L, Dinheiro.de("1.00"));
+        contaUseCase.sacar(1L, Dinheiro.de("2.00"));
+
+        long acertos = extratoRecente.getEstatisticas().hitCount();
+        List<Movimentacao> primeira = contaUseCase.tentarExtrato(1L, null, null, null, 10).getValor();
+        List<Movimentacao> segunda = contaUseCase.tentarExtrato(1L, null, null, null, 1).getValor();
+        Assertions.assertEquals(acertos + 1, extratoRecente.getEstatisticas().hitCount());
+        Assertions.assertEquals(List.of(TipoMovimentacao.SAQUE, TipoMovimentacao.DEPOSITO),
+                primeira.stream().map(Movimentacao::getTipo).toList());
+        Assertions.assertEquals(primeira.subList(0, 1), segunda);
+
+        contaUseCase.transferir(1L, 2L, Dinheiro.de("3.00"));
+        Resultado<List<Movimentacao>> depois = contaUseCase.tentarExtrato(1L, null, null, null, 10);
+        Assertions.assertEquals(TipoMovimentacao.TRANSFERENCIA_ENVIADA, depois.getValor().get(0).getTipo());
+        Assertions.assertEquals(Dinheiro.de("-3.00"), depois.getValor().get(0).getValor());
+        Assertions.assertEquals(TipoMovimentacao.TRANSFERENCIA_RECEBIDA,
+                contaUseCase.tentarExtrato(2L, null, null, null, 10).getValor().get(0).getTipo());
+    }
+
+    @Test
+    @DisplayName("A consulta usa o índice (conta, data) e pagina até o fim do razão da conta")
+    public void deveConsultarPeloIndice() {
+        List<Conta> contas = new ArrayList<>();
+        for (long id = 3; id < CONTAS + 3; id++) {
+            contas.add(new Conta(id, 1L, 1L, Dinheiro.ZERO, "Titular " + id, "cpf-" + id));
+        }
+        contaGateway.criarEmLote(contas);
+        List<Object[]> lancamentos = new ArrayList<>();
+        for (int i = 0; i < MOVIMENTACOES_POR_CONTA; i++) {
+            for (long id = 3; id < CONTAS + 3; id++) {
+                lancamentos.add(new Object[]{id, Timestamp.from(INICIO.plusSeconds(i))});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into movimentacao (conta_id, valor, tipo, data_hora, consolidada) "
+                + "values (?, 1.00, 'DEPOSITO', ?, true)", lancamentos);
+
+        long conta = CONTAS / 2;
+        String plano = jdbcTemplate.queryForObject("explain select m.id from movimentacao m where m.conta_id = " + conta + " "
+                + "and m.data_hora >= timestamp '2026-01-01 00:00:00' order by m.data_hora desc, m.id desc limit 20", String.class);
+        Assertions.assertTrue(plano.toUpperCase().contains("IDX_MOVIMENTACAO_EXTRATO"), plano);
+
+        List<Movimentacao> ultimas = contaGateway.extrato(conta, null, null, null, MOVIMENTACOES_POR_CONTA);
+        Long meio = ultimas.get(MOVIMENTACOES_POR_CONTA / 2).getId();
+        Long fim = ultimas.get(MOVIMENTACOES_POR_CONTA - 21).getId();
+        Assertions.assertEquals(MOVIMENTACOES_POR_CONTA, ultimas.size());
+
+        Assertions.assertEquals(20, contaGateway.extrato(conta, null, null, meio, 20).size());
+        Assertions.assertEquals(20, contaGateway.extrato(conta, null, null, fim, 20).size());
+        Assertions.assertEquals(20, contaGateway.extrato(conta, INICIO.plusSeconds(10), INICIO.plusSeconds(40), null, 20).size());
+    }
+
+    private void lancar(Long contaId, int hora) {
+        movimentacaoRepository.save(new Movimentacao(null, contaId, Dinheiro.de("1.00"), TipoMovimentacao.DEPOSITO,
+                INICIO.plus(Duration.ofHours(hora)), true));
+    }
+}
@@ -1,14 +1,18 @@
 package com.ada.banco.domain.usecase;
 
+import com.ada.banco.domain.model.Dinheiro;
 import com.ada.banco.domain.exception.ContaJaExisteException;
 import com.ada.banco.domain.exception.ContaNaoExisteException;
 import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
 import com.ada.banco.domain.exception.ContasDiferentesException;
-import com.ada.banco.domain.gateway.ContaGateway;
 import com.ada.banco.domain.gateway.EmailGateway;
 import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.TipoMovimentacao;
 import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ConsolidadorMovimentacoes;
 import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.MovimentacaoRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,7 +20,6 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,20 +29,26 @@ public class ContaUseCaseTestH2 {
     private ContaUseCase contaUseCase;
     @Autowired
     private EmailGateway emailGateway;
+    @Autowired
+    private GeradorCodigoOperacao geradorCodigoOperacao;
 
 
-    private ContaGateway contaGateway;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
 
     private Conta contaTeste;
     @Autowired
     private ContaRepository contaRepository;
+    @Autowired
+    private MovimentacaoRepository movimentacaoRepository;
+    @Autowired
+    private ConsolidadorMovimentacoes consolidadorMovimentacoes;
 
     @BeforeEach
     public void setUp() {
-        contaGateway = new ContaGatewayDatabase(contaRepository);
-        contaUseCase = new ContaUseCase(contaGateway, emailGateway);
+        contaUseCase = new ContaUseCase(contaGateway, emailGateway, geradorCodigoOperacao);
         contaRepository.deleteAll();
-        contaTeste = new Conta(1L,2L, 3L, BigDecimal.valueOf(2.49), "Luiz", "000.000.000-00");
+        contaTeste = new Conta(1L,2L, 3L, Dinheiro.de("2.49"), "Luiz", "000.000.000-00");
     }
 
     @Test
@@ -62,11 +71,11 @@ public class ContaUseCaseTestH2 {
     @Test
     @DisplayName("Listar todas as contas")
     public void deveListarContas() throws Exception {
-        Conta conta1 = new Conta(3L,2L, 3L, BigDecimal.valueOf(2.32), "Luiz", "000.000.000-00");
+        Conta conta1 = new Conta(3L,2L, 3L, Dinheiro.de("2.32"), "Luiz", "000.000.000-00");
         contaUseCase.criar(conta1);
-        Conta conta2 = new Conta(4L,2L, 3L, BigDecimal.valueOf(4.76), "Luiz1", "000.000.000-00");
+        Conta conta2 = new Conta(4L,2L, 3L, Dinheiro.de("4.76"), "Luiz1", "000.000.000-00");
         contaUseCase.criar(conta2);
-        Conta conta3 = new Conta(1L,2L, 3L, BigDecimal.valueOf(50000.02), "Luiz2", "000.000.000-00");
+        Conta conta3 = new Conta(1L,2L, 3L, Dinheiro.de("50000.02"), "Luiz2", "000.000.000-00");
         contaUseCase.criar(conta3);
 
         List<Conta> contasCriadas = new ArrayList<>();
@@ -83,11 +92,11 @@ public class ContaUseCaseTestH2 {
     @Test
     @DisplayName("Listar todas as contas do mesmo cpf")
     public void deveListarContasPorCpf() throws Exception {
-        Conta conta1 = new Conta(3L,2L, 3L, BigDecimal.valueOf(2.32), "Luiz", "000.000.000-01");
+        Conta conta1 = new Conta(3L,2L, 3L, Dinheiro.de("2.32"), "Luiz", "000.000.000-01");
         contaUseCase.criar(conta1);
-        Conta conta2 = new Conta(4L,2L, 3L, BigDecimal.valueOf(4.76), "Luiz1", "000.000.000-01");
+        Conta conta2 = new Conta(4L,2L, 3L, Dinheiro.de("4.76"), "Luiz1", "000.000.000-01");
         contaUseCase.criar(conta2);
-        Conta conta3 = new Conta(2L,2L, 3L, BigDecimal.valueOf(50000.02), "Luiz2", "000.000.000-01");
+        Conta conta3 = new Conta(2L,2L, 3L, Dinheiro.de("50000.02"), "Luiz2", "000.000.000-01");
         contaUseCase.criar(conta3);
 
         contaUseCase.criar(contaTeste); //cria conta com CPF 000.000.000.00
@@ -106,15 +115,15 @@ public class ContaUseCaseTestH2 {
     @Test
     @DisplayName("Transferencia entra contas")
     public void deveTrasferirCorretamente() throws Exception {
-        Conta conta2 = new Conta(2L,2L, 3L,BigDecimal.valueOf(2.94), "Luiz", "000.000.000-00");
+        Conta conta2 = new Conta(2L,2L, 3L,Dinheiro.de("2.94"), "Luiz", "000.000.000-00");
 
         contaUseCase.criar(contaTeste);
         contaUseCase.criar(conta2);
 
-        BigDecimal valorAntigoConta1 = contaTeste.getSaldo();
-        BigDecimal valorAntigoConta2 = conta2.getSaldo();
+        Dinheiro valorAntigoConta1 = contaTeste.getSaldo();
+        Dinheiro valorAntigoConta2 = conta2.getSaldo();
 
-        BigDecimal valorATransferir = new BigDecimal("1.50");
+        Dinheiro valorATransferir = Dinheiro.de("1.50");
 
         Long numeroTrasacao = contaUseCase.transferir(contaTeste.getId(), conta2.getId(), valorATransferir);
 
@@ -122,13 +131,27 @@ public class ContaUseCaseTestH2 {
         Conta contaAtualizada2 = contaGateway.buscarPorId(conta2.getId());
 
         Assertions.assertAll("Verifica o saldo das contas",
-                () -> Assertions.assertEquals(valorAntigoConta1.subtract(valorATransferir), contaAtualizada1.getSaldo()),
-                () -> Assertions.assertEquals(valorAntigoConta2.add(valorATransferir), contaAtualizada2.getSaldo())
+                () -> Assertions.assertEquals(valorAntigoConta1.subtrair(valorATransferir), contaAtualizada1.getSaldo()),
+                () -> Assertions.assertEquals(valorAntigoConta2.somar(valorATransferir), contaAtualizada2.getSaldo())
         );
         System.out.println("Transacao "+numeroTrasacao+": R$"+ valorATransferir+" transferidos da conta ID" +
                 contaTeste.getId() + " para a conta ID" +conta2.getId());
     }
 
+    @Test
+    @DisplayName("Transferencia para conta inexistente não debita a origem")
+    public void deveDesfazerDebitoCasoContaDestinoNaoExista() throws Exception {
+        contaUseCase.criar(contaTeste);
+
+        Throwable throwable = Assertions.assertThrows(ContaNaoExisteException.class,
+                () -> contaUseCase.transferir(contaTeste.getId(), 99L, Dinheiro.de("1.50")));
+
+        Conta contaOrigem = contaGateway.buscarPorId(contaTeste.getId());
+
+        Assertions.assertEquals("A conta com ID: 99 não existe", throwable.getMessage());
+        Assertions.assertEquals(contaTeste.getSaldo(), contaOrigem.getSaldo());
+    }
+
     @Test
     @DisplayName("Atualizar uma conta")
     public void deveAtualizarUmaContaCorretamente() throws Exception {
@@ -147,7 +170,7 @@ public class ContaUseCaseTestH2 {
     @DisplayName("Não localizou conta")
     public void deveLancarExceptionCasoNaoLocalizeAConta() {
         Throwable throwable =  Assertions.assertThrows(ContaNaoExisteException.class,
-                () -> contaUseCase.depositar(1L, BigDecimal.valueOf(100)));
+                () -> contaUseCase.depositar(1L, Dinheiro.de("100")));
 
         Assertions.assertEquals("A conta com ID: 1 não existe", throwable.getMessage());
     }
@@ -156,9 +179,9 @@ public class ContaUseCaseTestH2 {
     @DisplayName("Não possui saldo para saque")
     public void deveLancarExceptionCasoContaNaoPossuaSaldoSuficiente() throws Exception {
         contaUseCase.criar(contaTeste);
-        contaUseCase.depositar(contaTeste.getId(), BigDecimal.valueOf(2000));
+        contaUseCase.depositar(contaTeste.getId(), Dinheiro.de("2000"));
 
-        BigDecimal saque = BigDecimal.valueOf(2002.50);
+        Dinheiro saque = Dinheiro.de("2002.50");
 
         Throwable throwable =  Assertions.assertThrows(ContaSaldoInsuficienteException.class,
                 () -> contaUseCase.sacar(contaTeste.getId(), saque));
@@ -166,6 +189,18 @@ public class ContaUseCaseTestH2 {
         Assertions.assertEquals("A conta com ID: " + contaTeste.getId() + " não possui o saldo para saque", throwable.getMessage());
     }
 
+    @Test
+    @DisplayName("Busca por CPF acompanha a troca de CPF da conta")
+    public void deveBuscarPeloNovoCpfDepoisDeAtualizar() throws Exception {
+        contaUseCase.criar(contaTeste);
+        Conta contaAtualizada = new Conta(contaTeste.getId(), 2L, 3L, contaTeste.getSaldo(), "Luiz", "000.000.000-09");
+
+        contaUseCase.atualizar(contaTeste.getId(), contaAtualizada);
+
+        Assertions.assertEquals(List.of(contaAtualizada), contaUseCase.listarPorCpf("000.000.000-09"));
+        Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.listarPorCpf("000.000.000-00"));
+    }
+
     @Test
     @DisplayName("Não localizou cpf na lista")
     public void deveLancarExceptionCasoContaNaoLocalizaCpf() throws Exception {
@@ -194,7 +229,46 @@ public class ContaUseCaseTestH2 {
         Assertions.assertEquals("As contas são diferentes", throwable.getMessage());
     }
 
+    @Test
+    @DisplayName("Registra as movimentações no razão")
+    public void deveRegistrarMovimentacoes() throws Exception {
+        Conta conta2 = new Conta(2L,2L, 3L, Dinheiro.de("0"), "Luiz", "000.000.000-00");
+        contaUseCase.criar(contaTeste);
+        contaUseCase.criar(conta2);
+
+        contaUseCase.depositar(contaTeste.getId(), Dinheiro.de("10.00"));
+        contaUseCase.sacar(contaTeste.getId(), Dinheiro.de("2.00"));
+        contaUseCase.transferir(contaTeste.getId(), conta2.getId(), Dinheiro.de("3.00"));
 
+        List<Movimentacao> movimentacoes = movimentacaoRepository.findAllByContaIdOrderById(contaTeste.getId());
 
+        Assertions.assertAll("Lançamentos da conta de origem",
+                () -> Assertions.assertEquals(3, movimentacoes.size()),
+                () -> Assertions.assertEquals(TipoMovimentacao.DEPOSITO, movimentacoes.get(0).getTipo()),
+                () -> Assertions.assertEquals(Dinheiro.de("-2.00"), movimentacoes.get(1).getValor()),
+                () -> Assertions.assertEquals(TipoMovimentacao.TRANSFERENCIA_ENVIADA, movimentacoes.get(2).getTipo()),
+                () -> Assertions.assertEquals(TipoMovimentacao.TRANSFERENCIA_RECEBIDA,
+                        movimentacaoRepository.findAllByContaIdOrderById(conta2.getId()).get(0).getTipo())
+        );
+    }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Consolida os lançamentos pendentes no saldo da conta")
+    public void deveConsolidarLancamentosPendentes() throws Exception {
+        contaUseCase.criar(contaTeste);
+        contaUseCase.depositar(contaTeste.getId(), Dinheiro.de("10.00"));
+        contaUseCase.depositar(contaTeste.getId(), Dinheiro.de("5.00"));
+        contaUseCase.sacar(contaTeste.getId(), Dinheiro.de("16.00"));
+
+        Dinheiro saldoAntes = contaGateway.buscarPorId(contaTeste.getId()).getSaldo();
+
+        consolidadorMovimentacoes.consolidar();
+
+        Assertions.assertAll("Saldo consolidado",
+                () -> Assertions.assertEquals(Dinheiro.de("1.49"), saldoAntes),
+                () -> Assertions.assertEquals(saldoAntes, contaRepository.findByIdEquals(contaTeste.getId()).getSaldo()),
+                () -> Assertions.assertEquals(saldoAntes, contaGateway.buscarPorId(contaTeste.getId()).getSaldo()),
+                () -> Assertions.assertEquals(0, movimentacaoRepository.countByConsolidadaFalse())
+        );
+    }
+}
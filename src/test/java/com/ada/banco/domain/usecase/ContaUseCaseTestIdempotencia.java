@@ -0,0 +1,160 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.RespostaIdempotente;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.RespostaIdempotenteRepository;
+import com.ada.banco.infra.idempotencia.RegistroIdempotencia;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(properties = "banco.notificacao.intervalo=3600000")
+@AutoConfigureMockMvc
+public class ContaUseCaseTestIdempotencia {
+
+    private static final int REPETICOES = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ContaGateway contaGateway;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private RespostaIdempotenteRepository respostaIdempotenteRepository;
+    @Autowired
+    private RegistroIdempotencia registroIdempotencia;
+
+    @BeforeEach
+    public void setUp() {
+        contaRepository.deleteAll();
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("100.00"), "Origem", "111"));
+        contaGateway.salvar(new Conta(2L, 1L, 1L, Dinheiro.ZERO, "Destino", "222"));
+    }
+
+    @Test
+    @DisplayName("Repetir a transferência com a mesma chave devolve a mesma operação sem mover dinheiro de novo")
+    public void deveTransferirUmaVezPorChave() throws Exception {
+        MvcResult primeira = transferir("transf-1", "10.00")
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist(RegistroIdempotencia.CABECALHO_REPETIDA))
+                .andReturn();
+        MvcResult repetida = transferir("transf-1", "10.00")
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(RegistroIdempotencia.CABECALHO_REPETIDA, "true"))
+                .andReturn();
+
+        Assertions.assertEquals(primeira.getResponse().getContentAsString(), repetida.getResponse().getContentAsString());
+        Assertions.assertEquals(Dinheiro.de("10.00"), contaGateway.buscarPorId(2L).getSaldo());
+
+        transferir("transf-2", "10.00").andExpect(MockMvcResultMatchers.status().isOk());
+        Assertions.assertEquals(Dinheiro.de("20.00"), contaGateway.buscarPorId(2L).getSaldo());
+
+        transferir("transf-2", "10").andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(RegistroIdempotencia.CABECALHO_REPETIDA, "true"));
+        transferir("transf-2", "10.0").andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(RegistroIdempotencia.CABECALHO_REPETIDA, "true"));
+        Assertions.assertEquals(Dinheiro.de("20.00"), contaGateway.buscarPorId(2L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Recusas também são guardadas, e a chave não pode ser reaproveitada em outra requisição")
+    public void deveGuardarRecusaERejeitarOutraRequisicao() throws Exception {
+        transferir("transf-3", "500.00").andExpect(MockMvcResultMatchers.status().isBadRequest());
+        transferir("transf-3", "500.00").andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.header().string(RegistroIdempotencia.CABECALHO_REPETIDA, "true"));
+
+        transferir("transf-3", "5.00").andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+        Assertions.assertEquals(Dinheiro.ZERO, contaGateway.buscarPorId(2L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Requisições simultâneas com a mesma chave esperam a primeira em vez de executar de novo")
+    public void deveExecutarUmaVezComRequisicoesSimultaneas() throws Exception {
+        int threads = 16;
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> respostas = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            respostas.add(executor.submit(() -> {
+                largada.await();
+                return mockMvc.perform(MockMvcRequestBuilders.put("/contas/depositar")
+                                .header(RegistroIdempotencia.CABECALHO, "deposito-1")
+                                .param("id", "2")
+                                .param("valor", "7.00"))
+                        .andExpect(MockMvcResultMatchers.status().isOk())
+                        .andReturn().getResponse().getContentAsString();
+            }));
+        }
+        largada.countDown();
+        Set<String> corpos = new HashSet<>();
+        for (Future<String> resposta : respostas) {
+            corpos.add(resposta.get());
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(1, corpos.size());
+        Assertions.assertEquals(Dinheiro.de("7.00"), contaGateway.buscarPorId(2L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Uma chave que já saiu do cache é respondida pela tabela")
+    public void deveResponderPelaTabela() throws Exception {
+        respostaIdempotenteRepository.save(new RespostaIdempotente("saque-antigo", "sacar:1:300", 200,
+                "R$:3.00 sacados da conta ID: 1", Instant.now().plusSeconds(60)));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/contas/sacar")
+                        .header(RegistroIdempotencia.CABECALHO, "saque-antigo")
+                        .param("id", "1")
+                        .param("valor", "3.00"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("R$:3.00 sacados da conta ID: 1"));
+
+        Assertions.assertEquals(Dinheiro.de("100.00"), contaGateway.buscarPorId(1L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Repetições seguidas com a mesma chave não executam a operação de novo")
+    public void deveExecutarUmaVezComRepeticoesSeguidas() {
+        AtomicInteger execucoes = new AtomicInteger();
+        for (int i = 0; i < REPETICOES; i++) {
+            ResponseEntity<String> resposta = registroIdempotencia.executar("repetida", "repetida", () -> {
+                execucoes.incrementAndGet();
+                return ResponseEntity.ok("ok");
+            });
+            Assertions.assertEquals("ok", resposta.getBody());
+        }
+        Assertions.assertEquals(1, execucoes.get());
+    }
+
+    private org.springframework.test.web.servlet.ResultActions transferir(String chave, String valor) throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.put("/contas/transferir")
+                .header(RegistroIdempotencia.CABECALHO, chave)
+                .param("idOut", "1")
+                .param("idIn", "2")
+                .param("valor", valor));
+    }
+}
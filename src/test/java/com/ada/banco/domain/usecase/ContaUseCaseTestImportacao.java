@@ -0,0 +1,123 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.NotificacaoEmailRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = {"banco.notificacao.intervalo=3600000", "banco.importacao.lote=500"})
+@AutoConfigureMockMvc
+public class ContaUseCaseTestImportacao {
+
+    private static final int CONTAS = 2_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ContaGateway contaGateway;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private NotificacaoEmailRepository notificacaoEmailRepository;
+
+    @BeforeEach
+    public void setUp() {
+        contaRepository.deleteAll();
+        notificacaoEmailRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Importa um CSV em lotes, relatando progresso e as linhas recusadas")
+    public void deveImportarCsv() throws Exception {
+        contaGateway.salvar(new Conta(7L, 1L, 1L, Dinheiro.de("5.00"), "Existente", "777"));
+
+        StringBuilder csv = new StringBuilder("id,agencia,digito,saldo,titular,cpf\n");
+        for (long id = 1; id <= CONTAS; id++) {
+            csv.append(id).append(",1,").append(id % 10).append(",10.00,\"Titular, ").append(id).append("\",")
+                    .append(String.format("%011d", id)).append('\n');
+        }
+        csv.append("3,1,1,1.00,Repetida,333\n");
+        csv.append("sem numero,1,1,1.00,Invalida,444\n");
+
+        String resposta = mockMvc.perform(MockMvcRequestBuilders.post("/contas/importar")
+                        .contentType("text/csv")
+                        .content(csv.toString()))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> linhas = lerLinhas(resposta);
+        List<JsonNode> recusas = linhas.stream().filter(l -> l.has("situacao")).toList();
+        Assertions.assertEquals(3, recusas.size());
+        Assertions.assertEquals("JA_EXISTE", recusas.get(0).get("situacao").asText());
+        Assertions.assertEquals(8, recusas.get(0).get("linha").asLong());
+        // o id 3 foi criado num lote anterior
+        Assertions.assertEquals("JA_EXISTE", recusas.get(1).get("situacao").asText());
+        Assertions.assertEquals("INVALIDA", recusas.get(2).get("situacao").asText());
+        Assertions.assertEquals(CONTAS + 3, recusas.get(2).get("linha").asLong());
+
+        List<JsonNode> progresso = linhas.stream().filter(l -> l.has("processadas")).toList();
+        Assertions.assertTrue(progresso.size() > CONTAS / 500);
+        JsonNode fim = progresso.get(progresso.size() - 1);
+        Assertions.assertTrue(fim.get("concluida").asBoolean());
+        Assertions.assertEquals(CONTAS + 2, fim.get("processadas").asLong());
+        Assertions.assertEquals(CONTAS - 1, fim.get("criadas").asLong());
+
+        Assertions.assertEquals(CONTAS, contaRepository.count());
+        Assertions.assertEquals(CONTAS - 1, notificacaoEmailRepository.count());
+        Conta importada = contaGateway.buscarPorId(42L);
+        Assertions.assertEquals("Titular, 42", importada.getTitular());
+        Assertions.assertEquals(Dinheiro.de("10.00"), importada.getSaldo());
+        Assertions.assertEquals("Existente", contaGateway.buscarPorId(7L).getTitular());
+        Assertions.assertEquals(1, contaGateway.listarPorCpf(String.format("%011d", 42)).size());
+    }
+
+    @Test
+    @DisplayName("Importa NDJSON com uma conta por linha")
+    public void deveImportarNdjson() throws Exception {
+        String ndjson = objectMapper.writeValueAsString(new Conta(1L, 1L, 1L, Dinheiro.de("1.50"), "Um", "111")) + "\n"
+                + "{quebrado\n"
+                + objectMapper.writeValueAsString(new Conta(2L, 1L, 1L, null, "Dois", "222")) + "\n"
+                + objectMapper.writeValueAsString(new Conta(1L, 1L, 1L, Dinheiro.ZERO, "Um de novo", "111")) + "\n";
+
+        String resposta = mockMvc.perform(MockMvcRequestBuilders.post("/contas/importar")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> linhas = lerLinhas(resposta);
+        Assertions.assertEquals("INVALIDA", linhas.get(0).get("situacao").asText());
+        Assertions.assertEquals(2, linhas.get(0).get("linha").asLong());
+        Assertions.assertEquals("DUPLICADA", linhas.get(1).get("situacao").asText());
+        Assertions.assertEquals(2, linhas.get(linhas.size() - 1).get("criadas").asLong());
+        Assertions.assertEquals(Dinheiro.ZERO, contaGateway.buscarPorId(2L).getSaldo());
+        Assertions.assertEquals(2, notificacaoEmailRepository.count());
+    }
+
+    private List<JsonNode> lerLinhas(String resposta) throws Exception {
+        List<JsonNode> linhas = new ArrayList<>();
+        for (String linha : resposta.split("\n")) {
+            linhas.add(objectMapper.readTree(linha));
+        }
+        return linhas;
+    }
+}
@@ -0,0 +1,172 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.infra.gateway.http.EmailGatewayHttpFake;
+import com.ada.banco.infra.gateway.memoria.ContaGatewayMemoria;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+public class ContaUseCaseTestMemoria {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Depois de reiniciar, o estado volta pelo log")
+    public void deveRecuperarEstadoPeloLog() throws Exception {
+        ContaGatewayMemoria gateway = new ContaGatewayMemoria(diretorio, true);
+        ContaUseCase contaUseCase = new ContaUseCase(gateway, new EmailGatewayHttpFake(), new GeradorCodigoOperacao(0));
+        contaUseCase.criar(new Conta(1L, 1L, 1L, Dinheiro.de("100.00"), "Um", "111"));
+        contaUseCase.criar(new Conta(2L, 1L, 1L, Dinheiro.de("50.00"), "Dois", "111"));
+        contaUseCase.depositar(1L, Dinheiro.de("10.00"));
+        contaUseCase.sacar(2L, Dinheiro.de("20.00"));
+        contaUseCase.transferir(1L, 2L, Dinheiro.de("30.00"));
+        contaUseCase.atualizar(2L, new Conta(2L, 9L, 9L, Dinheiro.ZERO, "Dois Alterada", "222"));
+        Assertions.assertThrows(ContaSaldoInsuficienteException.class,
+                () -> contaUseCase.sacar(2L, Dinheiro.de("1000.00")));
+        gateway.fechar();
+
+        ContaGatewayMemoria recuperado = new ContaGatewayMemoria(diretorio, true);
+        Assertions.assertEquals(Dinheiro.de("80.00"), recuperado.buscarPorId(1L).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("60.00"), recuperado.buscarPorId(2L).getSaldo());
+        Assertions.assertEquals("Dois Alterada", recuperado.buscarPorId(2L).getTitular());
+        Assertions.assertEquals(List.of(1L), recuperado.listarPorCpf("111").stream().map(Conta::getId).toList());
+        Assertions.assertEquals(List.of(2L), recuperado.listarPorCpf("222").stream().map(Conta::getId).toList());
+        recuperado.fechar();
+    }
+
+    @Test
+    @DisplayName("Snapshot apaga o log antigo e a recuperacao junta snapshot e log novo")
+    public void deveRecuperarDoSnapshotMaisLog() throws Exception {
+        ContaGatewayMemoria gateway = new ContaGatewayMemoria(diretorio, true);
+        for (long id = 1; id <= 100; id++) {
+            gateway.salvar(new Conta(id, 1L, 1L, Dinheiro.de("10.00"), "Titular " + id, "cpf" + id));
+        }
+        gateway.gravarSnapshot();
+        gateway.creditar(1L, Dinheiro.de("5.00"));
+        gateway.salvar(new Conta(101L, 1L, 1L, Dinheiro.de("1.00"), "Nova", "cpf101"));
+        gateway.fechar();
+
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            Assertions.assertEquals(2, arquivos.filter(arquivo -> arquivo.toString().endsWith(".log")
+                    || arquivo.toString().endsWith(".bin")).count());
+        }
+
+        ContaGatewayMemoria recuperado = new ContaGatewayMemoria(diretorio, true);
+        Assertions.assertEquals(101, recuperado.listar().size());
+        Assertions.assertEquals(Dinheiro.de("15.00"), recuperado.buscarPorId(1L).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("1.00"), recuperado.buscarPorId(101L).getSaldo());
+        Assertions.assertEquals(List.of(51L, 52L), recuperado.listarPagina(50L, 2).stream().map(Conta::getId).toList());
+        recuperado.fechar();
+    }
+
+    @Test
+    @DisplayName("Registro cortado no fim do log e descartado")
+    public void deveDescartarRegistroIncompleto() throws Exception {
+        ContaGatewayMemoria gateway = new ContaGatewayMemoria(diretorio, true);
+        gateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Um", "111"));
+        gateway.creditar(1L, Dinheiro.de("5.00"));
+        gateway.fechar();
+
+        Path log = ultimoLog();
+        byte[] conteudo = Files.readAllBytes(log);
+        Files.write(log, Arrays.copyOf(conteudo, conteudo.length - 3), StandardOpenOption.TRUNCATE_EXISTING);
+
+        ContaGatewayMemoria recuperado = new ContaGatewayMemoria(diretorio, true);
+        Assertions.assertEquals(Dinheiro.de("10.00"), recuperado.buscarPorId(1L).getSaldo());
+        recuperado.creditar(1L, Dinheiro.de("1.00"));
+        recuperado.fechar();
+
+        ContaGatewayMemoria novamente = new ContaGatewayMemoria(diretorio, true);
+        Assertions.assertEquals(Dinheiro.de("11.00"), novamente.buscarPorId(1L).getSaldo());
+        novamente.fechar();
+    }
+
+    @Test
+    @DisplayName("Alteracoes que nao chegam ao log falham e nao ficam na memoria")
+    public void deveDesfazerAlteracoesNaoGravadas() throws Exception {
+        ContaGatewayMemoria gateway = new ContaGatewayMemoria(diretorio, true);
+        gateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("100.00"), "Um", "111"));
+        gateway.salvar(new Conta(2L, 1L, 1L, Dinheiro.de("50.00"), "Dois", "222"));
+        gateway.fechar();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> gateway.creditar(1L, Dinheiro.de("10.00")));
+        Assertions.assertThrows(IllegalStateException.class, () -> gateway.debitar(1L, Dinheiro.de("10.00")));
+        Assertions.assertThrows(IllegalStateException.class, () -> gateway.transferir(1L, 2L, Dinheiro.de("10.00")));
+        Assertions.assertThrows(IllegalStateException.class, () -> gateway.transferirEmLote(List.of(
+                new Transferencia(1L, 2L, Dinheiro.de("1.00")), new Transferencia(2L, 1L, Dinheiro.de("3.00")))));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> gateway.salvar(new Conta(3L, 1L, 1L, Dinheiro.ZERO, "Tres", "333")));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> gateway.atualizar(new Conta(2L, 9L, 9L, null, "Alterada", "999")));
+
+        Assertions.assertEquals(Dinheiro.de("100.00"), gateway.buscarPorId(1L).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("50.00"), gateway.buscarPorId(2L).getSaldo());
+        Assertions.assertNull(gateway.buscarPorId(3L));
+        Assertions.assertEquals("Dois", gateway.buscarPorId(2L).getTitular());
+        Assertions.assertEquals(List.of(2L), gateway.listarPorCpf("222").stream().map(Conta::getId).toList());
+        Assertions.assertTrue(gateway.listarPorCpf("999").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Transferencias concorrentes conservam o saldo total, na memoria e no log")
+    public void deveConservarSaldoComTransferenciasConcorrentes() throws Exception {
+        int quantidadeContas = 50;
+        ContaGatewayMemoria gateway = new ContaGatewayMemoria(diretorio, true);
+        for (long id = 1; id <= quantidadeContas; id++) {
+            gateway.salvar(new Conta(id, 1L, 1L, Dinheiro.de("100.00"), "Titular " + id, "cpf"));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    long idOut = ThreadLocalRandom.current().nextLong(1, quantidadeContas + 1);
+                    long idIn = ThreadLocalRandom.current().nextLong(1, quantidadeContas + 1);
+                    gateway.transferir(idOut, idIn, Dinheiro.de("7.00"));
+                }
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+        Dinheiro total = somar(gateway);
+        gateway.fechar();
+
+        Assertions.assertEquals(Dinheiro.de("5000.00"), total);
+        ContaGatewayMemoria recuperado = new ContaGatewayMemoria(diretorio, true);
+        Assertions.assertEquals(total, somar(recuperado));
+        recuperado.fechar();
+    }
+
+    private Dinheiro somar(ContaGatewayMemoria gateway) {
+        return gateway.listar().stream().map(Conta::getSaldo).reduce(Dinheiro.ZERO, Dinheiro::somar);
+    }
+
+    private Path ultimoLog() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".log")).sorted()
+                    .reduce((primeiro, segundo) -> segundo).orElseThrow();
+        }
+    }
+}
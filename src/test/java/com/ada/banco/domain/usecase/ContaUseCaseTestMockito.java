@@ -1,5 +1,6 @@
 package com.ada.banco.domain.usecase;
 
+import com.ada.banco.domain.model.Dinheiro;
 import com.ada.banco.domain.exception.ContaJaExisteException;
 import com.ada.banco.domain.exception.ContaNaoExisteException;
 import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
@@ -14,9 +15,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +30,8 @@ public class ContaUseCaseTestMockito {
     private ContaGateway contaGateway;
     @Mock
     private EmailGateway emailGateway;
+    @Spy
+    private GeradorCodigoOperacao geradorCodigoOperacao = new GeradorCodigoOperacao(0);
 
     @InjectMocks
     private ContaUseCase contaUseCase;
@@ -38,7 +41,7 @@ public class ContaUseCaseTestMockito {
     @BeforeEach
     public void setUp() {
         contaTeste =
-                new Conta(1L, 2L, 3L, BigDecimal.ZERO, "Luiz", "000.000.000-00");
+                new Conta(1L, 2L, 3L, Dinheiro.ZERO, "Luiz", "000.000.000-00");
     }
 
     @Test
@@ -95,27 +98,28 @@ public class ContaUseCaseTestMockito {
     @Test
     @DisplayName("Criar conta com saldo Zero")
     public void deveIniciarContaComSemSaldo() {
-        Assertions.assertEquals(BigDecimal.ZERO, contaTeste.getSaldo());
+        Assertions.assertEquals(Dinheiro.ZERO, contaTeste.getSaldo());
     }
 
     @Test
     @DisplayName("Depositar corretamente o valor")
     public void deveDepositarCorretamente() throws Exception {
-        BigDecimal deposito = new BigDecimal("1000.00");
+        Dinheiro deposito = Dinheiro.de("1000.00");
 
-        when(contaGateway.buscarPorId(1L)).thenReturn(contaTeste);
-
-        BigDecimal saldoAntigo = contaTeste.getSaldo();
+        when(contaGateway.creditar(1L, deposito)).thenReturn(1);
 
-        contaUseCase.depositar(contaTeste.getId(), deposito);
+        Dinheiro valorDepositado = contaUseCase.depositar(contaTeste.getId(), deposito);
 
-        Assertions.assertEquals(deposito.add(saldoAntigo), contaTeste.getSaldo());
+        Assertions.assertEquals(deposito, valorDepositado);
+        verify(contaGateway, times(1)).creditar(1L, deposito);
+        verify(contaGateway, never()).buscarPorId(any());
+        verify(contaGateway, never()).salvar(any());
     }
 
     @Test
     @DisplayName("Lancar Exception caso conta não exista")
     public void deveLancarExceptionCasoContaNaoExita() {
-        BigDecimal deposito = new BigDecimal("1000.00");
+        Dinheiro deposito = Dinheiro.de("1000.00");
 
         Throwable throwable = Assertions.assertThrows(ContaNaoExisteException.class,
                 () -> contaUseCase.depositar(2L, deposito));
@@ -127,23 +131,22 @@ public class ContaUseCaseTestMockito {
     @Test
     @DisplayName("Sacar Corretamente")
     public void deveSacarCorretamente() throws Exception {
-        contaTeste.setSaldo(BigDecimal.valueOf(1001.50));
-        BigDecimal saque = new BigDecimal("1000.00");
-
-        when(contaGateway.buscarPorId(1L)).thenReturn(contaTeste);
+        Dinheiro saque = Dinheiro.de("1000.00");
 
-        BigDecimal saldoAntigo = contaTeste.getSaldo();
+        when(contaGateway.debitar(1L, saque)).thenReturn(1);
 
-        contaUseCase.sacar(contaTeste.getId(), saque);
-
-        Assertions.assertEquals(saldoAntigo.subtract(saque), contaTeste.getSaldo());
+        Dinheiro valorSacado = contaUseCase.sacar(contaTeste.getId(), saque);
 
+        Assertions.assertEquals(saque, valorSacado);
+        verify(contaGateway, times(1)).debitar(1L, saque);
+        verify(contaGateway, never()).buscarPorId(any());
+        verify(contaGateway, never()).salvar(any());
     }
 
     @Test
     @DisplayName("Lancar Exception caso não tenha saldo")
     public void deveLancarExceptionCasoNaoTenhaSaldo() {
-        BigDecimal saque = new BigDecimal("1000.00");
+        Dinheiro saque = Dinheiro.de("1000.00");
 
         when(contaGateway.buscarPorId(1L)).thenReturn(contaTeste);
 
@@ -154,26 +157,32 @@ public class ContaUseCaseTestMockito {
 
     }
 
+    @Test
+    @DisplayName("Lancar Exception ao sacar de conta inexistente")
+    public void deveLancarExceptionAoSacarDeContaInexistente() {
+        Dinheiro saque = Dinheiro.de("10.00");
+
+        Throwable throwable = Assertions.assertThrows(ContaNaoExisteException.class,
+                () -> contaUseCase.sacar(2L, saque));
+
+        Assertions.assertEquals("A conta com ID: " + 2L + " não existe", throwable.getMessage());
+        verify(contaGateway, times(1)).debitar(2L, saque);
+    }
+
     @Test
     @DisplayName("Transferir entre duas contas")
     public void deveTransferirEntreDuasContas() throws Exception {
-        BigDecimal traferencia = new BigDecimal("1.50");
-        contaTeste.setSaldo(BigDecimal.valueOf(2.00));
+        Dinheiro traferencia = Dinheiro.de("1.50");
         Conta contaAlvo =
-                new Conta(2L, 2L, 3L, BigDecimal.ZERO, "Henrique", "000.000.000-01");
-
-        when(contaGateway.buscarPorId(1L)).thenReturn(contaTeste);
-        when(contaGateway.buscarPorId(2L)).thenReturn(contaAlvo);
+                new Conta(2L, 2L, 3L, Dinheiro.ZERO, "Henrique", "000.000.000-01");
 
-        BigDecimal saldoAntigoContaOrigem = contaTeste.getSaldo();
-        BigDecimal saldoAntigoContaAlvo = contaAlvo.getSaldo();
+        when(contaGateway.transferir(1L, 2L, traferencia)).thenReturn(true);
 
         Long transation = contaUseCase.transferir(contaTeste.getId(), contaAlvo.getId(), traferencia);
 
-        Assertions.assertAll("Transferencia",
-                () -> Assertions.assertEquals(saldoAntigoContaOrigem.subtract(traferencia), contaTeste.getSaldo()),
-                () -> Assertions.assertEquals(saldoAntigoContaAlvo.add(traferencia), contaAlvo.getSaldo())
-        );
+        verify(contaGateway, times(1)).transferir(1L, 2L, traferencia);
+        verify(contaGateway, never()).buscarPorId(any());
+        Assertions.assertNotNull(transation);
 
         System.out.println("Transacao "+transation+": R$"+ traferencia+" transferidos da conta ID" +
                 contaTeste.getId() + " para a conta ID" + contaAlvo.getId());
@@ -185,7 +194,7 @@ public class ContaUseCaseTestMockito {
     @DisplayName("Atualizar uma conta")
     public void deveAtualizarUmaConta() throws Exception {
         Conta contaAtualizada =
-                new Conta(contaTeste.getId(), 2L, 3L, BigDecimal.ZERO, "Henrique", "000.000.000-01");
+                new Conta(contaTeste.getId(), 2L, 3L, Dinheiro.ZERO, "Henrique", "000.000.000-01");
         when(contaGateway.buscarPorId(contaTeste.getId())).thenReturn(contaTeste);
         when(contaGateway.buscarPorId(contaAtualizada.getId())).thenReturn(contaAtualizada);
 
@@ -201,7 +210,7 @@ public class ContaUseCaseTestMockito {
     @DisplayName("Não deve atualizar Conta se o id não corresponder")
     public void deveLancarExceptionSeOIdNaoCorrespondeAoAtualizar() {
         Conta contaAtualizada =
-                new Conta(2L, 2L, 3L, BigDecimal.ZERO, "Henrique", "000.000.000-01");
+                new Conta(2L, 2L, 3L, Dinheiro.ZERO, "Henrique", "000.000.000-01");
         when(contaGateway.buscarPorId(contaTeste.getId())).thenReturn(contaTeste);
 
         Throwable throwable = Assertions.assertThrows(ContasDiferentesException.class,
@@ -215,9 +224,9 @@ public class ContaUseCaseTestMockito {
     @DisplayName("Buscar Contas por CPF")
     public void deveBuscarPorCPF() throws Exception {
         Conta conta1 =
-                new Conta(2L, 2L, 3L, BigDecimal.ZERO, "Henrique", "000.000.000-01");
+                new Conta(2L, 2L, 3L, Dinheiro.ZERO, "Henrique", "000.000.000-01");
         Conta conta2 =
-                new Conta(3L, 2L, 3L, BigDecimal.valueOf(2000.50), "Henrique", "000.000.000-01");
+                new Conta(3L, 2L, 3L, Dinheiro.de("2000.50"), "Henrique", "000.000.000-01");
 
         when(contaGateway.salvar(contaTeste)).thenReturn(contaTeste);
 
@@ -0,0 +1,126 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.gateway.EmailGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.NotificacaoEmail;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.NotificacaoEmailRepository;
+import com.ada.banco.infra.gateway.outbox.DespachanteNotificacoes;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// O despachante agendado fica parado para o teste controlar quando a outbox é esvaziada
+@SpringBootTest(properties = "banco.notificacao.intervalo=3600000")
+public class ContaUseCaseTestNotificacao {
+
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private NotificacaoEmailRepository notificacaoEmailRepository;
+    @Autowired
+    private MeterRegistry registry;
+
+    @AfterEach
+    public void limpar() {
+        notificacaoEmailRepository.deleteAll();
+        contaRepository.deleteAll();
+    }
+
+    @Test
+    public void criarContaDeveGravarNotificacaoNaOutbox() throws Exception {
+        contaUseCase.criar(new Conta(1001L, 1L, 1L, Dinheiro.ZERO, "Teste", "111"));
+
+        List<NotificacaoEmail> notificacoes = notificacaoEmailRepository.findAll();
+        Assertions.assertEquals(1, notificacoes.size());
+        Assertions.assertEquals("111", notificacoes.get(0).getCpf());
+    }
+
+    @Test
+    public void criarContaDuplicadaNaoDeveGravarNotificacao() throws Exception {
+        contaUseCase.criar(new Conta(1002L, 1L, 1L, Dinheiro.ZERO, "Teste", "222"));
+
+        Assertions.assertThrows(Exception.class,
+                () -> contaUseCase.criar(new Conta(1002L, 1L, 1L, Dinheiro.ZERO, "Teste", "222")));
+        Assertions.assertEquals(1, notificacaoEmailRepository.count());
+    }
+
+    @Test
+    public void despachanteDeveEnviarEApagarNotificacoes() throws Exception {
+        Instant agora = Instant.now();
+        for (int i = 0; i < 250; i++) {
+            notificacaoEmailRepository.save(new NotificacaoEmail(null, "cpf" + i, agora, agora, 0));
+        }
+        List<String> enviados = new CopyOnWriteArrayList<>();
+        DespachanteNotificacoes despachante = new DespachanteNotificacoes(
+                notificacaoEmailRepository, enviados::add, 100, 10, 5, Duration.ofMinutes(1));
+
+        despachante.despachar();
+
+        Assertions.assertEquals(250, enviados.size());
+        Assertions.assertEquals(0, notificacaoEmailRepository.count());
+        despachante.encerrar();
+    }
+
+    @Test
+    public void despachanteDeveReagendarQuandoEnvioFalhar() throws Exception {
+        Instant agora = Instant.now();
+        NotificacaoEmail notificacao = notificacaoEmailRepository.save(new NotificacaoEmail(null, "333", agora, agora, 0));
+        AtomicInteger chamadas = new AtomicInteger();
+        EmailGateway falhando = cpf -> {
+            chamadas.incrementAndGet();
+            throw new IllegalStateException("provedor fora do ar");
+        };
+        DespachanteNotificacoes despachante = new DespachanteNotificacoes(
+                notificacaoEmailRepository, falhando, 100, 10, 5, Duration.ofMinutes(1));
+
+        despachante.despachar();
+        // Ainda não chegou a hora da próxima tentativa
+        despachante.despachar();
+
+        NotificacaoEmail salva = notificacaoEmailRepository.findById(notificacao.getId()).orElseThrow();
+        Assertions.assertEquals(1, chamadas.get());
+        Assertions.assertEquals(1, salva.getTentativas());
+        Assertions.assertTrue(salva.getProximaTentativa().isAfter(agora));
+        despachante.encerrar();
+    }
+
+    @Test
+    public void despachanteDeveDescartarQuandoAsTentativasAcabarem() throws Exception {
+        Instant agora = Instant.now();
+        NotificacaoEmail notificacao = notificacaoEmailRepository.save(new NotificacaoEmail(null, "444", agora, agora, 4));
+        AtomicInteger chamadas = new AtomicInteger();
+        EmailGateway falhando = cpf -> {
+            chamadas.incrementAndGet();
+            throw new IllegalStateException("provedor fora do ar");
+        };
+        DespachanteNotificacoes despachante = new DespachanteNotificacoes(
+                notificacaoEmailRepository, falhando, 100, 10, 5, Duration.ofMinutes(1));
+
+        despachante.despachar();
+        NotificacaoEmail descartada = notificacaoEmailRepository.findById(notificacao.getId()).orElseThrow();
+        // mesmo com a próxima tentativa vencida, a descartada não volta para a fila
+        descartada.setProximaTentativa(agora);
+        notificacaoEmailRepository.save(descartada);
+        despachante.despachar();
+
+        Assertions.assertEquals(1, chamadas.get());
+        Assertions.assertEquals(5, descartada.getTentativas());
+        Assertions.assertNotNull(descartada.getDescartadaEm());
+        Assertions.assertEquals(1, despachante.getDescartadas());
+        Assertions.assertEquals(1, registry.get("banco.notificacao.descartadas").gauge().value());
+        despachante.encerrar();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.exception.ContaNaoExisteException;
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.infra.gateway.http.EmailGatewayHttpFake;
+import com.ada.banco.infra.gateway.offheap.ContaGatewayOffHeap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ContaUseCaseTestOffHeap {
+
+    private static final int CONTAS_PEGADA = 20_000;
+
+    @Test
+    public void deveOperarContasForaDoHeap() throws Exception {
+        ContaGatewayOffHeap gateway = new ContaGatewayOffHeap(16);
+        ContaUseCase contaUseCase = new ContaUseCase(gateway, new EmailGatewayHttpFake(), new GeradorCodigoOperacao(0));
+        for (long id = 1; id <= 100; id++) {
+            contaUseCase.criar(new Conta(id, 1L, 2L, Dinheiro.de("100.00"), "Titular " + id, id % 2 == 0 ? "par" : "impar"));
+        }
+
+        contaUseCase.depositar(1L, Dinheiro.de("0.50"));
+        contaUseCase.sacar(2L, Dinheiro.de("10.00"));
+        contaUseCase.transferir(1L, 2L, Dinheiro.de("20.25"));
+        contaUseCase.atualizar(3L, new Conta(3L, 7L, 8L, Dinheiro.ZERO, "Alterada", "par"));
+
+        Assertions.assertEquals(Dinheiro.de("80.25"), gateway.buscarPorId(1L).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("110.25"), gateway.buscarPorId(2L).getSaldo());
+        Conta alterada = gateway.buscarPorId(3L);
+        Assertions.assertEquals("Alterada", alterada.getTitular());
+        Assertions.assertEquals(7L, alterada.getAgencia());
+        Assertions.assertEquals(Dinheiro.de("100.00"), alterada.getSaldo());
+        Assertions.assertEquals(51, contaUseCase.listarPorCpf("par").size());
+        Assertions.assertEquals(List.of(11L, 12L, 13L),
+                gateway.listarPagina(10L, 3).stream().map(Conta::getId).toList());
+        Assertions.assertEquals(100, gateway.listar().size());
+        Assertions.assertThrows(ContaSaldoInsuficienteException.class, () -> contaUseCase.sacar(4L, Dinheiro.de("100.01")));
+        Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.depositar(1000L, Dinheiro.de("1.00")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> gateway.creditar(1L, Dinheiro.de("0.001")));
+    }
+
+    @Test
+    @DisplayName("Os índices de id e de CPF acompanham ids fora de ordem, troca de CPF e regravação")
+    public void deveManterIndices() {
+        ContaGatewayOffHeap gateway = new ContaGatewayOffHeap(4);
+        for (long id : new long[]{50, 10, 30, 20, 40, 5, 60, 45}) {
+            gateway.salvar(new Conta(id, 1L, 1L, Dinheiro.de("1.00"), "Titular " + id, id % 20 == 0 ? "a" : "b"));
+        }
+
+        Assertions.assertEquals(List.of(5L, 10L, 20L), ids(gateway.listarPagina(null, 3)));
+        Assertions.assertEquals(List.of(30L, 40L, 45L), ids(gateway.listarPagina(20L, 3)));
+        Assertions.assertEquals(List.of(45L, 50L, 60L), ids(gateway.listarPagina(42L, 10)));
+        Assertions.assertEquals(List.of(20L, 40L, 60L), ids(gateway.listarPorCpf("a")));
+
+        gateway.atualizar(new Conta(40L, 1L, 1L, null, "Titular 40", "b"));
+        gateway.salvar(new Conta(10L, 1L, 1L, Dinheiro.de("1.00"), "Titular 10", "a"));
+        gateway.salvar(new Conta(60L, 1L, 1L, Dinheiro.de("1.00"), "Titular 60", null));
+
+        Assertions.assertEquals(List.of(10L, 20L), ids(gateway.listarPorCpf("a")));
+        Assertions.assertEquals(List.of(5L, 30L, 40L, 45L, 50L), ids(gateway.listarPorCpf("b")));
+        Assertions.assertEquals(List.of(), gateway.listarPorCpf("c"));
+        Assertions.assertEquals(8, gateway.listar().size());
+
+        // fora de ordem de novo depois de uma paginação: os novos são intercalados com os já ordenados
+        for (long id : new long[]{70, 1, 55, 25, 65}) {
+            gateway.salvar(new Conta(id, 1L, 1L, Dinheiro.de("1.00"), "Titular " + id, "d"));
+        }
+        Assertions.assertEquals(List.of(1L, 5L, 10L, 20L, 25L, 30L, 40L, 45L, 50L, 55L, 60L, 65L, 70L), ids(gateway.listar()));
+        Assertions.assertEquals(List.of(50L, 55L, 60L), ids(gateway.listarPagina(45L, 3)));
+    }
+
+    @Test
+    @DisplayName("No heap ficam só os índices, do mesmo tamanho qualquer que seja o conteúdo das contas")
+    public void deveManterNoHeapSoOsIndices() {
+        ContaGatewayOffHeap curtas = new ContaGatewayOffHeap(CONTAS_PEGADA);
+        ContaGatewayOffHeap longas = new ContaGatewayOffHeap(CONTAS_PEGADA);
+        long vazio = curtas.getBytesNoHeap();
+        String titularLongo = "T".repeat(79);
+        for (long id = 1; id <= CONTAS_PEGADA; id++) {
+            curtas.salvar(new Conta(id, 1L, 1L, Dinheiro.de("1.00"), "T", "1"));
+            longas.salvar(new Conta(id, 1L, 1L, Dinheiro.de("100.00"), titularLongo, String.format("%014d", id)));
+        }
+
+        Assertions.assertEquals(CONTAS_PEGADA, longas.listar().size());
+        Assertions.assertEquals(vazio, curtas.getBytesNoHeap());
+        Assertions.assertEquals(vazio, longas.getBytesNoHeap());
+        Assertions.assertTrue(longas.getBytesForaDoHeap() >= CONTAS_PEGADA * 128L);
+    }
+
+    private static List<Long> ids(List<Conta> contas) {
+        return contas.stream().map(Conta::getId).toList();
+    }
+}
@@ -0,0 +1,187 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.DataSourceRoteado;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+// o consolidador escreveria no primário entre uma replicação e a leitura seguinte
+@SpringBootTest(properties = {"banco.notificacao.intervalo=3600000", "banco.movimentacao.consolidacao.intervalo=3600000",
+        "banco.replicas.habilitado=true",
+        "banco.replicas.urls=" + ContaUseCaseTestReplicas.REPLICA_A + "," + ContaUseCaseTestReplicas.REPLICA_B
+                + "," + ContaUseCaseTestReplicas.FORA_DO_AR,
+        "banco.replicas.tempo-conexao=250ms", "banco.replicas.ler-proprias-escritas=2s"})
+@AutoConfigureMockMvc
+public class ContaUseCaseTestReplicas {
+
+    static final String REPLICA_A = "jdbc:h2:mem:replicaA;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_B = "jdbc:h2:mem:replicaB;DB_CLOSE_DELAY=-1";
+    static final String FORA_DO_AR = "jdbc:h2:tcp://localhost:1/mem:fora";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private DataSourceRoteado dataSource;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        contaRepository.deleteAll();
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Um", "111"));
+        replicar();
+        dataSource.verificarReplicas();
+    }
+
+    @Test
+    @DisplayName("Leituras somente leitura vão às réplicas em rodízio e só veem o que já foi replicado")
+    public void deveLerDasReplicasEmRodizio() throws Exception {
+        contaGateway.salvar(new Conta(2L, 1L, 1L, Dinheiro.de("20.00"), "Dois", "222"));
+        Assertions.assertEquals(List.of(1L), ids(contaUseCase.listar()));
+        Assertions.assertNotNull(contaGateway.buscarPorId(2L));
+
+        replicar();
+        Assertions.assertEquals(List.of(1L, 2L), ids(contaUseCase.listar()));
+        Assertions.assertEquals(1, contaUseCase.listarPorCpf("222").size());
+
+        long a = dataSource.getConexoesReplica(0);
+        long b = dataSource.getConexoesReplica(1);
+        long primario = dataSource.getConexoesPrimario();
+        for (int i = 0; i < 10; i++) {
+            contaUseCase.listarPagina(null, 10);
+        }
+        Assertions.assertEquals(5, dataSource.getConexoesReplica(0) - a);
+        Assertions.assertEquals(5, dataSource.getConexoesReplica(1) - b);
+        Assertions.assertEquals(primario, dataSource.getConexoesPrimario());
+        Assertions.assertEquals(0, dataSource.getConexoesReplica(2));
+        Assertions.assertFalse(dataSource.isReplicaDisponivel(2));
+    }
+
+    @Test
+    @DisplayName("Escritas e leituras dentro de uma transação de escrita ficam no primário")
+    public void deveManterEscritasNoPrimario() throws Exception {
+        long a = dataSource.getConexoesReplica(0);
+        long b = dataSource.getConexoesReplica(1);
+        long primario = dataSource.getConexoesPrimario();
+
+        contaUseCase.depositar(1L, Dinheiro.de("5.00"));
+        List<Conta> naTransacao = transactionTemplate.execute(status -> contaUseCase.listar());
+
+        Assertions.assertEquals(Dinheiro.de("15.00"), naTransacao.get(0).getSaldo());
+        Assertions.assertEquals(a, dataSource.getConexoesReplica(0));
+        Assertions.assertEquals(b, dataSource.getConexoesReplica(1));
+        Assertions.assertTrue(dataSource.getConexoesPrimario() > primario);
+        Assertions.assertEquals(Dinheiro.de("10.00"), contaUseCase.listar().get(0).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Depois de escrever, o mesmo cliente lê do primário durante a janela configurada")
+    public void deveLerAsPropriasEscritas() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/contas/depositar").header("X-Cliente", "ana")
+                        .param("id", "1").param("valor", "5.00"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        Assertions.assertEquals(15.0, saldoListado("ana"));
+        Assertions.assertEquals(10.0, saldoListado("bruno"));
+
+        replicar();
+        Assertions.assertEquals(15.0, saldoListado("bruno"));
+    }
+
+    @Test
+    @DisplayName("Uma réplica que recusa a conexão sai do rodízio, e sem réplicas a leitura vai ao primário")
+    public void devePularReplicaForaDoAr() throws Exception {
+        DriverManagerDataSource primario = new DriverManagerDataSource(REPLICA_A, "sa", "");
+        DriverManagerDataSource foraDoAr = new DriverManagerDataSource(FORA_DO_AR, "sa", "");
+        DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_B, "sa", "");
+        DataSourceRoteado roteado = new DataSourceRoteado(primario, List.of(foraDoAr, replica), Duration.ZERO);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            Assertions.assertEquals("jdbc:h2:mem:replicaB", url(roteado));
+            Assertions.assertEquals("jdbc:h2:mem:replicaB", url(roteado));
+            Assertions.assertFalse(roteado.isReplicaDisponivel(0));
+            Assertions.assertEquals(2, roteado.getConexoesReplica(1));
+
+            roteado.verificarReplicas();
+            Assertions.assertFalse(roteado.isReplicaDisponivel(0));
+            Assertions.assertTrue(roteado.isReplicaDisponivel(1));
+
+            DataSourceRoteado semReplicas = new DataSourceRoteado(primario, List.of(foraDoAr), Duration.ZERO);
+            Assertions.assertEquals("jdbc:h2:mem:replicaA", url(semReplicas));
+            Assertions.assertEquals(1, semReplicas.getConexoesPrimario());
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private double saldoListado(String cliente) throws Exception {
+        String corpo = mockMvc.perform(MockMvcRequestBuilders.get("/contas/listar").header("X-Cliente", cliente))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode contas = objectMapper.readTree(corpo);
+        return contas.get(0).get("saldo").asDouble();
+    }
+
+    private static String url(DataSourceRoteado dataSource) throws Exception {
+        try (Connection conexao = dataSource.getConnection()) {
+            return conexao.getMetaData().getURL();
+        }
+    }
+
+    private static List<Long> ids(List<Conta> contas) {
+        return contas.stream().map(Conta::getId).toList();
+    }
+
+    /**
+     * Faz o papel da replicação: copia o banco primário inteiro para as duas réplicas.
+     */
+    private void replicar() throws Exception {
+        File script = File.createTempFile("replica", ".sql");
+        try {
+            try (Connection conexao = dataSource.getPrimario().getConnection(); Statement comando = conexao.createStatement()) {
+                comando.execute("script to '" + script.getAbsolutePath() + "'");
+            }
+            for (String url : List.of(REPLICA_A, REPLICA_B)) {
+                try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+                     Statement comando = conexao.createStatement()) {
+                    comando.execute("drop all objects");
+                    comando.execute("runscript from '" + script.getAbsolutePath() + "'");
+                }
+            }
+        } finally {
+            script.delete();
+        }
+    }
+}
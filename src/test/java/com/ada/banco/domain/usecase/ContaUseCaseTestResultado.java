@@ -0,0 +1,98 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.exception.ContaNaoExisteException;
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.exception.ValorInvalidoException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ErroOperacao;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabaseFake;
+import com.ada.banco.infra.gateway.http.EmailGatewayHttpFake;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ContaUseCaseTestResultado {
+    private static final Long ORIGEM = 7001L;
+    private static final Long DESTINO = 7002L;
+
+    private ContaUseCase contaUseCase;
+    private ContaGatewayDatabaseFake contaGateway;
+
+    @BeforeEach
+    public void setUp() {
+        contaGateway = new ContaGatewayDatabaseFake();
+        contaUseCase = new ContaUseCase(contaGateway, new EmailGatewayHttpFake(), new GeradorCodigoOperacao(0));
+        contaGateway.salvar(new Conta(ORIGEM, 1L, 1L, Dinheiro.de("10.00"), "Origem", "111"));
+        contaGateway.salvar(new Conta(DESTINO, 1L, 1L, Dinheiro.ZERO, "Destino", "222"));
+    }
+
+    @AfterEach
+    public void limpar() {
+        ContaGatewayDatabaseFake.contaRepositoryFake.remove(ORIGEM);
+        ContaGatewayDatabaseFake.contaRepositoryFake.remove(DESTINO);
+    }
+
+    @Test
+    @DisplayName("Recusas voltam como Resultado, sem exceção, com a mesma mensagem de antes")
+    public void deveDevolverRecusaComoResultado() {
+        Resultado<Long> semSaldo = contaUseCase.tentarTransferir(ORIGEM, DESTINO, Dinheiro.de("50.00"));
+        Resultado<Dinheiro> semConta = contaUseCase.tentarSacar(99L, Dinheiro.de("1.00"));
+        Resultado<Conta> diferentes = contaUseCase.tentarAtualizar(ORIGEM, new Conta(DESTINO, 1L, 1L, Dinheiro.ZERO, "X", "111"));
+
+        Assertions.assertEquals(ErroOperacao.SALDO_INSUFICIENTE, semSaldo.getErro());
+        Assertions.assertEquals("A conta com ID: " + ORIGEM + " não possui o saldo para saque", semSaldo.getMensagem());
+        Assertions.assertEquals(ErroOperacao.CONTA_NAO_EXISTE, semConta.getErro());
+        Assertions.assertEquals("A conta com ID: 99 não existe", semConta.getMensagem());
+        Assertions.assertEquals(ErroOperacao.CONTAS_DIFERENTES, diferentes.getErro());
+        Assertions.assertEquals(ErroOperacao.CPF_NAO_EXISTE, contaUseCase.tentarListarPorCpf("999").getErro());
+
+        Resultado<Long> realizada = contaUseCase.tentarTransferir(ORIGEM, DESTINO, Dinheiro.de("4.00"));
+        Assertions.assertTrue(realizada.isSucesso());
+        Assertions.assertNotNull(realizada.getValor());
+        Assertions.assertEquals(Dinheiro.de("4.00"), contaGateway.buscarPorId(DESTINO).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Transferência sem valor, zerada ou negativa é recusada sem chegar ao gateway")
+    public void deveRecusarTransferenciaSemValorPositivo() {
+        Assertions.assertEquals(ErroOperacao.VALOR_INVALIDO, contaUseCase.tentarTransferir(ORIGEM, DESTINO, null).getErro());
+        Assertions.assertEquals(ErroOperacao.VALOR_INVALIDO, contaUseCase.tentarTransferir(ORIGEM, DESTINO, Dinheiro.ZERO).getErro());
+        Resultado<Long> negativa = contaUseCase.tentarTransferir(ORIGEM, DESTINO, Dinheiro.de("-5.00"));
+        Assertions.assertEquals(ErroOperacao.VALOR_INVALIDO, negativa.getErro());
+        ValorInvalidoException e = Assertions.assertThrows(ValorInvalidoException.class,
+                () -> contaUseCase.transferir(DESTINO, ORIGEM, Dinheiro.de("-5.00")));
+        Assertions.assertEquals(0, e.getStackTrace().length);
+        Assertions.assertEquals("Valor monetário inválido: -5.00", e.getMessage());
+        Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.transferir(ORIGEM, 99L, Dinheiro.ZERO));
+
+        Assertions.assertEquals(Dinheiro.de("10.00"), contaGateway.buscarPorId(ORIGEM).getSaldo());
+        Assertions.assertEquals(Dinheiro.ZERO, contaGateway.buscarPorId(DESTINO).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Depósito e saque sem valor, zerado ou negativo são recusados sem chegar ao gateway")
+    public void deveRecusarDepositoESaqueSemValorPositivo() {
+        Assertions.assertEquals(ErroOperacao.VALOR_INVALIDO, contaUseCase.tentarDepositar(ORIGEM, null).getErro());
+        Assertions.assertEquals(ErroOperacao.VALOR_INVALIDO, contaUseCase.tentarDepositar(ORIGEM, Dinheiro.de("-5.00")).getErro());
+        Assertions.assertEquals(ErroOperacao.VALOR_INVALIDO, contaUseCase.tentarSacar(ORIGEM, Dinheiro.ZERO).getErro());
+        Assertions.assertThrows(ValorInvalidoException.class, () -> contaUseCase.sacar(ORIGEM, Dinheiro.de("-5.00")));
+        Assertions.assertEquals(ErroOperacao.CONTA_NAO_EXISTE, contaUseCase.tentarSacar(99L, Dinheiro.de("-5.00")).getErro());
+
+        Assertions.assertEquals(Dinheiro.de("10.00"), contaGateway.buscarPorId(ORIGEM).getSaldo());
+    }
+
+    @Test
+    @DisplayName("As exceções de negócio não carregam pilha")
+    public void deveLancarExcecaoSemPilha() {
+        ContaSaldoInsuficienteException e = Assertions.assertThrows(ContaSaldoInsuficienteException.class,
+                () -> contaUseCase.sacar(ORIGEM, Dinheiro.de("50.00")));
+
+        Assertions.assertEquals(0, e.getStackTrace().length);
+        Assertions.assertEquals(ErroOperacao.SALDO_INSUFICIENTE, e.getErro());
+        Assertions.assertEquals("A conta com ID: " + ORIGEM + " não possui o saldo para saque", e.getMessage());
+    }
+}
@@ -0,0 +1,209 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ResumoAgencia;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.bd.GravadorResumoAgencias;
+import com.ada.banco.infra.gateway.bd.ResumoAgenciaRepository;
+import com.ada.banco.infra.gateway.bd.ResumoAgencias;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// sem o consolidador rodando, a conferência pelo banco não lê uma conta no meio de uma consolidação
+@SpringBootTest(properties = {"banco.notificacao.intervalo=3600000", "banco.resumo-agencias.gravacao.intervalo=3600000",
+        "banco.movimentacao.consolidacao.intervalo=3600000"})
+@AutoConfigureMockMvc
+public class ContaUseCaseTestResumoAgencia {
+
+    private static final int AGENCIAS = 10;
+    private static final int CONTAS = 2_000;
+    private static final int OPERACOES = 4_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private ContaJdbcRepository contaJdbcRepository;
+    @Autowired
+    private ResumoAgencias resumoAgencias;
+    @Autowired
+    private GravadorResumoAgencias gravadorResumoAgencias;
+    @Autowired
+    private ResumoAgenciaRepository resumoAgenciaRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        contaRepository.deleteAll();
+        contaGateway.carregarResumoAgencias();
+    }
+
+    @Test
+    @DisplayName("Cada escrita atualiza quantidade, soma, mínimo e máximo da agência")
+    public void deveAtualizarAoMovimentar() throws Exception {
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Um", "111"));
+        contaGateway.salvar(new Conta(2L, 1L, 1L, Dinheiro.de("50.00"), "Dois", "222"));
+        contaGateway.salvar(new Conta(3L, 2L, 1L, Dinheiro.de("5.00"), "Tres", "333"));
+
+        contaUseCase.depositar(1L, Dinheiro.de("1.00"));
+        contaUseCase.sacar(2L, Dinheiro.de("45.00"));
+        contaUseCase.transferir(3L, 1L, Dinheiro.de("2.00"));
+        contaGateway.transferirEmLote(List.of(new Transferencia(1L, 3L, Dinheiro.de("0.50")),
+                new Transferencia(2L, 3L, Dinheiro.de("999.00"))));
+
+        conferirComBanco(1L);
+        conferirComBanco(2L);
+        ResumoAgencia agencia1 = contaUseCase.tentarResumirAgencia(1L).getValor();
+        Assertions.assertEquals(2, agencia1.getContas());
+        Assertions.assertEquals(Dinheiro.de("17.50"), agencia1.getSaldoTotal());
+        Assertions.assertEquals(Dinheiro.de("5.00"), agencia1.getSaldoMinimo());
+        Assertions.assertEquals(Dinheiro.de("12.50"), agencia1.getSaldoMaximo());
+
+        Conta mudou = contaGateway.buscarPorId(1L);
+        mudou.setAgencia(2L);
+        contaUseCase.atualizar(1L, mudou);
+        conferirComBanco(1L);
+        conferirComBanco(2L);
+        Assertions.assertEquals(1, contaUseCase.tentarResumirAgencia(1L).getValor().getContas());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/contas/agencias/2/resumo"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.contas").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.saldoTotal").value(16.0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.saldoMaximo").value(12.5));
+        mockMvc.perform(MockMvcRequestBuilders.get("/contas/agencias/99/resumo"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Uma escrita desfeita por rollback não altera o resumo")
+    public void naoDeveContarEscritaDesfeita() {
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Um", "111"));
+        ResumoAgencia antes = resumoAgencias.resumir(1L);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            contaGateway.creditar(1L, Dinheiro.de("100.00"));
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertEquals(antes.getSaldoTotal(), resumoAgencias.resumir(1L).getSaldoTotal());
+        conferirComBanco(1L);
+    }
+
+    @Test
+    @DisplayName("Os resumos são gravados na tabela e refeitos a partir das contas")
+    public void deveGravarERefazer() {
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Um", "111"));
+        contaGateway.salvar(new Conta(2L, null, 1L, Dinheiro.de("3.00"), "Sem agência", "222"));
+
+        gravadorResumoAgencias.gravar();
+        Assertions.assertEquals(Dinheiro.de("10.00"), resumoAgenciaRepository.findById(1L).orElseThrow().getSaldoTotal());
+        Assertions.assertEquals(Dinheiro.de("3.00"), resumoAgenciaRepository.findById(0L).orElseThrow().getSaldoTotal());
+
+        resumoAgencias.limpar();
+        Assertions.assertEquals(Dinheiro.de("10.00"), contaGateway.resumirAgencia(1L).getSaldoTotal());
+        contaGateway.carregarResumoAgencias();
+        conferirComBanco(1L);
+        conferirComBanco(0L);
+    }
+
+    @Test
+    @DisplayName("Escritas que chegam durante a carga, antes da conta ser lida, são aplicadas no fim dela")
+    public void deveAplicarEscritasFeitasDuranteACarga() {
+        ResumoAgencias resumo = new ResumoAgencias();
+        resumo.limpar();
+        resumo.carregar(1L, 1L, 1_000);
+        resumo.movimentar(1L, 100);
+        resumo.movimentar(2L, 500);
+        resumo.mudarAgencia(2L, 3L);
+        resumo.movimentar(2L, -200);
+        resumo.movimentar(9L, 700);
+        resumo.carregar(2L, 2L, 2_000);
+        Assertions.assertEquals(Dinheiro.de("20.00"), resumo.resumir(2L).getSaldoTotal());
+
+        resumo.marcarCarregado();
+        Assertions.assertEquals(Dinheiro.de("11.00"), resumo.resumir(1L).getSaldoTotal());
+        Assertions.assertNull(resumo.resumir(2L));
+        ResumoAgencia agencia3 = resumo.resumir(3L);
+        Assertions.assertEquals(1, agencia3.getContas());
+        Assertions.assertEquals(Dinheiro.de("23.00"), agencia3.getSaldoTotal());
+        Assertions.assertEquals(Dinheiro.de("23.00"), agencia3.getSaldoMinimo());
+
+        resumo.movimentar(2L, 100);
+        Assertions.assertEquals(Dinheiro.de("24.00"), resumo.resumir(3L).getSaldoTotal());
+    }
+
+    @Test
+    @DisplayName("Com escritas concorrentes o resumo continua igual ao calculado no banco e à soma dos saldos")
+    public void deveManterResumoComConcorrencia() throws Exception {
+        List<Conta> contas = new ArrayList<>();
+        for (long id = 1; id <= CONTAS; id++) {
+            contas.add(new Conta(id, id % AGENCIAS, 1L, Dinheiro.de("100.00"), "Titular " + id, "cpf-" + id));
+        }
+        contaGateway.criarEmLote(contas);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            tarefas.add(executor.submit(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERACOES / 8; i++) {
+                    long id = aleatorio.nextLong(1, CONTAS + 1);
+                    Dinheiro valor = Dinheiro.deCentavos(aleatorio.nextLong(1, 5_000));
+                    switch (i % 3) {
+                        case 0 -> contaGateway.creditar(id, valor);
+                        case 1 -> contaGateway.debitar(id, valor);
+                        default -> contaGateway.transferir(id, aleatorio.nextLong(1, CONTAS + 1), valor);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get();
+        }
+        executor.shutdown();
+
+        for (long agencia = 0; agencia < AGENCIAS; agencia++) {
+            conferirComBanco(agencia);
+        }
+
+        long soma = 0;
+        for (Conta conta : contaUseCase.listar()) {
+            if (conta.getAgencia() == 3L) {
+                soma += conta.getSaldo().getCentavos();
+            }
+        }
+        Assertions.assertEquals(Dinheiro.deCentavos(soma), contaGateway.resumirAgencia(3L).getSaldoTotal());
+    }
+
+    private void conferirComBanco(Long agencia) {
+        Assertions.assertEquals(contaJdbcRepository.resumirAgencia(agencia), resumoAgencias.resumir(agencia));
+    }
+}
@@ -0,0 +1,403 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.exception.ContaJaExisteException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.EtapaSaga;
+import com.ada.banco.domain.model.Movimentacao;
+import com.ada.banco.domain.model.SituacaoSaga;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.TipoMovimentacao;
+import com.ada.banco.domain.model.Transferencia;
+import com.ada.banco.infra.gateway.bd.ConsolidadorMovimentacoes;
+import com.ada.banco.infra.gateway.bd.ContaJdbcRepository;
+import com.ada.banco.infra.gateway.shard.ContaGatewayShards;
+import com.ada.banco.infra.gateway.shard.RoteadorPorAgencia;
+import com.ada.banco.infra.gateway.shard.RoteadorPorId;
+import com.ada.banco.infra.gateway.shard.RoteadorShards;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// o consolidador mudaria a quantidade de lançamentos pendentes que o teste confere, e a recuperação as sagas
+@SpringBootTest(properties = {"banco.notificacao.intervalo=3600000", "banco.movimentacao.consolidacao.intervalo=3600000",
+        "banco.shards.saga.recuperacao.intervalo=3600000",
+        "banco.shards.habilitado=true",
+        "banco.shards.urls=" + ContaUseCaseTestShards.SHARD_1 + "," + ContaUseCaseTestShards.SHARD_2,
+        "banco.shards.roteamento=agencia", "banco.shards.criar-esquema=true"})
+@AutoConfigureMockMvc
+public class ContaUseCaseTestShards {
+
+    static final String SHARD_1 = "jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1";
+    static final String SHARD_2 = "jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1";
+    private static final int AGENCIAS = 12;
+    private static final int CONTAS = 600;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayShards contaGateway;
+    @Autowired
+    private ConsolidadorMovimentacoes consolidador;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<JdbcTemplate> bancos = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        bancos.clear();
+        bancos.add(jdbcTemplate);
+        bancos.add(new JdbcTemplate(new DriverManagerDataSource(SHARD_1, "sa", "")));
+        bancos.add(new JdbcTemplate(new DriverManagerDataSource(SHARD_2, "sa", "")));
+        for (JdbcTemplate banco : bancos) {
+            banco.update("delete from conta");
+            banco.update("delete from passo_saga");
+        }
+        jdbcTemplate.update("delete from saga_transferencia");
+        contaGateway.limparLocalizacoes();
+    }
+
+    @Test
+    @DisplayName("As contas de uma agência ficam num shard só, e listagens e busca por CPF juntam todos os shards")
+    public void deveDistribuirEJuntar() throws Exception {
+        criarContas();
+
+        for (int shard = 0; shard < bancos.size(); shard++) {
+            Assertions.assertTrue(contarContas(shard) > 0, "shard " + shard + " vazio");
+        }
+        for (long agencia = 0; agencia < AGENCIAS; agencia++) {
+            int shards = 0;
+            for (JdbcTemplate banco : bancos) {
+                shards += banco.queryForObject("select count(*) from conta where agencia = ?", Long.class, agencia) > 0 ? 1 : 0;
+            }
+            Assertions.assertEquals(1, shards, "agência " + agencia);
+        }
+
+        List<Long> esperados = new ArrayList<>();
+        for (long id = 1; id <= CONTAS; id++) {
+            esperados.add(id);
+        }
+        Assertions.assertEquals(esperados, contaUseCase.listar().stream().map(Conta::getId).toList());
+
+        List<Long> percorridos = new ArrayList<>();
+        contaUseCase.percorrer(conta -> percorridos.add(conta.getId()));
+        Assertions.assertEquals(esperados, percorridos);
+
+        List<Long> paginados = new ArrayList<>();
+        Long depoisDe = null;
+        List<Conta> pagina;
+        do {
+            pagina = contaUseCase.listarPagina(depoisDe, 70);
+            pagina.forEach(conta -> paginados.add(conta.getId()));
+            depoisDe = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1).getId();
+        } while (pagina.size() == 70);
+        Assertions.assertEquals(esperados, paginados);
+
+        // o CPF se repete a cada 100 contas, então as contas dele estão em agências e shards diferentes
+        Assertions.assertEquals(List.of(7L, 107L, 207L, 307L, 407L, 507L),
+                contaUseCase.listarPorCpf("cpf-7").stream().map(Conta::getId).toList());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/contas/agencias/5/resumo"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.contas").value(CONTAS / AGENCIAS))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.saldoTotal").value(100.0 * CONTAS / AGENCIAS));
+    }
+
+    @Test
+    @DisplayName("Um id já usado em qualquer shard não é criado de novo, nem em outra agência")
+    public void deveRecusarIdRepetidoEntreShards() throws Exception {
+        contaUseCase.criar(new Conta(1L, 1L, 1L, Dinheiro.de("10.00"), "Um", "111"));
+        int shardDaConta = shardDe(1L);
+        long outraAgencia = contaEmOutroShard(shardDaConta) % AGENCIAS;
+        contaGateway.limparLocalizacoes();
+
+        Assertions.assertThrows(ContaJaExisteException.class,
+                () -> contaUseCase.criar(new Conta(1L, outraAgencia, 1L, Dinheiro.ZERO, "Outro", "222")));
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> contaGateway.salvar(new Conta(1L, outraAgencia, 1L, Dinheiro.ZERO, "Outro", "222")));
+        Assertions.assertEquals(List.of(false, true), contaGateway.criarEmLote(List.of(
+                new Conta(1L, outraAgencia, 1L, Dinheiro.ZERO, "Outro", "222"),
+                new Conta(2L, outraAgencia, 1L, Dinheiro.ZERO, "Dois", "333"))));
+        Assertions.assertEquals("Um", contaUseCase.listarPorCpf("111").get(0).getTitular());
+        Assertions.assertEquals(1, contarContas(shardDaConta));
+    }
+
+    @Test
+    @DisplayName("Transferências dentro do shard são locais; entre shards, débito e crédito vão cada um ao seu banco")
+    public void deveTransferirEntreShards() throws Exception {
+        criarContas();
+        long mesmaAgencia = 1 + AGENCIAS;
+        long outroShard = contaEmOutroShard(shardDe(1L));
+
+        long sagas = contaGateway.getTransferenciasEntreShards();
+        contaUseCase.transferir(1L, mesmaAgencia, Dinheiro.de("10.00"));
+        Assertions.assertEquals(sagas, contaGateway.getTransferenciasEntreShards());
+        contaUseCase.transferir(1L, outroShard, Dinheiro.de("30.00"));
+        Assertions.assertEquals(sagas + 1, contaGateway.getTransferenciasEntreShards());
+
+        Assertions.assertEquals(Dinheiro.de("60.00"), contaGateway.buscarPorId(1L).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("110.00"), contaGateway.buscarPorId(mesmaAgencia).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("130.00"), contaGateway.buscarPorId(outroShard).getSaldo());
+        Assertions.assertEquals(TipoMovimentacao.TRANSFERENCIA_RECEBIDA,
+                contaUseCase.tentarExtrato(outroShard, null, null, null, 1).getValor().get(0).getTipo());
+
+        Assertions.assertFalse(contaUseCase.tentarTransferir(1L, outroShard, Dinheiro.de("1000.00")).isSucesso());
+        Assertions.assertFalse(contaUseCase.tentarTransferir(1L, 99_999L, Dinheiro.de("1.00")).isSucesso());
+        Assertions.assertEquals(Dinheiro.de("60.00"), contaGateway.buscarPorId(1L).getSaldo());
+
+        List<SituacaoTransferencia> situacoes = contaGateway.transferirEmLote(List.of(
+                new Transferencia(1L, mesmaAgencia, Dinheiro.de("5.00")),
+                new Transferencia(outroShard, 1L, Dinheiro.de("7.00")),
+                new Transferencia(1L, outroShard, Dinheiro.de("500.00")),
+                new Transferencia(1L, 99_999L, Dinheiro.de("1.00"))));
+        Assertions.assertEquals(List.of(SituacaoTransferencia.REALIZADA, SituacaoTransferencia.REALIZADA,
+                SituacaoTransferencia.SALDO_INSUFICIENTE, SituacaoTransferencia.CONTA_NAO_EXISTE), situacoes);
+        Assertions.assertEquals(Dinheiro.de("62.00"), contaGateway.buscarPorId(1L).getSaldo());
+
+        long total = 0;
+        for (Conta conta : contaUseCase.listar()) {
+            total += conta.getSaldo().getCentavos();
+        }
+        Assertions.assertEquals(Dinheiro.de("100.00").getCentavos() * CONTAS, total);
+        Assertions.assertEquals(0, contaGateway.getSagasPendentes());
+        Assertions.assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from saga_transferencia where situacao = 'REALIZADA'", Long.class));
+    }
+
+    @Test
+    @DisplayName("Se o crédito no outro shard falha, o débito é estornado na origem")
+    public void deveEstornarQuandoOCreditoFalha() throws Exception {
+        criarContas();
+        long destino = contaEmOutroShard(shardDe(1L));
+        Assertions.assertNotNull(contaGateway.buscarPorId(destino));
+        // o destino já foi localizado, então some do banco entre a localização e o crédito
+        bancos.get(shardDe(destino)).update("delete from conta where id = ?", destino);
+
+        long estornos = contaGateway.getEstornos();
+        Assertions.assertFalse(contaGateway.transferir(1L, destino, Dinheiro.de("25.00")));
+
+        Assertions.assertEquals(estornos + 1, contaGateway.getEstornos());
+        Assertions.assertEquals(0, contaGateway.getEstornosFalhos());
+        Assertions.assertEquals(Dinheiro.de("100.00"), contaGateway.buscarPorId(1L).getSaldo());
+        List<Movimentacao> extrato = contaUseCase.tentarExtrato(1L, null, null, null, 10).getValor();
+        Assertions.assertEquals(List.of(TipoMovimentacao.ESTORNO, TipoMovimentacao.TRANSFERENCIA_ENVIADA),
+                extrato.stream().map(Movimentacao::getTipo).toList());
+        Assertions.assertNull(contaGateway.buscarPorId(destino));
+        Assertions.assertEquals(0, contaGateway.getSagasPendentes());
+    }
+
+    @Test
+    @DisplayName("Uma saga interrompida depois do débito é terminada pela recuperação, com crédito ou estorno")
+    public void deveRecuperarSagaInterrompida() throws Exception {
+        criarContas();
+        long origem = contaNoShard(0);
+        long destino = contaEmOutroShard(0);
+        long semDestino = destino + AGENCIAS;
+        // o processo caiu logo depois do débito, antes do crédito
+        long comCredito = debitarSemTerminar(origem, destino, Dinheiro.de("30.00"));
+        long comEstorno = debitarSemTerminar(origem, semDestino, Dinheiro.de("20.00"));
+        bancos.get(shardDe(semDestino)).update("delete from conta where id = ?", semDestino);
+        Assertions.assertEquals(Dinheiro.de("50.00"), contaGateway.buscarPorId(origem).getSaldo());
+
+        Assertions.assertEquals(0, contaGateway.recuperarSagas(), "sagas recentes ainda podem estar em andamento");
+        envelhecer(comCredito);
+        envelhecer(comEstorno);
+        Assertions.assertEquals(2, contaGateway.recuperarSagas());
+
+        Assertions.assertEquals(SituacaoSaga.REALIZADA, contaGateway.getSagas().buscar(comCredito).getSituacao());
+        Assertions.assertEquals(SituacaoSaga.ESTORNADA, contaGateway.getSagas().buscar(comEstorno).getSituacao());
+        Assertions.assertEquals(Dinheiro.de("70.00"), contaGateway.buscarPorId(origem).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("130.00"), contaGateway.buscarPorId(destino).getSaldo());
+        Assertions.assertEquals(0, contaGateway.getSagasPendentes());
+
+        // terminar de novo a mesma saga não credita duas vezes
+        jdbcTemplate.update("update saga_transferencia set situacao = 'PENDENTE' where id = ?", comCredito);
+        envelhecer(comCredito);
+        Assertions.assertEquals(1, contaGateway.recuperarSagas());
+        Assertions.assertEquals(Dinheiro.de("130.00"), contaGateway.buscarPorId(destino).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("70.00"), contaGateway.buscarPorId(origem).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Uma saga interrompida antes do débito é cancelada, e o débito atrasado não é mais aplicado")
+    public void deveCancelarSagaSemDebito() throws Exception {
+        criarContas();
+        long origem = contaNoShard(0);
+        long destino = contaEmOutroShard(0);
+        long saga = contaGateway.getSagas().iniciar(new Transferencia(origem, destino, Dinheiro.de("30.00")), 0, shardDe(destino));
+        envelhecer(saga);
+
+        Assertions.assertEquals(1, contaGateway.recuperarSagas());
+
+        Assertions.assertEquals(SituacaoSaga.CANCELADA, contaGateway.getSagas().buscar(saga).getSituacao());
+        Assertions.assertEquals(0, contaGateway.getShards().get(0).aplicarPassoSaga(saga, EtapaSaga.DEBITO, origem,
+                Dinheiro.de("30.00")));
+        Assertions.assertEquals(Dinheiro.de("100.00"), contaGateway.buscarPorId(origem).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("100.00"), contaGateway.buscarPorId(destino).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Desfazer a transação de quem chamou não desfaz só um lado da transferência entre shards")
+    public void deveManterASagaQuandoATransacaoDeForaEDesfeita() throws Exception {
+        criarContas();
+        long principal = contaNoShard(0);
+        long outroShard = contaEmOutroShard(0);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Assertions.assertTrue(contaGateway.transferir(principal, outroShard, Dinheiro.de("30.00")));
+            Assertions.assertTrue(contaGateway.transferir(outroShard, principal, Dinheiro.de("5.00")));
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertEquals(Dinheiro.de("75.00"), contaGateway.buscarPorId(principal).getSaldo());
+        Assertions.assertEquals(Dinheiro.de("125.00"), contaGateway.buscarPorId(outroShard).getSaldo());
+        long total = 0;
+        for (Conta conta : contaUseCase.listar()) {
+            total += conta.getSaldo().getCentavos();
+        }
+        Assertions.assertEquals(Dinheiro.de("100.00").getCentavos() * CONTAS, total);
+    }
+
+    @Test
+    @DisplayName("Os lançamentos pendentes dos shards extras também são consolidados")
+    public void deveConsolidarOsShards() throws Exception {
+        criarContas();
+        for (long id = 1; id <= CONTAS; id++) {
+            contaUseCase.depositar(id, Dinheiro.de("1.00"));
+        }
+        Assertions.assertTrue(pendentes(1) > 0);
+        Assertions.assertTrue(pendentes(2) > 0);
+
+        contaGateway.consolidarShards();
+        consolidador.consolidar();
+
+        for (int shard = 0; shard < bancos.size(); shard++) {
+            Assertions.assertEquals(0, pendentes(shard));
+        }
+        Assertions.assertEquals(Dinheiro.de("101.00"), contaGateway.buscarPorId(CONTAS - 1L).getSaldo());
+    }
+
+    @Test
+    @DisplayName("Roteando pelo id não há localização, e as contas se espalham por igual")
+    public void deveRotearPeloId() {
+        RoteadorShards roteador = new RoteadorPorId();
+        int[] porShard = new int[3];
+        for (long id = 1; id <= 30_000; id++) {
+            porShard[roteador.shardDoId(id, 3)]++;
+        }
+        for (int quantidade : porShard) {
+            Assertions.assertTrue(Math.abs(quantidade - 10_000) < 500, "distribuição " + List.of(porShard[0], porShard[1], porShard[2]));
+        }
+        int mudaram = 0;
+        for (long id = 1; id <= 30_000; id++) {
+            if (roteador.shardDoId(id, 3) != roteador.shardDoId(id, 4)) {
+                mudaram++;
+            }
+        }
+        // com um quarto shard, só um quarto das contas deveria mudar de lugar
+        Assertions.assertTrue(mudaram < 30_000 / 4 + 500, "mudaram " + mudaram);
+
+        ContaGatewayShards porId = new ContaGatewayShards(contaGateway.getShards(), contaGateway.getTransacoes(), roteador, consolidador,
+                contaGateway.getSagas(), 10);
+        for (long id = 1; id <= 90; id++) {
+            porId.salvar(new Conta(id, 1L, 1L, Dinheiro.de("10.00"), "Titular " + id, "cpf-" + id));
+        }
+        for (int shard = 0; shard < bancos.size(); shard++) {
+            Assertions.assertTrue(contarContas(shard) > 0);
+        }
+        Assertions.assertTrue(porId.transferir(1L, 2L, Dinheiro.de("1.00")));
+        Assertions.assertEquals(Dinheiro.de("11.00"), porId.buscarPorId(2L).getSaldo());
+        Assertions.assertEquals(90, porId.listar().size());
+    }
+
+    /**
+     * Conta {@code id} na agência {@code id % AGENCIAS}, com R$ 100,00 e um CPF que se repete a cada 100 contas.
+     */
+    private void criarContas() {
+        List<Conta> contas = new ArrayList<>();
+        for (long id = 1; id <= CONTAS; id++) {
+            contas.add(new Conta(id, id % AGENCIAS, 1L, Dinheiro.de("100.00"), "Titular " + id, "cpf-" + id % 100));
+        }
+        Assertions.assertFalse(contaGateway.criarEmLote(contas).contains(false));
+    }
+
+    private int shardDe(long id) {
+        for (int shard = 0; shard < bancos.size(); shard++) {
+            if (bancos.get(shard).queryForObject("select count(*) from conta where id = ?", Long.class, id) > 0) {
+                return shard;
+            }
+        }
+        throw new IllegalStateException("conta " + id + " não está em nenhum shard");
+    }
+
+    /**
+     * Uma das contas criadas por {@link #criarContas()} (ids de 1 a {@code AGENCIAS}) que fica fora do shard informado.
+     */
+    private long contaEmOutroShard(int shard) {
+        RoteadorShards roteador = new RoteadorPorAgencia();
+        for (long id = 1; id <= AGENCIAS; id++) {
+            if (roteador.shardDe(new Conta(id, id % AGENCIAS, 1L, null, null, null), bancos.size()) != shard) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("todas as agências no shard " + shard);
+    }
+
+    /**
+     * Uma das contas criadas por {@link #criarContas()} (ids de 1 a {@code AGENCIAS}) que fica no shard informado.
+     */
+    private long contaNoShard(int shard) {
+        RoteadorShards roteador = new RoteadorPorAgencia();
+        for (long id = 1; id <= AGENCIAS; id++) {
+            if (roteador.shardDe(new Conta(id, id % AGENCIAS, 1L, null, null, null), bancos.size()) == shard) {
+                return id;
+            }
+        }
+        throw new IllegalStateException("nenhuma agência no shard " + shard);
+    }
+
+    /**
+     * Registra a saga e aplica só o débito, como se o processo tivesse caído em seguida.
+     */
+    private long debitarSemTerminar(long origem, long destino, Dinheiro valor) {
+        int shardOrigem = shardDe(origem);
+        long saga = contaGateway.getSagas().iniciar(new Transferencia(origem, destino, valor), shardOrigem, shardDe(destino));
+        ContaJdbcRepository repositorio = contaGateway.getShards().get(shardOrigem);
+        Assertions.assertEquals(1, repositorio.aplicarPassoSaga(saga, EtapaSaga.DEBITO, origem, valor));
+        return saga;
+    }
+
+    private void envelhecer(long saga) {
+        jdbcTemplate.update("update saga_transferencia set atualizada_em = ? where id = ?",
+                Timestamp.from(Instant.now().minusSeconds(3600)), saga);
+    }
+
+    private long contarContas(int shard) {
+        return bancos.get(shard).queryForObject("select count(*) from conta", Long.class);
+    }
+
+    private long pendentes(int shard) {
+        return bancos.get(shard).queryForObject("select count(*) from movimentacao where consolidada = false", Long.class);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.BancoApplication;
+import com.ada.banco.domain.gateway.ContaGateway;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.infra.threads.DataSourceLimitado;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sobe a aplicação com virtual threads e dispara {@value #CLIENTES} clientes simultâneos contra ela.
+ * A comparação de vazão e latência com threads de plataforma fica no ThreadsVirtuaisBenchmark.
+ */
+public class ContaUseCaseTestThreadsVirtuais {
+
+    private static final int CLIENTES = 200;
+    private static final int REQUISICOES_POR_CLIENTE = 2;
+    private static final int QUANTIDADE_CONTAS = 100;
+
+    @Test
+    @DisplayName("Com virtual threads, clientes simultâneos são atendidos sem passar do limite de conexões")
+    public void deveAtenderClientesSimultaneosComVirtualThreads() throws Exception {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(BancoApplication.class)
+                .run("--server.port=0",
+                        "--banco.threads-virtuais.habilitado=true",
+                        "--banco.notificacao.intervalo=3600000")) {
+            ContaGateway contaGateway = contexto.getBean(ContaGateway.class);
+            for (long id = 1; id <= QUANTIDADE_CONTAS; id++) {
+                contaGateway.salvar(new Conta(id, 1L, 1L, Dinheiro.de("1000000.00"), "Titular " + id, "cpf-" + id));
+            }
+            int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+
+            Assertions.assertEquals(0, disparar("http://localhost:" + porta));
+
+            DataSourceLimitado limitado = (DataSourceLimitado) contexto.getBean(DataSource.class);
+            Assertions.assertTrue(limitado.getMaximoEmUso() > 0);
+            Assertions.assertTrue(limitado.getMaximoEmUso() <= limitado.getPermissoes());
+        }
+    }
+
+    @Test
+    @DisplayName("Sem conexão liberada dentro da espera, o pedido falha em vez de esperar para sempre")
+    public void deveDesistirDeEsperarPorConexao() throws Exception {
+        DataSourceLimitado limitado = new DataSourceLimitado(
+                new DriverManagerDataSource("jdbc:h2:mem:limitado", "sa", ""), 1, 50);
+        try (Connection ocupada = limitado.getConnection()) {
+            Assertions.assertThrows(SQLTransientConnectionException.class, limitado::getConnection);
+        }
+        try (Connection liberada = limitado.getConnection()) {
+            Assertions.assertTrue(liberada.isValid(1));
+        }
+        Assertions.assertEquals(1, limitado.getMaximoEmUso());
+    }
+
+    /**
+     * @return quantas requisições não responderam 200
+     */
+    private int disparar(String base) throws Exception {
+        AtomicInteger falhas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            List<Future<?>> tarefas = new ArrayList<>(CLIENTES);
+            for (int c = 0; c < CLIENTES; c++) {
+                tarefas.add(clientes.submit(() -> {
+                    largada.await();
+                    for (int r = 0; r < REQUISICOES_POR_CLIENTE; r++) {
+                        HttpResponse<String> resposta = http.send(requisicao(base, r), HttpResponse.BodyHandlers.ofString());
+                        if (resposta.statusCode() != 200) {
+                            falhas.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+            return falhas.get();
+        }
+    }
+
+    private static HttpRequest requisicao(String base, int ordem) {
+        ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+        long idOut = aleatorio.nextLong(1, QUANTIDADE_CONTAS + 1);
+        if (ordem % 2 == 0) {
+            long idIn = idOut % QUANTIDADE_CONTAS + 1;
+            return HttpRequest.newBuilder(URI.create(base + "/contas/transferir?idOut=" + idOut + "&idIn=" + idIn + "&valor=1.00"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/contas/listar/cpf-" + idOut)).GET().build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ada.banco.domain.usecase;
+
+import com.ada.banco.domain.exception.ConflitoVersaoException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.model.ErroOperacao;
+import com.ada.banco.domain.model.Resultado;
+import com.ada.banco.infra.gateway.bd.ContaGatewayDatabase;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.cache.ContaGatewayCache;
+import com.ada.banco.infra.gateway.http.EmailGatewayHttpFake;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(properties = "banco.notificacao.intervalo=3600000")
+public class ContaUseCaseTestVersao {
+
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayDatabase contaGateway;
+    @Autowired
+    private GeradorCodigoOperacao geradorCodigoOperacao;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        contaRepository.deleteAll();
+        contaGateway.salvar(new Conta(1L, 1L, 1L, Dinheiro.de("50.00"), "Titular", "111"));
+    }
+
+    @Test
+    @DisplayName("Atualizar com uma versão antiga é recusado em vez de sobrescrever")
+    public void deveRecusarVersaoAntiga() {
+        Conta lida = contaGateway.buscarPorId(1L);
+        Conta outra = contaGateway.buscarPorId(1L);
+
+        lida.setTitular("Primeira");
+        Assertions.assertTrue(contaUseCase.tentarAtualizar(1L, lida).isSucesso());
+
+        outra.setTitular("Segunda");
+        Resultado<Conta> resultado = contaUseCase.tentarAtualizar(1L, outra);
+        Assertions.assertEquals(ErroOperacao.CONFLITO_VERSAO, resultado.getErro());
+        Assertions.assertThrows(ConflitoVersaoException.class, () -> contaGateway.atualizar(outra));
+
+        Conta atual = contaGateway.buscarPorId(1L);
+        Assertions.assertEquals("Primeira", atual.getTitular());
+        Assertions.assertEquals(lida.getVersao(), atual.getVersao());
+        Assertions.assertEquals(Dinheiro.de("50.00"), atual.getSaldo());
+    }
+
+    @Test
+    @DisplayName("Com o cache de contas, a versão lida do cache também recusa a atualização antiga")
+    public void deveRecusarVersaoAntigaComCache() {
+        ContaGatewayCache cache = new ContaGatewayCache(contaGateway, 100, Duration.ofMinutes(1));
+        ContaUseCase comCache = new ContaUseCase(cache, new EmailGatewayHttpFake(), geradorCodigoOperacao);
+        Conta lida = cache.buscarPorId(1L);
+        Conta outra = cache.buscarPorId(1L);
+        Assertions.assertNotNull(outra.getVersao());
+
+        lida.setTitular("Primeira");
+        Assertions.assertTrue(comCache.tentarAtualizar(1L, lida).isSucesso());
+
+        outra.setTitular("Segunda");
+        Assertions.assertEquals(ErroOperacao.CONFLITO_VERSAO, comCache.tentarAtualizar(1L, outra).getErro());
+        Assertions.assertEquals("Primeira", cache.buscarPorId(1L).getTitular());
+        Assertions.assertEquals(lida.getVersao(), cache.buscarPorId(1L).getVersao());
+    }
+
+    @Test
+    @DisplayName("Salvar uma conta com um id que já existe não sobrescreve a existente")
+    public void naoDeveSobrescreverAoSalvar() {
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> contaGateway.salvar(new Conta(1L, 9L, 9L, Dinheiro.ZERO, "Outro", "999")));
+        Assertions.assertEquals("Titular", contaGateway.buscarPorId(1L).getTitular());
+    }
+
+    @Test
+    @DisplayName("Atualizações simultâneas sem versão são todas aplicadas, uma de cada vez")
+    public void deveAplicarAtualizacoesSimultaneas() throws Exception {
+        int threads = 8;
+        long versaoInicial = contaGateway.buscarPorId(1L).getVersao();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Resultado<Conta>>> resultados = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long agencia = i;
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                return contaUseCase.tentarAtualizar(1L, new Conta(1L, agencia, 1L, null, "Titular", "111"));
+            }));
+        }
+        largada.countDown();
+        for (Future<Resultado<Conta>> resultado : resultados) {
+            Assertions.assertTrue(resultado.get().isSucesso());
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(versaoInicial + threads, contaGateway.buscarPorId(1L).getVersao());
+        Assertions.assertTrue(registry.get("banco.conflito.operacoes").functionCounter().count() >= threads);
+    }
+
+    @Test
+    @DisplayName("Conflitos são tentados de novo com espera, até o limite de tentativas")
+    public void deveRepetirAteOLimite() {
+        RetentativaConflito retentativa = new RetentativaConflito(3, Duration.ofMillis(1), Duration.ofMillis(4));
+        AtomicInteger chamadas = new AtomicInteger();
+
+        String valor = retentativa.executar(() -> {
+            if (chamadas.incrementAndGet() < 3) {
+                throw new ConflitoVersaoException(1L);
+            }
+            return "ok";
+        });
+        Assertions.assertEquals("ok", valor);
+
+        Assertions.assertThrows(ConflitoVersaoException.class, () -> retentativa.executar(() -> {
+            throw new ConflitoVersaoException(1L);
+        }));
+
+        Assertions.assertEquals(2, retentativa.getOperacoes());
+        Assertions.assertEquals(5, retentativa.getConflitos());
+        Assertions.assertEquals(4, retentativa.getRetentativas());
+        Assertions.assertEquals(1, retentativa.getEsgotadas());
+    }
+}
@@ -1,5 +1,6 @@
 package com.ada.banco.infra.controller;
 
+import com.ada.banco.domain.model.Dinheiro;
 import com.ada.banco.domain.gateway.ContaGateway;
 import com.ada.banco.domain.model.Conta;
 import com.ada.banco.domain.usecase.ContaUseCase;
@@ -17,7 +18,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 @SpringBootTest
@@ -44,7 +45,7 @@ public class ContaControllerTest {
     @BeforeEach
     void beforeEach() {
         contaRepository.deleteAll();
-        contaTest = new Conta(1L, 2L, 3L, BigDecimal.valueOf(0,2), "Luiz Teste", "000.000.000-00");
+        contaTest = new Conta(1L, 2L, 3L, Dinheiro.ZERO, "Luiz Teste", "000.000.000-00");
     }
 
     @Test
@@ -93,9 +94,9 @@ public class ContaControllerTest {
     @Test
     @DisplayName("Lista contas com mesmo CPF")
     void deveListarContasComMesmoCPF() throws Exception {
-        Conta conta = new Conta(2L, 2L, 3L, BigDecimal.ZERO, "Pedro", "123.456.789-00");
-        Conta conta1 = new Conta(3L, 2L, 3L, BigDecimal.ZERO, "Pedro", "123.456.789-00");
-        Conta conta2 = new Conta(4L, 2L, 4L, BigDecimal.ZERO, "João", "123.456.789-01");
+        Conta conta = new Conta(2L, 2L, 3L, Dinheiro.ZERO, "Pedro", "123.456.789-00");
+        Conta conta1 = new Conta(3L, 2L, 3L, Dinheiro.ZERO, "Pedro", "123.456.789-00");
+        Conta conta2 = new Conta(4L, 2L, 4L, Dinheiro.ZERO, "João", "123.456.789-01");
 
         // when
         contaController.criarConta(contaTest);
@@ -113,9 +114,9 @@ public class ContaControllerTest {
     @Test
     @DisplayName("Listar todas as contas")
     void deveListarTodasAsContas() throws Exception {
-        Conta conta = new Conta(2L, 2L, 3L, BigDecimal.ZERO, "Pedro", "123.456.789-00");
-        Conta conta1 = new Conta(3L, 2L, 3L, BigDecimal.ZERO, "Pedro", "123.456.789-00");
-        Conta conta2 = new Conta(4L, 2L, 4L, BigDecimal.ZERO, "João", "123.456.789-01");
+        Conta conta = new Conta(2L, 2L, 3L, Dinheiro.ZERO, "Pedro", "123.456.789-00");
+        Conta conta1 = new Conta(3L, 2L, 3L, Dinheiro.ZERO, "Pedro", "123.456.789-00");
+        Conta conta2 = new Conta(4L, 2L, 4L, Dinheiro.ZERO, "João", "123.456.789-01");
 
         // when
         contaController.criarConta(contaTest);
@@ -134,6 +135,66 @@ public class ContaControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[3].titular").value(conta2.getTitular()));
     }
 
+    @Test
+    @DisplayName("Listar contas por página")
+    void deveListarContasPorPagina() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            contaController.criarConta(new Conta(id, 2L, 3L, Dinheiro.ZERO, "Titular " + id, "123.456.789-00"));
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/contas/listar")
+                        .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Proximo-After", "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/contas/listar")
+                        .param("after", "4")
+                        .param("limit", "2"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Proximo-After"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(5));
+    }
+
+    @Test
+    @DisplayName("Listar contas com limite acima do máximo ainda indica a próxima página")
+    void deveIndicarProximaPaginaQuandoLimiteEhReduzido() throws Exception {
+        List<Conta> contas = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            contas.add(new Conta(id, 2L, 3L, Dinheiro.ZERO, "Titular " + id, "123.456.789-00"));
+        }
+        contaGateway.criarEmLote(contas);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/contas/listar")
+                        .param("limit", "5000"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Proximo-After", "1000"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1000));
+    }
+
+    @Test
+    @DisplayName("Listar contas em NDJSON")
+    void deveListarContasEmNdjson() throws Exception {
+        contaController.criarConta(contaTest);
+        contaController.criarConta(new Conta(2L, 2L, 3L, Dinheiro.ZERO, "Pedro", "123.456.789-00"));
+
+        String corpo = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/contas/listar/stream"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] linhas = corpo.split("\n");
+        Assertions.assertEquals(2, linhas.length);
+        Assertions.assertEquals(contaTest, objectMapper.readValue(linhas[0], Conta.class));
+        Assertions.assertEquals("Pedro", objectMapper.readValue(linhas[1], Conta.class).getTitular());
+    }
+
     @Test
     @DisplayName("Exception não achou conta")
     void deveLancarExceptionAoNaoLocalizarConta() throws Exception{
@@ -183,7 +244,7 @@ public class ContaControllerTest {
     @Test
     @DisplayName("Falha ao atualizar uma conta indexistente")
     void deveRetornarNotFoundQuandoContaNaoExiste() throws Exception {
-        Conta contaAtualizada = new Conta(99L, 2L, 3L, BigDecimal.valueOf(1000), "Conta Inexistente", "000.000.000-00");
+        Conta contaAtualizada = new Conta(99L, 2L, 3L, Dinheiro.de("1000"), "Conta Inexistente", "000.000.000-00");
 
         String requestBody = objectMapper.writeValueAsString(contaAtualizada);
 
@@ -214,14 +275,14 @@ public class ContaControllerTest {
     @Test
     @DisplayName("Transferir valor entre contas com sucesso")
     void deveTransferirValorEntreContas() throws Exception {
-        contaTest.setSaldo(BigDecimal.valueOf(1000.25));
+        contaTest.setSaldo(Dinheiro.de("1000.25"));
         contaController.criarConta(contaTest);
         Conta contaOrigem = contaGateway.buscarPorId(1L);
 
-        Conta contaDestino = new Conta(2L, 2L, 2L, BigDecimal.valueOf(500.72), "Conta Destino", "222.222.222-22");
+        Conta contaDestino = new Conta(2L, 2L, 2L, Dinheiro.de("500.72"), "Conta Destino", "222.222.222-22");
         contaController.criarConta(contaDestino);
 
-        BigDecimal valorTransferencia = BigDecimal.valueOf(200);
+        Dinheiro valorTransferencia = Dinheiro.de("200");
 
         mockMvc.perform(MockMvcRequestBuilders
                         .put("/contas/transferir")
@@ -235,20 +296,20 @@ public class ContaControllerTest {
         Conta contaOrigemAtualizada = contaGateway.buscarPorId(contaOrigem.getId());
         Conta contaDestinoAtualizada = contaGateway.buscarPorId(contaDestino.getId());
 
-        Assertions.assertEquals(BigDecimal.valueOf(800.25), contaOrigemAtualizada.getSaldo());
-        Assertions.assertEquals(BigDecimal.valueOf(700.72), contaDestinoAtualizada.getSaldo());
+        Assertions.assertEquals(Dinheiro.de("800.25"), contaOrigemAtualizada.getSaldo());
+        Assertions.assertEquals(Dinheiro.de("700.72"), contaDestinoAtualizada.getSaldo());
     }
 
     @Test
     @DisplayName("Falha ao não localizar uma conta para Transferência")
     void deveRetornarNotFoundQuandoTransferenciaNaoExiste() throws Exception {
 
-        contaTest.setSaldo(BigDecimal.valueOf(2000));
+        contaTest.setSaldo(Dinheiro.de("2000"));
         contaController.criarConta(contaTest);
 
         Long idContaInexistente = 9999L;
         Long idContaExistente = contaGateway.buscarPorId(contaTest.getId()).getId();
-        BigDecimal valorTransferencia = BigDecimal.valueOf(100);
+        Dinheiro valorTransferencia = Dinheiro.de("100");
 
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -276,7 +337,7 @@ public class ContaControllerTest {
     @DisplayName("Falha ao não possuir saldo para Transferência")
     void deveRetornarBadRequestQuandoSaldoInsuficienteTransferencia() throws Exception {
 
-        contaTest.setSaldo(BigDecimal.valueOf(1000));
+        contaTest.setSaldo(Dinheiro.de("1000"));
         contaController.criarConta(contaTest);
 
         contaTest.setId(2L);
@@ -285,7 +346,7 @@ public class ContaControllerTest {
         Conta contaOrigem = contaGateway.buscarPorId(1L);
         Conta contaDestino = contaGateway.buscarPorId(2L);
 
-        BigDecimal valorTransferencia = BigDecimal.valueOf(2000);
+        Dinheiro valorTransferencia = Dinheiro.de("2000");
 
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -299,4 +360,37 @@ public class ContaControllerTest {
 
 
     }
+
+    @Test
+    @DisplayName("Transferir em lote devolve um resultado por linha, numerada como no corpo")
+    void deveTransferirEmLote() throws Exception {
+        contaTest.setSaldo(Dinheiro.de("100"));
+        contaController.criarConta(contaTest);
+        Conta contaDestino = new Conta(2L, 2L, 2L, Dinheiro.de("0"), "Conta Destino", "222.222.222-22");
+        contaController.criarConta(contaDestino);
+
+        String corpo = """
+                {"idOut":1,"idIn":2,"valor":60}
+                {"idOut":1,"idIn":2,"valor":60}
+                {"idOut":1,"idIn":99,"valor":10}
+
+                linha quebrada
+                {"idOut":1,"idIn":2,"valor":40}
+                """;
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/contas/transferir/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(corpo))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(org.hamcrest.Matchers.stringContainsInOrder(
+                        "\"linha\":1,\"situacao\":\"REALIZADA\"",
+                        "\"linha\":2,\"situacao\":\"SALDO_INSUFICIENTE\"",
+                        "\"linha\":3,\"situacao\":\"CONTA_NAO_EXISTE\"",
+                        "\"linha\":5,\"situacao\":\"INVALIDA\"",
+                        "\"linha\":6,\"situacao\":\"REALIZADA\"")));
+
+        Assertions.assertEquals(0, Dinheiro.ZERO.compareTo(contaGateway.buscarPorId(1L).getSaldo()));
+        Assertions.assertEquals(0, Dinheiro.de("100").compareTo(contaGateway.buscarPorId(2L).getSaldo()));
+    }
 }
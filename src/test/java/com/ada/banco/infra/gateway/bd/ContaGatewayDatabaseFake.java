@@ -1,16 +1,21 @@
 package com.ada.banco.infra.gateway.bd;
 
+import com.ada.banco.domain.model.Dinheiro;
 import com.ada.banco.domain.gateway.ContaGateway;
 import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.SituacaoTransferencia;
+import com.ada.banco.domain.model.Transferencia;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class ContaGatewayDatabaseFake implements ContaGateway {
 
-    public static Map<Long, Conta> contaRepositoryFake = new HashMap<>();
+    public static Map<Long, Conta> contaRepositoryFake = new ConcurrentHashMap<>();
 
 
     @Override
@@ -45,4 +50,67 @@ public class ContaGatewayDatabaseFake implements ContaGateway {
         }
         return contas;
     }
+
+    @Override
+    public List<Conta> listarPagina(Long depoisDe, int limite) {
+        return contaRepositoryFake.values().stream()
+                .filter(conta -> depoisDe == null || conta.getId() > depoisDe)
+                .sorted(Comparator.comparing(Conta::getId))
+                .limit(limite)
+                .toList();
+    }
+
+    @Override
+    public void percorrer(Consumer<Conta> consumidor) {
+        contaRepositoryFake.values().stream()
+                .sorted(Comparator.comparing(Conta::getId))
+                .forEach(consumidor);
+    }
+
+    @Override
+    public synchronized int debitar(Long id, Dinheiro valor) {
+        Conta conta = contaRepositoryFake.get(id);
+        if (conta == null || conta.getSaldo().isMenorQue(valor)) {
+            return 0;
+        }
+        conta.setSaldo(conta.getSaldo().subtrair(valor));
+        return 1;
+    }
+
+    @Override
+    public synchronized int creditar(Long id, Dinheiro valor) {
+        Conta conta = contaRepositoryFake.get(id);
+        if (conta == null) {
+            return 0;
+        }
+        conta.setSaldo(conta.getSaldo().somar(valor));
+        return 1;
+    }
+
+    @Override
+    public synchronized boolean transferir(Long idOut, Long idIn, Dinheiro valor) {
+        Conta contaOut = contaRepositoryFake.get(idOut);
+        Conta contaIn = contaRepositoryFake.get(idIn);
+        if (contaOut == null || contaIn == null || contaOut.getSaldo().isMenorQue(valor)) {
+            return false;
+        }
+        contaOut.setSaldo(contaOut.getSaldo().subtrair(valor));
+        contaIn.setSaldo(contaIn.getSaldo().somar(valor));
+        return true;
+    }
+
+    @Override
+    public List<SituacaoTransferencia> transferirEmLote(List<Transferencia> transferencias) {
+        List<SituacaoTransferencia> situacoes = new ArrayList<>();
+        for (Transferencia transferencia : transferencias) {
+            if (transferir(transferencia.getIdOut(), transferencia.getIdIn(), transferencia.getValor())) {
+                situacoes.add(SituacaoTransferencia.REALIZADA);
+            } else if (buscarPorId(transferencia.getIdOut()) == null || buscarPorId(transferencia.getIdIn()) == null) {
+                situacoes.add(SituacaoTransferencia.CONTA_NAO_EXISTE);
+            } else {
+                situacoes.add(SituacaoTransferencia.SALDO_INSUFICIENTE);
+            }
+        }
+        return situacoes;
+    }
 }
@@ -0,0 +1,72 @@
+package com.ada.banco.infra.metricas;
+
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.exception.ContaNaoExisteException;
+import com.ada.banco.domain.exception.ContaSaldoInsuficienteException;
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricasAspectTest {
+
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    public void limpar() {
+        contaRepository.deleteAll();
+    }
+
+    @Test
+    public void deveSepararResultadosPorExcecao() throws Exception {
+        contaUseCase.criar(new Conta(900L, 1L, 1L, Dinheiro.de("10.00"), "Teste", "900"));
+
+        contaUseCase.sacar(900L, Dinheiro.de("1.00"));
+        Assertions.assertThrows(ContaSaldoInsuficienteException.class, () -> contaUseCase.sacar(900L, Dinheiro.de("10.00")));
+        Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.sacar(901L, Dinheiro.de("1.00")));
+
+        Assertions.assertEquals(1, timer("banco.usecase", "sacar", MetricasAspect.SUCESSO).count());
+        Assertions.assertEquals(1, timer("banco.usecase", "sacar", "ContaSaldoInsuficienteException").count());
+        Assertions.assertEquals(1, timer("banco.usecase", "sacar", "ContaNaoExisteException").count());
+        Assertions.assertTrue(timer("banco.gateway", "debitar", MetricasAspect.SUCESSO).count() >= 3);
+        Assertions.assertEquals(1, timer("banco.gateway", "send", MetricasAspect.SUCESSO).count());
+    }
+
+    @Test
+    public void deveExporHistogramaNoEndpointPrometheus() throws Exception {
+        Assertions.assertThrows(ContaNaoExisteException.class, () -> contaUseCase.depositar(902L, Dinheiro.de("1.00")));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(containsString(
+                        "banco_usecase_seconds_bucket{classe=\"ContaUseCase\",metodo=\"depositar\",resultado=\"ContaNaoExisteException\"")));
+    }
+
+    private Timer timer(String nome, String metodo, String resultado) {
+        return registry.get(nome).tag("metodo", metodo).tag("resultado", resultado).timer();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ada.banco.infra.metricas;
+
+import com.ada.banco.domain.model.Conta;
+import com.ada.banco.domain.model.Dinheiro;
+import com.ada.banco.domain.usecase.ContaUseCase;
+import com.ada.banco.infra.gateway.bd.ContaRepository;
+import com.ada.banco.infra.gateway.cache.ContaGatewayCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest(properties = "banco.cache.contas.habilitado=true")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricasCachesTest {
+
+    @Autowired
+    private ContaUseCase contaUseCase;
+    @Autowired
+    private ContaGatewayCache contaGatewayCache;
+    @Autowired
+    private ContaRepository contaRepository;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    public void limpar() {
+        contaRepository.deleteAll();
+    }
+
+    @Test
+    public void deveExporOsCachesNoEndpointPrometheus() throws Exception {
+        contaUseCase.criar(new Conta(910L, 1L, 1L, Dinheiro.de("10.00"), "Teste", "910"));
+        contaGatewayCache.buscarPorId(910L);
+        contaGatewayCache.buscarPorId(910L);
+
+        Assertions.assertTrue(registry.get("cache.gets").tag("cache", "contas").tag("result", "hit").functionCounter().count() >= 1);
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(containsString("cache_gets_total{cache=\"contas\"")))
+                .andExpect(MockMvcResultMatchers.content().string(containsString("cache_gets_total{cache=\"extrato-recente\"")));
+    }
+}